@@ -0,0 +1,99 @@
+package de.unibonn.informatik.ivs.set;
+
+
+import jdk.jfr.*;
+
+
+/**
+ * Emits a JDK Flight Recorder event per stage measured by {@link StageProfiler}.<br>
+ * <br>
+ * This class is compiled separately (see <code>build.xml</code>) as it requires a JDK providing <code>jdk.jfr</code>
+ * (JDK 11 or newer, or JDK 8 update 262 or newer). It is loaded by {@link StageProfiler} only.<br>
+ * <br>
+ * Events are only created while a recording has them enabled, so the listener costs next to nothing otherwise.
+ *
+ * @version		2026.1018
+ *
+ */
+public class JfrStageListener implements StageProfiler.Listener
+{
+
+	/**
+	 * Event of a stage of the evaluation of an image.
+	 */
+	@Name("de.unibonn.informatik.ivs.set.Stage")
+	@Label("Evaluation Stage")
+	@Category("Saliency Evaluation")
+	@Description("A stage of the evaluation of an image")
+	@StackTrace(false)
+	static class StageEvent extends Event
+	{
+		@Label("Stage")
+		String stage;
+
+		@Label("Image")
+		String imageName;
+
+		@Label("Width")
+		int width;
+
+		@Label("Height")
+		int height;
+
+		@Label("Format")
+		String format;
+	}
+
+	/**
+	 * Event type, to check whether events are enabled without creating any.
+	 */
+	private static final EventType EVENT_TYPE = EventType.getEventType(StageEvent.class);
+
+
+	/**
+	 * Begins an event if events are enabled.
+	 *
+	 * @param stage stage constant
+	 *
+	 * @return      begun event, null if events are disabled
+	 */
+	public Object begin(int stage)
+	{
+		if (!EVENT_TYPE.isEnabled()) return null;
+
+		StageEvent event = new StageEvent();
+		event.begin();
+
+		return event;
+	}
+
+
+	/**
+	 * Ends and commits an event.
+	 *
+	 * @param token     event returned by {@link #begin(int)}, null if events were disabled
+	 * @param stage     stage constant
+	 * @param imageName name of the image
+	 * @param width     width of the image processed
+	 * @param height    height of the image processed
+	 * @param format    format of the image processed
+	 */
+	public void end(Object token, int stage, String imageName, int width, int height, String format)
+	{
+		if (token == null) return;
+
+		StageEvent event = (StageEvent)token;
+		event.end();
+
+		if (event.shouldCommit())
+		{
+			event.stage     = StageProfiler.STAGE_NAMES[stage];
+			event.imageName = imageName;
+			event.width     = width;
+			event.height    = height;
+			event.format    = format;
+			event.commit();
+		}
+	}
+
+}
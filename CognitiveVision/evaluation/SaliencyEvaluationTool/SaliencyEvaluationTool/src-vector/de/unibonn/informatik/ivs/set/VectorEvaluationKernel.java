@@ -0,0 +1,117 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import jdk.incubator.vector.*;
+
+
+/**
+ * Evaluation kernel using the incubating Vector API.<br>
+ * <br>
+ * This class is compiled separately (see <code>build.xml</code>) as it requires JDK 16 or newer and
+ * the module <code>jdk.incubator.vector</code>. It is loaded by {@link EvaluationKernel#createVectorKernel()} only.<br>
+ * <br>
+ * Histogramming cannot scatter in parallel, so the vectorised part determines a combined bin index
+ * (saliency value plus an offset for background pixels) without branching on the ground truth;
+ * the bins are then counted in interleaved copies of a histogram of twice the size.
+ *
+ * @version		2026.1018
+ *
+ */
+public class VectorEvaluationKernel extends EvaluationKernel
+{
+
+	/**
+	 * Vector shape used for all operations.
+	 */
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+	/**
+	 * Number of combined bin indices determined before they are counted.
+	 */
+	private static final int BLOCK_SIZE = 4096;
+
+	/**
+	 * Number of bins of a combined histogram for object and background.
+	 */
+	private static final int COMBINED_BINS = 2*SaliencyMap.NUM_GREYSCALES;
+
+
+	@Override
+	public String getName()
+	{
+		return "vector ("+SPECIES.vectorBitSize()+" bit)";
+	}
+
+
+	@Override
+	public void addToHistograms(int[] saliencyValues, boolean[] groundTruthValues, int[][] histograms)
+	{
+		int nValues = groundTruthValues.length;
+
+		int[] combinedHistogram = new int[4*COMBINED_BINS];
+		int[] bins = new int[BLOCK_SIZE];
+
+		for (int blockStart=0; blockStart<nValues; blockStart+=BLOCK_SIZE)
+		{
+			int blockLength = Math.min(BLOCK_SIZE, nValues-blockStart);
+			int upperBound  = SPECIES.loopBound(blockLength);
+
+			int i = 0;
+			for (; i<upperBound; i+=SPECIES.length())
+			{
+				IntVector values = IntVector.fromArray(SPECIES, saliencyValues, blockStart+i);
+				VectorMask<Integer> object = VectorMask.fromArray(SPECIES, groundTruthValues, blockStart+i);
+
+				values.add(SaliencyMap.NUM_GREYSCALES, object.not()).intoArray(bins, i);
+			}
+
+			for (; i<blockLength; i++)
+			{
+				bins[i] = saliencyValues[blockStart+i] + (groundTruthValues[blockStart+i] ? 0 : SaliencyMap.NUM_GREYSCALES);
+			}
+
+			// neighbouring pixels mostly share a bin, counting them into separate copies
+			// avoids waiting for the previous increment of the same counter
+			int blockBound = blockLength & ~3;
+			for (i=0; i<blockBound; i+=4)
+			{
+				combinedHistogram[                 bins[i  ]]++;
+				combinedHistogram[  COMBINED_BINS+bins[i+1]]++;
+				combinedHistogram[2*COMBINED_BINS+bins[i+2]]++;
+				combinedHistogram[3*COMBINED_BINS+bins[i+3]]++;
+			}
+			for (; i<blockLength; i++) combinedHistogram[bins[i]]++;
+		}
+
+		for (int value=0; value<SaliencyMap.NUM_GREYSCALES; value++)
+		{
+			for (int copy=0; copy<4; copy++)
+			{
+				histograms[GroundTruth.OBJECT][value]     += combinedHistogram[copy*COMBINED_BINS+value];
+				histograms[GroundTruth.BACKGROUND][value] += combinedHistogram[copy*COMBINED_BINS+SaliencyMap.NUM_GREYSCALES+value];
+			}
+		}
+	}
+
+
+	@Override
+	public void threshold(int[] saliencyValues, int binaryThreshold, int[] result)
+	{
+		int upperBound = SPECIES.loopBound(saliencyValues.length);
+		IntVector zero = IntVector.zero(SPECIES);
+
+		int i = 0;
+		for (; i<upperBound; i+=SPECIES.length())
+		{
+			IntVector values = IntVector.fromArray(SPECIES, saliencyValues, i);
+			zero.blend(1, values.compare(VectorOperators.GE, binaryThreshold)).intoArray(result, i);
+		}
+
+		for (; i<saliencyValues.length; i++)
+		{
+			result[i] = saliencyValues[i] >= binaryThreshold ? 1 : 0;
+		}
+	}
+
+}
@@ -0,0 +1,458 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * Determines how reliable mean precision/recall curves are by resampling the evaluated images.<br>
+ * <br>
+ * {@link #getConfidenceBands(double[][], double)} draws images with replacement (bootstrap) and determines percentile
+ * confidence bands of the mean curve and of its maximum F-measure.
+ * {@link #compare(double[][], double[][], double)} compares two methods evaluated on the same images: a paired bootstrap
+ * gives a confidence interval of the difference of maximum F-measures, a paired permutation test (randomly swapping the
+ * two methods' curves of each image) gives a p-value.<br>
+ * <br>
+ * Resamples are distributed over a fork-join pool. Each resample draws from a random generator seeded by the seed and
+ * the resample's number only, so results do not depend on the number of threads or on scheduling.
+ *
+ * @version		2026.1018
+ *
+ */
+public class Bootstrap
+{
+
+	/**
+	 * Beta of the F-measure maximised over thresholds, beta<sup>2</sup> = 0.3 as in<br>
+	 * R. Achanta, S. Hemami, F. Estrada and S. Ssstrunk, Frequency-tuned Salient Region Detection, IEEE International Conference on Computer Vision and Pattern Recognition (CVPR), 2009.
+	 */
+	public static final double F_MEASURE_BETA = Math.sqrt(0.3);
+
+	/**
+	 * Number of values of a curve: precision and recall per threshold.
+	 */
+	private static final int CURVE_LENGTH = 2*SaliencyMap.NUM_GREYSCALES;
+
+	/**
+	 * Number of resamples run by a fork-join task without splitting further.
+	 */
+	private static final int RESAMPLES_PER_TASK = 16;
+
+	/**
+	 * Constants mixed into seeds, so that bootstrap and permutation draw different streams.
+	 */
+	private static final long STREAM_BOOTSTRAP = 0x5DEECE66DL, STREAM_PERMUTATION = 0x2545F4914F6CDD1DL;
+
+
+	/**
+	 * Confidence bands of a mean precision/recall curve.
+	 */
+	public static class ConfidenceBands
+	{
+		/**
+		 * Mean, lower and upper bound per threshold<br>
+		 * index 1: threshold, in [0; 255]<br>
+		 * index 2: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+		 */
+		public double[][] mean, lower, upper;
+
+		/**
+		 * Maximum F-measure of the mean curve and its bounds.
+		 */
+		public double maxFMeasure, maxFMeasureLower, maxFMeasureUpper;
+	}
+
+
+	/**
+	 * Comparison of two methods evaluated on the same images.
+	 */
+	public static class Comparison
+	{
+		/**
+		 * Maximum F-measures of both methods' mean curves.
+		 */
+		public double maxFMeasureA, maxFMeasureB;
+
+		/**
+		 * Difference of maximum F-measures (A - B) and its bounds.
+		 */
+		public double difference, differenceLower, differenceUpper;
+
+		/**
+		 * Two-sided p-value of the permutation test for a difference of zero.
+		 */
+		public double pValue;
+	}
+
+
+	/**
+	 * Computes statistics of a single resample.
+	 */
+	private interface Resample
+	{
+
+		/**
+		 * Runs a resample.
+		 *
+		 * @param iResample number of the resample
+		 * @param sum       scratch array of length {@link #CURVE_LENGTH}
+		 * @param sum2      second scratch array of length {@link #CURVE_LENGTH}
+		 */
+		void run(int iResample, double[] sum, double[] sum2);
+	}
+
+
+	/**
+	 * Runs a range of resamples, splitting it as long as it is large.
+	 */
+	private static class ResampleTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private Resample resample;
+		private int from, to;
+
+		ResampleTask(Resample resample, int from, int to)
+		{
+			this.resample = resample;
+			this.from     = from;
+			this.to       = to;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (to-from > RESAMPLES_PER_TASK)
+			{
+				int middle = (from+to) >>> 1;
+				invokeAll(new ResampleTask(resample, from, middle), new ResampleTask(resample, middle, to));
+				return;
+			}
+
+			// scratch arrays are shared by the resamples of a task
+			double[] sum  = new double[CURVE_LENGTH];
+			double[] sum2 = new double[CURVE_LENGTH];
+
+			for (int iResample=from; iResample<to; iResample++) resample.run(iResample, sum, sum2);
+		}
+	}
+
+
+	/**
+	 * Number of resamples.
+	 */
+	private int nResamples;
+
+	/**
+	 * Seed all random generators are derived from.
+	 */
+	private long seed;
+
+	/**
+	 * Number of threads running resamples.
+	 */
+	private int nThreads;
+
+
+	/**
+	 * Constructs a bootstrap.
+	 *
+	 * @param nResamples number of resamples (and of permutations when comparing)
+	 * @param seed       seed of random generators, equal seeds give equal results
+	 * @param nThreads   number of threads running resamples
+	 */
+	public Bootstrap(int nResamples, long seed, int nThreads)
+	{
+		this.nResamples = nResamples;
+		this.seed       = seed;
+		this.nThreads   = nThreads;
+	}
+
+
+	/**
+	 * Collects the precision/recall curves of all evaluated images in arrays of consecutive values,
+	 * which are summed up faster than the nested arrays of an evaluation result.
+	 *
+	 * @param resultAll evaluation result<br>
+	 *                     index 1: number of file/image<br>
+	 *                     index 2: binary threshold used in saliency maps, in [0; 255]<br>
+	 *                     index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 *
+	 * @return          curve per evaluated image, precision and recall alternating by threshold
+	 */
+	public static double[][] getCurves(double[][][] resultAll)
+	{
+		List<double[]> result = new ArrayList<double[]>();
+
+		for (double[][] imageResult: resultAll)
+		{
+			if (imageResult == null) continue;
+
+			double[] curve = new double[CURVE_LENGTH];
+			for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+			{
+				curve[2*iThreshold+GroundTruth.PRECISION] = imageResult[iThreshold][GroundTruth.PRECISION];
+				curve[2*iThreshold+GroundTruth.RECALL]    = imageResult[iThreshold][GroundTruth.RECALL];
+			}
+			result.add(curve);
+		}
+
+		return result.toArray(new double[result.size()][]);
+	}
+
+
+	/**
+	 * Determines bootstrap confidence bands of the mean curve and of its maximum F-measure.
+	 *
+	 * @param curves     curves of images (see {@link #getCurves(double[][][])})
+	 * @param confidence confidence level, e.g. 0.95
+	 *
+	 * @return           confidence bands
+	 */
+	public ConfidenceBands getConfidenceBands(final double[][] curves, double confidence)
+	{
+		final int nImages = curves.length;
+		final float[][] resampledCurves = new float[nResamples][];
+		final double[] resampledMaxF = new double[nResamples];
+
+		runResamples(new Resample()
+		{
+			public void run(int iResample, double[] sum, double[] unused)
+			{
+				SplittableRandom random = createRandom(STREAM_BOOTSTRAP, iResample);
+
+				Arrays.fill(sum, 0.0);
+				for (int iDraw=0; iDraw<nImages; iDraw++) add(sum, curves[random.nextInt(nImages)]);
+				divide(sum, nImages);
+
+				float[] curve = new float[CURVE_LENGTH];
+				for (int i=0; i<CURVE_LENGTH; i++) curve[i] = (float)sum[i];
+
+				resampledCurves[iResample] = curve;
+				resampledMaxF[iResample]   = getMaxFMeasure(sum);
+			}
+		});
+
+		ConfidenceBands result = new ConfidenceBands();
+		result.mean  = new double[SaliencyMap.NUM_GREYSCALES][2];
+		result.lower = new double[SaliencyMap.NUM_GREYSCALES][2];
+		result.upper = new double[SaliencyMap.NUM_GREYSCALES][2];
+
+		double[] mean = new double[CURVE_LENGTH];
+		for (double[] curve: curves) add(mean, curve);
+		divide(mean, nImages);
+
+		double[] values = new double[nResamples];
+		for (int i=0; i<CURVE_LENGTH; i++)
+		{
+			for (int iResample=0; iResample<nResamples; iResample++) values[iResample] = resampledCurves[iResample][i];
+			Arrays.sort(values);
+
+			result.mean [i/2][i%2] = mean[i];
+			result.lower[i/2][i%2] = getPercentile(values, (1.0-confidence)/2.0);
+			result.upper[i/2][i%2] = getPercentile(values, (1.0+confidence)/2.0);
+		}
+
+		Arrays.sort(resampledMaxF);
+		result.maxFMeasure      = getMaxFMeasure(mean);
+		result.maxFMeasureLower = getPercentile(resampledMaxF, (1.0-confidence)/2.0);
+		result.maxFMeasureUpper = getPercentile(resampledMaxF, (1.0+confidence)/2.0);
+
+		return result;
+	}
+
+
+	/**
+	 * Compares the maximum F-measures of two methods' mean curves.
+	 * Both arrays must contain the curves of the same images in the same order.
+	 *
+	 * @param curvesA    curves of method A (see {@link #getCurves(double[][][])})
+	 * @param curvesB    curves of method B
+	 * @param confidence confidence level of the interval of the difference, e.g. 0.95
+	 *
+	 * @return           comparison
+	 */
+	public Comparison compare(final double[][] curvesA, final double[][] curvesB, double confidence)
+	{
+		final int nImages = curvesA.length;
+
+		double[] meanA = new double[CURVE_LENGTH];
+		double[] meanB = new double[CURVE_LENGTH];
+		for (int iImage=0; iImage<nImages; iImage++)
+		{
+			add(meanA, curvesA[iImage]);
+			add(meanB, curvesB[iImage]);
+		}
+		divide(meanA, nImages);
+		divide(meanB, nImages);
+
+		Comparison result = new Comparison();
+		result.maxFMeasureA = getMaxFMeasure(meanA);
+		result.maxFMeasureB = getMaxFMeasure(meanB);
+		result.difference   = result.maxFMeasureA - result.maxFMeasureB;
+
+		// paired bootstrap: both methods are resampled with the same images
+		final double[] differences = new double[nResamples];
+		runResamples(new Resample()
+		{
+			public void run(int iResample, double[] sumA, double[] sumB)
+			{
+				SplittableRandom random = createRandom(STREAM_BOOTSTRAP, iResample);
+
+				Arrays.fill(sumA, 0.0);
+				Arrays.fill(sumB, 0.0);
+				for (int iDraw=0; iDraw<nImages; iDraw++)
+				{
+					int iImage = random.nextInt(nImages);
+					add(sumA, curvesA[iImage]);
+					add(sumB, curvesB[iImage]);
+				}
+				divide(sumA, nImages);
+				divide(sumB, nImages);
+
+				differences[iResample] = getMaxFMeasure(sumA) - getMaxFMeasure(sumB);
+			}
+		});
+
+		Arrays.sort(differences);
+		result.differenceLower = getPercentile(differences, (1.0-confidence)/2.0);
+		result.differenceUpper = getPercentile(differences, (1.0+confidence)/2.0);
+
+		// paired permutation test: without a difference between methods, swapping their curves of an image changes nothing
+		final double[] permutedDifferences = new double[nResamples];
+		runResamples(new Resample()
+		{
+			public void run(int iResample, double[] sumA, double[] sumB)
+			{
+				SplittableRandom random = createRandom(STREAM_PERMUTATION, iResample);
+
+				Arrays.fill(sumA, 0.0);
+				Arrays.fill(sumB, 0.0);
+				for (int iImage=0; iImage<nImages; iImage++)
+				{
+					boolean swap = random.nextBoolean();
+					add(sumA, swap ? curvesB[iImage] : curvesA[iImage]);
+					add(sumB, swap ? curvesA[iImage] : curvesB[iImage]);
+				}
+				divide(sumA, nImages);
+				divide(sumB, nImages);
+
+				permutedDifferences[iResample] = getMaxFMeasure(sumA) - getMaxFMeasure(sumB);
+			}
+		});
+
+		int nExtreme = 0;
+		for (double permutedDifference: permutedDifferences) if (Math.abs(permutedDifference) >= Math.abs(result.difference)) nExtreme++;
+		result.pValue = (nExtreme+1.0) / (nResamples+1.0);
+
+		return result;
+	}
+
+
+	/**
+	 * Determines the maximum F-measure (with beta {@link #F_MEASURE_BETA}) over all thresholds of a curve,
+	 * as {@link GroundTruth#getFMeasure(double[], double)} per threshold.
+	 *
+	 * @param curve precision and recall alternating by threshold
+	 *
+	 * @return      maximum F-measure, 0 if precision and recall are 0 for all thresholds
+	 */
+	public static double getMaxFMeasure(double[] curve)
+	{
+		double beta2 = F_MEASURE_BETA*F_MEASURE_BETA;
+		double result = 0.0;
+
+		for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+		{
+			double precision = curve[2*iThreshold+GroundTruth.PRECISION];
+			double recall    = curve[2*iThreshold+GroundTruth.RECALL];
+
+			double denominator = beta2*precision + recall;
+			if (denominator > 0.0) result = Math.max(result, (1.0+beta2)*precision*recall / denominator);
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Runs all resamples on a fork-join pool and waits for them.
+	 *
+	 * @param resample computation of a resample
+	 */
+	private void runResamples(Resample resample)
+	{
+		ForkJoinPool pool = new ForkJoinPool(nThreads);
+
+		try
+		{
+			pool.invoke(new ResampleTask(resample, 0, nResamples));
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+
+	/**
+	 * Creates the random generator of a resample.
+	 *
+	 * @param stream    constant distinguishing kinds of resamples
+	 * @param iResample number of the resample
+	 *
+	 * @return          random generator depending on seed, stream and resample only
+	 */
+	private SplittableRandom createRandom(long stream, int iResample)
+	{
+		// SplittableRandom mixes its seed, so neighbouring seeds give unrelated streams
+		return new SplittableRandom(seed ^ stream ^ (iResample * 0x9E3779B97F4A7C15L));
+	}
+
+
+	/**
+	 * Adds a curve to a sum of curves.
+	 *
+	 * @param sum   sum to add to
+	 * @param curve curve to add
+	 */
+	private static void add(double[] sum, double[] curve)
+	{
+		for (int i=0; i<CURVE_LENGTH; i++) sum[i] += curve[i];
+	}
+
+
+	/**
+	 * Divides a sum of curves by the number of curves.
+	 *
+	 * @param sum     sum of curves
+	 * @param nCurves number of curves
+	 */
+	private static void divide(double[] sum, int nCurves)
+	{
+		for (int i=0; i<CURVE_LENGTH; i++) sum[i] /= nCurves;
+	}
+
+
+	/**
+	 * Determines a percentile of sorted values, interpolating linearly between neighbouring values.
+	 *
+	 * @param sortedValues values in ascending order
+	 * @param p            percentile in [0.0; 1.0]
+	 *
+	 * @return             percentile, NaN if there are no values
+	 */
+	static double getPercentile(double[] sortedValues, double p)
+	{
+		if (sortedValues.length == 0) return Double.NaN;
+
+		double position = p * (sortedValues.length-1);
+		int below = (int)Math.floor(position);
+		int above = Math.min(sortedValues.length-1, below+1);
+
+		return sortedValues[below] + (position-below) * (sortedValues[above]-sortedValues[below]);
+	}
+
+}
@@ -0,0 +1,333 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.util.*;
+
+
+/**
+ * Labels 8-connected components of a binary mask in a single pass and determines their areas and bounding boxes.<br>
+ * <br>
+ * Pixels are scanned row by row; a pixel gets the label of an already labelled neighbour (left, upper left, upper,
+ * upper right), labels of neighbouring components meeting at the pixel are merged with union-find. Statistics are
+ * accumulated per provisional label during the scan and merged into the final components afterwards, so pixels are
+ * visited only once and only two rows of labels are kept.<br>
+ * <br>
+ * A labeller keeps its scratch arrays (and the results of the last labelling) across calls, so repeated labelling
+ * does not allocate memory once the arrays are large enough. Labellers are not thread safe, use one per thread.
+ *
+ * @version		2026.1018
+ *
+ */
+public class ConnectedComponents
+{
+
+	/**
+	 * Initial number of provisional labels scratch arrays can hold.
+	 */
+	private static final int INITIAL_CAPACITY = 256;
+
+	/**
+	 * Labels of the previous and the current row, 0 for background.
+	 */
+	private int[] previousRow = new int[0], currentRow = new int[0];
+
+	/**
+	 * Union-find parent of each provisional label.
+	 */
+	private int[] parent = new int[INITIAL_CAPACITY];
+
+	/**
+	 * Area and bounding box per provisional label, after labelling per component.
+	 */
+	private int[] area = new int[INITIAL_CAPACITY], minX = new int[INITIAL_CAPACITY], minY = new int[INITIAL_CAPACITY],
+	              maxX = new int[INITIAL_CAPACITY], maxY = new int[INITIAL_CAPACITY];
+
+	/**
+	 * Number of pixels whose saliency value reaches a threshold, per provisional label and threshold,
+	 * after labelling per component and threshold.
+	 */
+	private int[] hits = new int[0];
+
+	/**
+	 * Number of thresholds hits are counted for.
+	 */
+	private int nThresholds = 0;
+
+	/**
+	 * Number of components found by the last labelling.
+	 */
+	private int nComponents = 0;
+
+
+	/**
+	 * Labels the components of a binary mask (e.g. a ground truth) and counts per component the pixels whose
+	 * saliency value reaches each threshold.
+	 *
+	 * @param mask           binary values row by row
+	 * @param width          width of the mask
+	 * @param height         height of the mask
+	 * @param saliencyValues saliency values row by row, null to count no hits
+	 * @param thresholds     thresholds to count hits for, null to count no hits
+	 *
+	 * @return               number of components
+	 */
+	public int label(boolean[] mask, int width, int height, int[] saliencyValues, int[] thresholds)
+	{
+		nThresholds = saliencyValues != null && thresholds != null ? thresholds.length : 0;
+
+		return label(mask, null, 0, width, height, saliencyValues, thresholds);
+	}
+
+
+	/**
+	 * Labels the components of a thresholded saliency map, i.e. of all pixels whose saliency value reaches the threshold.
+	 *
+	 * @param saliencyValues saliency values row by row
+	 * @param threshold      binary threshold
+	 * @param width          width of the map
+	 * @param height         height of the map
+	 *
+	 * @return               number of components
+	 */
+	public int label(int[] saliencyValues, int threshold, int width, int height)
+	{
+		nThresholds = 0;
+
+		return label(null, saliencyValues, threshold, width, height, null, null);
+	}
+
+
+	/**
+	 * Labels components of either a binary mask or a thresholded map.
+	 *
+	 * @param mask           binary values, null to label the thresholded map
+	 * @param values         values to threshold if no mask is given
+	 * @param threshold      threshold of values
+	 * @param width          width
+	 * @param height         height
+	 * @param saliencyValues saliency values to count hits of
+	 * @param thresholds     thresholds to count hits for
+	 *
+	 * @return               number of components
+	 */
+	private int label(boolean[] mask, int[] values, int threshold, int width, int height, int[] saliencyValues, int[] thresholds)
+	{
+		if (previousRow.length < width)
+		{
+			previousRow = new int[width];
+			currentRow  = new int[width];
+		}
+		Arrays.fill(previousRow, 0, width, 0);
+
+		if (hits.length < parent.length*nThresholds) hits = new int[parent.length*nThresholds];
+
+		int nLabels = 0;
+
+		for (int y=0; y<height; y++)
+		{
+			int offset = y*width;
+
+			for (int x=0; x<width; x++)
+			{
+				int i = offset+x;
+
+				if (mask != null ? !mask[i] : values[i] < threshold)
+				{
+					currentRow[x] = 0;
+					continue;
+				}
+
+				// merge labels of the neighbours scanned before
+				int label = x > 0 ? currentRow[x-1] : 0;
+				if (x > 0)       label = merge(label, previousRow[x-1]);
+				                 label = merge(label, previousRow[x]);
+				if (x < width-1) label = merge(label, previousRow[x+1]);
+
+				if (label == 0)
+				{
+					label = ++nLabels;
+					ensureCapacity(nLabels+1);
+
+					parent[label] = label;
+					area[label]   = 0;
+					minX[label]   = x;
+					minY[label]   = y;
+					maxX[label]   = x;
+					maxY[label]   = y;
+					for (int iThreshold=0; iThreshold<nThresholds; iThreshold++) hits[label*nThresholds+iThreshold] = 0;
+				}
+
+				currentRow[x] = label;
+
+				area[label]++;
+				if (x < minX[label]) minX[label] = x;
+				if (x > maxX[label]) maxX[label] = x;
+				maxY[label] = y;
+
+				for (int iThreshold=0; iThreshold<nThresholds; iThreshold++)
+				{
+					if (saliencyValues[i] >= thresholds[iThreshold]) hits[label*nThresholds+iThreshold]++;
+				}
+			}
+
+			int[] swap = previousRow;
+			previousRow = currentRow;
+			currentRow  = swap;
+		}
+
+		// merge statistics of provisional labels into their roots; parents always have smaller labels than their children
+		for (int label=nLabels; label>=1; label--)
+		{
+			int root = find(label);
+			if (root == label) continue;
+
+			area[root] += area[label];
+			if (minX[label] < minX[root]) minX[root] = minX[label];
+			if (minY[label] < minY[root]) minY[root] = minY[label];
+			if (maxX[label] > maxX[root]) maxX[root] = maxX[label];
+			if (maxY[label] > maxY[root]) maxY[root] = maxY[label];
+			for (int iThreshold=0; iThreshold<nThresholds; iThreshold++) hits[root*nThresholds+iThreshold] += hits[label*nThresholds+iThreshold];
+		}
+
+		// compact roots to components 0..n-1; a root's index is never larger than its label, so nothing is overwritten before it is read
+		nComponents = 0;
+		for (int label=1; label<=nLabels; label++)
+		{
+			if (parent[label] != label) continue;
+
+			area[nComponents] = area[label];
+			minX[nComponents] = minX[label];
+			minY[nComponents] = minY[label];
+			maxX[nComponents] = maxX[label];
+			maxY[nComponents] = maxY[label];
+			for (int iThreshold=0; iThreshold<nThresholds; iThreshold++) hits[nComponents*nThresholds+iThreshold] = hits[label*nThresholds+iThreshold];
+
+			nComponents++;
+		}
+
+		return nComponents;
+	}
+
+
+	/**
+	 * Merges the component of a neighbour into the component of the current pixel.
+	 *
+	 * @param label          label of the current pixel so far, 0 if none
+	 * @param neighbourLabel label of the neighbour, 0 for background
+	 *
+	 * @return               root label of the merged component
+	 */
+	private int merge(int label, int neighbourLabel)
+	{
+		if (neighbourLabel == 0) return label;
+
+		int neighbourRoot = find(neighbourLabel);
+		if (label == 0) return neighbourRoot;
+
+		int root = find(label);
+		if (root == neighbourRoot) return root;
+
+		// the smaller label becomes the root, which keeps parents smaller than their children
+		if (root < neighbourRoot)
+		{
+			parent[neighbourRoot] = root;
+			return root;
+		}
+
+		parent[root] = neighbourRoot;
+		return neighbourRoot;
+	}
+
+
+	/**
+	 * Finds the root of a provisional label, halving the path on the way.
+	 *
+	 * @param label provisional label
+	 *
+	 * @return      root label
+	 */
+	private int find(int label)
+	{
+		while (parent[label] != label)
+		{
+			parent[label] = parent[parent[label]];
+			label = parent[label];
+		}
+
+		return label;
+	}
+
+
+	/**
+	 * Grows the scratch arrays so that they hold at least a number of provisional labels.
+	 *
+	 * @param capacity number of labels
+	 */
+	private void ensureCapacity(int capacity)
+	{
+		if (capacity <= parent.length) return;
+
+		int newCapacity = Math.max(capacity, 2*parent.length);
+
+		parent = Arrays.copyOf(parent, newCapacity);
+		area   = Arrays.copyOf(area,   newCapacity);
+		minX   = Arrays.copyOf(minX,   newCapacity);
+		minY   = Arrays.copyOf(minY,   newCapacity);
+		maxX   = Arrays.copyOf(maxX,   newCapacity);
+		maxY   = Arrays.copyOf(maxY,   newCapacity);
+		hits   = Arrays.copyOf(hits,   newCapacity*nThresholds);
+	}
+
+
+	/**
+	 * Returns the number of components found by the last labelling.
+	 *
+	 * @return number of components
+	 */
+	public int getNumberOfComponents()
+	{
+		return nComponents;
+	}
+
+
+	/**
+	 * Returns the area of a component.
+	 *
+	 * @param iComponent index of the component, in [0; number of components-1]
+	 *
+	 * @return           number of pixels
+	 */
+	public int getArea(int iComponent)
+	{
+		return area[iComponent];
+	}
+
+
+	/**
+	 * Returns the number of pixels of a component whose saliency value reaches a threshold.
+	 *
+	 * @param iComponent index of the component
+	 * @param iThreshold index of the threshold given to {@link #label(boolean[], int, int, int[], int[])}
+	 *
+	 * @return           number of pixels
+	 */
+	public int getHits(int iComponent, int iThreshold)
+	{
+		return hits[iComponent*nThresholds+iThreshold];
+	}
+
+
+	/**
+	 * Returns the bounding box of a component.
+	 *
+	 * @param iComponent index of the component
+	 *
+	 * @return           bounding box
+	 */
+	public java.awt.Rectangle getBoundingBox(int iComponent)
+	{
+		return new java.awt.Rectangle(minX[iComponent], minY[iComponent], maxX[iComponent]-minX[iComponent]+1, maxY[iComponent]-minY[iComponent]+1);
+	}
+
+}
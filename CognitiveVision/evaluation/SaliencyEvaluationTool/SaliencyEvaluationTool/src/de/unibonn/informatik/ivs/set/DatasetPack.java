@@ -0,0 +1,552 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+
+/**
+ * Represents a set of binary ground truths and (optionally) saliency maps packed into a single file.<br>
+ * <br>
+ * A pack is created once from a folder of ground truth images (see {@link #write(java.io.File, java.io.File, java.io.File)})
+ * and can then be evaluated repeatedly without decoding any image. Entries are read from memory mapped
+ * regions of the file, so hardly any heap is used.<br>
+ * <br>
+ * File format (big endian):<br>
+ * <code>
+ * header: magic "SETPACK1", int version, int number_of_entries, long offset_of_index<br>
+ * data:   per entry: ground truth mask, one bit per pixel row by row (most significant bit first, rows not padded),
+ *         followed by width*height saliency bytes if the entry has a saliency map<br>
+ * index:  per entry: image name (modified UTF-8 as written by {@link DataOutputStream#writeUTF(java.lang.String)}),
+ *         int width, int height, long offset_of_data, byte has_saliency_map
+ * </code><br>
+ * <br>
+ * Saliency maps are stored greyed and scaled to the size of their ground truth, i.e. exactly as they are evaluated
+ * (see {@link SaliencyMap#getMapValues()}).
+ *
+ * @version		2026.1018
+ *
+ */
+public class DatasetPack
+{
+
+	/**
+	 * Magic bytes at the start of every pack file.
+	 */
+	private static final byte[] MAGIC = {'S', 'E', 'T', 'P', 'A', 'C', 'K', '1'};
+
+	/**
+	 * Version of the file format.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Size of the header in bytes.
+	 */
+	private static final int HEADER_SIZE = MAGIC.length + 4 + 4 + 8;
+
+
+	/**
+	 * Channel of the opened pack file.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Entries of the pack in file order.
+	 */
+	private Entry[] entries;
+
+	/**
+	 * Positions of entries by image name.
+	 */
+	private Map<String, Integer> entryIndex;
+
+
+	/**
+	 * Represents a ground truth (and optionally a saliency map) stored in a pack.
+	 */
+	public class Entry
+	{
+
+		/**
+		 * Name of the image the entry refers to.
+		 */
+		String imageName;
+
+		/**
+		 * Width of the image.
+		 */
+		int width;
+
+		/**
+		 * Height of the image.
+		 */
+		int height;
+
+		/**
+		 * Offset of the entry's data in the pack file.
+		 */
+		long dataOffset;
+
+		/**
+		 * Determines if a saliency map is stored behind the ground truth mask.
+		 */
+		boolean hasSaliencyMap;
+
+
+		/**
+		 * Returns the name of the image the entry refers to.
+		 *
+		 * @return image name
+		 */
+		public String getImageName()
+		{
+			return imageName;
+		}
+
+
+		/**
+		 * Returns true if the entry contains a saliency map.
+		 *
+		 * @return true if a saliency map is stored
+		 */
+		public boolean hasSaliencyMap()
+		{
+			return hasSaliencyMap;
+		}
+
+
+		/**
+		 * Maps the entry's data into memory.
+		 *
+		 * @return buffer holding the mask and, if present, the saliency values
+		 *
+		 * @throws IOException if mapping fails
+		 */
+		private ByteBuffer map() throws IOException
+		{
+			long length = getMaskLength(width, height);
+			if (hasSaliencyMap) length += (long)width*height;
+
+			return channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, length);
+		}
+
+
+		/**
+		 * Calculates relative size of ground truth object to image size by counting mask bits.
+		 *
+		 * @return relative ground truth size in [0.0; 1.0]
+		 *
+		 * @throws IOException if reading fails
+		 */
+		public double getRelativeObjectSize() throws IOException
+		{
+			ByteBuffer data = map();
+			int maskLength = getMaskLength(width, height);
+
+			long nObject = 0;
+			for (int i=0; i<maskLength; i++) nObject += Integer.bitCount(data.get(i) & 0xFF);
+
+			return (double)nObject / ((long)width*height);
+		}
+
+
+		/**
+		 * Unpacks the ground truth mask.
+		 *
+		 * @return ground truth of the entry
+		 *
+		 * @throws IOException if reading fails
+		 */
+		public GroundTruth getGroundTruth() throws IOException
+		{
+			ByteBuffer data = map();
+			boolean[] values = new boolean[width*height];
+
+			for (int i=0; i<values.length; i++)
+			{
+				values[i] = ((data.get(i >>> 3) >>> (7 - (i & 7))) & 1) != 0;
+			}
+
+			return new GroundTruth(imageName, width, height, values);
+		}
+
+
+		/**
+		 * Copies the stored saliency map.
+		 *
+		 * @return saliency map of the entry, null if the entry has none
+		 *
+		 * @throws IOException if reading fails
+		 */
+		public SaliencyMap getSaliencyMap() throws IOException
+		{
+			if (!hasSaliencyMap) return null;
+
+			ByteBuffer data = map();
+			int maskLength = getMaskLength(width, height);
+			int[] values = new int[width*height];
+
+			for (int i=0; i<values.length; i++) values[i] = data.get(maskLength+i) & 0xFF;
+
+			return new SaliencyMap(imageName, width, height, values);
+		}
+
+
+		/**
+		 * Counts the stored saliency values inside and outside of the ground truth straight from the mapped file,
+		 * without unpacking mask or saliency map (see {@link GroundTruth#getHistograms(de.unibonn.informatik.ivs.set.SaliencyMap)}).
+		 *
+		 * @return histograms of saliency values<br>
+		 *         index1: {@link GroundTruth#OBJECT} or {@link GroundTruth#BACKGROUND}<br>
+		 *         index2: saliency value in [0; 255],<br>
+		 *         null if the entry has no saliency map
+		 *
+		 * @throws IOException if reading fails
+		 */
+		public int[][] getHistograms() throws IOException
+		{
+			if (!hasSaliencyMap) return null;
+
+			ByteBuffer data = map();
+			int maskLength = getMaskLength(width, height);
+			int nValues = width*height;
+
+			int[][] result = new int[2][SaliencyMap.NUM_GREYSCALES];
+			int[] histogramObject     = result[GroundTruth.OBJECT];
+			int[] histogramBackground = result[GroundTruth.BACKGROUND];
+
+			for (int iByte=0; iByte<maskLength; iByte++)
+			{
+				int bits = data.get(iByte) & 0xFF;
+				int i    = iByte << 3;
+				int end  = Math.min(i+8, nValues);
+
+				for (int bit=7; i<end; i++, bit--)
+				{
+					int value = data.get(maskLength+i) & 0xFF;
+
+					if (((bits >>> bit) & 1) != 0) histogramObject[value]++;
+					else histogramBackground[value]++;
+				}
+			}
+
+			return result;
+		}
+	}
+
+
+	/**
+	 * Opens a pack file and reads its name index.
+	 *
+	 * @param file pack file
+	 *
+	 * @return     opened pack
+	 *
+	 * @throws IOException if file cannot be read or is not a pack
+	 */
+	public static DatasetPack open(File file) throws IOException
+	{
+		DatasetPack result = new DatasetPack();
+		result.channel = new RandomAccessFile(file, "r").getChannel();
+
+		try
+		{
+			ByteBuffer header = result.channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			byte[] magic = new byte[MAGIC.length];
+			header.get(magic);
+			if (!Arrays.equals(magic, MAGIC)) throw new IOException("'"+file.getAbsolutePath()+"' is not a pack file");
+
+			int version = header.getInt();
+			if (version != VERSION) throw new IOException("'"+file.getAbsolutePath()+"' has unsupported pack version "+version);
+
+			int nEntries     = header.getInt();
+			long indexOffset = header.getLong();
+
+			DataInputStream index = new DataInputStream(new ByteBufferInputStream(result.channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, result.channel.size()-indexOffset)));
+
+			result.entries    = new Entry[nEntries];
+			result.entryIndex = new HashMap<String, Integer>();
+
+			for (int iEntry=0; iEntry<nEntries; iEntry++)
+			{
+				Entry entry = result.new Entry();
+				entry.imageName      = index.readUTF();
+				entry.width          = index.readInt();
+				entry.height         = index.readInt();
+				entry.dataOffset     = index.readLong();
+				entry.hasSaliencyMap = index.readByte() != 0;
+
+				result.entries[iEntry] = entry;
+				result.entryIndex.put(entry.imageName, Integer.valueOf(iEntry));
+			}
+		}
+		catch (IOException e)
+		{
+			result.close();
+			throw e;
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Determines if a file is a pack file by checking its magic bytes.
+	 *
+	 * @param file file to check
+	 *
+	 * @return     true if file is a pack file
+	 */
+	public static boolean isPack(File file)
+	{
+		if (!file.isFile()) return false;
+
+		try
+		{
+			DataInputStream in = new DataInputStream(new FileInputStream(file));
+			byte[] magic = new byte[MAGIC.length];
+
+			try
+			{
+				in.readFully(magic);
+			}
+			finally
+			{
+				in.close();
+			}
+
+			return Arrays.equals(magic, MAGIC);
+		}
+		catch (IOException e)
+		{
+			return false;
+		}
+	}
+
+
+	/**
+	 * Packs binary ground truth images and optionally their saliency maps into a single file.<br>
+	 * Ground truths are packed in order of their file names. Saliency maps are matched by name as in evaluation.
+	 *
+	 * @param directoryGroundTruth folder containing binary ground truth images
+	 * @param directorySaliencyMaps folder containing saliency map images, null if only ground truths shall be packed
+	 * @param file                 pack file to write
+	 *
+	 * @return                     number of packed entries
+	 *
+	 * @throws IOException if reading images or writing the pack fails
+	 */
+	public static int write(File directoryGroundTruth, File directorySaliencyMaps, File file) throws IOException
+	{
+		File[] groundTruthFiles = directoryGroundTruth.listFiles();
+		if (groundTruthFiles == null) throw new IOException("'"+directoryGroundTruth.getAbsolutePath()+"' is not a directory");
+		Arrays.sort(groundTruthFiles);
+
+		File[] saliencyMapFiles = null;
+		if (directorySaliencyMaps != null)
+		{
+			saliencyMapFiles = directorySaliencyMaps.listFiles();
+			if (saliencyMapFiles == null) throw new IOException("'"+directorySaliencyMaps.getAbsolutePath()+"' is not a directory");
+		}
+
+		ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+		DataOutputStream index = new DataOutputStream(indexBytes);
+
+		int nEntries = 0;
+		long offset  = HEADER_SIZE;
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+
+		try
+		{
+			// header is rewritten with the actual values when all entries are known
+			out.write(new byte[HEADER_SIZE]);
+
+			for (File groundTruthFile: groundTruthFiles)
+			{
+				GroundTruth gt = new GroundTruth(groundTruthFile);
+				boolean[] groundTruthValues = gt.getValues();
+				if (groundTruthValues == null)
+				{
+					System.out.println("'"+groundTruthFile.getName()+"' is not a ground truth image -> skipping");
+					continue;
+				}
+
+				int[] saliencyValues = null;
+				if (saliencyMapFiles != null)
+				{
+					File sMapFile = FileUtil.findFile(gt.imageName, saliencyMapFiles);
+					if (sMapFile != null) saliencyValues = new SaliencyMap(sMapFile, gt.getWidth(), gt.getHeight()).getMapValues();
+					else System.out.println("'"+groundTruthFile.getName()+"': no matching saliency map image found.");
+				}
+
+				byte[] mask = new byte[getMaskLength(gt.getWidth(), gt.getHeight())];
+				for (int i=0; i<groundTruthValues.length; i++)
+				{
+					if (groundTruthValues[i]) mask[i >>> 3] |= 0x80 >>> (i & 7);
+				}
+				out.write(mask);
+
+				if (saliencyValues != null)
+				{
+					byte[] values = new byte[saliencyValues.length];
+					for (int i=0; i<values.length; i++) values[i] = (byte)saliencyValues[i];
+					out.write(values);
+				}
+
+				index.writeUTF(gt.imageName);
+				index.writeInt(gt.getWidth());
+				index.writeInt(gt.getHeight());
+				index.writeLong(offset);
+				index.writeByte(saliencyValues != null ? 1 : 0);
+
+				offset += mask.length;
+				if (saliencyValues != null) offset += saliencyValues.length;
+				nEntries++;
+
+				if (nEntries%100 == 0) System.out.println("packed "+nEntries+" of "+groundTruthFiles.length);
+			}
+
+			index.close();
+			out.write(indexBytes.toByteArray());
+		}
+		finally
+		{
+			out.close();
+		}
+
+		RandomAccessFile header = new RandomAccessFile(file, "rw");
+		try
+		{
+			header.write(MAGIC);
+			header.writeInt(VERSION);
+			header.writeInt(nEntries);
+			header.writeLong(offset);
+		}
+		finally
+		{
+			header.close();
+		}
+
+		return nEntries;
+	}
+
+
+	/**
+	 * Returns the number of bytes of a bit packed mask.
+	 *
+	 * @param width  width of mask
+	 * @param height height of mask
+	 *
+	 * @return       number of bytes
+	 */
+	private static int getMaskLength(int width, int height)
+	{
+		return (int)(((long)width*height + 7) / 8);
+	}
+
+
+	/**
+	 * Returns the number of entries.
+	 *
+	 * @return number of entries
+	 */
+	public int size()
+	{
+		return entries.length;
+	}
+
+
+	/**
+	 * Returns an entry by position.
+	 *
+	 * @param iEntry position of entry in file order
+	 *
+	 * @return       the entry
+	 */
+	public Entry getEntry(int iEntry)
+	{
+		return entries[iEntry];
+	}
+
+
+	/**
+	 * Returns an entry by image name.
+	 *
+	 * @param imageName name of the image
+	 *
+	 * @return          the entry, null if pack has no entry for the image
+	 */
+	public Entry findEntry(String imageName)
+	{
+		Integer iEntry = entryIndex.get(imageName);
+		if (iEntry == null) return null;
+
+		return entries[iEntry.intValue()];
+	}
+
+
+	/**
+	 * Closes the pack file.
+	 */
+	public void close()
+	{
+		try
+		{
+			if (channel != null) channel.close();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not close pack file: "+e.toString());
+		}
+	}
+
+
+	/**
+	 * Reads from a byte buffer as input stream, used to parse the memory mapped index.
+	 */
+	private static class ByteBufferInputStream extends InputStream
+	{
+
+		/**
+		 * Buffer to read from.
+		 */
+		private ByteBuffer buffer;
+
+
+		/**
+		 * Constructs stream reading from a buffer's current position.
+		 *
+		 * @param buffer buffer to read from
+		 */
+		ByteBufferInputStream(ByteBuffer buffer)
+		{
+			this.buffer = buffer;
+		}
+
+
+		@Override
+		public int read()
+		{
+			if (!buffer.hasRemaining()) return -1;
+			return buffer.get() & 0xFF;
+		}
+
+
+		@Override
+		public int read(byte[] bytes, int offset, int length)
+		{
+			if (!buffer.hasRemaining()) return -1;
+
+			length = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, length);
+
+			return length;
+		}
+	}
+
+}
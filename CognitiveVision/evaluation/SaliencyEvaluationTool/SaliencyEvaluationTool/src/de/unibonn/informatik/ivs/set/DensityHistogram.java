@@ -0,0 +1,147 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+/**
+ * Counts points of a scatter plot in a fixed grid of bins.<br>
+ * Memory does not depend on the number of points, so all precision/recall pairs of large evaluations
+ * can be plotted as a density heatmap (see {@link PlotRenderer#drawDensity(de.unibonn.informatik.ivs.set.DensityHistogram)})
+ * in a single pass over the results.
+ *
+ * @version		2026.1018
+ *
+ */
+public class DensityHistogram
+{
+
+	/**
+	 * Number of bins along the x axis.
+	 */
+	private int nBinsX;
+
+	/**
+	 * Number of bins along the y axis.
+	 */
+	private int nBinsY;
+
+	/**
+	 * Counts row by row, row 0 at minimum y.
+	 */
+	private int[] counts;
+
+	/**
+	 * Range of values counted, values outside are counted in the nearest bin.
+	 */
+	private double xMin, xMax, yMin, yMax;
+
+	/**
+	 * Number of points counted.
+	 */
+	private long nPoints = 0;
+
+
+	/**
+	 * Constructs an empty histogram.
+	 *
+	 * @param nBinsX number of bins along the x axis
+	 * @param nBinsY number of bins along the y axis
+	 * @param xMin   minimum x value
+	 * @param xMax   maximum x value
+	 * @param yMin   minimum y value
+	 * @param yMax   maximum y value
+	 */
+	public DensityHistogram(int nBinsX, int nBinsY, double xMin, double xMax, double yMin, double yMax)
+	{
+		this.nBinsX = nBinsX;
+		this.nBinsY = nBinsY;
+		this.xMin   = xMin;
+		this.xMax   = xMax;
+		this.yMin   = yMin;
+		this.yMax   = yMax;
+
+		counts = new int[nBinsX*nBinsY];
+	}
+
+
+	/**
+	 * Counts a point. Points with a NaN coordinate are ignored.
+	 *
+	 * @param x x value
+	 * @param y y value
+	 */
+	public void add(double x, double y)
+	{
+		if (Double.isNaN(x) || Double.isNaN(y)) return;
+
+		int binX = (int)((x-xMin) / (xMax-xMin) * nBinsX);
+		int binY = (int)((y-yMin) / (yMax-yMin) * nBinsY);
+
+		binX = Math.max(0, Math.min(nBinsX-1, binX));
+		binY = Math.max(0, Math.min(nBinsY-1, binY));
+
+		counts[binY*nBinsX+binX]++;
+		nPoints++;
+	}
+
+
+	/**
+	 * Returns the number of points counted in a bin.
+	 *
+	 * @param binX bin index along the x axis
+	 * @param binY bin index along the y axis, 0 at minimum y
+	 *
+	 * @return     number of points
+	 */
+	public int getCount(int binX, int binY)
+	{
+		return counts[binY*nBinsX+binX];
+	}
+
+
+	/**
+	 * Returns the highest count of all bins.
+	 *
+	 * @return maximum number of points in a bin
+	 */
+	public int getMaxCount()
+	{
+		int result = 0;
+		for (int count: counts) if (count > result) result = count;
+
+		return result;
+	}
+
+
+	/**
+	 * Returns the number of points counted.
+	 *
+	 * @return number of points
+	 */
+	public long getNumberOfPoints()
+	{
+		return nPoints;
+	}
+
+
+	/**
+	 * Returns the number of bins along the x axis.
+	 *
+	 * @return number of bins
+	 */
+	public int getNumberOfBinsX()
+	{
+		return nBinsX;
+	}
+
+
+	/**
+	 * Returns the number of bins along the y axis.
+	 *
+	 * @return number of bins
+	 */
+	public int getNumberOfBinsY()
+	{
+		return nBinsY;
+	}
+
+}
@@ -0,0 +1,314 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.Rectangle;
+import java.util.*;
+
+/**
+ * Exact Euclidean distance transform of a binary mask: the squared distance of every pixel to the nearest pixel
+ * of the mask, and which pixel that is.<br>
+ * <br>
+ * The transform is determined in linear time and integer arithmetic by the algorithm of A. Meijster, J. Roerdink and
+ * W. Hesselink, A General Algorithm for Computing Distance Transforms in Linear Time, Mathematical Morphology and its
+ * Applications to Image and Signal Processing, 2000: first the nearest mask pixel above or below each pixel in its column,
+ * found by two passes over the rows, then along each row the lower envelope of the parabolas rooted at the column distances.
+ * The buffers of the row pass are kept per thread and reused.<br>
+ * Distances are exact up to squared distances of 2^31-1, i.e. for images of up to 32767 pixels in each dimension.
+ *
+ * @version		2026.1018
+ *
+ */
+public class DistanceTransform
+{
+
+	/**
+	 * Buffers of the row pass per thread.
+	 */
+	private static final ThreadLocal<Buffers> BUFFERS = new ThreadLocal<Buffers>()
+	{
+		protected Buffers initialValue()
+		{
+			return new Buffers();
+		}
+	};
+
+
+	/**
+	 * Buffers of the row pass, grown to the widest image transformed by a thread.
+	 */
+	private static class Buffers
+	{
+		/**
+		 * Squared column distances of a row.
+		 */
+		long[] values = new long[0];
+
+		/**
+		 * Positions of the parabolas of the lower envelope.
+		 */
+		int[] roots = new int[0];
+
+		/**
+		 * First position at which each parabola of the lower envelope is the lowest one.
+		 */
+		int[] starts = new int[0];
+
+		/**
+		 * Grows the buffers to a length.
+		 *
+		 * @param length length of a row
+		 */
+		void ensureLength(int length)
+		{
+			if (values.length >= length) return;
+
+			values = new long[length];
+			roots  = new int[length];
+			starts = new int[length];
+		}
+	}
+
+
+	/**
+	 * Width and height of the mask.
+	 */
+	private final int width, height;
+
+	/**
+	 * Squared distance to the nearest mask pixel row by row, 0 inside the mask.
+	 */
+	private final int[] squaredDistances;
+
+	/**
+	 * Index of the nearest mask pixel row by row, -1 if the mask has no pixels.
+	 */
+	private final int[] nearest;
+
+	/**
+	 * Bounding box of the mask pixels, empty if the mask has no pixels.
+	 */
+	private final Rectangle maskBounds = new Rectangle();
+
+
+	/**
+	 * Determines the distance transform of a mask.
+	 *
+	 * @param mask   binary values row by row, true for pixels distances are measured to
+	 * @param width  width of the mask
+	 * @param height height of the mask
+	 */
+	public DistanceTransform(boolean[] mask, int width, int height)
+	{
+		this.width  = width;
+		this.height = height;
+
+		squaredDistances = new int[width*height];
+		nearest          = new int[width*height];
+
+		// columns: row of the nearest mask pixel above, then below in the same column
+		int[] nearestRows = new int[width];
+		Arrays.fill(nearestRows, -1);
+		int minX = width, maxX = -1, minY = height, maxY = -1;
+		for (int y=0; y<height; y++)
+		{
+			int offset = y*width;
+			for (int x=0; x<width; x++)
+			{
+				if (mask[offset+x])
+				{
+					nearestRows[x] = y;
+					minX = Math.min(minX, x);
+					maxX = Math.max(maxX, x);
+					minY = Math.min(minY, y);
+					maxY = y;
+				}
+				nearest[offset+x] = nearestRows[x];
+			}
+		}
+		if (maxY >= 0) maskBounds.setBounds(minX, minY, maxX-minX+1, maxY-minY+1);
+
+		Arrays.fill(nearestRows, -1);
+		for (int y=height-1; y>=0; y--)
+		{
+			int offset = y*width;
+			for (int x=0; x<width; x++)
+			{
+				if (mask[offset+x]) nearestRows[x] = y;
+
+				int above = nearest[offset+x];
+				int below = nearestRows[x];
+				int row = above < 0 || (below >= 0 && below-y < y-above) ? below : above;
+
+				nearest[offset+x]          = row;
+				squaredDistances[offset+x] = row < 0 ? Integer.MAX_VALUE : (row-y)*(row-y);
+			}
+		}
+
+		// columns without any mask pixel are never nearest and are left out of the rows
+		int[] columns = new int[width];
+		int nColumns = 0;
+		for (int x=0; x<width; x++) if (height > 0 && nearest[x] >= 0) columns[nColumns++] = x;
+
+		if (nColumns == 0)
+		{
+			Arrays.fill(squaredDistances, Integer.MAX_VALUE);
+			Arrays.fill(nearest, -1);
+			return;
+		}
+
+		// rows: nearest column distance plus horizontal distance
+		Buffers buffers = BUFFERS.get();
+		buffers.ensureLength(width);
+		long[] f     = buffers.values;
+		int[] roots  = buffers.roots;
+		int[] starts = buffers.starts;
+
+		for (int y=0; y<height; y++)
+		{
+			int offset = y*width;
+			for (int iColumn=0; iColumn<nColumns; iColumn++)
+			{
+				int x = columns[iColumn];
+				f[x] = squaredDistances[offset+x];
+				nearestRows[x] = nearest[offset+x];
+			}
+
+			// lower envelope: drops parabolas that are above the new one where they start to be the lowest
+			int q = 0;
+			roots[0]  = columns[0];
+			starts[0] = 0;
+			for (int iColumn=1; iColumn<nColumns; iColumn++)
+			{
+				int u = columns[iColumn];
+				while (q >= 0 && getValue(f, starts[q], roots[q]) > getValue(f, starts[q], u)) q--;
+
+				if (q < 0)
+				{
+					q = 0;
+					roots[0] = u;
+				}
+				else
+				{
+					long start = 1 + getIntersection(f, roots[q], u);
+					if (start < width)
+					{
+						q++;
+						roots[q]  = u;
+						starts[q] = (int)start;
+					}
+				}
+			}
+
+			// distances from right to left
+			int root = roots[q], start = starts[q];
+			long rootValue = f[root];
+			int rootIndex  = nearestRows[root]*width+root;
+			for (int x=width-1; x>=0; x--)
+			{
+				squaredDistances[offset+x] = (int)Math.min((long)(x-root)*(x-root) + rootValue, Integer.MAX_VALUE-1);
+				nearest[offset+x]          = rootIndex;
+
+				if (x == start && q > 0)
+				{
+					q--;
+					root      = roots[q];
+					start     = starts[q];
+					rootValue = f[root];
+					rootIndex = nearestRows[root]*width+root;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Determines the value of the parabola rooted at a sample.
+	 *
+	 * @param f squared column distances of a row
+	 * @param x position
+	 * @param i position of the sample
+	 *
+	 * @return  squared distance of the position via the sample
+	 */
+	private static long getValue(long[] f, int x, int i)
+	{
+		return (long)(x-i)*(x-i) + f[i];
+	}
+
+
+	/**
+	 * Determines the last position at which the parabola rooted at a sample is not above the one rooted at a later sample.
+	 * It is only determined for samples of the lower envelope whose parabola is not above at the start of their range,
+	 * so the intersection is not negative and integer division rounds it down.
+	 *
+	 * @param f squared column distances of a row
+	 * @param i position of the left sample
+	 * @param u position of the right sample
+	 *
+	 * @return  position of the intersection, rounded down
+	 */
+	private static long getIntersection(long[] f, int i, int u)
+	{
+		return ((long)u*u - (long)i*i + f[u] - f[i]) / (2L*(u-i));
+	}
+
+
+	/**
+	 * Returns the squared distances to the nearest mask pixel.
+	 * The array is shared by all callers, it must not be modified.
+	 *
+	 * @return squared distances row by row, 0 inside the mask, <code>Integer.MAX_VALUE</code> if the mask has no pixels
+	 */
+	public int[] getSquaredDistances()
+	{
+		return squaredDistances;
+	}
+
+
+	/**
+	 * Returns the index of the nearest mask pixel of every pixel.
+	 * The array is shared by all callers, it must not be modified.
+	 *
+	 * @return indices row by row (<code>y*width+x</code>), -1 if the mask has no pixels
+	 */
+	public int[] getNearest()
+	{
+		return nearest;
+	}
+
+
+	/**
+	 * Returns the bounding box of the mask pixels.
+	 * The rectangle is shared by all callers, it must not be modified.
+	 *
+	 * @return bounding box, empty if the mask has no pixels
+	 */
+	public Rectangle getMaskBounds()
+	{
+		return maskBounds;
+	}
+
+
+	/**
+	 * Returns the width of the mask.
+	 *
+	 * @return width
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+
+
+	/**
+	 * Returns the height of the mask.
+	 *
+	 * @return height
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+
+}
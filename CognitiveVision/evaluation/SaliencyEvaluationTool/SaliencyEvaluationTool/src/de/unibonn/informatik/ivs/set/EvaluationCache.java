@@ -0,0 +1,256 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+
+
+/**
+ * Keeps decoded ground truth masks and saliency map lookups across evaluation jobs of an {@link EvaluationServer}.<br>
+ * <br>
+ * Ground truths read from image files are cached as binary values only (see
+ * {@link GroundTruth#GroundTruth(java.lang.String, int, int, boolean[])}), keyed by absolute path and
+ * invalidated when the file's modification time or length changes. The least recently used masks are dropped when
+ * the cache exceeds its memory budget, which also covers data derived from cached masks on first use
+ * (see {@link GroundTruth#getRetainedBytes()}).<br>
+ * Directory listings and the saliency map file found for an image name are cached per directory and invalidated
+ * when the directory's modification time changes, i.e. when files are added, removed or renamed.<br>
+ * <br>
+ * All methods are synchronized, so that worker threads of an evaluation may use the cache concurrently.
+ *
+ * @version		2026.1018
+ *
+ */
+public class EvaluationCache
+{
+
+	/**
+	 * Cached ground truth together with the state of the file it was read from.
+	 */
+	private static class CachedGroundTruth
+	{
+		GroundTruth groundTruth;
+		long        lastModified;
+		long        length;
+		long        nBytes;
+	}
+
+
+	/**
+	 * Cached listing of a directory and the files found in it by name.
+	 */
+	private static class CachedDirectory
+	{
+		File[]            files;
+		long              lastModified;
+		Map<String, File> filesByName = new HashMap<String, File>();
+	}
+
+
+	/**
+	 * Maximum number of bytes held by cached ground truth masks and data derived from them.
+	 */
+	private long maxBytes;
+
+	/**
+	 * Number of bytes held by cached ground truth masks and data derived from them, as of the last access to the cache.
+	 */
+	private long nBytes = 0;
+
+	/**
+	 * Cached ground truths by absolute path, in order of last access.
+	 */
+	private LinkedHashMap<String, CachedGroundTruth> groundTruths = new LinkedHashMap<String, CachedGroundTruth>(16, 0.75f, true);
+
+	/**
+	 * Cached directories by absolute path.
+	 */
+	private Map<String, CachedDirectory> directories = new HashMap<String, CachedDirectory>();
+
+	/**
+	 * Number of ground truths taken from the cache.
+	 */
+	private long nHits = 0;
+
+	/**
+	 * Number of ground truths that had to be read.
+	 */
+	private long nMisses = 0;
+
+
+	/**
+	 * Constructs an empty cache.
+	 *
+	 * @param maxBytes maximum number of bytes held by cached ground truth masks (see {@link GroundTruth#getRetainedBytes()})
+	 */
+	public EvaluationCache(long maxBytes)
+	{
+		this.maxBytes = maxBytes;
+	}
+
+
+	/**
+	 * Returns the cached ground truth read from a file.
+	 *
+	 * @param file ground truth image file
+	 *
+	 * @return     cached ground truth, null if it is not cached or the file changed since it was cached
+	 */
+	public synchronized GroundTruth getGroundTruth(File file)
+	{
+		String key = file.getAbsolutePath();
+		CachedGroundTruth cached = groundTruths.get(key);
+
+		if (cached != null && (cached.lastModified != file.lastModified() || cached.length != file.length()))
+		{
+			groundTruths.remove(key);
+			nBytes -= cached.nBytes;
+			cached = null;
+		}
+
+		if (cached == null)
+		{
+			nMisses++;
+			return null;
+		}
+
+		nHits++;
+		trim();
+
+		return cached.groundTruth;
+	}
+
+
+	/**
+	 * Caches the binary values of a ground truth read from a file.<br>
+	 * Nothing is cached if the ground truth could not be loaded or is larger than the whole budget.
+	 * The cached copy should be evaluated against from then on, so that data derived from the values on first use
+	 * (e.g. {@link GroundTruth#getDistanceTransform()}) is kept with the cached copy.
+	 *
+	 * @param file        ground truth image file
+	 * @param groundTruth ground truth read from the file
+	 *
+	 * @return            cached copy, or the given ground truth if it is not cached
+	 */
+	public synchronized GroundTruth putGroundTruth(File file, GroundTruth groundTruth)
+	{
+		boolean[] values = groundTruth.getValues();
+		if (values == null || values.length > maxBytes) return groundTruth;
+
+		CachedGroundTruth cached = new CachedGroundTruth();
+		cached.groundTruth  = new GroundTruth(groundTruth.imageName, groundTruth.getWidth(), groundTruth.getHeight(), values);
+		cached.lastModified = file.lastModified();
+		cached.length       = file.length();
+
+		groundTruths.put(file.getAbsolutePath(), cached);
+		trim();
+
+		return cached.groundTruth;
+	}
+
+
+	/**
+	 * Counts the bytes held by all cached ground truths again, as distance transforms and coverages are derived
+	 * after caching, and drops the least recently used ground truths while the budget is exceeded.
+	 */
+	private void trim()
+	{
+		nBytes = 0;
+		for (CachedGroundTruth cached: groundTruths.values())
+		{
+			cached.nBytes = cached.groundTruth.getRetainedBytes();
+			nBytes += cached.nBytes;
+		}
+
+		// drop least recently used masks
+		Iterator<CachedGroundTruth> iterator = groundTruths.values().iterator();
+		while (nBytes > maxBytes && iterator.hasNext())
+		{
+			nBytes -= iterator.next().nBytes;
+			iterator.remove();
+		}
+	}
+
+
+	/**
+	 * Returns the files of a directory.
+	 * The returned array is shared by all callers, it must not be modified.
+	 *
+	 * @param directory directory to list
+	 *
+	 * @return          files of the directory, null if it is not a directory
+	 */
+	public synchronized File[] listFiles(File directory)
+	{
+		CachedDirectory cached = getDirectory(directory);
+
+		return cached == null ? null : cached.files;
+	}
+
+
+	/**
+	 * Finds a file in a directory whose name contains a given name, as {@link FileUtil#findFile(java.lang.String, java.io.File[])}
+	 * does, and remembers the result for following jobs.
+	 *
+	 * @param name      name the file name has to contain
+	 * @param directory directory to search in
+	 *
+	 * @return          file found, null if no file matches or the directory cannot be listed
+	 */
+	public synchronized File findFile(String name, File directory)
+	{
+		CachedDirectory cached = getDirectory(directory);
+		if (cached == null) return null;
+
+		if (cached.filesByName.containsKey(name)) return cached.filesByName.get(name);
+
+		File file = FileUtil.findFile(name, cached.files);
+		cached.filesByName.put(name, file);
+
+		return file;
+	}
+
+
+	/**
+	 * Returns the cached state of a directory, listing it again if it changed.
+	 *
+	 * @param directory directory
+	 *
+	 * @return          cached directory, null if it is not a directory
+	 */
+	private CachedDirectory getDirectory(File directory)
+	{
+		String key = directory.getAbsolutePath();
+		CachedDirectory cached = directories.get(key);
+
+		if (cached == null || cached.lastModified != directory.lastModified())
+		{
+			File[] files = directory.listFiles();
+			if (files == null)
+			{
+				directories.remove(key);
+				return null;
+			}
+
+			cached = new CachedDirectory();
+			cached.files        = files;
+			cached.lastModified = directory.lastModified();
+			directories.put(key, cached);
+		}
+
+		return cached;
+	}
+
+
+	/**
+	 * Returns a short description of the cache's state to be printed.
+	 *
+	 * @return number of cached ground truths, their size and hits/misses so far
+	 */
+	public synchronized String getStatistics()
+	{
+		return groundTruths.size()+" ground truths cached ("+(nBytes/(1024*1024))+" of "+(maxBytes/(1024*1024))+" MB), "+nHits+" hits, "+nMisses+" misses";
+	}
+
+}
@@ -0,0 +1,129 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+/**
+ * Provides the per-pixel loops of an evaluation on primitive arrays.<br>
+ * <br>
+ * Two implementations exist: {@link ScalarEvaluationKernel} runs on every Java platform,
+ * <code>VectorEvaluationKernel</code> uses the incubating Vector API (<code>jdk.incubator.vector</code>).
+ * The vectorised kernel is only compiled on JDK 16 or newer and can only be loaded if the module is present,
+ * e.g. by starting with <code>java --add-modules jdk.incubator.vector -jar SaliencyEvaluationTool.jar</code>.
+ * {@link #getInstance()} uses the scalar kernel unless another kernel has been set: measured on histograms
+ * of typical map sizes the vectorised kernel is not faster, as the histogram loop is a scatter that the
+ * Vector API does not speed up (compare both with the kernel benchmark in the test sources).
+ *
+ * @version		2026.1018
+ *
+ */
+public abstract class EvaluationKernel
+{
+
+	/**
+	 * Fully qualified name of the vectorised kernel, which is loaded by reflection only.
+	 */
+	private static final String VECTOR_KERNEL_CLASS = "de.unibonn.informatik.ivs.set.VectorEvaluationKernel";
+
+	/**
+	 * Kernel used by {@link GroundTruth} and {@link SaliencyMap}.
+	 */
+	private static EvaluationKernel instance;
+
+
+	/**
+	 * Returns the kernel used for evaluations.<br>
+	 * If no kernel has been set (see {@link #setInstance(de.unibonn.informatik.ivs.set.EvaluationKernel)})
+	 * the scalar kernel is used.
+	 *
+	 * @return kernel used for evaluations
+	 */
+	public static synchronized EvaluationKernel getInstance()
+	{
+		if (instance == null) instance = createKernel(false);
+		return instance;
+	}
+
+
+	/**
+	 * Sets the kernel used for evaluations.
+	 *
+	 * @param kernel kernel to use
+	 */
+	public static synchronized void setInstance(EvaluationKernel kernel)
+	{
+		instance = kernel;
+	}
+
+
+	/**
+	 * Creates a kernel.
+	 *
+	 * @param vectorised true if the vectorised kernel shall be created if it is available
+	 *
+	 * @return           the vectorised kernel if requested and available, the scalar kernel otherwise
+	 */
+	public static EvaluationKernel createKernel(boolean vectorised)
+	{
+		if (vectorised)
+		{
+			EvaluationKernel kernel = createVectorKernel();
+			if (kernel != null) return kernel;
+		}
+
+		return new ScalarEvaluationKernel();
+	}
+
+
+	/**
+	 * Tries to load the vectorised kernel.
+	 *
+	 * @return vectorised kernel, null if it was not compiled or <code>jdk.incubator.vector</code> is not present
+	 */
+	public static EvaluationKernel createVectorKernel()
+	{
+		try
+		{
+			return (EvaluationKernel)Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+		}
+		catch (Exception e)
+		{
+			return null;
+		}
+		catch (LinkageError e)
+		{
+			// class exists but module jdk.incubator.vector has not been added
+			return null;
+		}
+	}
+
+
+	/**
+	 * Returns a short name of the kernel to be printed.
+	 *
+	 * @return name of the kernel
+	 */
+	public abstract String getName();
+
+
+	/**
+	 * Adds saliency values to histograms separately for pixels inside and outside of the ground truth object.
+	 *
+	 * @param saliencyValues    saliency values in [0; 255]
+	 * @param groundTruthValues binary ground truth values in the same order as saliency values
+	 * @param histograms        histograms to add to<br>
+	 *                          index1: {@link GroundTruth#OBJECT} or {@link GroundTruth#BACKGROUND}<br>
+	 *                          index2: saliency value in [0; 255]
+	 */
+	public abstract void addToHistograms(int[] saliencyValues, boolean[] groundTruthValues, int[][] histograms);
+
+
+	/**
+	 * Thresholds saliency values.
+	 *
+	 * @param saliencyValues  saliency values in [0; 255]
+	 * @param binaryThreshold minimum for values to be set
+	 * @param result          array to write to, 1 for values greater than or equal to the threshold, 0 otherwise
+	 */
+	public abstract void threshold(int[] saliencyValues, int binaryThreshold, int[] result);
+
+}
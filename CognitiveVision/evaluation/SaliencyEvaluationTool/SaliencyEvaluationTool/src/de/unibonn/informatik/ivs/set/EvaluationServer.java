@@ -0,0 +1,340 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+
+/**
+ * Runs evaluation jobs in a long-running process, so that JVM start-up, JIT warm-up and decoding of ground truths
+ * are paid only once for many evaluations (see {@link EvaluationCache}).<br>
+ * <br>
+ * Jobs are sent line by line, either on standard input or on a socket bound to the loopback interface.
+ * A job line contains the same <code>parameter=value</code> pairs as the command line (see {@link Main}),
+ * separated by blanks; values containing blanks can be enclosed in double quotes. Everything the job prints is
+ * streamed back, followed by a line {@link #END_OK} or {@link #END_FAILED} plus an error message.
+ * The line <code>quit</code> closes a connection, <code>shutdown</code> stops the server.<br>
+ * <br>
+ * Jobs are run one after another, as evaluations share the state of {@link Main}.
+ * {@link #submit(java.lang.String, int, java.lang.String[])} sends a single job to a server and prints its output.
+ *
+ * @version		2026.1018
+ *
+ */
+public class EvaluationServer
+{
+
+	/**
+	 * Line ending the output of a successful job.
+	 */
+	public static final String END_OK     = "#END OK";
+
+	/**
+	 * Line ending the output of a failed job, followed by a blank and an error message.
+	 */
+	public static final String END_FAILED = "#END FAILED";
+
+
+	/**
+	 * Parameters holding paths, which a client resolves against its own working directory.
+	 */
+	private static final String[] PATH_PARAMETERS = {"pathGT", "fileGT", "pathSM", "pathSM2", "groupFile", "sequenceGT", "sequenceSM", "filePack", "pathResult", "pathIm", "pathDef"};
+
+
+	/**
+	 * Cache shared by all jobs.
+	 */
+	private EvaluationCache cache;
+
+	/**
+	 * Socket accepting connections, null when serving standard input.
+	 */
+	private ServerSocket serverSocket;
+
+	/**
+	 * Determines if the server has been asked to stop.
+	 */
+	private volatile boolean stopped = false;
+
+
+	/**
+	 * Constructs a server.
+	 *
+	 * @param cacheBytes maximum number of bytes held by cached ground truth masks
+	 */
+	public EvaluationServer(long cacheBytes)
+	{
+		cache = new EvaluationCache(cacheBytes);
+	}
+
+
+	/**
+	 * Accepts connections on a port of the loopback interface until a <code>shutdown</code> line is received.
+	 * Each connection is served on a thread of its own.
+	 *
+	 * @param port port to listen on
+	 *
+	 * @throws IOException if the port cannot be bound
+	 */
+	public void serve(int port) throws IOException
+	{
+		serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		System.out.println("Serving evaluation jobs on "+serverSocket.getLocalSocketAddress());
+
+		while (!stopped)
+		{
+			final Socket socket;
+			try
+			{
+				socket = serverSocket.accept();
+			}
+			catch (SocketException e)
+			{
+				// socket closed by shutdown
+				break;
+			}
+
+			Thread thread = new Thread(new Runnable()
+			{
+				public void run()
+				{
+					try
+					{
+						serve(new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8")),
+						      new PrintStream(socket.getOutputStream(), true, "UTF-8"));
+					}
+					catch (IOException e)
+					{
+						System.err.println("Connection failed: "+e.toString());
+					}
+					finally
+					{
+						try
+						{
+							socket.close();
+						}
+						catch (IOException e)
+						{
+						}
+					}
+				}
+			});
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		System.out.println("Server stopped");
+	}
+
+
+	/**
+	 * Reads jobs line by line and runs them until the input ends, <code>quit</code> or <code>shutdown</code> is read.
+	 * Blank lines and lines starting with <code>#</code> are ignored.
+	 *
+	 * @param in  reader to read jobs from
+	 * @param out stream to write job output to
+	 *
+	 * @throws IOException if reading fails
+	 */
+	public void serve(BufferedReader in, PrintStream out) throws IOException
+	{
+		String line;
+
+		while (!stopped && (line = in.readLine()) != null)
+		{
+			line = line.trim();
+
+			if (line.length() == 0 || line.startsWith("#")) continue;
+
+			if (line.equalsIgnoreCase("quit"))
+			{
+				out.println(END_OK);
+				break;
+			}
+
+			if (line.equalsIgnoreCase("shutdown"))
+			{
+				stopped = true;
+				if (serverSocket != null) serverSocket.close();
+				out.println(END_OK);
+				break;
+			}
+
+			runJob(line, out);
+		}
+	}
+
+
+	/**
+	 * Runs a job, writing everything it prints to a stream.
+	 *
+	 * @param line job line
+	 * @param out  stream to write job output to
+	 */
+	private void runJob(String line, PrintStream out)
+	{
+		// System.out and System.err are redirected, so only one job may run at a time
+		synchronized (EvaluationServer.class)
+		{
+			PrintStream systemOut = System.out;
+			PrintStream systemErr = System.err;
+
+			String error = null;
+			long t = System.currentTimeMillis();
+
+			try
+			{
+				System.setOut(out);
+				System.setErr(out);
+
+				Main.runJob(splitJobLine(line), cache);
+			}
+			catch (Main.ExitException e)
+			{
+				error = e.getMessage();
+			}
+			catch (Exception e)
+			{
+				error = e.toString();
+			}
+			finally
+			{
+				System.setOut(systemOut);
+				System.setErr(systemErr);
+			}
+
+			out.println("# job finished in "+(System.currentTimeMillis()-t)+"ms, "+cache.getStatistics());
+			out.println(error == null ? END_OK : END_FAILED+" "+error);
+			out.flush();
+		}
+	}
+
+
+	/**
+	 * Sends a job to a server and prints its output as it is received.<br>
+	 * Relative paths are resolved against the client's working directory; results are written to it
+	 * unless <code>pathResult</code> is given.
+	 *
+	 * @param host host the server runs on
+	 * @param port port the server listens on
+	 * @param args job parameters, <code>parameter=value</code> pairs as on the command line
+	 *
+	 * @return     0 if the job succeeded, 1 otherwise
+	 *
+	 * @throws IOException if the server cannot be reached
+	 */
+	public static int submit(String host, int port, String[] args) throws IOException
+	{
+		List<String> jobArgs = new ArrayList<String>();
+		boolean resultPathSet = false;
+
+		for (String arg: args)
+		{
+			int pos = arg.indexOf("=");
+			String var = pos != -1 ? arg.substring(0, pos) : arg;
+			String val = pos != -1 ? arg.substring(pos+1) : "";
+
+			if (var.equalsIgnoreCase("pathResult")) resultPathSet = true;
+
+			for (String pathParameter: PATH_PARAMETERS)
+			{
+				if (var.equalsIgnoreCase(pathParameter)) arg = var+"="+new File(val).getAbsolutePath();
+			}
+
+			jobArgs.add(arg);
+		}
+
+		if (!resultPathSet) jobArgs.add("pathResult="+new File("").getAbsolutePath());
+
+		Socket socket = new Socket(host, port);
+
+		try
+		{
+			PrintStream out = new PrintStream(socket.getOutputStream(), true, "UTF-8");
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+
+			out.println(joinJobLine(jobArgs));
+			out.println("quit");
+
+			String line;
+			while ((line = in.readLine()) != null)
+			{
+				if (line.equals(END_OK)) return 0;
+
+				if (line.startsWith(END_FAILED))
+				{
+					System.err.println("Job failed: "+line.substring(END_FAILED.length()).trim());
+					return 1;
+				}
+
+				System.out.println(line);
+			}
+
+			System.err.println("Connection closed before job finished");
+			return 1;
+		}
+		finally
+		{
+			socket.close();
+		}
+	}
+
+
+	/**
+	 * Splits a job line into parameters at blanks outside of double quotes.
+	 *
+	 * @param line job line
+	 *
+	 * @return     parameters with quotes removed
+	 */
+	static String[] splitJobLine(String line)
+	{
+		List<String> result = new ArrayList<String>();
+		StringBuilder current = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i=0; i<line.length(); i++)
+		{
+			char c = line.charAt(i);
+
+			if (c == '"') quoted = !quoted;
+			else if (Character.isWhitespace(c) && !quoted)
+			{
+				if (current.length() > 0) result.add(current.toString());
+				current.setLength(0);
+			}
+			else current.append(c);
+		}
+
+		if (current.length() > 0) result.add(current.toString());
+
+		return result.toArray(new String[result.size()]);
+	}
+
+
+	/**
+	 * Joins parameters to a job line, quoting values that contain blanks.
+	 *
+	 * @param args parameters
+	 *
+	 * @return     job line
+	 */
+	static String joinJobLine(List<String> args)
+	{
+		StringBuilder result = new StringBuilder();
+
+		for (String arg: args)
+		{
+			if (result.length() > 0) result.append(' ');
+
+			int pos = arg.indexOf("=");
+			if (arg.indexOf(' ') != -1 && pos != -1) result.append(arg.substring(0, pos+1)).append('"').append(arg.substring(pos+1)).append('"');
+			else result.append(arg);
+		}
+
+		return result.toString();
+	}
+
+}
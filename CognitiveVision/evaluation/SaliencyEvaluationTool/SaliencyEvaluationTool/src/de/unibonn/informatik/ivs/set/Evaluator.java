@@ -0,0 +1,542 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.image.*;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * Evaluates saliency maps against ground truths from within another application, e.g. a training loop or a service,
+ * without files, command line parameters or static state.<br>
+ * <br>
+ * An evaluator is configured once by a {@link Builder} and is immutable afterwards, so one instance can be used by many
+ * threads, and many instances can be used at once within one JVM. Ground truths and saliency maps are handed over as
+ * {@link ImageSource}s, either one pair at a time or by name through two {@link ImageProvider}s. Instances may share an
+ * {@link EvaluationCache}, so that ground truth files are decoded once for all of them.<br>
+ * <br>
+ * The metrics are determined exactly like by the command line evaluation (see {@link Main}):
+ * precision/recall per threshold, area under ROC curve, mean absolute error and maximum F-measure (with beta
+ * {@link Bootstrap#F_MEASURE_BETA}), optionally after normalising each map (see {@link SaliencyNormalization}).<br>
+ * <br>
+ * Example:<br>
+ * <code>
+ * Evaluator evaluator = Evaluator.builder().threads(4).cache(sharedCache).build();<br>
+ * Evaluator.Result result = evaluator.evaluate(new ImageProvider.Directory(gtFolder), maps);<br>
+ * </code>
+ *
+ * @version		2026.1018
+ *
+ */
+public class Evaluator
+{
+
+	/**
+	 * Mode to normalise saliency values of each map by (see {@link SaliencyNormalization}).
+	 */
+	private final int normalization;
+
+	/**
+	 * Percentage of values clipped at each end for percentile normalisation.
+	 */
+	private final double clipPercent;
+
+	/**
+	 * Determines if maps smaller than their ground truth are evaluated at their own resolution.
+	 */
+	private final boolean mapResolution;
+
+	/**
+	 * Number of threads images are evaluated by.
+	 */
+	private final int nThreads;
+
+	/**
+	 * Cache of ground truth files, may be shared with other evaluators; null to decode ground truths each time.
+	 */
+	private final EvaluationCache cache;
+
+
+	/**
+	 * Constructs an evaluator from the settings of a builder.
+	 *
+	 * @param builder builder holding the settings
+	 */
+	private Evaluator(Builder builder)
+	{
+		normalization = builder.normalization;
+		clipPercent   = builder.clipPercent;
+		mapResolution = builder.mapResolution;
+		nThreads      = builder.nThreads;
+		cache         = builder.cache;
+	}
+
+
+	/**
+	 * Creates a builder with default settings: no normalisation, maps scaled to the size of the ground truth,
+	 * one thread and no cache.
+	 *
+	 * @return builder
+	 */
+	public static Builder builder()
+	{
+		return new Builder();
+	}
+
+
+	/**
+	 * Settings of an {@link Evaluator}.
+	 */
+	public static class Builder
+	{
+
+		/**
+		 * See {@link Evaluator#normalization}.
+		 */
+		private int normalization = SaliencyNormalization.NONE;
+
+		/**
+		 * See {@link Evaluator#clipPercent}.
+		 */
+		private double clipPercent = SaliencyNormalization.DEFAULT_CLIP_PERCENT;
+
+		/**
+		 * See {@link Evaluator#mapResolution}.
+		 */
+		private boolean mapResolution = false;
+
+		/**
+		 * See {@link Evaluator#nThreads}.
+		 */
+		private int nThreads = 1;
+
+		/**
+		 * See {@link Evaluator#cache}.
+		 */
+		private EvaluationCache cache = null;
+
+
+		/**
+		 * Constructs a builder with default settings.
+		 */
+		private Builder()
+		{
+		}
+
+
+		/**
+		 * Sets the mode to normalise saliency values of each map by.
+		 *
+		 * @param mode {@link SaliencyNormalization#NONE}, {@link SaliencyNormalization#MINMAX},
+		 *             {@link SaliencyNormalization#PERCENTILE} or {@link SaliencyNormalization#EQUALIZE}
+		 *
+		 * @return     this builder
+		 */
+		public Builder normalization(int mode)
+		{
+			normalization = mode;
+
+			return this;
+		}
+
+
+		/**
+		 * Sets the percentage of values clipped at each end for percentile normalisation.
+		 *
+		 * @param percent percentage in [0.0; 50.0)
+		 *
+		 * @return        this builder
+		 */
+		public Builder clipPercent(double percent)
+		{
+			clipPercent = percent;
+
+			return this;
+		}
+
+
+		/**
+		 * Determines if maps smaller than their ground truth are evaluated at their own resolution
+		 * instead of being scaled up (see {@link GroundTruth#getCoverage(int, int)}).
+		 *
+		 * @param mapResolution true to evaluate at map resolution
+		 *
+		 * @return              this builder
+		 */
+		public Builder mapResolution(boolean mapResolution)
+		{
+			this.mapResolution = mapResolution;
+
+			return this;
+		}
+
+
+		/**
+		 * Sets the number of threads images of an {@link Evaluator#evaluate(ImageProvider, ImageProvider)} call are evaluated by.
+		 *
+		 * @param nThreads number of threads, at least 1
+		 *
+		 * @return         this builder
+		 */
+		public Builder threads(int nThreads)
+		{
+			this.nThreads = nThreads;
+
+			return this;
+		}
+
+
+		/**
+		 * Sets the cache ground truth files are taken from, which may be shared by several evaluators.
+		 *
+		 * @param cache cache, null to decode ground truths each time
+		 *
+		 * @return      this builder
+		 */
+		public Builder cache(EvaluationCache cache)
+		{
+			this.cache = cache;
+
+			return this;
+		}
+
+
+		/**
+		 * Creates an evaluator with the settings of this builder.
+		 *
+		 * @return evaluator
+		 *
+		 * @throws IllegalArgumentException if a setting is out of range
+		 */
+		public Evaluator build()
+		{
+			if (normalization < SaliencyNormalization.NONE || normalization > SaliencyNormalization.EQUALIZE) throw new IllegalArgumentException("Unknown normalisation mode "+normalization);
+			if (clipPercent < 0.0 || clipPercent >= 50.0) throw new IllegalArgumentException("Clip percentage must be in [0; 50)");
+			if (nThreads < 1) throw new IllegalArgumentException("Number of threads must be at least 1");
+
+			return new Evaluator(this);
+		}
+
+	}
+
+
+	/**
+	 * Result of evaluating a single saliency map.
+	 */
+	public static class ImageResult
+	{
+
+		/**
+		 * Name of the image.
+		 */
+		public final String imageName;
+
+		/**
+		 * Precision/recall per threshold<br>
+		 * index1: threshold in [0; 255]<br>
+		 * index2: {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+		 */
+		public final double[][] precisionRecall;
+
+		/**
+		 * Area under ROC curve, NaN if ground truth contains object or background only.
+		 */
+		public final double areaUnderCurve;
+
+		/**
+		 * Mean absolute error.
+		 */
+		public final double meanAbsoluteError;
+
+		/**
+		 * Maximum F-measure over all thresholds.
+		 */
+		public final double maxFMeasure;
+
+		/**
+		 * Size of the object relative to the image.
+		 */
+		public final double relativeObjectSize;
+
+
+		/**
+		 * Constructs a result from the histograms of a map.
+		 *
+		 * @param imageName  name of the image
+		 * @param histograms normalised histograms of saliency values (see {@link GroundTruth#getHistograms(SaliencyMap)})
+		 */
+		private ImageResult(String imageName, int[][] histograms)
+		{
+			this.imageName     = imageName;
+			precisionRecall    = GroundTruth.evaluate(histograms);
+			areaUnderCurve     = GroundTruth.getAreaUnderCurve(histograms);
+			meanAbsoluteError  = GroundTruth.getMeanAbsoluteError(histograms);
+			maxFMeasure        = GroundTruth.getMaxFMeasure(precisionRecall, Bootstrap.F_MEASURE_BETA);
+			relativeObjectSize = GroundTruth.getRelativeObjectSize(histograms);
+		}
+
+	}
+
+
+	/**
+	 * Result of evaluating all images of a provider.
+	 */
+	public static class Result
+	{
+
+		/**
+		 * Results of all evaluated images, in the order of the ground truth provider.
+		 */
+		public final List<ImageResult> images;
+
+		/**
+		 * Error messages of images that could not be evaluated, by image name.
+		 */
+		public final Map<String, String> failures;
+
+		/**
+		 * Precision/recall per threshold averaged over all evaluated images, zero if none has been evaluated.
+		 */
+		public final double[][] meanPrecisionRecall;
+
+		/**
+		 * Area under ROC curve averaged over all images it is defined for.
+		 */
+		public final double meanAreaUnderCurve;
+
+		/**
+		 * Mean absolute error averaged over all evaluated images.
+		 */
+		public final double meanAbsoluteError;
+
+		/**
+		 * Maximum F-measure of the averaged precision/recall.
+		 */
+		public final double maxFMeasure;
+
+
+		/**
+		 * Constructs a result by averaging the results of the images.
+		 *
+		 * @param images   results of the evaluated images
+		 * @param failures error messages by image name
+		 */
+		private Result(List<ImageResult> images, Map<String, String> failures)
+		{
+			this.images   = Collections.unmodifiableList(images);
+			this.failures = Collections.unmodifiableMap(failures);
+
+			meanPrecisionRecall = new double[SaliencyMap.NUM_GREYSCALES][2];
+			for (ImageResult image: images)
+			{
+				for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+				{
+					meanPrecisionRecall[iThreshold][GroundTruth.PRECISION] += image.precisionRecall[iThreshold][GroundTruth.PRECISION] / images.size();
+					meanPrecisionRecall[iThreshold][GroundTruth.RECALL]    += image.precisionRecall[iThreshold][GroundTruth.RECALL]    / images.size();
+				}
+			}
+
+			double aucSum = 0.0, maeSum = 0.0;
+			int nAuc = 0, nMae = 0;
+			for (ImageResult image: images)
+			{
+				if (!Double.isNaN(image.areaUnderCurve))    { aucSum += image.areaUnderCurve;    nAuc++; }
+				if (!Double.isNaN(image.meanAbsoluteError)) { maeSum += image.meanAbsoluteError; nMae++; }
+			}
+
+			meanAreaUnderCurve = nAuc > 0 ? aucSum / nAuc : Double.NaN;
+			meanAbsoluteError  = nMae > 0 ? maeSum / nMae : Double.NaN;
+			maxFMeasure        = GroundTruth.getMaxFMeasure(meanPrecisionRecall, Bootstrap.F_MEASURE_BETA);
+		}
+
+	}
+
+
+	/**
+	 * Evaluates a single saliency map.
+	 *
+	 * @param groundTruth ground truth
+	 * @param saliencyMap saliency map of the same image
+	 *
+	 * @return            result, named like the ground truth
+	 *
+	 * @throws IOException if either image cannot be loaded or the sizes do not fit
+	 */
+	public ImageResult evaluate(ImageSource groundTruth, ImageSource saliencyMap) throws IOException
+	{
+		GroundTruth gt = loadGroundTruth(groundTruth);
+		SaliencyMap sMap = loadSaliencyMap(saliencyMap, gt.getWidth(), gt.getHeight());
+
+		if (sMap.getWidth() > gt.getWidth() || sMap.getHeight() > gt.getHeight() || (!mapResolution && (sMap.getWidth() != gt.getWidth() || sMap.getHeight() != gt.getHeight())))
+		{
+			throw new IOException("Size of saliency map '"+saliencyMap.getImageName()+"' ("+sMap.getWidth()+"x"+sMap.getHeight()+") does not fit ground truth ("+gt.getWidth()+"x"+gt.getHeight()+")");
+		}
+
+		int[][] histograms = gt.getHistograms(sMap);
+		if (histograms == null) throw new IOException("Cannot evaluate '"+groundTruth.getImageName()+"'");
+
+		if (normalization != SaliencyNormalization.NONE)
+		{
+			histograms = SaliencyNormalization.apply(histograms, SaliencyNormalization.getLookupTable(normalization, histograms, clipPercent));
+		}
+
+		return new ImageResult(groundTruth.getImageName(), histograms);
+	}
+
+
+	/**
+	 * Evaluates the saliency maps of all images named by a ground truth provider.<br>
+	 * Images are evaluated by the configured number of threads; images whose map is missing or cannot be evaluated
+	 * are reported in {@link Result#failures} instead of stopping the evaluation.
+	 *
+	 * @param groundTruths provider of ground truths
+	 * @param saliencyMaps provider of saliency maps, asked for the names of the ground truths
+	 *
+	 * @return             results
+	 *
+	 * @throws IOException if the ground truths cannot be listed or the evaluation is interrupted
+	 */
+	public Result evaluate(final ImageProvider groundTruths, final ImageProvider saliencyMaps) throws IOException
+	{
+		List<String> imageNames = new ArrayList<String>(groundTruths.getImageNames());
+
+		List<Callable<ImageResult>> tasks = new ArrayList<Callable<ImageResult>>();
+		for (final String imageName: imageNames)
+		{
+			tasks.add(new Callable<ImageResult>()
+			{
+				public ImageResult call() throws IOException
+				{
+					ImageSource groundTruth = groundTruths.getImage(imageName);
+					if (groundTruth == null) throw new IOException("Ground truth not found");
+
+					ImageSource saliencyMap = saliencyMaps.getImage(imageName);
+					if (saliencyMap == null) throw new IOException("Saliency map not found");
+
+					return evaluate(groundTruth, saliencyMap);
+				}
+			});
+		}
+
+		List<ImageResult> results = new ArrayList<ImageResult>();
+		Map<String, String> failures = new LinkedHashMap<String, String>();
+
+		// each call has threads of its own, so that concurrent calls do not wait for each other
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(nThreads, Math.max(1, tasks.size())));
+		try
+		{
+			List<Future<ImageResult>> futures = executor.invokeAll(tasks);
+
+			for (int iImage=0; iImage<futures.size(); iImage++)
+			{
+				try
+				{
+					results.add(futures.get(iImage).get());
+				}
+				catch (ExecutionException e)
+				{
+					Throwable cause = e.getCause();
+					failures.put(imageNames.get(iImage), cause.getMessage() != null ? cause.getMessage() : cause.toString());
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Evaluation interrupted");
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		return new Result(results, failures);
+	}
+
+
+	/**
+	 * Loads ground truth from a source, taking files from the cache if there is one.
+	 *
+	 * @param source source of the ground truth
+	 *
+	 * @return       ground truth with binary values available
+	 *
+	 * @throws IOException if the ground truth cannot be loaded
+	 */
+	private GroundTruth loadGroundTruth(ImageSource source) throws IOException
+	{
+		GroundTruth gt;
+
+		switch (source.type)
+		{
+			case ImageSource.FILE:
+				gt = cache != null ? cache.getGroundTruth(source.file) : null;
+				if (gt != null) return gt;
+
+				gt = new GroundTruth(source.file, FileUtil.readBytes(source.file));
+				if (gt.getValues() == null) break;
+
+				return cache != null ? cache.putGroundTruth(source.file, gt) : gt;
+
+			case ImageSource.BYTES:
+				gt = new GroundTruth(source.file, source.data);
+				if (gt.getValues() == null) break;
+				return gt;
+
+			case ImageSource.MASK:
+				return new GroundTruth(source.imageName, source.width, source.height, source.mask);
+
+			default:
+				boolean[] mask = new boolean[source.values.length];
+				for (int i=0; i<mask.length; i++) mask[i] = (source.values[i] & 0xFF) >= 128;
+				return new GroundTruth(source.imageName, source.width, source.height, mask);
+		}
+
+		throw new IOException("Could not load ground truth '"+source.imageName+"'");
+	}
+
+
+	/**
+	 * Loads a saliency map from a source and scales it to the size of its ground truth, unless it is evaluated at map resolution.
+	 *
+	 * @param source source of the map
+	 * @param width  width of the ground truth
+	 * @param height height of the ground truth
+	 *
+	 * @return       saliency map with values available
+	 *
+	 * @throws IOException if the map cannot be loaded
+	 */
+	private SaliencyMap loadSaliencyMap(ImageSource source, int width, int height) throws IOException
+	{
+		SaliencyMap sMap;
+
+		switch (source.type)
+		{
+			case ImageSource.FILE:
+				sMap = new SaliencyMap(source.file, FileUtil.readBytes(source.file), width, height, mapResolution);
+				break;
+
+			case ImageSource.BYTES:
+				sMap = new SaliencyMap(source.file, source.data, width, height, mapResolution);
+				break;
+
+			case ImageSource.VALUES:
+				// interpreted like a greyscale image file of the same values
+				BufferedImage image = new BufferedImage(source.width, source.height, BufferedImage.TYPE_BYTE_GRAY);
+				System.arraycopy(source.values, 0, ((DataBufferByte)image.getRaster().getDataBuffer()).getData(), 0, source.values.length);
+				sMap = new SaliencyMap(source.imageName, image, width, height, mapResolution);
+				break;
+
+			default:
+				throw new IOException("Saliency map '"+source.imageName+"' must not be binary");
+		}
+
+		if (sMap.getMapValues() == null) throw new IOException("Could not load saliency map '"+source.imageName+"'");
+
+		return sMap;
+	}
+
+}
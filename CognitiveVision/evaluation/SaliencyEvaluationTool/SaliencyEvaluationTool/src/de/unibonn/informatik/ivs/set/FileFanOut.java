@@ -0,0 +1,273 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Reads files concurrently and hands their contents to a pool of worker threads.<br>
+ * <br>
+ * Reading thousands of small files from slow (network mounted or cold cache) storage mostly means waiting.
+ * Therefore each job's files are read on a thread of its own - a virtual thread if the platform provides them
+ * (Java 21+), a platform thread of a pool sized to the concurrency limit otherwise. The read contents are passed to a
+ * pool sized to the number of processors that decodes and evaluates them.<br>
+ * <br>
+ * The number of jobs in flight (being read, waiting for or being processed) is limited, which bounds both the number of
+ * concurrent reads and the memory held by file contents. Optionally jobs are additionally admitted against a memory
+ * budget by their estimated footprint (see {@link MemoryGovernor}), so that large images do not run out of memory.<br>
+ * Jobs whose files cannot be read or whose task fails are reported on standard error and counted (see {@link #getFailedJobs()}).
+ *
+ * @version		2026.1018
+ *
+ */
+public class FileFanOut
+{
+
+	/**
+	 * Processes the contents of files read by a {@link FileFanOut}.
+	 */
+	public interface Task
+	{
+
+		/**
+		 * Processes file contents, called on a worker thread.
+		 *
+		 * @param data contents of the files in the order they were submitted
+		 *
+		 * @throws Exception if processing fails
+		 */
+		void process(byte[][] data) throws Exception;
+	}
+
+
+	/**
+	 * Executor running file reads.
+	 */
+	private ExecutorService ioExecutor;
+
+	/**
+	 * Determines if file reads run on virtual threads.
+	 */
+	private boolean virtualThreads;
+
+	/**
+	 * Executor running tasks.
+	 */
+	private ExecutorService workerExecutor;
+
+	/**
+	 * Maximum number of jobs in flight.
+	 */
+	private int maxJobsInFlight;
+
+	/**
+	 * Permits for jobs in flight.
+	 */
+	private Semaphore jobsInFlight;
+
+	/**
+	 * Artificial latency in ms added to each file read, used to simulate slow storage in benchmarks.
+	 */
+	private int simulatedLatency = 0;
+
+	/**
+	 * Governor admitting jobs by their memory footprint, null to admit jobs by number only.
+	 */
+	private MemoryGovernor governor = null;
+
+	/**
+	 * Number of jobs whose files could not be read or whose task failed.
+	 */
+	private AtomicInteger nFailedJobs = new AtomicInteger();
+
+
+	/**
+	 * Constructs a fan-out.
+	 *
+	 * @param maxJobsInFlight maximum number of jobs read or processed at the same time
+	 * @param nWorkers        number of worker threads processing file contents
+	 */
+	public FileFanOut(int maxJobsInFlight, int nWorkers)
+	{
+		this.maxJobsInFlight = maxJobsInFlight;
+		jobsInFlight = new Semaphore(maxJobsInFlight);
+
+		ioExecutor = createVirtualThreadExecutor();
+		virtualThreads = ioExecutor != null;
+		if (!virtualThreads) ioExecutor = Executors.newFixedThreadPool(maxJobsInFlight);
+
+		workerExecutor = Executors.newFixedThreadPool(nWorkers);
+	}
+
+
+	/**
+	 * Creates an executor starting a virtual thread per task.
+	 * Virtual threads exist since Java 21, so the executor is created by reflection.
+	 *
+	 * @return executor, null if the platform does not provide virtual threads
+	 */
+	private static ExecutorService createVirtualThreadExecutor()
+	{
+		try
+		{
+			return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (Exception e)
+		{
+			return null;
+		}
+	}
+
+
+	/**
+	 * Returns true if files are read on virtual threads.
+	 *
+	 * @return true if virtual threads are used
+	 */
+	public boolean usesVirtualThreads()
+	{
+		return virtualThreads;
+	}
+
+
+	/**
+	 * Sets an artificial latency that is added to each file read.
+	 *
+	 * @param simulatedLatency latency in ms
+	 */
+	public void setSimulatedLatency(int simulatedLatency)
+	{
+		this.simulatedLatency = simulatedLatency;
+	}
+
+
+	/**
+	 * Sets a governor that admits jobs against a memory budget before their files are read.
+	 *
+	 * @param governor memory governor, null to admit jobs by number only
+	 */
+	public void setMemoryGovernor(MemoryGovernor governor)
+	{
+		this.governor = governor;
+	}
+
+
+	/**
+	 * Returns the number of jobs whose files could not be read or whose task failed so far.
+	 *
+	 * @return number of failed jobs
+	 */
+	public int getFailedJobs()
+	{
+		return nFailedJobs.get();
+	}
+
+
+	/**
+	 * Submits a job: files are read on an I/O thread, then the task is run on a worker thread.<br>
+	 * Blocks while the maximum number of jobs is in flight.
+	 *
+	 * @param files files to read
+	 * @param task  task processing the files' contents
+	 */
+	public void submit(final File[] files, final Task task)
+	{
+		jobsInFlight.acquireUninterruptibly();
+
+		try
+		{
+			ioExecutor.execute(new Runnable()
+			{
+				public void run()
+				{
+					read(files, task);
+				}
+			});
+		}
+		catch (RejectedExecutionException e)
+		{
+			jobsInFlight.release();
+			throw e;
+		}
+	}
+
+
+	/**
+	 * Reads the files of a job and passes their contents to a worker thread.
+	 *
+	 * @param files files to read
+	 * @param task  task processing the files' contents
+	 */
+	private void read(final File[] files, final Task task)
+	{
+		// the footprint is estimated from image headers, so it is acquired on the I/O thread as well
+		final int memory = governor != null ? governor.acquire(MemoryGovernor.estimateFootprint(files)) : 0;
+		int iFile = 0;
+
+		try
+		{
+			final byte[][] data = new byte[files.length][];
+
+			for (; iFile<files.length; iFile++)
+			{
+				if (simulatedLatency > 0) Thread.sleep(simulatedLatency);
+				data[iFile] = FileUtil.readBytes(files[iFile]);
+			}
+
+			workerExecutor.execute(new Runnable()
+			{
+				public void run()
+				{
+					try
+					{
+						task.process(data);
+					}
+					catch (Exception e)
+					{
+						nFailedJobs.incrementAndGet();
+						System.err.println("Could not process '"+files[0].getAbsolutePath()+"': "+e.toString());
+					}
+					finally
+					{
+						if (governor != null) governor.release(memory);
+						jobsInFlight.release();
+					}
+				}
+			});
+		}
+		catch (Exception e)
+		{
+			nFailedJobs.incrementAndGet();
+			System.err.println("Could not read '"+files[Math.min(iFile, files.length-1)].getAbsolutePath()+"': "+e.toString());
+			if (governor != null) governor.release(memory);
+			jobsInFlight.release();
+		}
+	}
+
+
+	/**
+	 * Waits until all submitted jobs are processed.
+	 */
+	public void awaitCompletion()
+	{
+		// no job is in flight as soon as all permits are available
+		jobsInFlight.acquireUninterruptibly(maxJobsInFlight);
+		jobsInFlight.release(maxJobsInFlight);
+	}
+
+
+	/**
+	 * Waits for all submitted jobs and stops all threads.
+	 */
+	public void shutdown()
+	{
+		awaitCompletion();
+
+		ioExecutor.shutdown();
+		workerExecutor.shutdown();
+	}
+
+}
@@ -153,6 +153,19 @@ public class FileUtil
 	}
 
 
+	/**
+	 * Reads the complete contents of a file into memory.
+	 *
+	 * @param in	The file to read
+	 * @return		The file's contents
+	 * @throws IOException if reading fails
+	 */
+	public static byte[] readBytes(File in) throws IOException
+	{
+		return java.nio.file.Files.readAllBytes(in.toPath());
+	}
+
+
 	/**
 	 * Copies a file.
 	 *
@@ -206,6 +219,7 @@ public class FileUtil
 	/**
 	 * Searches in a set of files for one whose name contains a specified name.<br>
 	 * If more than one file in the set contain the name, it is unspecified which one is returned.
+	 * Sidecar headers of raw maps (see {@link PreciseMapReader}) are skipped.
 	 *
 	 * @param fileName name to search for
 	 * @param files    array of files to serach in
@@ -216,7 +230,7 @@ public class FileUtil
 	{
 		for (File file: files)
 		{
-			if (file.getName().contains(fileName)) return file;
+			if (file.getName().contains(fileName) && !file.getName().endsWith(".hdr")) return file;
 		}
 
 		return null;
@@ -0,0 +1,381 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+
+
+/**
+ * Reads 8 bit greyscale frames (saliency maps or ground truth masks of a video) sequentially from a single container file.<br>
+ * <br>
+ * Supported containers:<br>
+ * 1. Concatenated binary PGM images (<code>P5</code>), each frame with its own header<br>
+ * 2. YUV4MPEG2 (<code>.y4m</code>) with 8 bit samples, of which the luma plane is read and chroma planes are skipped<br>
+ * 3. Raw planes of width*height bytes without any header, described by a sidecar file <code>&lt;container&gt;.hdr</code>
+ *    containing lines <code>width=&lt;width&gt;</code> and <code>height=&lt;height&gt;</code><br>
+ * <br>
+ * All frames are read into the same buffer, so reading a sequence of any length does not allocate memory per frame.
+ * The contents of the buffer are only valid until the next frame is read.
+ *
+ * @version		2026.1018
+ *
+ */
+public class FrameSequenceReader implements Closeable
+{
+
+	/**
+	 * Constant indicating a container of concatenated PGM images.
+	 */
+	public static final int FORMAT_PGM  = 0;
+
+	/**
+	 * Constant indicating a YUV4MPEG2 container.
+	 */
+	public static final int FORMAT_Y4M  = 1;
+
+	/**
+	 * Constant indicating raw planes described by a sidecar header file.
+	 */
+	public static final int FORMAT_RAW  = 2;
+
+	/**
+	 * Size of the buffer the container is read through.
+	 */
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Stream the container is read from.
+	 */
+	private DataInputStream in;
+
+	/**
+	 * Format of the container.
+	 */
+	private int format;
+
+	/**
+	 * Size of the current frame.
+	 */
+	private int width, height;
+
+	/**
+	 * Number of chroma bytes following the luma plane of a Y4M frame.
+	 */
+	private int nChromaBytes = 0;
+
+	/**
+	 * Buffer of the current frame, reused for all frames of the same size.
+	 */
+	private byte[] frame = new byte[0];
+
+	/**
+	 * Index of the current frame, -1 before the first frame has been read.
+	 */
+	private int frameIndex = -1;
+
+
+	/**
+	 * Opens a container, determining its format from its first bytes or from a sidecar header file.
+	 *
+	 * @param file container file
+	 *
+	 * @throws IOException if the file cannot be read or its format is not supported
+	 */
+	public FrameSequenceReader(File file) throws IOException
+	{
+		in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+
+		try
+		{
+			in.mark(16);
+			byte[] magic = new byte[9];
+			int nMagic = in.read(magic);
+			in.reset();
+
+			if (nMagic >= 2 && magic[0] == 'P' && magic[1] == '5')
+			{
+				format = FORMAT_PGM;
+			}
+			else if (nMagic == 9 && new String(magic, "US-ASCII").equals("YUV4MPEG2"))
+			{
+				format = FORMAT_Y4M;
+				readY4mHeader(readLine());
+			}
+			else
+			{
+				format = FORMAT_RAW;
+				readRawHeader(new File(file.getPath()+".hdr"));
+			}
+		}
+		catch (IOException e)
+		{
+			in.close();
+			throw e;
+		}
+	}
+
+
+	/**
+	 * Reads the next frame into the buffer.
+	 *
+	 * @return true if a frame has been read, false if the end of the container has been reached
+	 *
+	 * @throws IOException if the container cannot be read or is malformed
+	 */
+	public boolean next() throws IOException
+	{
+		if (format == FORMAT_PGM)
+		{
+			int first = in.read();
+			while (first != -1 && Character.isWhitespace(first)) first = in.read();
+			if (first == -1) return false;
+
+			if (first != 'P' || in.read() != '5') throw new IOException("Frame "+(frameIndex+1)+" is no binary PGM image");
+
+			width  = readPgmNumber();
+			height = readPgmNumber();
+			int maxValue = readPgmNumber();
+			if (maxValue < 1 || maxValue > 255) throw new IOException("Frame "+(frameIndex+1)+": only 8 bit PGM images are supported (max. value "+maxValue+")");
+
+			readPlane();
+
+			if (maxValue != 255) for (int i=0; i<frame.length; i++) frame[i] = (byte)(Math.min(255, (frame[i] & 0xFF)*255/maxValue));
+		}
+		else if (format == FORMAT_Y4M)
+		{
+			String line = readLine();
+			if (line == null) return false;
+			if (!line.startsWith("FRAME")) throw new IOException("Frame "+(frameIndex+1)+" does not start with FRAME");
+
+			readPlane();
+			in.skipBytes(nChromaBytes);
+		}
+		else
+		{
+			// end of container only between frames
+			in.mark(1);
+			if (in.read() == -1) return false;
+			in.reset();
+
+			readPlane();
+		}
+
+		frameIndex++;
+
+		return true;
+	}
+
+
+	/**
+	 * Reads width*height bytes into the buffer, resizing it only if the size of frames has changed.
+	 *
+	 * @throws IOException if the container ends within the frame
+	 */
+	private void readPlane() throws IOException
+	{
+		if (frame.length != width*height) frame = new byte[width*height];
+
+		try
+		{
+			in.readFully(frame);
+		}
+		catch (EOFException e)
+		{
+			throw new IOException("Frame "+(frameIndex+1)+" is truncated");
+		}
+	}
+
+
+	/**
+	 * Reads a number of a PGM header, skipping white space and comments before it.
+	 *
+	 * @return number
+	 *
+	 * @throws IOException if the header is malformed
+	 */
+	private int readPgmNumber() throws IOException
+	{
+		int c = in.read();
+		while (c == '#' || Character.isWhitespace(c))
+		{
+			if (c == '#') while (c != '\n' && c != -1) c = in.read();
+			c = in.read();
+		}
+
+		if (c < '0' || c > '9') throw new IOException("Malformed PGM header of frame "+(frameIndex+1));
+
+		int result = 0;
+		while (c >= '0' && c <= '9')
+		{
+			result = result*10 + (c-'0');
+			c = in.read();
+		}
+
+		// the white space character ending the number has been consumed, after the max. value the pixels follow
+		return result;
+	}
+
+
+	/**
+	 * Parses the stream header of a YUV4MPEG2 container.
+	 *
+	 * @param header header line
+	 *
+	 * @throws IOException if the header is malformed or the colour space is not supported
+	 */
+	private void readY4mHeader(String header) throws IOException
+	{
+		String colourSpace = "420";
+		width  = -1;
+		height = -1;
+
+		for (String token: header.split(" "))
+		{
+			if (token.length() < 2) continue;
+
+			     if (token.charAt(0) == 'W') width       = Integer.parseInt(token.substring(1));
+			else if (token.charAt(0) == 'H') height      = Integer.parseInt(token.substring(1));
+			else if (token.charAt(0) == 'C') colourSpace = token.substring(1);
+		}
+
+		if (width <= 0 || height <= 0) throw new IOException("Y4M header without frame size: '"+header+"'");
+
+		int chromaWidth  = (width+1) / 2;
+		int chromaHeight = (height+1) / 2;
+
+		     if (colourSpace.equals("mono"))     nChromaBytes = 0;
+		else if (colourSpace.matches("420(jpeg|paldv|mpeg2)?")) nChromaBytes = 2*chromaWidth*chromaHeight;
+		else if (colourSpace.equals("422"))      nChromaBytes = 2*chromaWidth*height;
+		else if (colourSpace.equals("444"))      nChromaBytes = 2*width*height;
+		else throw new IOException("Y4M colour space '"+colourSpace+"' is not supported, 8 bit mono, 420, 422 or 444 required");
+	}
+
+
+	/**
+	 * Parses the sidecar header file of a raw container.
+	 *
+	 * @param headerFile sidecar header file
+	 *
+	 * @throws IOException if the header file does not exist or is malformed
+	 */
+	private void readRawHeader(File headerFile) throws IOException
+	{
+		if (!headerFile.isFile()) throw new IOException("Unknown container format and no header file '"+headerFile.getPath()+"' for raw frames");
+
+		Properties header = new Properties();
+		Reader reader = new FileReader(headerFile);
+		try
+		{
+			header.load(reader);
+		}
+		finally
+		{
+			reader.close();
+		}
+
+		try
+		{
+			width  = Integer.parseInt(header.getProperty("width",  "-1").trim());
+			height = Integer.parseInt(header.getProperty("height", "-1").trim());
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IOException("Malformed header file '"+headerFile.getPath()+"': "+e.getMessage());
+		}
+
+		if (width <= 0 || height <= 0) throw new IOException("Header file '"+headerFile.getPath()+"' must define width and height");
+	}
+
+
+	/**
+	 * Reads a line of ASCII text.
+	 *
+	 * @return line without line feed, null at the end of the container
+	 *
+	 * @throws IOException if the container cannot be read
+	 */
+	private String readLine() throws IOException
+	{
+		StringBuilder result = new StringBuilder();
+
+		int c = in.read();
+		if (c == -1) return null;
+
+		while (c != '\n' && c != -1)
+		{
+			result.append((char)c);
+			c = in.read();
+		}
+
+		return result.toString();
+	}
+
+
+	/**
+	 * Returns the format of the container.
+	 *
+	 * @return {@link #FORMAT_PGM}, {@link #FORMAT_Y4M} or {@link #FORMAT_RAW}
+	 */
+	public int getFormat()
+	{
+		return format;
+	}
+
+
+	/**
+	 * Returns the width of the current frame.
+	 *
+	 * @return width
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+
+
+	/**
+	 * Returns the height of the current frame.
+	 *
+	 * @return height
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+
+
+	/**
+	 * Returns the buffer containing the current frame, row by row, one byte per pixel.
+	 * The buffer is overwritten by the next frame.
+	 *
+	 * @return frame buffer
+	 */
+	public byte[] getFrame()
+	{
+		return frame;
+	}
+
+
+	/**
+	 * Returns the index of the current frame.
+	 *
+	 * @return index, starting at 0
+	 */
+	public int getFrameIndex()
+	{
+		return frameIndex;
+	}
+
+
+	/**
+	 * Closes the container.
+	 *
+	 * @throws IOException if closing fails
+	 */
+	public void close() throws IOException
+	{
+		in.close();
+	}
+
+}
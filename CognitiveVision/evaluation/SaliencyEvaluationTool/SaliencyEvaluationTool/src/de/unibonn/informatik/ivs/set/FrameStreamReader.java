@@ -0,0 +1,160 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.image.*;
+import java.io.*;
+
+
+/**
+ * Reads named 8 bit greyscale saliency maps from a stream as they arrive, e.g. from standard input fed by a saliency
+ * program, so that maps need neither be encoded to image files nor stored in a folder before they are evaluated.<br>
+ * <br>
+ * Each frame consists of (all numbers unsigned, most significant byte first):<br>
+ * 1. length of the image name in bytes (2 bytes)<br>
+ * 2. image name, UTF-8<br>
+ * 3. width and height (4 bytes each)<br>
+ * 4. width*height grey values row by row, one byte per pixel<br>
+ * <br>
+ * The stream ends between frames. A writer for OpenCV programs is <code>SaliencyStreamWriter</code> in <code>CognitiveVision/src</code>.<br>
+ * Frames are read directly into the pixels of a greyscale image, which is reused for all frames of the same size,
+ * so a frame is interpreted exactly like a greyscale image file of the same values.
+ * The contents of the image are only valid until the next frame is read.
+ *
+ * @version		2026.1018
+ *
+ */
+public class FrameStreamReader implements Closeable
+{
+
+	/**
+	 * Size of the buffer the stream is read through.
+	 */
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Stream the frames are read from.
+	 */
+	private DataInputStream in;
+
+	/**
+	 * Name of the image of the current frame.
+	 */
+	private String imageName = null;
+
+	/**
+	 * Image containing the current frame, null before the first frame has been read.
+	 */
+	private BufferedImage image = null;
+
+	/**
+	 * Pixels of {@link #image}.
+	 */
+	private byte[] frame = new byte[0];
+
+	/**
+	 * Index of the current frame, -1 before the first frame has been read.
+	 */
+	private int frameIndex = -1;
+
+
+	/**
+	 * Constructs a reader of a stream.
+	 *
+	 * @param in stream to read frames from, e.g. <code>System.in</code>
+	 */
+	public FrameStreamReader(InputStream in)
+	{
+		this.in = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+	}
+
+
+	/**
+	 * Reads the next frame, blocking until it has arrived completely.
+	 *
+	 * @return true if a frame has been read, false if the stream has ended
+	 *
+	 * @throws IOException if the stream cannot be read or ends within a frame
+	 */
+	public boolean next() throws IOException
+	{
+		// end of stream only between frames
+		int first = in.read();
+		if (first == -1) return false;
+
+		try
+		{
+			int nameLength = (first << 8) | in.readUnsignedByte();
+			byte[] name = new byte[nameLength];
+			in.readFully(name);
+
+			long width  = in.readInt() & 0xFFFFFFFFL;
+			long height = in.readInt() & 0xFFFFFFFFL;
+			if (width == 0 || height == 0 || width*height > Integer.MAX_VALUE) throw new IOException("Frame "+(frameIndex+1)+" has an invalid size of "+width+"x"+height);
+
+			if (image == null || image.getWidth() != width || image.getHeight() != height)
+			{
+				image = new BufferedImage((int)width, (int)height, BufferedImage.TYPE_BYTE_GRAY);
+				frame = ((DataBufferByte)image.getRaster().getDataBuffer()).getData();
+			}
+
+			in.readFully(frame);
+
+			imageName = new String(name, "UTF-8");
+		}
+		catch (EOFException e)
+		{
+			throw new IOException("Frame "+(frameIndex+1)+" is truncated");
+		}
+
+		frameIndex++;
+
+		return true;
+	}
+
+
+	/**
+	 * Returns the name of the image of the current frame.
+	 *
+	 * @return image name
+	 */
+	public String getImageName()
+	{
+		return imageName;
+	}
+
+
+	/**
+	 * Returns the greyscale image containing the current frame.
+	 * The image is overwritten by the next frame of the same size.
+	 *
+	 * @return image
+	 */
+	public BufferedImage getImage()
+	{
+		return image;
+	}
+
+
+	/**
+	 * Returns the index of the current frame.
+	 *
+	 * @return index, starting at 0
+	 */
+	public int getFrameIndex()
+	{
+		return frameIndex;
+	}
+
+
+	/**
+	 * Closes the stream.
+	 *
+	 * @throws IOException if closing fails
+	 */
+	public void close() throws IOException
+	{
+		in.close();
+	}
+
+}
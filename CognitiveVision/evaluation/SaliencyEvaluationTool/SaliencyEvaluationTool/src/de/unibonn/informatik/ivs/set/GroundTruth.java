@@ -39,6 +39,21 @@ public class GroundTruth
 	 */
 	public static final int RECALL    = 1;
 
+	/**
+	 * Constant for histogram of saliency values inside the ground truth object
+	 */
+	public static final int OBJECT     = 0;
+
+	/**
+	 * Constant for histogram of saliency values outside the ground truth object
+	 */
+	public static final int BACKGROUND = 1;
+
+	/**
+	 * Weight of a pixel of a smaller saliency map that is fully covered by the object (see {@link #getCoverage(int, int)}).
+	 */
+	public static final int COVERAGE_SCALE = 256;
+
 
 	/**
 	 * Name of the image ground truth refers to
@@ -55,6 +70,47 @@ public class GroundTruth
 	 */
 	float[][] greyGroundTruth;
 
+	/**
+	 * Number of rectangles voting for object pixels if constructed from a ground truth description, 0 otherwise.
+	 */
+	private int nVotes = 0;
+
+	/**
+	 * Rectangles of the ground truth description (clipped to the image), null if not constructed from a description.
+	 */
+	private java.util.List<Rectangle> rectangles = null;
+
+	/**
+	 * Binary ground truth values row by row, determined from {@link #binaryGroundTruth} on first use
+	 * or given directly (see {@link #GroundTruth(java.lang.String, int, int, boolean[])})
+	 */
+	boolean[] values;
+
+	/**
+	 * Width of ground truth given by values only
+	 */
+	int width;
+
+	/**
+	 * Height of ground truth given by values only
+	 */
+	int height;
+
+	/**
+	 * Distance transform of the object, determined on first use (see {@link #getDistanceTransform()}).
+	 */
+	private DistanceTransform distanceTransform = null;
+
+	/**
+	 * Coverage of the pixels of smaller saliency maps by the object, by size of the map (see {@link #getCoverage(int, int)}).
+	 */
+	private java.util.Map<Dimension, int[]> coverages = new java.util.HashMap<Dimension, int[]>();
+
+	/**
+	 * Number of bytes held by the distance transform and the coverages (see {@link #getRetainedBytes()}).
+	 */
+	private volatile long derivedBytes = 0;
+
 
 	/**
 	 * Constructs ground truth from an binary image.
@@ -67,6 +123,19 @@ public class GroundTruth
 	}
 
 
+	/**
+	 * Constructs ground truth from the contents of a binary image file that have already been read into memory.
+	 *
+	 * @param file File the image has been read from
+	 * @param data Contents of the file
+	 */
+	public GroundTruth(File file, byte[] data)
+	{
+		binaryGroundTruth = ImageUtil.loadImage(data, file.getAbsolutePath());
+		imageName = FileUtil.getFileNameWithoutEnding(file.getName());
+	}
+
+
 	/**
 	 * Constructs ground truth from an binary image
 	 *
@@ -78,6 +147,24 @@ public class GroundTruth
 	}
 
 
+	/**
+	 * Constructs ground truth from binary values, e.g. read from a {@link DatasetPack}.<br>
+	 * No binary image is created unless it is requested by {@link #getBinaryImage()}.
+	 *
+	 * @param imageName Name of the image ground truth refers to
+	 * @param width     Width of the image
+	 * @param height    Height of the image
+	 * @param values    Binary ground truth values row by row
+	 */
+	public GroundTruth(String imageName, int width, int height, boolean[] values)
+	{
+		this.imageName = imageName;
+		this.width     = width;
+		this.height    = height;
+		this.values    = values;
+	}
+
+
 	/**
 	 * Constructs ground truth from a description
 	 *
@@ -89,6 +176,8 @@ public class GroundTruth
 		greyGroundTruth = new float[description.imageSize.width][description.imageSize.height];
 
 		float greyFactor = 1f / description.rectangles.size();
+		nVotes = description.rectangles.size();
+		rectangles = description.rectangles;
 
 		for (Rectangle currentRect: description.rectangles)
 		{
@@ -109,7 +198,8 @@ public class GroundTruth
 
 	/**
 	 * Calculates binary image of ground truth from probability values and a threshold.
-	 * Only probability values above the threshold are set in binary image.
+	 * Only probability values above the threshold are set in binary image, which are counted as votes of rectangles
+	 * (see {@link #getMinVotes(double, int)}) so that thresholds k/n are not affected by rounding.
 	 *
 	 * This method does nothing if ground truth was not constructed from a ground truth description.
 	 *
@@ -122,15 +212,127 @@ public class GroundTruth
 		if (threshold < 0f) threshold = 0f;
 		else if (threshold > 1f) threshold = 1f;
 
+		StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.MASK);
+
+		int minVotes = getMinVotes(threshold, nVotes);
 		binaryGroundTruth = new BufferedImage(greyGroundTruth.length, greyGroundTruth[0].length, BufferedImage.TYPE_BYTE_BINARY);
+		values = null;
+		synchronized (this)
+		{
+			coverages.clear();
+			distanceTransform = null;
+			derivedBytes = 0;
+		}
 
 		for (int x=0; x<greyGroundTruth.length; x++)
 		{
 			for (int y=0; y<greyGroundTruth[x].length; y++)
 			{
-				if (greyGroundTruth[x][y] > threshold) binaryGroundTruth.setRGB(x, y, 0xFFFFFFFF);
+				if (Math.round(greyGroundTruth[x][y]*nVotes) >= minVotes) binaryGroundTruth.setRGB(x, y, 0xFFFFFFFF);
+			}
+		}
+
+		stage.end(imageName, greyGroundTruth.length, greyGroundTruth[0].length, null);
+	}
+
+
+	/**
+	 * Returns the number of rectangles voting for object pixels.
+	 *
+	 * @return number of rectangles of the ground truth description, 0 if not constructed from a description
+	 */
+	public int getNumberOfVotes()
+	{
+		return nVotes;
+	}
+
+
+	/**
+	 * Returns the minimum number of votes of object pixels at a ground truth threshold, i.e. the smallest number of votes
+	 * above threshold*votes.
+	 *
+	 * @param threshold threshold of the probability of object pixels
+	 * @param nVotes    number of rectangles voting for object pixels
+	 *
+	 * @return          minimum number of votes
+	 */
+	public static int getMinVotes(double threshold, int nVotes)
+	{
+		// margin against rounding of thresholds k/n
+		return (int)Math.floor(threshold*nVotes+1e-9) + 1;
+	}
+
+
+	/**
+	 * Returns the rectangles of the ground truth description, clipped to the image.
+	 *
+	 * @return rectangles, null if not constructed from a ground truth description
+	 */
+	public java.util.List<Rectangle> getRectangles()
+	{
+		return rectangles;
+	}
+
+
+	/**
+	 * Counts saliency values by the number of rectangles covering the pixel (votes, see {@link #getNumberOfVotes()}).
+	 * The binary ground truth of any threshold consists of all pixels with more votes than threshold*votes, so histograms
+	 * for every threshold follow from these counts (see {@link #getHistogramsForMinVotes(int[][], int)})
+	 * without visiting the pixels again.<br>
+	 * <br>
+	 * Only available if ground truth was constructed from a ground truth description.
+	 *
+	 * @param saliencyMap saliency map to evaluate
+	 *
+	 * @return            Counts of saliency values, null if not available or sizes do not match<br>
+	 *                    index1: number of votes, in [0; number of votes]<br>
+	 *                    index2: saliency value, in [0; 255]
+	 */
+	public int[][] getVoteHistograms(SaliencyMap saliencyMap)
+	{
+		if (greyGroundTruth == null || nVotes == 0) return null;
+
+		int width  = greyGroundTruth.length;
+		int height = greyGroundTruth[0].length;
+
+		int[] saliencyValues = saliencyMap.getMapValues();
+		if (saliencyValues == null || saliencyMap.getWidth() != width || saliencyMap.getHeight() != height) return null;
+
+		int[][] result = new int[nVotes+1][SaliencyMap.NUM_GREYSCALES];
+
+		for (int y=0; y<height; y++)
+		{
+			for (int x=0; x<width; x++)
+			{
+				result[Math.round(greyGroundTruth[x][y]*nVotes)][saliencyValues[y*width+x]]++;
 			}
 		}
+
+		return result;
+	}
+
+
+	/**
+	 * Determines histograms of saliency values inside/outside the object (as returned by
+	 * {@link #getHistograms(de.unibonn.informatik.ivs.set.SaliencyMap)}) from counts by votes
+	 * (see {@link #getVoteHistograms(de.unibonn.informatik.ivs.set.SaliencyMap)}).
+	 *
+	 * @param voteHistograms counts of saliency values by number of votes
+	 * @param minVotes       minimum number of votes of object pixels
+	 *
+	 * @return               histograms of saliency values inside/outside the object
+	 */
+	public static int[][] getHistogramsForMinVotes(int[][] voteHistograms, int minVotes)
+	{
+		int[][] result = new int[2][SaliencyMap.NUM_GREYSCALES];
+
+		for (int votes=0; votes<voteHistograms.length; votes++)
+		{
+			int[] histogram = result[votes >= minVotes ? OBJECT : BACKGROUND];
+			for (int value=0; value<SaliencyMap.NUM_GREYSCALES; value++) histogram[value] += voteHistograms[votes][value];
+		}
+
+		return result;
 	}
 
 
@@ -164,6 +366,8 @@ public class GroundTruth
 			return;
 		}
 
+		StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.DECODE);
+
 		try
 		{
 			binaryGroundTruth = ImageIO.read(file);
@@ -178,6 +382,8 @@ public class GroundTruth
 		{
 			System.err.println("Could not load image '"+file.getAbsolutePath()+"': "+e.toString());
 		}
+
+		ImageUtil.endDecode(stage, file.getName(), binaryGroundTruth);
 	}
 
 
@@ -188,19 +394,39 @@ public class GroundTruth
 	 */
 	public double getRelativeObjectSize()
 	{
-		if (binaryGroundTruth == null) return -1.0;
+		boolean[] groundTruthValues = getValues();
+		if (groundTruthValues == null) return -1.0;
 
 		int i = 0;
 
-		for (int x=0; x<binaryGroundTruth.getWidth(); x++)
+		for (int iValue=0; iValue<groundTruthValues.length; iValue++) if (groundTruthValues[iValue]) i++;
+
+		return (double)i / groundTruthValues.length;
+	}
+
+
+	/**
+	 * Determines the relative size of the object from histograms of saliency values
+	 * (see {@link #getHistograms(de.unibonn.informatik.ivs.set.SaliencyMap)}), i.e. from the binary
+	 * ground truth the saliency map has been evaluated against.
+	 *
+	 * @param histograms histograms of saliency values inside/outside the object
+	 *
+	 * @return           relative object size, in [0.0; 1.0], -1.0 for empty histograms
+	 */
+	public static double getRelativeObjectSize(int[][] histograms)
+	{
+		long nObject = 0, nBackground = 0;
+
+		for (int iValue=0; iValue<histograms[OBJECT].length; iValue++)
 		{
-			for (int y=0; y<binaryGroundTruth.getHeight(); y++)
-			{
-				if (binaryGroundTruth.getRGB(x, y) == 0xFFFFFFFF) i++;
-			}
+			nObject     += histograms[OBJECT][iValue];
+			nBackground += histograms[BACKGROUND][iValue];
 		}
 
-		return (double)i / (binaryGroundTruth.getWidth()*binaryGroundTruth.getHeight());
+		if (nObject+nBackground == 0) return -1.0;
+
+		return (double)nObject / (nObject+nBackground);
 	}
 
 
@@ -216,32 +442,26 @@ public class GroundTruth
 	 */
 	public double[] evaluate(SaliencyMap saliencyMap, int binaryThreshold)
 	{
-		if (binaryGroundTruth == null) return null;
+		if (getValues() == null) return null;
 
-		if (    saliencyMap.getWidth()  != binaryGroundTruth.getWidth()
-		     || saliencyMap.getHeight() != binaryGroundTruth.getHeight()) return null;
+		if (    saliencyMap.getWidth()  != getWidth()
+		     || saliencyMap.getHeight() != getHeight()) return null;
 
-		int[] saliencyValues = saliencyMap.getMapValues();
+		int[] saliencyValues       = saliencyMap.getMapValues();
+		boolean[] groundTruthValues = getValues();
 
 		int truePositive  = 0;
 		int falsePositive = 0;
 		int falseNegative = 0;
 
-		int i = 0;
-
-		for (int x=0; x<binaryGroundTruth.getWidth(); x++)
+		for (int i=0; i<groundTruthValues.length; i++)
 		{
-			for (int y=0; y<binaryGroundTruth.getHeight(); y++)
+			if (groundTruthValues[i])
 			{
-				if (binaryGroundTruth.getRGB(x, y) == 0xFFFFFFFF)
-				{
-					if (saliencyValues[i] >= binaryThreshold) truePositive++;
-					else falseNegative++;
-				}
-				else if (saliencyValues[i] >= binaryThreshold) falsePositive++;
-
-				i++;
+				if (saliencyValues[i] >= binaryThreshold) truePositive++;
+				else falseNegative++;
 			}
+			else if (saliencyValues[i] >= binaryThreshold) falsePositive++;
 		}
 
 		double[] result = new double[2];
@@ -265,8 +485,33 @@ public class GroundTruth
 	 */
 	public double[][] evaluate(SaliencyMap saliencyMap)
 	{
-		if (    saliencyMap.getWidth()  != binaryGroundTruth.getWidth()
-		     || saliencyMap.getHeight() != binaryGroundTruth.getHeight())
+		int[][] histograms = getHistograms(saliencyMap);
+		if (histograms == null) return null;
+
+		return evaluate(histograms);
+	}
+
+
+	/**
+	 * Counts the saliency values of a saliency map separately for pixels inside and outside of this ground truth.<br>
+	 * A saliency map smaller than the image (see {@link SaliencyMap#SaliencyMap(java.io.File, int, int, boolean)}) is evaluated
+	 * at its own resolution: each of its values is counted with the area of its pixel covered by the object as weight inside
+	 * and the remaining area as weight outside the object (see {@link #getCoverage(int, int)}).<br>
+	 * All threshold based metrics ({@link #evaluate(int[][])}, {@link #getAreaUnderCurve(int[][])},
+	 * {@link #getMeanAbsoluteError(int[][])}) can be derived from these histograms without touching
+	 * the saliency map again.
+	 *
+	 * @param saliencyMap Saliency map to count values of
+	 *
+	 * @return            histograms of saliency values<br>
+	 *                    index1: {@link #OBJECT} or {@link #BACKGROUND}<br>
+	 *                    index2: saliency value in [0; 255]
+	 */
+	public int[][] getHistograms(SaliencyMap saliencyMap)
+	{
+		boolean sameSize = saliencyMap.getWidth() == getWidth() && saliencyMap.getHeight() == getHeight();
+
+		if (!sameSize && (saliencyMap.getWidth() > getWidth() || saliencyMap.getHeight() > getHeight() || saliencyMap.getWidth() <= 0))
 		{
 			System.err.println("Cannot evaluate '"+imageName+"': size of saliency map does not match");
 			return null;
@@ -286,63 +531,361 @@ public class GroundTruth
 			return null;
 		}
 
-		double[][] result = new double[SaliencyMap.NUM_GREYSCALES][2];
+		int[][] result = new int[2][SaliencyMap.NUM_GREYSCALES];
+
+		if (sameSize)
+		{
+			EvaluationKernel.getInstance().addToHistograms(saliencyValues, groundTruthValues, result);
+			return result;
+		}
+
+		int[] coverage = getCoverage(saliencyMap.getWidth(), saliencyMap.getHeight());
+		int scale = getCoverageScale(coverage.length);
+
+		for (int i=0; i<coverage.length; i++)
+		{
+			result[OBJECT    ][saliencyValues[i]] += coverage[i];
+			result[BACKGROUND][saliencyValues[i]] += scale-coverage[i];
+		}
+
+		return result;
+	}
 
-		int nGroundTruth, nSaliency, nMatch;
-		
-		for (int binaryThreshold=0; binaryThreshold<SaliencyMap.NUM_GREYSCALES; binaryThreshold++)
+
+	/**
+	 * Returns the distance of every pixel to the nearest object pixel (see {@link WeightedFMeasure}).<br>
+	 * The transform is determined once and kept with the ground truth, so that all saliency maps evaluated against it
+	 * share it, also across methods if the ground truth is cached (see {@link EvaluationCache}).
+	 *
+	 * @return distance transform of the binary ground truth values, null if values are not available
+	 */
+	public synchronized DistanceTransform getDistanceTransform()
+	{
+		if (distanceTransform != null) return distanceTransform;
+
+		boolean[] values = getValues();
+		if (values == null) return null;
+
+		distanceTransform = new DistanceTransform(values, getWidth(), getHeight());
+		// squared distance and nearest object pixel per pixel
+		derivedBytes += 8L*values.length;
+
+		return distanceTransform;
+	}
+
+
+	/**
+	 * Returns the number of bytes held by the binary values and the data derived from them on first use
+	 * (see {@link #getDistanceTransform()} and {@link #getCoverage(int, int)}), e.g. to keep a cache within its budget.<br>
+	 * The method does not wait for data being derived by other threads, which is counted once it is complete.
+	 *
+	 * @return number of bytes, one per binary value and four per int of derived data
+	 */
+	public long getRetainedBytes()
+	{
+		boolean[] values = this.values;
+
+		return (values != null ? values.length : 0) + derivedBytes;
+	}
+
+
+	/**
+	 * Scales the ground truth down to the size of a smaller saliency map by area coverage: each pixel of the map covers
+	 * a rectangle of ground truth pixels, partially at its borders, and its weight is the covered area that belongs to the object.<br>
+	 * Coordinates are measured in fractions of ground truth pixels so that all overlaps are exact integers; each ground truth
+	 * pixel overlaps at most two pixels of the map per dimension, so the ground truth is visited once.
+	 * The result is determined once per size and shared by all callers, it must not be modified.
+	 *
+	 * @param mapWidth  width of the map, not greater than the width of the ground truth
+	 * @param mapHeight height of the map, not greater than the height of the ground truth
+	 *
+	 * @return          weights row by row, in [0; {@link #getCoverageScale(int) scale}] for pixels not covered at all up to fully covered
+	 */
+	public synchronized int[] getCoverage(int mapWidth, int mapHeight)
+	{
+		Dimension size = new Dimension(mapWidth, mapHeight);
+		if (coverages.containsKey(size)) return coverages.get(size);
+
+		boolean[] groundTruthValues = getValues();
+		if (groundTruthValues == null) return null;
+
+		int width  = getWidth();
+		int height = getHeight();
+
+		StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.SCALE);
+
+		// a ground truth pixel spans mapWidth x mapHeight units, a map pixel width x height units
+		long[] objectArea = new long[mapWidth*mapHeight];
+
+		for (int y=0; y<height; y++)
 		{
-			nGroundTruth = nSaliency = nMatch = 0;
+			int top    = y*mapHeight;
+			int bottom = top+mapHeight;
 
-			// TEST
-			//ImageUtil.saveImageAsPng(saliencyMap.getBinaryMap(binaryThreshold), "images/binary_saliency_maps/"+saliencyMap.imageName+"_"+binaryThreshold);
-			
-			for (int i=0; i<groundTruthValues.length; i++)
+			for (int x=0; x<width; x++)
 			{
-				if (groundTruthValues[i])
+				if (!groundTruthValues[y*width+x]) continue;
+
+				int left  = x*mapWidth;
+				int right = left+mapWidth;
+
+				for (int mapY=top/height; mapY<=(bottom-1)/height; mapY++)
 				{
-					nGroundTruth++;
+					long overlapY = Math.min(bottom, (mapY+1)*height) - Math.max(top, mapY*height);
 
-					if (saliencyValues[i] >= binaryThreshold)
+					for (int mapX=left/width; mapX<=(right-1)/width; mapX++)
 					{
-						nSaliency++;
-						nMatch++;
+						long overlapX = Math.min(right, (mapX+1)*width) - Math.max(left, mapX*width);
+						objectArea[mapY*mapWidth+mapX] += overlapX*overlapY;
 					}
 				}
-				else if (saliencyValues[i] >= binaryThreshold) nSaliency++;
 			}
+		}
+
+		int scale = getCoverageScale(objectArea.length);
+		double pixelArea = (double)width*height;
+
+		int[] result = new int[objectArea.length];
+		for (int i=0; i<result.length; i++) result[i] = (int)Math.round(objectArea[i]*scale / pixelArea);
+
+		coverages.put(size, result);
+		derivedBytes += 4L*result.length;
+
+		stage.end(imageName, mapWidth, mapHeight, null);
+
+		return result;
+	}
+
+
+	/**
+	 * Returns the weight of a fully covered pixel of a smaller saliency map (see {@link #getCoverage(int, int)}).
+	 * It is reduced for very large maps, so that the weights of all pixels still sum up to an int.
+	 *
+	 * @param nPixels number of pixels of the map
+	 *
+	 * @return        weight, at most {@link #COVERAGE_SCALE}
+	 */
+	public static int getCoverageScale(int nPixels)
+	{
+		return Math.max(1, Math.min(COVERAGE_SCALE, Integer.MAX_VALUE / Math.max(1, nPixels)));
+	}
+
+
+	/**
+	 * Calculates precision/recall values for each binary threshold from histograms of saliency values
+	 * (see {@link #getHistograms(de.unibonn.informatik.ivs.set.SaliencyMap)}).<br>
+	 * Pixels selected by a threshold are the ones whose saliency value is greater than or equal to the threshold,
+	 * so the counts per threshold are cumulative sums over the histograms from the highest grey value downwards.
+	 *
+	 * @param histograms histograms of saliency values inside/outside the ground truth object
+	 *
+	 * @return           Array containing precision/recall for each greyvalue threshold<br>
+	 *                   index1: theshold in [0; 255]<br>
+	 *                   index2: {@link #PRECISION} and {@link #RECALL}
+	 */
+	public static double[][] evaluate(int[][] histograms)
+	{
+		double[][] result = new double[SaliencyMap.NUM_GREYSCALES][2];
+
+		long nGroundTruth = 0;
+		for (int value=0; value<SaliencyMap.NUM_GREYSCALES; value++) nGroundTruth += histograms[OBJECT][value];
+
+		long nSaliency = 0;
+		long nMatch    = 0;
+
+		for (int binaryThreshold=SaliencyMap.NUM_GREYSCALES-1; binaryThreshold>=0; binaryThreshold--)
+		{
+			nMatch    += histograms[OBJECT][binaryThreshold];
+			nSaliency += histograms[OBJECT][binaryThreshold] + histograms[BACKGROUND][binaryThreshold];
 
 			if (nSaliency    > 0) result[binaryThreshold][PRECISION] = (double)nMatch / nSaliency;
 			if (nGroundTruth > 0) result[binaryThreshold][RECALL   ] = (double)nMatch / nGroundTruth;
-
-			//System.out.println("binaryThreshold = "+binaryThreshold+": nMatch = "+nMatch+", nSaliency = "+nSaliency+", nGroundTruth = "+nGroundTruth);
 		}
 
 		return result;
 	}
 
 
+	/**
+	 * Calculates the area under the ROC curve (true positive rate over false positive rate) from histograms
+	 * of saliency values (see {@link #getHistograms(de.unibonn.informatik.ivs.set.SaliencyMap)}).<br>
+	 * Each grey value is used as threshold, the resulting curve points are integrated by the trapezoidal rule.
+	 *
+	 * @param histograms histograms of saliency values inside/outside the ground truth object
+	 *
+	 * @return           area under ROC curve in [0.0; 1.0], NaN if ground truth object or background is empty
+	 */
+	public static double getAreaUnderCurve(int[][] histograms)
+	{
+		long nObject     = 0;
+		long nBackground = 0;
+
+		for (int value=0; value<SaliencyMap.NUM_GREYSCALES; value++)
+		{
+			nObject     += histograms[OBJECT][value];
+			nBackground += histograms[BACKGROUND][value];
+		}
+
+		if (nObject == 0 || nBackground == 0) return Double.NaN;
+
+		double result = 0.0;
+
+		long truePositive = 0;
+
+		// start at the threshold above the highest grey value, where nothing is selected (TPR = FPR = 0)
+		for (int binaryThreshold=SaliencyMap.NUM_GREYSCALES-1; binaryThreshold>=0; binaryThreshold--)
+		{
+			long lastTruePositive = truePositive;
+
+			truePositive += histograms[OBJECT][binaryThreshold];
+
+			// false positive rate grows by the background pixels of this grey value
+			result += (double)histograms[BACKGROUND][binaryThreshold] * (lastTruePositive + truePositive) / 2.0;
+		}
+
+		return result / ((double)nObject * nBackground);
+	}
+
+
+	/**
+	 * Calculates the mean absolute error between saliency map and binary ground truth from histograms
+	 * of saliency values (see {@link #getHistograms(de.unibonn.informatik.ivs.set.SaliencyMap)}).<br>
+	 * Saliency values are normalised to [0.0; 1.0], ground truth values are 1.0 inside and 0.0 outside the object.
+	 * Summing the histograms gives the same value as summing absolute differences over all pixels.
+	 *
+	 * @param histograms histograms of saliency values inside/outside the ground truth object
+	 *
+	 * @return           mean absolute error in [0.0; 1.0], NaN if histograms are empty
+	 */
+	public static double getMeanAbsoluteError(int[][] histograms)
+	{
+		int maxValue = SaliencyMap.NUM_GREYSCALES-1;
+
+		long nPixels  = 0;
+		long errorSum = 0;
+
+		for (int value=0; value<SaliencyMap.NUM_GREYSCALES; value++)
+		{
+			nPixels  += histograms[OBJECT][value] + histograms[BACKGROUND][value];
+			errorSum += (long)histograms[OBJECT][value] * (maxValue-value) + (long)histograms[BACKGROUND][value] * value;
+		}
+
+		if (nPixels == 0) return Double.NaN;
+
+		return (double)errorSum / ((double)nPixels * maxValue);
+	}
+
+
+	/**
+	 * Calculates the enhanced-alignment measure (E-measure) between saliency map and binary ground truth from histograms
+	 * of saliency values (see {@link #getHistograms(de.unibonn.informatik.ivs.set.SaliencyMap)}), as described in
+	 * D.-P. Fan, C. Gong, Y. Cao, B. Ren, M.-M. Cheng and A. Borji, Enhanced-alignment Measure for Binary Foreground Map Evaluation,
+	 * International Joint Conference on Artificial Intelligence (IJCAI), 2018.<br>
+	 * The map is binarised at every threshold in [0; 255] (values greater than or equal to the threshold are salient) and
+	 * the E-measures of all thresholds are averaged, as usually reported as mean E-measure.<br>
+	 * Map and ground truth are binary for each threshold, so the alignment term of a pixel only depends on which of the four
+	 * combinations of map and ground truth values it has. Counting these combinations from the cumulated histograms gives
+	 * the same value as summing alignment terms over all pixels, for all thresholds at once.
+	 *
+	 * @param histograms histograms of saliency values inside/outside the ground truth object
+	 *
+	 * @return           mean E-measure in [0.0; 1.0], NaN if histograms are empty
+	 */
+	public static double getEnhancedAlignment(int[][] histograms)
+	{
+		long nObject = 0, nBackground = 0;
+		for (int value=0; value<SaliencyMap.NUM_GREYSCALES; value++)
+		{
+			nObject     += histograms[OBJECT][value];
+			nBackground += histograms[BACKGROUND][value];
+		}
+
+		long nPixels = nObject + nBackground;
+		if (nPixels == 0) return Double.NaN;
+
+		double epsilon    = Math.ulp(1.0);
+		double normalizer = nPixels - 1 + epsilon;
+		double meanGt     = (double)nObject / nPixels;
+
+		double result = 0.0;
+		long truePositives = 0, falsePositives = 0;
+
+		for (int threshold=SaliencyMap.NUM_GREYSCALES-1; threshold>=0; threshold--)
+		{
+			truePositives  += histograms[OBJECT][threshold];
+			falsePositives += histograms[BACKGROUND][threshold];
+
+			long falseNegatives = nObject - truePositives;
+			long trueNegatives  = nBackground - falsePositives;
+
+			// without object or background the enhanced alignment is the agreement with the only ground truth value
+			if (nObject == 0) result += trueNegatives / normalizer;
+			else if (nBackground == 0) result += truePositives / normalizer;
+			else
+			{
+				double meanMap = (double)(truePositives + falsePositives) / nPixels;
+
+				result += (truePositives  * getEnhancedAlignment(1.0-meanMap, 1.0-meanGt)
+				         + falsePositives * getEnhancedAlignment(1.0-meanMap,    -meanGt)
+				         + falseNegatives * getEnhancedAlignment(   -meanMap, 1.0-meanGt)
+				         + trueNegatives  * getEnhancedAlignment(   -meanMap,    -meanGt)) / normalizer;
+			}
+		}
+
+		return result / SaliencyMap.NUM_GREYSCALES;
+	}
+
+
+	/**
+	 * Calculates the enhanced alignment term of a pixel from its map and ground truth values, both centred at their means.
+	 *
+	 * @param alignedMap         map value minus mean map value
+	 * @param alignedGroundTruth ground truth value minus mean ground truth value
+	 *
+	 * @return                   enhanced alignment in [0.0; 1.0]
+	 */
+	private static double getEnhancedAlignment(double alignedMap, double alignedGroundTruth)
+	{
+		double alignment = 2.0 * alignedGroundTruth * alignedMap / (alignedGroundTruth*alignedGroundTruth + alignedMap*alignedMap + Math.ulp(1.0));
+
+		return (alignment+1.0) * (alignment+1.0) / 4.0;
+	}
+
+
 	/**
 	 * Returns binary ground truth values in an one-dimensional array.
+	 * Values represent the ground truth row by row, in the same order as {@link SaliencyMap#getMapValues()}.<br>
+	 * The array is determined once and shared by all callers, it must not be modified.
 	 *
 	 * @return binary ground truth values
 	 */
 	public boolean[] getValues()
 	{
+		if (values != null) return values;
 		if (binaryGroundTruth == null) return null;
 
-		boolean[] result = new boolean[binaryGroundTruth.getWidth()*binaryGroundTruth.getHeight()];
-		int i=0;
+		StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.MASK);
+
+		int width  = binaryGroundTruth.getWidth();
+		int height = binaryGroundTruth.getHeight();
+
+		boolean[] result = new boolean[width*height];
+		int[] rgbRow = new int[width];
 
-		for (int x=0; x<binaryGroundTruth.getWidth(); x++)
+		for (int y=0; y<height; y++)
 		{
-			for (int y=0; y<binaryGroundTruth.getHeight(); y++)
+			binaryGroundTruth.getRGB(0, y, width, 1, rgbRow, 0, width);
+
+			for (int x=0; x<width; x++)
 			{
-				if (binaryGroundTruth.getRGB(x, y) == 0xFFFFFFFF) result[i] = true;
-				i++;
+				if (rgbRow[x] == 0xFFFFFFFF) result[y*width+x] = true;
 			}
 		}
 
+		values = result;
+
+		stage.end(imageName, width, height, null);
+
 		return result;
 	}
 
@@ -354,6 +897,17 @@ public class GroundTruth
 	 */
 	public BufferedImage getBinaryImage()
 	{
+		if (binaryGroundTruth == null && values != null)
+		{
+			binaryGroundTruth = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+
+			// sample 1 is white in the binary image's colour model
+			int[] samples = new int[values.length];
+			for (int i=0; i<values.length; i++) if (values[i]) samples[i] = 1;
+
+			binaryGroundTruth.getRaster().setPixels(0, 0, width, height, samples);
+		}
+
 		return binaryGroundTruth;
 	}
 	
@@ -391,6 +945,28 @@ public class GroundTruth
 	}
 
 
+	/**
+	 * Determines the maximum F-measure (see {@link #getFMeasure(double[], double)}) over all thresholds.
+	 *
+	 * @param precisionRecall Precision/recall per threshold (see {@link #evaluate(int[][])})
+	 * @param beta            Beta value
+	 *
+	 * @return                Maximum F-measure, 0 if precision and recall are 0 for all thresholds
+	 */
+	public static double getMaxFMeasure(double[][] precisionRecall, double beta)
+	{
+		double result = 0.0;
+
+		for (int binaryThreshold=0; binaryThreshold<precisionRecall.length; binaryThreshold++)
+		{
+			double fMeasure = getFMeasure(precisionRecall[binaryThreshold], beta);
+			if (fMeasure > result) result = fMeasure;
+		}
+
+		return result;
+	}
+
+
 	/**
 	 * Returns the width of the image ground truth refers to.
 	 *
@@ -399,6 +975,7 @@ public class GroundTruth
 	public int getWidth()
 	{
 		if (binaryGroundTruth != null) return binaryGroundTruth.getWidth();
+		if (values != null) return width;
 		return -1;
 	}
 
@@ -411,6 +988,7 @@ public class GroundTruth
 	public int getHeight()
 	{
 		if (binaryGroundTruth != null) return binaryGroundTruth.getHeight();
+		if (values != null) return height;
 		return -1;
 	}
 
@@ -0,0 +1,141 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.util.*;
+
+
+/**
+ * Aggregates precision/recall curves of evaluated images per group while evaluating.<br>
+ * <br>
+ * Only running sums and the number of images are kept per group, so mean curves of all groups result from a
+ * single evaluation pass, without keeping or reading the images' results again. Groups are arbitrary keys,
+ * e.g. categories determined by a {@link GroupKeyExtractor}.<br>
+ * All methods are synchronized, so that worker threads of an evaluation may add results concurrently.
+ *
+ * @version		2026.1018
+ *
+ */
+public class GroupAggregator
+{
+
+	/**
+	 * Sums of precision and recall per threshold by group, sorted by group.
+	 */
+	private Map<String, double[][]> sums = new TreeMap<String, double[][]>();
+
+	/**
+	 * Number of images by group.
+	 */
+	private Map<String, Integer> counts = new HashMap<String, Integer>();
+
+
+	/**
+	 * Adds the result of an image to the sums of a group.
+	 *
+	 * @param group           group of the image
+	 * @param precisionRecall precision/recall per threshold (see {@link GroundTruth#evaluate(int[][])})
+	 */
+	public synchronized void add(String group, double[][] precisionRecall)
+	{
+		double[][] sum = sums.get(group);
+		if (sum == null)
+		{
+			sum = new double[SaliencyMap.NUM_GREYSCALES][2];
+			sums.put(group, sum);
+			counts.put(group, 0);
+		}
+
+		for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+		{
+			sum[iThreshold][GroundTruth.PRECISION] += precisionRecall[iThreshold][GroundTruth.PRECISION];
+			sum[iThreshold][GroundTruth.RECALL]    += precisionRecall[iThreshold][GroundTruth.RECALL];
+		}
+
+		counts.put(group, counts.get(group)+1);
+	}
+
+
+	/**
+	 * Removes the result of an image previously added to a group, e.g. before adding the result of a changed saliency map.
+	 * A group is dropped when its last image is removed.
+	 *
+	 * @param group           group of the image
+	 * @param precisionRecall precision/recall per threshold added before
+	 */
+	public synchronized void remove(String group, double[][] precisionRecall)
+	{
+		double[][] sum = sums.get(group);
+		if (sum == null) return;
+
+		int count = counts.get(group)-1;
+		if (count == 0)
+		{
+			sums.remove(group);
+			counts.remove(group);
+			return;
+		}
+
+		for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+		{
+			sum[iThreshold][GroundTruth.PRECISION] -= precisionRecall[iThreshold][GroundTruth.PRECISION];
+			sum[iThreshold][GroundTruth.RECALL]    -= precisionRecall[iThreshold][GroundTruth.RECALL];
+		}
+
+		counts.put(group, count);
+	}
+
+
+	/**
+	 * Returns all groups images have been added to.
+	 *
+	 * @return groups in ascending order
+	 */
+	public synchronized List<String> getGroups()
+	{
+		return new ArrayList<String>(sums.keySet());
+	}
+
+
+	/**
+	 * Returns the number of images added to a group.
+	 *
+	 * @param group group
+	 *
+	 * @return      number of images, 0 for unknown groups
+	 */
+	public synchronized int getCount(String group)
+	{
+		Integer count = counts.get(group);
+
+		return count == null ? 0 : count;
+	}
+
+
+	/**
+	 * Returns mean precision and mean recall per threshold of a group.
+	 *
+	 * @param group group
+	 *
+	 * @return      means per threshold, null for unknown groups<br>
+	 *                 index 1: threshold, in [0; 255]<br>
+	 *                 index 2: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 */
+	public synchronized double[][] getMean(String group)
+	{
+		double[][] sum = sums.get(group);
+		if (sum == null) return null;
+
+		int count = counts.get(group);
+
+		double[][] result = new double[SaliencyMap.NUM_GREYSCALES][2];
+		for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+		{
+			result[iThreshold][GroundTruth.PRECISION] = sum[iThreshold][GroundTruth.PRECISION] / count;
+			result[iThreshold][GroundTruth.RECALL]    = sum[iThreshold][GroundTruth.RECALL]    / count;
+		}
+
+		return result;
+	}
+
+}
@@ -0,0 +1,118 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+import java.util.regex.*;
+
+
+/**
+ * Determines the group (e.g. category) an image belongs to from its name, for evaluations aggregated
+ * per group (see {@link GroupAggregator}).<br>
+ * <br>
+ * A group is either extracted by a regular expression ({@link #fromRegex(java.lang.String)}), e.g.
+ * <code>^\d+_(\d+)_</code> for names like <code>0_13_13308</code>, or looked up in a mapping file
+ * ({@link #fromFile(java.io.File)}).
+ *
+ * @version		2026.1018
+ *
+ */
+public class GroupKeyExtractor
+{
+
+	/**
+	 * Pattern searched in image names, null if groups are looked up in {@link #groupsByImageName}.
+	 */
+	private Pattern pattern;
+
+	/**
+	 * Groups by image name (without file ending), null if groups are extracted by {@link #pattern}.
+	 */
+	private Map<String, String> groupsByImageName;
+
+
+	/**
+	 * Constructs an extractor.
+	 *
+	 * @param pattern           pattern to search in image names or null
+	 * @param groupsByImageName groups by image name or null
+	 */
+	private GroupKeyExtractor(Pattern pattern, Map<String, String> groupsByImageName)
+	{
+		this.pattern           = pattern;
+		this.groupsByImageName = groupsByImageName;
+	}
+
+
+	/**
+	 * Creates an extractor that searches a regular expression in image names.
+	 * The group is the text matched by the first capturing group, or by the whole expression if it has no capturing group.
+	 *
+	 * @param regex regular expression
+	 *
+	 * @return      extractor
+	 *
+	 * @throws PatternSyntaxException if the expression is invalid
+	 */
+	public static GroupKeyExtractor fromRegex(String regex)
+	{
+		return new GroupKeyExtractor(Pattern.compile(regex), null);
+	}
+
+
+	/**
+	 * Creates an extractor that looks groups up in a mapping file.<br>
+	 * Each line of the file contains an image name and its group separated by white space;
+	 * empty lines and lines starting with <code>#</code> are ignored.
+	 *
+	 * @param file mapping file
+	 *
+	 * @return     extractor, null if the file cannot be read
+	 */
+	public static GroupKeyExtractor fromFile(File file)
+	{
+		String content = FileUtil.readFile(file);
+		if (content == null) return null;
+
+		Map<String, String> groupsByImageName = new HashMap<String, String>();
+
+		for (String line: content.split("\n"))
+		{
+			line = line.trim();
+			if (line.length() == 0 || line.startsWith("#")) continue;
+
+			String[] columns = line.split("\\s+");
+			if (columns.length < 2)
+			{
+				System.err.println("No group given in line '"+line+"' of '"+file.getAbsolutePath()+"' -> skipping");
+				continue;
+			}
+
+			groupsByImageName.put(FileUtil.getFileNameWithoutEnding(columns[0]), columns[1]);
+		}
+
+		return new GroupKeyExtractor(null, groupsByImageName);
+	}
+
+
+	/**
+	 * Determines the group of an image.
+	 *
+	 * @param imageName name of the image, with or without file ending
+	 *
+	 * @return          group, null if the image does not belong to any group
+	 */
+	public String getGroup(String imageName)
+	{
+		imageName = FileUtil.getFileNameWithoutEnding(imageName);
+
+		if (groupsByImageName != null) return groupsByImageName.get(imageName);
+
+		Matcher matcher = pattern.matcher(imageName);
+		if (!matcher.find()) return null;
+
+		return matcher.groupCount() > 0 ? matcher.group(1) : matcher.group();
+	}
+
+}
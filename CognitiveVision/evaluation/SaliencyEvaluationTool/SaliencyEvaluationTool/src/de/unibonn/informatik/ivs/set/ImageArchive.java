@@ -0,0 +1,364 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.zip.*;
+
+
+/**
+ * Provides the images of a zip or tar archive without extracting them.<br>
+ * <br>
+ * The index of entries is built when the archive is opened - from the central directory of a zip archive, or by
+ * skipping from header to header of a tar archive without reading any contents. Entries are represented by
+ * {@link File} objects named like the entries (see {@link #getFiles()}), so they can be matched by name like files
+ * of a folder (see {@link FileUtil#findFile(java.lang.String, java.io.File[])}); their contents are read with
+ * {@link #read(java.io.File)}. Entries are listed in archive order, so evaluating them in this order reads the archive
+ * sequentially.<br>
+ * Tar archives may use ustar name prefixes, GNU long names and pax path records; compressed tar archives are not supported.
+ *
+ * @version		2026.1018
+ *
+ */
+public class ImageArchive implements Closeable
+{
+
+	/**
+	 * Size of tar blocks.
+	 */
+	private static final int TAR_BLOCK = 512;
+
+	/**
+	 * Archive file.
+	 */
+	private File archiveFile;
+
+	/**
+	 * Zip archive, null for tar archives.
+	 */
+	private ZipFile zipFile = null;
+
+	/**
+	 * Tar archive, null for zip archives.
+	 */
+	private RandomAccessFile tarFile = null;
+
+	/**
+	 * Entries in archive order.
+	 */
+	private List<File> files = new ArrayList<File>();
+
+	/**
+	 * Zip entries, or offset and size of tar entries, by file representing the entry.
+	 */
+	private Map<File, Object> entries = new HashMap<File, Object>();
+
+
+	/**
+	 * Opens an archive and builds its index.
+	 *
+	 * @param archiveFile zip or tar archive
+	 *
+	 * @throws IOException if the archive cannot be read or is neither a zip nor a tar archive
+	 */
+	public ImageArchive(File archiveFile) throws IOException
+	{
+		this.archiveFile = archiveFile;
+
+		if (isZip(archiveFile))
+		{
+			zipFile = new ZipFile(archiveFile);
+
+			Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+			while (zipEntries.hasMoreElements())
+			{
+				ZipEntry entry = zipEntries.nextElement();
+				if (!entry.isDirectory()) addEntry(entry.getName(), entry);
+			}
+		}
+		else if (isTar(archiveFile))
+		{
+			tarFile = new RandomAccessFile(archiveFile, "r");
+			indexTar();
+		}
+		else throw new IOException("'"+archiveFile.getPath()+"' is neither a zip nor a tar archive");
+	}
+
+
+	/**
+	 * Determines if a file is a zip or tar archive.
+	 *
+	 * @param file file to check
+	 *
+	 * @return     true if the file is a zip or tar archive
+	 */
+	public static boolean isArchive(File file)
+	{
+		return file.isFile() && (isZip(file) || isTar(file));
+	}
+
+
+	/**
+	 * Determines if a file starts like a zip archive (local file header or, for an empty archive, end of central directory).
+	 *
+	 * @param file file to check
+	 *
+	 * @return     true if the file is a zip archive
+	 */
+	private static boolean isZip(File file)
+	{
+		byte[] magic = readBytes(file, 0, 4);
+
+		return magic != null && magic[0] == 'P' && magic[1] == 'K' && ((magic[2] == 3 && magic[3] == 4) || (magic[2] == 5 && magic[3] == 6));
+	}
+
+
+	/**
+	 * Determines if a file is a (ustar, GNU or pax) tar archive by the magic of its first header.
+	 *
+	 * @param file file to check
+	 *
+	 * @return     true if the file is a tar archive
+	 */
+	private static boolean isTar(File file)
+	{
+		byte[] magic = readBytes(file, 257, 5);
+
+		return magic != null && new String(magic, StandardCharsets.US_ASCII).equals("ustar");
+	}
+
+
+	/**
+	 * Reads some bytes of a file.
+	 *
+	 * @param file   file to read
+	 * @param offset offset of the bytes
+	 * @param length number of bytes
+	 *
+	 * @return       bytes, null if the file is shorter or cannot be read
+	 */
+	private static byte[] readBytes(File file, long offset, int length)
+	{
+		try
+		{
+			RandomAccessFile in = new RandomAccessFile(file, "r");
+			try
+			{
+				if (in.length() < offset+length) return null;
+
+				byte[] result = new byte[length];
+				in.seek(offset);
+				in.readFully(result);
+
+				return result;
+			}
+			finally
+			{
+				in.close();
+			}
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+	}
+
+
+	/**
+	 * Builds the index of a tar archive by skipping from header to header.
+	 *
+	 * @throws IOException if the archive cannot be read
+	 */
+	private void indexTar() throws IOException
+	{
+		byte[] header = new byte[TAR_BLOCK];
+		long offset = 0;
+		long length = tarFile.length();
+		String longName = null;
+
+		while (offset+TAR_BLOCK <= length)
+		{
+			tarFile.seek(offset);
+			tarFile.readFully(header);
+
+			// the archive ends with empty blocks
+			if (header[0] == 0) break;
+
+			String name = getString(header, 0, 100);
+			long size   = parseOctal(header, 124, 12);
+			byte type   = header[156];
+			String prefix = getString(header, 345, 155);
+
+			long dataOffset = offset+TAR_BLOCK;
+			offset = dataOffset + (size+TAR_BLOCK-1)/TAR_BLOCK*TAR_BLOCK;
+
+			if (type == 'L' || type == 'x')
+			{
+				// GNU long name or pax header: applies to the next entry
+				byte[] data = new byte[(int)size];
+				tarFile.seek(dataOffset);
+				tarFile.readFully(data);
+
+				longName = type == 'L' ? getString(data, 0, data.length) : parsePaxPath(data);
+				continue;
+			}
+
+			if (type == '0' || type == 0)
+			{
+				if (longName != null) name = longName;
+				else if (prefix.length() > 0) name = prefix+"/"+name;
+
+				addEntry(name, new long[] {dataOffset, size});
+			}
+
+			longName = null;
+		}
+	}
+
+
+	/**
+	 * Extracts the path of a pax extended header.
+	 *
+	 * @param data records of the header, "length keyword=value\n"
+	 *
+	 * @return     path, null if the header contains none
+	 */
+	private static String parsePaxPath(byte[] data)
+	{
+		for (String record: new String(data, StandardCharsets.UTF_8).split("\n"))
+		{
+			int start = record.indexOf(" path=");
+			if (start != -1) return record.substring(start+6);
+		}
+
+		return null;
+	}
+
+
+	/**
+	 * Reads a zero terminated string of a tar header.
+	 *
+	 * @param block  header
+	 * @param offset offset of the field
+	 * @param length length of the field
+	 *
+	 * @return       string
+	 */
+	private static String getString(byte[] block, int offset, int length)
+	{
+		int end = offset;
+		while (end < offset+length && block[end] != 0) end++;
+
+		return new String(block, offset, end-offset, StandardCharsets.UTF_8);
+	}
+
+
+	/**
+	 * Reads an octal number of a tar header.
+	 *
+	 * @param block  header
+	 * @param offset offset of the field
+	 * @param length length of the field
+	 *
+	 * @return       number
+	 *
+	 * @throws IOException if the field is not an octal number
+	 */
+	private static long parseOctal(byte[] block, int offset, int length) throws IOException
+	{
+		String value = getString(block, offset, length).trim();
+
+		try
+		{
+			return value.length() == 0 ? 0 : Long.parseLong(value, 8);
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IOException("Malformed tar header: '"+value+"' is no size");
+		}
+	}
+
+
+	/**
+	 * Adds an entry to the index.
+	 *
+	 * @param name  name of the entry within the archive
+	 * @param entry zip entry, or offset and size of a tar entry
+	 */
+	private void addEntry(String name, Object entry)
+	{
+		File file = new File(archiveFile, name);
+
+		files.add(file);
+		entries.put(file, entry);
+	}
+
+
+	/**
+	 * Returns files representing the entries of the archive, in archive order.
+	 * Their names are the names of the entries, their paths lead through the archive and do not exist.
+	 *
+	 * @return entries
+	 */
+	public File[] getFiles()
+	{
+		return files.toArray(new File[files.size()]);
+	}
+
+
+	/**
+	 * Reads the contents of an entry.
+	 *
+	 * @param file file representing the entry (see {@link #getFiles()})
+	 *
+	 * @return     contents
+	 *
+	 * @throws IOException if the entry does not exist or cannot be read
+	 */
+	public synchronized byte[] read(File file) throws IOException
+	{
+		Object entry = entries.get(file);
+		if (entry == null) throw new FileNotFoundException("'"+file.getPath()+"' is not an entry of the archive");
+
+		if (zipFile != null)
+		{
+			ZipEntry zipEntry = (ZipEntry)entry;
+			InputStream in = zipFile.getInputStream(zipEntry);
+			try
+			{
+				ByteArrayOutputStream out = new ByteArrayOutputStream(zipEntry.getSize() > 0 ? (int)zipEntry.getSize() : 8192);
+				byte[] buffer = new byte[8192];
+				int n;
+				while ((n = in.read(buffer)) != -1) out.write(buffer, 0, n);
+
+				return out.toByteArray();
+			}
+			finally
+			{
+				in.close();
+			}
+		}
+
+		long[] offsetAndSize = (long[])entry;
+		byte[] result = new byte[(int)offsetAndSize[1]];
+		tarFile.seek(offsetAndSize[0]);
+		tarFile.readFully(result);
+
+		return result;
+	}
+
+
+	/**
+	 * Closes the archive.
+	 *
+	 * @throws IOException if closing fails
+	 */
+	public void close() throws IOException
+	{
+		if (zipFile != null) zipFile.close();
+		if (tarFile != null) tarFile.close();
+	}
+
+}
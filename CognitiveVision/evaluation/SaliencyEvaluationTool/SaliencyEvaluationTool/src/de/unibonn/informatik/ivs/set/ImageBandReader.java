@@ -0,0 +1,588 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.*;
+import java.awt.image.*;
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+import javax.imageio.*;
+import javax.imageio.stream.*;
+
+
+/**
+ * Reads an image file in bands of rows from top to bottom, so that images too large to be held in memory
+ * can be evaluated band by band (see {@link TiledEvaluation}).<br>
+ * <br>
+ * Non-interlaced PNG files of up to 8 bits per sample are decoded as a stream: each row is inflated and unfiltered once,
+ * and only the rows of the current band are kept. Bands are images of the same type as <code>ImageIO</code> would decode
+ * the whole file to, so their pixels are interpreted exactly like those of the whole image.<br>
+ * All other files are read through the source regions of an <code>ImageReader</code>. This keeps memory bounded for
+ * every format, but readers of formats that are not tiled (e.g. JPEG) decode the file up to the band for each band.
+ *
+ * @version		2026.1018
+ *
+ */
+public abstract class ImageBandReader implements Closeable
+{
+
+	/**
+	 * Width of the image.
+	 */
+	protected int width;
+
+	/**
+	 * Height of the image.
+	 */
+	protected int height;
+
+	/**
+	 * Index of the first row not read yet.
+	 */
+	protected int nextRow = 0;
+
+
+	/**
+	 * Opens an image file for reading in bands.
+	 *
+	 * @param file image file
+	 *
+	 * @return     reader positioned at the first row
+	 *
+	 * @throws IOException if the file cannot be read or its format is not supported
+	 */
+	public static ImageBandReader open(File file) throws IOException
+	{
+		if (file.getName().toLowerCase().endsWith(".png"))
+		{
+			PngBandReader reader = new PngBandReader(file);
+			if (reader.isSupported()) return reader;
+			reader.close();
+		}
+
+		return new RegionBandReader(file);
+	}
+
+
+	/**
+	 * Returns the width of the image.
+	 *
+	 * @return width
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+
+
+	/**
+	 * Returns the height of the image.
+	 *
+	 * @return height
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+
+
+	/**
+	 * Reads the next band of rows.
+	 *
+	 * @param nRows maximum number of rows of the band
+	 *
+	 * @return      band as wide as the image, with fewer rows at the bottom of the image; null if all rows have been read
+	 *
+	 * @throws IOException if the file cannot be decoded
+	 */
+	public BufferedImage readBand(int nRows) throws IOException
+	{
+		if (nextRow >= height) return null;
+
+		nRows = Math.min(nRows, height-nextRow);
+		BufferedImage band = readRows(nRows);
+		nextRow += nRows;
+
+		return band;
+	}
+
+
+	/**
+	 * Reads rows starting at {@link #nextRow}.
+	 *
+	 * @param nRows number of rows, available in the image
+	 *
+	 * @return      band of the rows
+	 *
+	 * @throws IOException if the file cannot be decoded
+	 */
+	protected abstract BufferedImage readRows(int nRows) throws IOException;
+
+
+	/**
+	 * Reads bands through the source regions of an <code>ImageReader</code>.
+	 */
+	private static class RegionBandReader extends ImageBandReader
+	{
+
+		/**
+		 * Image file.
+		 */
+		private File file;
+
+		/**
+		 * Stream of the file.
+		 */
+		private ImageInputStream in;
+
+		/**
+		 * Reader of the image format.
+		 */
+		private ImageReader reader;
+
+
+		/**
+		 * Opens a file.
+		 *
+		 * @param file image file
+		 *
+		 * @throws IOException if the file cannot be read or no reader supports its format
+		 */
+		RegionBandReader(File file) throws IOException
+		{
+			this.file = file;
+
+			in = ImageIO.createImageInputStream(file);
+			if (in == null) throw new IOException("Could not open '"+file.getAbsolutePath()+"'");
+
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			if (!readers.hasNext())
+			{
+				in.close();
+				throw new IOException("Format of '"+file.getAbsolutePath()+"' is not supported");
+			}
+
+			reader = readers.next();
+			reader.setInput(in, false, true);
+
+			width  = reader.getWidth(0);
+			height = reader.getHeight(0);
+		}
+
+
+		/**
+		 * Reads rows as a source region of the image.
+		 *
+		 * @param nRows number of rows
+		 *
+		 * @return      band of the rows
+		 *
+		 * @throws IOException if the file cannot be decoded
+		 */
+		protected BufferedImage readRows(int nRows) throws IOException
+		{
+			// some readers keep the state of a previous read and return wrong regions (BMP of Java 8)
+			// or have flushed the stream (PNG), so each band is read from a stream of its own
+			if (nextRow > 0)
+			{
+				in.close();
+				in = ImageIO.createImageInputStream(file);
+				reader.setInput(in, false, true);
+			}
+
+			ImageReadParam param = reader.getDefaultReadParam();
+			param.setSourceRegion(new Rectangle(0, nextRow, width, nRows));
+
+			return reader.read(0, param);
+		}
+
+
+		/**
+		 * Closes the file.
+		 *
+		 * @throws IOException if closing fails
+		 */
+		public void close() throws IOException
+		{
+			reader.dispose();
+			in.close();
+		}
+
+	}
+
+
+	/**
+	 * Decodes non-interlaced PNG files of up to 8 bits per sample as a stream of rows.
+	 */
+	private static class PngBandReader extends ImageBandReader
+	{
+
+		/**
+		 * Colour types of PNG.
+		 */
+		private static final int GREY = 0, RGB = 2, PALETTE = 3, RGB_ALPHA = 6;
+
+		/**
+		 * Stream of the file, positioned in the image data.
+		 */
+		private DataInputStream in;
+
+		/**
+		 * Stream of the inflated image data.
+		 */
+		private InflaterInputStream data = null;
+
+		/**
+		 * Bits per sample and colour type.
+		 */
+		private int bitDepth, colorType;
+
+		/**
+		 * Determines if the image is interlaced.
+		 */
+		private boolean interlaced;
+
+		/**
+		 * Determines if chunks are present that make <code>ImageIO</code> decode the image differently (transparency, colour profile).
+		 */
+		private boolean specialChunks = false;
+
+		/**
+		 * Palette entries as red, green and blue.
+		 */
+		private byte[] palette = null;
+
+		/**
+		 * Bytes per pixel, at least 1, used by the filters.
+		 */
+		private int bytesPerPixel;
+
+		/**
+		 * Filtered row as read and the previous unfiltered row.
+		 */
+		private byte[] row, previousRow;
+
+		/**
+		 * Remaining bytes of the current image data chunk.
+		 */
+		private int chunkRemaining = 0;
+
+		/**
+		 * Determines if a chunk other than image data has followed the image data.
+		 */
+		private boolean dataEnded = false;
+
+
+		/**
+		 * Opens a file and reads the chunks up to the image data.
+		 *
+		 * @param file PNG file
+		 *
+		 * @throws IOException if the file cannot be read or is not a PNG file
+		 */
+		PngBandReader(File file) throws IOException
+		{
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+
+			if (in.readLong() != 0x89504E470D0A1A0AL)
+			{
+				in.close();
+				throw new IOException("'"+file.getAbsolutePath()+"' is not a PNG file");
+			}
+
+			while (true)
+			{
+				int length = in.readInt();
+				int type   = in.readInt();
+
+				if (type == 0x49444154) // IDAT
+				{
+					chunkRemaining = length;
+					break;
+				}
+
+				byte[] chunk = new byte[length];
+				in.readFully(chunk);
+				in.readInt(); // CRC
+
+				switch (type)
+				{
+					case 0x49484452: // IHDR
+						DataInputStream header = new DataInputStream(new ByteArrayInputStream(chunk));
+						width      = header.readInt();
+						height     = header.readInt();
+						bitDepth   = header.readUnsignedByte();
+						colorType  = header.readUnsignedByte();
+						header.readUnsignedByte(); // compression
+						header.readUnsignedByte(); // filter
+						interlaced = header.readUnsignedByte() != 0;
+						break;
+
+					case 0x504C5445: // PLTE
+						palette = chunk;
+						break;
+
+					case 0x74524E53: // tRNS
+					case 0x69434350: // iCCP
+						specialChunks = true;
+						break;
+
+					case 0x49454E44: // IEND
+						throw new IOException("'"+file.getAbsolutePath()+"' contains no image data");
+				}
+			}
+
+			int channels = colorType == RGB ? 3 : colorType == RGB_ALPHA ? 4 : 1;
+			bytesPerPixel = Math.max(1, channels*bitDepth/8);
+			row         = new byte[(int)(((long)width*channels*bitDepth+7)/8)];
+			previousRow = new byte[row.length];
+
+			data = new InflaterInputStream(new ImageDataStream(), new Inflater(), 1 << 16);
+		}
+
+
+		/**
+		 * Determines if the image can be decoded as a stream exactly like <code>ImageIO</code> decodes it.
+		 *
+		 * @return true if decoding as a stream is supported
+		 */
+		boolean isSupported()
+		{
+			if (interlaced || specialChunks) return false;
+
+			switch (colorType)
+			{
+				case GREY:      return bitDepth <= 8;
+				case PALETTE:   return bitDepth <= 8 && palette != null;
+				case RGB:
+				case RGB_ALPHA: return bitDepth == 8;
+				default:        return false;
+			}
+		}
+
+
+		/**
+		 * Decodes rows into a band of the type <code>ImageIO</code> decodes the image to.
+		 *
+		 * @param nRows number of rows
+		 *
+		 * @return      band of the rows
+		 *
+		 * @throws IOException if the image data is corrupt
+		 */
+		protected BufferedImage readRows(int nRows) throws IOException
+		{
+			BufferedImage band = createBand(nRows);
+			byte[] pixels = ((DataBufferByte)band.getRaster().getDataBuffer()).getData();
+
+			for (int y=0; y<nRows; y++)
+			{
+				readRow();
+
+				int offset = y*row.length;
+				switch (colorType)
+				{
+					case RGB:
+						for (int x=0; x<width; x++)
+						{
+							pixels[offset+3*x  ] = row[3*x+2];
+							pixels[offset+3*x+1] = row[3*x+1];
+							pixels[offset+3*x+2] = row[3*x  ];
+						}
+						break;
+
+					case RGB_ALPHA:
+						for (int x=0; x<width; x++)
+						{
+							pixels[offset+4*x  ] = row[4*x+3];
+							pixels[offset+4*x+1] = row[4*x+2];
+							pixels[offset+4*x+2] = row[4*x+1];
+							pixels[offset+4*x+3] = row[4*x  ];
+						}
+						break;
+
+					default:
+						// the rows of packed and byte rasters have the layout of PNG rows
+						System.arraycopy(row, 0, pixels, offset, row.length);
+				}
+			}
+
+			return band;
+		}
+
+
+		/**
+		 * Creates an empty band.
+		 *
+		 * @param nRows number of rows
+		 *
+		 * @return      band
+		 */
+		private BufferedImage createBand(int nRows)
+		{
+			if (colorType == RGB)       return new BufferedImage(width, nRows, BufferedImage.TYPE_3BYTE_BGR);
+			if (colorType == RGB_ALPHA) return new BufferedImage(width, nRows, BufferedImage.TYPE_4BYTE_ABGR);
+			if (colorType == GREY && bitDepth == 8) return new BufferedImage(width, nRows, BufferedImage.TYPE_BYTE_GRAY);
+
+			int nEntries = 1 << bitDepth;
+			byte[] red = new byte[nEntries], green = new byte[nEntries], blue = new byte[nEntries];
+			for (int i=0; i<nEntries; i++)
+			{
+				if (colorType == GREY)
+				{
+					red[i] = green[i] = blue[i] = (byte)(i*255/(nEntries-1));
+				}
+				else if (3*i+2 < palette.length)
+				{
+					red[i]   = palette[3*i];
+					green[i] = palette[3*i+1];
+					blue[i]  = palette[3*i+2];
+				}
+			}
+
+			IndexColorModel colorModel = new IndexColorModel(bitDepth, nEntries, red, green, blue);
+
+			if (bitDepth == 8) return new BufferedImage(width, nRows, BufferedImage.TYPE_BYTE_INDEXED, colorModel);
+
+			return new BufferedImage(width, nRows, BufferedImage.TYPE_BYTE_BINARY, colorModel);
+		}
+
+
+		/**
+		 * Reads and unfilters the next row.
+		 *
+		 * @throws IOException if the image data is corrupt or ends too early
+		 */
+		private void readRow() throws IOException
+		{
+			byte[] swap = previousRow;
+			previousRow = row;
+			row = swap;
+
+			int filter = data.read();
+			if (filter < 0) throw new EOFException("Image data ends at row "+nextRow);
+
+			for (int read=0; read<row.length; )
+			{
+				int n = data.read(row, read, row.length-read);
+				if (n < 0) throw new EOFException("Image data ends within a row");
+				read += n;
+			}
+
+			switch (filter)
+			{
+				case 0:
+					break;
+
+				case 1: // sub
+					for (int i=bytesPerPixel; i<row.length; i++) row[i] += row[i-bytesPerPixel];
+					break;
+
+				case 2: // up
+					for (int i=0; i<row.length; i++) row[i] += previousRow[i];
+					break;
+
+				case 3: // average
+					for (int i=0; i<row.length; i++)
+					{
+						int left = i >= bytesPerPixel ? row[i-bytesPerPixel] & 0xFF : 0;
+						row[i] += (left + (previousRow[i] & 0xFF)) >>> 1;
+					}
+					break;
+
+				case 4: // Paeth
+					for (int i=0; i<row.length; i++)
+					{
+						int left     = i >= bytesPerPixel ? row[i-bytesPerPixel] & 0xFF : 0;
+						int up       = previousRow[i] & 0xFF;
+						int upLeft   = i >= bytesPerPixel ? previousRow[i-bytesPerPixel] & 0xFF : 0;
+						int estimate = left + up - upLeft;
+						int dLeft    = Math.abs(estimate-left);
+						int dUp      = Math.abs(estimate-up);
+						int dUpLeft  = Math.abs(estimate-upLeft);
+
+						if (dLeft <= dUp && dLeft <= dUpLeft) row[i] += left;
+						else if (dUp <= dUpLeft)              row[i] += up;
+						else                                  row[i] += upLeft;
+					}
+					break;
+
+				default:
+					throw new IOException("Unknown filter "+filter+" in row "+nextRow);
+			}
+		}
+
+
+		/**
+		 * Closes the file.
+		 *
+		 * @throws IOException if closing fails
+		 */
+		public void close() throws IOException
+		{
+			if (data != null) data.close();
+			in.close();
+		}
+
+
+		/**
+		 * Contents of consecutive image data chunks as one stream.
+		 */
+		private class ImageDataStream extends InputStream
+		{
+
+			/**
+			 * Reads a single byte.
+			 *
+			 * @return byte, -1 at the end of the image data
+			 *
+			 * @throws IOException if the file cannot be read
+			 */
+			public int read() throws IOException
+			{
+				byte[] b = new byte[1];
+
+				return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+			}
+
+
+			/**
+			 * Reads bytes of the image data, skipping chunk boundaries.
+			 *
+			 * @param b      array to read to
+			 * @param offset first index to read to
+			 * @param length maximum number of bytes
+			 *
+			 * @return       number of bytes read, -1 at the end of the image data
+			 *
+			 * @throws IOException if the file cannot be read
+			 */
+			public int read(byte[] b, int offset, int length) throws IOException
+			{
+				while (chunkRemaining == 0)
+				{
+					if (dataEnded) return -1;
+
+					in.readInt(); // CRC of the previous chunk
+
+					int chunkLength = in.readInt();
+					int type        = in.readInt();
+					dataEnded = type != 0x49444154;
+					if (dataEnded) return -1;
+
+					chunkRemaining = chunkLength;
+				}
+
+				int n = in.read(b, offset, Math.min(length, chunkRemaining));
+				if (n < 0) throw new EOFException("File ends within image data");
+				chunkRemaining -= n;
+
+				return n;
+			}
+
+		}
+
+	}
+
+}
@@ -0,0 +1,168 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+
+
+/**
+ * Provides ground truths or saliency maps to an {@link Evaluator} by image name.<br>
+ * <br>
+ * The evaluator evaluates all images named by the provider of ground truths and asks the provider of saliency maps for
+ * the map of each of them. Providers are asked from several threads at once if the evaluator uses several threads, so
+ * implementations must be thread-safe. Two implementations are included: {@link Directory} for a folder of image files
+ * and {@link InMemory} for sources put into it by the embedding application.
+ *
+ * @version		2026.1018
+ *
+ */
+public interface ImageProvider
+{
+
+	/**
+	 * Returns the names of all images provided.
+	 *
+	 * @return image names
+	 *
+	 * @throws IOException if the images cannot be listed
+	 */
+	Collection<String> getImageNames() throws IOException;
+
+
+	/**
+	 * Returns the image of a name.
+	 *
+	 * @param imageName name of the image
+	 *
+	 * @return          source of the image, null if none is provided
+	 *
+	 * @throws IOException if the image cannot be provided
+	 */
+	ImageSource getImage(String imageName) throws IOException;
+
+
+	/**
+	 * Provides the image files of a folder, which is listed once when the provider is constructed.
+	 * An image is found by its file name without ending or, as by the command line evaluation, by the first file whose
+	 * name contains the image name (see {@link FileUtil#findFile(java.lang.String, java.io.File[])}).
+	 */
+	public static class Directory implements ImageProvider
+	{
+
+		/**
+		 * Files of the folder.
+		 */
+		private final File[] files;
+
+		/**
+		 * Files by name without ending.
+		 */
+		private final Map<String, File> filesByName = new LinkedHashMap<String, File>();
+
+
+		/**
+		 * Constructs a provider of the files of a folder.
+		 *
+		 * @param directory folder of image files
+		 *
+		 * @throws IOException if the folder cannot be listed
+		 */
+		public Directory(File directory) throws IOException
+		{
+			File[] listed = directory.listFiles();
+			if (listed == null) throw new IOException("'"+directory.getAbsolutePath()+"' is not a directory");
+
+			// sidecar headers of raw maps belong to their maps
+			List<File> images = new ArrayList<File>();
+			for (File file: listed) if (file.isFile() && !file.getName().endsWith(".hdr")) images.add(file);
+
+			files = images.toArray(new File[images.size()]);
+			Arrays.sort(files);
+			for (File file: files) filesByName.put(FileUtil.getFileNameWithoutEnding(file.getName()), file);
+		}
+
+
+		/**
+		 * Returns the names of the files without ending.
+		 *
+		 * @return image names, sorted by file name
+		 */
+		public Collection<String> getImageNames()
+		{
+			return Collections.unmodifiableCollection(filesByName.keySet());
+		}
+
+
+		/**
+		 * Returns the file of an image.
+		 *
+		 * @param imageName name of the image
+		 *
+		 * @return          source of the file, null if no file matches
+		 */
+		public ImageSource getImage(String imageName)
+		{
+			File file = filesByName.get(imageName);
+			if (file == null) file = FileUtil.findFile(imageName, files);
+
+			return file != null ? ImageSource.fromFile(file) : null;
+		}
+
+	}
+
+
+	/**
+	 * Provides sources put into it, e.g. maps computed or received by the embedding application.
+	 * Sources may be put while the provider is being evaluated; an evaluation sees the images named when it starts.
+	 */
+	public static class InMemory implements ImageProvider
+	{
+
+		/**
+		 * Sources by image name, in order of putting.
+		 */
+		private final Map<String, ImageSource> sources = new LinkedHashMap<String, ImageSource>();
+
+
+		/**
+		 * Adds a source, replacing a source of the same image name.
+		 *
+		 * @param source source to add
+		 *
+		 * @return       this provider
+		 */
+		public synchronized InMemory put(ImageSource source)
+		{
+			sources.put(source.getImageName(), source);
+
+			return this;
+		}
+
+
+		/**
+		 * Returns the names of all sources.
+		 *
+		 * @return copy of the image names, in order of putting
+		 */
+		public synchronized Collection<String> getImageNames()
+		{
+			return new ArrayList<String>(sources.keySet());
+		}
+
+
+		/**
+		 * Returns the source of an image.
+		 *
+		 * @param imageName name of the image
+		 *
+		 * @return          source, null if none has been put
+		 */
+		public synchronized ImageSource getImage(String imageName)
+		{
+			return sources.get(imageName);
+		}
+
+	}
+
+}
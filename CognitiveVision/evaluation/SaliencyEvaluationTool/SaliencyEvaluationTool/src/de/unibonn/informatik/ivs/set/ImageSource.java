@@ -0,0 +1,206 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+
+
+/**
+ * A ground truth or saliency map handed to an {@link Evaluator}: an image file, the contents of an image file in memory,
+ * or a primitive buffer of values, e.g. computed by the embedding application itself.<br>
+ * <br>
+ * Sources are immutable; buffers are not copied, so they must not be modified while they are evaluated.
+ *
+ * @version		2026.1018
+ *
+ */
+public class ImageSource
+{
+
+	/**
+	 * Constant indicating an image file.
+	 */
+	public static final int FILE   = 0;
+
+	/**
+	 * Constant indicating the contents of an image file.
+	 */
+	public static final int BYTES  = 1;
+
+	/**
+	 * Constant indicating binary values (ground truths only).
+	 */
+	public static final int MASK   = 2;
+
+	/**
+	 * Constant indicating 8 bit grey values.
+	 */
+	public static final int VALUES = 3;
+
+	/**
+	 * Kind of source, one of the constants above.
+	 */
+	final int type;
+
+	/**
+	 * Name of the image the source refers to.
+	 */
+	final String imageName;
+
+	/**
+	 * Image file, or file name identifying the format of contents; null for buffers.
+	 */
+	final File file;
+
+	/**
+	 * Contents of an image file, null for other sources.
+	 */
+	final byte[] data;
+
+	/**
+	 * Size of a buffer, -1 for files.
+	 */
+	final int width, height;
+
+	/**
+	 * Binary values row by row, null for other sources.
+	 */
+	final boolean[] mask;
+
+	/**
+	 * Grey values row by row, null for other sources.
+	 */
+	final byte[] values;
+
+
+	/**
+	 * Constructs a source.
+	 *
+	 * @param type      kind of source
+	 * @param imageName name of the image
+	 * @param file      image file or file name, null for buffers
+	 * @param data      contents of an image file
+	 * @param width     width of a buffer
+	 * @param height    height of a buffer
+	 * @param mask      binary values
+	 * @param values    grey values
+	 */
+	private ImageSource(int type, String imageName, File file, byte[] data, int width, int height, boolean[] mask, byte[] values)
+	{
+		this.type      = type;
+		this.imageName = imageName;
+		this.file      = file;
+		this.data      = data;
+		this.width     = width;
+		this.height    = height;
+		this.mask      = mask;
+		this.values    = values;
+	}
+
+
+	/**
+	 * Creates a source of an image file.
+	 * Ground truths read from files are cached if the evaluator has a cache (see {@link Evaluator.Builder#cache(EvaluationCache)}).
+	 *
+	 * @param file image file, named like the image (ending aside)
+	 *
+	 * @return     source
+	 */
+	public static ImageSource fromFile(File file)
+	{
+		return new ImageSource(FILE, FileUtil.getFileNameWithoutEnding(file.getName()), file, null, -1, -1, null, null);
+	}
+
+
+	/**
+	 * Creates a source of the contents of an image file in memory.
+	 *
+	 * @param fileName name of the file the contents belong to; its ending identifies the format (see {@link PreciseMapReader})
+	 * @param data     contents of the file
+	 *
+	 * @return         source
+	 */
+	public static ImageSource fromBytes(String fileName, byte[] data)
+	{
+		if (data == null) throw new IllegalArgumentException("Contents of '"+fileName+"' are missing");
+
+		return new ImageSource(BYTES, FileUtil.getFileNameWithoutEnding(fileName), new File(fileName), data, -1, -1, null, null);
+	}
+
+
+	/**
+	 * Creates a source of binary ground truth values.
+	 *
+	 * @param imageName name of the image
+	 * @param width     width of the image
+	 * @param height    height of the image
+	 * @param mask      binary values row by row, true inside the object
+	 *
+	 * @return          source
+	 */
+	public static ImageSource fromMask(String imageName, int width, int height, boolean[] mask)
+	{
+		checkSize(imageName, width, height, mask.length);
+
+		return new ImageSource(MASK, imageName, null, null, width, height, mask, null);
+	}
+
+
+	/**
+	 * Creates a source of 8 bit grey values: saliency values, or ground truth values of which values of at least 128 belong
+	 * to the object.
+	 *
+	 * @param imageName name of the image
+	 * @param width     width of the image
+	 * @param height    height of the image
+	 * @param values    unsigned grey values row by row
+	 *
+	 * @return          source
+	 */
+	public static ImageSource fromValues(String imageName, int width, int height, byte[] values)
+	{
+		checkSize(imageName, width, height, values.length);
+
+		return new ImageSource(VALUES, imageName, null, null, width, height, null, values);
+	}
+
+
+	/**
+	 * Checks that a buffer fits its size.
+	 *
+	 * @param imageName name of the image
+	 * @param width     width of the image
+	 * @param height    height of the image
+	 * @param length    length of the buffer
+	 */
+	private static void checkSize(String imageName, int width, int height, int length)
+	{
+		if (width <= 0 || height <= 0 || (long)width*height != length)
+		{
+			throw new IllegalArgumentException("Buffer of '"+imageName+"' has "+length+" values, which does not fit "+width+"x"+height);
+		}
+	}
+
+
+	/**
+	 * Returns the kind of source.
+	 *
+	 * @return {@link #FILE}, {@link #BYTES}, {@link #MASK} or {@link #VALUES}
+	 */
+	public int getType()
+	{
+		return type;
+	}
+
+
+	/**
+	 * Returns the name of the image the source refers to.
+	 *
+	 * @return image name
+	 */
+	public String getImageName()
+	{
+		return imageName;
+	}
+
+}
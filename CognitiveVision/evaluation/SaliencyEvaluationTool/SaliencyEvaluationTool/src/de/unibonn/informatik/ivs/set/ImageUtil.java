@@ -26,11 +26,15 @@ public class ImageUtil
 	 */
 	public static BufferedImage greyImage(BufferedImage image)
 	{
+		StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.GREY);
+
 		BufferedImage result = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
 		Graphics2D graphics2D = result.createGraphics();
 		graphics2D.drawImage(image, 0, 0, result.getWidth(), result.getHeight(), null);
 		graphics2D.dispose();
 
+		stage.end(null, result.getWidth(), result.getHeight(), null);
+
 		return result;
 	}
 
@@ -51,6 +55,8 @@ public class ImageUtil
 
 		if (image.getWidth() != width || image.getHeight() != height)
 		{
+			StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.SCALE);
+
 			// Create new (blank) image of required size
 			result = new BufferedImage(width, height, image.getType());
 
@@ -61,6 +67,8 @@ public class ImageUtil
 
 			// clean up
 			graphics2D.dispose();
+
+			stage.end(null, width, height, null);
 		}
 		else result = image;
 
@@ -91,6 +99,7 @@ public class ImageUtil
 	public static BufferedImage loadImage(File imageFile)
 	{
 		BufferedImage result = null;
+		StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.DECODE);
 
 		try
 		{
@@ -101,10 +110,53 @@ public class ImageUtil
 			System.err.println("Could not load image '"+imageFile.getAbsolutePath()+"': "+e.toString());
 		}
 
+		endDecode(stage, imageFile.getName(), result);
+
 		return result;
 	}
 
 
+	/**
+	 * Loads an image from the contents of an image file that have already been read into memory.<br>
+	 * If decoding fails it returns null.
+	 *
+	 * @param data      contents of an image file
+	 * @param imageName name of the image, used in error messages
+	 * @return          the loaded image
+	 */
+	public static BufferedImage loadImage(byte[] data, String imageName)
+	{
+		BufferedImage result = null;
+		StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.DECODE);
+
+		try
+		{
+			result = ImageIO.read(new ByteArrayInputStream(data));
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not load image '"+imageName+"': "+e.toString());
+		}
+
+		endDecode(stage, imageName, result);
+
+		return result;
+	}
+
+
+	/**
+	 * Ends measuring the decoding of an image (see {@link StageProfiler}).
+	 *
+	 * @param stage    stage begun before decoding
+	 * @param fileName name of the decoded file
+	 * @param image    decoded image, null if decoding failed
+	 */
+	static void endDecode(StageProfiler.Stage stage, String fileName, BufferedImage image)
+	{
+		stage.end(null, image != null ? image.getWidth() : -1, image != null ? image.getHeight() : -1, StageProfiler.getFormat(fileName, image));
+	}
+
+
 	/**
 	 * Saves an image to a file in PNG format.<br>
 	 * The appropriate file ending is added automatically if necessary.
@@ -119,7 +171,9 @@ public class ImageUtil
 			if (!fileName.endsWith(".png")) fileName += ".png";
 			File file = new File(fileName);
 
+			StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.WRITE);
 			ImageIO.write(image, "PNG", file);
+			stage.end(null, image.getWidth(), image.getHeight(), "png");
 		}
 		catch (Exception e)
 		{
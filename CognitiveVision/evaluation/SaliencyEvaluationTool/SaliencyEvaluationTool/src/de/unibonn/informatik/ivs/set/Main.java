@@ -4,6 +4,7 @@ package de.unibonn.informatik.ivs.set;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.atomic.*;
 import java.awt.*;
 import java.awt.image.*;
 
@@ -56,6 +57,82 @@ public class Main
 	 */
 	public static final int MODE_COPYIMAGES           = 2;
 
+	/**
+	 * Constant indicating that application shall pack ground truth images (and optionally saliency maps)
+	 * into a single file (see {@link DatasetPack}).
+	 */
+	public static final int MODE_PACK                 = 4;
+
+	/**
+	 * Constant indicating that application shall run evaluation jobs received on standard input or a socket,
+	 * keeping caches across jobs (see {@link EvaluationServer}).
+	 */
+	public static final int MODE_SERVE                = 5;
+
+	/**
+	 * Constant indicating that application shall send an evaluation job to a running server
+	 * (see {@link EvaluationServer#submit(java.lang.String, int, java.lang.String[])}).
+	 */
+	public static final int MODE_CLIENT               = 6;
+
+	/**
+	 * Constant indicating that application shall keep the evaluation of a folder of saliency maps up to date
+	 * while saliency maps are (re)generated (see {@link WatchEvaluation}).
+	 */
+	public static final int MODE_WATCH                = 7;
+
+
+	/**
+	 * Constant (bit flag) selecting precision/recall per threshold as metric to evaluate.
+	 */
+	public static final int METRIC_PRECISION_RECALL = 1;
+
+	/**
+	 * Constant (bit flag) selecting the area under the ROC curve as metric to evaluate.
+	 */
+	public static final int METRIC_AUC              = 2;
+
+	/**
+	 * Constant (bit flag) selecting the mean absolute error as metric to evaluate.
+	 */
+	public static final int METRIC_MAE              = 4;
+
+	/**
+	 * Constant (bit flag) selecting metrics per object (connected component) as metric to evaluate (see {@link ObjectEvaluation}).
+	 */
+	public static final int METRIC_OBJECTS          = 8;
+
+	/**
+	 * Constant (bit flag) selecting the weighted F-measure as metric to evaluate (see {@link WeightedFMeasure}).
+	 */
+	public static final int METRIC_WEIGHTED_F       = 16;
+
+	/**
+	 * Constant (bit flag) selecting the structure measure (S-measure) as metric to evaluate (see {@link StructureMeasure}).
+	 */
+	public static final int METRIC_STRUCTURE        = 32;
+
+	/**
+	 * Constant (bit flag) selecting the mean enhanced-alignment measure (E-measure) as metric to evaluate (see {@link GroundTruth#getEnhancedAlignment(int[][])}).
+	 */
+	public static final int METRIC_ENHANCED_ALIGNMENT = 64;
+
+
+	/**
+	 * Constant indicating that no plots are created.
+	 */
+	public static final int PLOT_NONE    = 0;
+
+	/**
+	 * Constant indicating that plots are created by the built-in renderer (see {@link PlotRenderer}).
+	 */
+	public static final int PLOT_BUILTIN = 1;
+
+	/**
+	 * Constant indicating that plots are created with <code>ptolemy.plot.Plot</code>.
+	 */
+	public static final int PLOT_PTOLEMY = 2;
+
 
 	/**
 	 * Current running mode.
@@ -82,11 +159,33 @@ public class Main
 	 */
 	private static String pathImagesToCopy       = ".";
 
+	/**
+	 * Path where saliency maps of a second method can be found, which is compared to the first one
+	 * (see {@link Bootstrap#compare(double[][], double[][], double)}).
+	 */
+	private static String pathSaliencyMapImages2 = null;
+
+	/**
+	 * Paths of containers of ground truth masks and saliency maps of a video, null if images are evaluated
+	 * (see {@link FrameSequenceReader}).
+	 */
+	private static String pathSequenceGroundTruth = null, pathSequenceSaliencyMaps = null;
+
+	/**
+	 * Path of saliency maps indicating that they are read from standard input (see {@link FrameStreamReader}).
+	 */
+	private static final String STDIN_PATH = "-";
+
 	/**
 	 * Path where image files defining images to copy by thier name can be found.
 	 */
 	private static String pathDefiningImageNames = null;
 
+	/**
+	 * Path of the pack file to write in pack mode.
+	 */
+	private static String pathPackFile           = null;
+
 	/**
 	 * Path where results shall be written to.
 	 */
@@ -98,6 +197,17 @@ public class Main
 	 */
 	private static double thresholdBinGroundTruth  = 0.5;
 
+	/**
+	 * Flag that determines if ground truth descriptions are additionally evaluated with every threshold that
+	 * results in a different binary ground truth (see {@link GroundTruth#getVoteHistograms(de.unibonn.informatik.ivs.set.SaliencyMap)}).
+	 */
+	private static boolean thresholdSweep = false;
+
+	/**
+	 * Aggregates results per ground truth threshold while evaluating if {@link #thresholdSweep} is set.
+	 */
+	private static GroupAggregator sweepAggregator = null;
+
 	/**
 	 * Determines the maximum ground truth size to copy when in copy small ground truth mode.
 	 */
@@ -114,381 +224,2352 @@ public class Main
 	 */
 	private static Map<String, Double> relativeGtSizes;
 
-
 	/**
-	 * Main method to start from.
-	 *
-	 * @param args command line arguments
+	 * Metrics to evaluate, combination of {@link #METRIC_PRECISION_RECALL}, {@link #METRIC_AUC}, {@link #METRIC_MAE},
+	 * {@link #METRIC_OBJECTS}, {@link #METRIC_WEIGHTED_F}, {@link #METRIC_STRUCTURE} and {@link #METRIC_ENHANCED_ALIGNMENT}.
 	 */
-	public static void main(String[] args)
-	{
-		// determine what to do
-		parseCommandLineParameters(args);
+	private static int metrics = METRIC_PRECISION_RECALL | METRIC_AUC | METRIC_MAE;
 
-		// execute
-		try
-		{
-			if (mode == MODE_COPYSMALLGROUNDTRUTH)
-			{
-				if (pathGroundTruthImages == null) exit("Path to ground truth images not set -> stopping.", false);
+	/**
+	 * Binary thresholds metrics per object are determined at.
+	 */
+	private static int[] objectThresholds = {128};
 
-				System.out.println("coping images..");
-				copySmallGroundTruthImages(pathGroundTruthImages, pathResult, thresholdSizeGroundTruth);
-				System.out.println("DONE");
-			}
-			else if (mode == MODE_COPYIMAGES)
-			{
-				if (pathImagesToCopy == null) exit("Path to images to copy not set -> stopping.", false);
-				if (pathDefiningImageNames == null) exit("Path to images defining image names to copy not set -> stopping.", false);
+	/**
+	 * Normalisation of saliency values before evaluation (see {@link SaliencyNormalization}).
+	 */
+	private static int normalization = SaliencyNormalization.NONE;
 
-				System.out.println("coping files..");
-				FileUtil.copyDefinedFiles(pathImagesToCopy, pathResult, pathDefiningImageNames);
-				System.out.println("DONE");
-			}
-			else if (mode == MODE_EVALUATE)
-			{
-				if (pathSaliencyMapImages == null) exit("Path to saliency map images not set -> stopping.", false);
-				if (pathGroundTruthImages == null && pathGroundTruthFile == null) exit("Path to ground truth images/file not set -> stopping.", false);
+	/**
+	 * Percent of values clipped at each end by {@link SaliencyNormalization#PERCENTILE}.
+	 */
+	private static double clipPercent = SaliencyNormalization.DEFAULT_CLIP_PERCENT;
 
-				File directorySaliencyMaps = new File(pathSaliencyMapImages);
-				if (!directorySaliencyMaps.exists()) exit("Directory '"+directorySaliencyMaps.getAbsolutePath()+"' does not exist -> stopping.", false);
-				if (!directorySaliencyMaps.isDirectory()) exit("'"+directorySaliencyMaps.getAbsolutePath()+"' is not a directory -> stopping.", false);
-				
-				File[] saliencyMapFiles = directorySaliencyMaps.listFiles();
-				
-				// index 1: number of file
-				// index 2: binary threshold between [0; 255]
-				// index 3: precision/recall
-				double[][][] result = null;
+	/**
+	 * Number of bootstrap resamples determining confidence bands of the mean curve, 0 to determine none
+	 * (see {@link Bootstrap}).
+	 */
+	private static int bootstrapResamples = 0;
 
-				relativeGtSizes = new HashMap<String, Double>();
+	/**
+	 * Number of resamples used to compare two methods if {@link #bootstrapResamples} is not set.
+	 */
+	private static final int DEFAULT_COMPARISON_RESAMPLES = 1000;
 
-				File directoryResults = new File(pathResult);
-				if (!directoryResults.exists()) directoryResults.mkdirs();
+	/**
+	 * Seed of random generators used for resampling.
+	 */
+	private static long seed = 20110317L;
 
-				if (pathGroundTruthImages != null) result = evaluateWithGroundTruthImages(pathGroundTruthImages, saliencyMapFiles);
-				else if (pathGroundTruthFile != null)
-				{
-					String pathToSaveGroundTruthImages = null;
-					if (saveGroundTruthImages) pathToSaveGroundTruthImages = pathResult;
-					result = evaluateWithGroundTruthFile(pathGroundTruthFile, saliencyMapFiles, thresholdBinGroundTruth, pathToSaveGroundTruthImages);
-				}
+	/**
+	 * Confidence level of bootstrap confidence bands and intervals.
+	 */
+	private static double confidence = 0.95;
 
-				Long t = System.currentTimeMillis();
-						
-				System.out.print("Saving complete results to '"+pathResult+"/"+"result_all.txt'");
-				t = System.currentTimeMillis();
-				saveAllResultsToFile(pathResult+"/"+"result_all.txt", result);
-				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+	/**
+	 * Half-width of the confidence interval of max. F at which approximate evaluation stops,
+	 * 0 to evaluate all images (see {@link #evaluateApproximately(java.io.File[], java.io.File[])}).
+	 */
+	private static double approximateEpsilon = 0.0;
 
-				System.out.print("Saving ground truth sizes to '"+pathResult+"/"+"ground_truth_sizes.txt'");
-				t = System.currentTimeMillis();
-				double meanGtSize = saveGtSizesToFile(pathResult+"/"+"ground_truth_sizes.txt");
-				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
-				System.out.println("MEAN GT SIZE: "+meanGtSize);
+	/**
+	 * Number of images evaluated before approximate evaluation checks convergence for the first time.
+	 */
+	private static final int APPROXIMATE_MIN_IMAGES = 20;
 
-				System.out.print("Saving mean results to '"+pathResult+"/"+"result_mean.txt'");
-				t = System.currentTimeMillis();
-				saveMeanResultsToFile(pathResult+"/"+"result_mean.txt", result);
-				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+	/**
+	 * Number of resamples determining the confidence interval of approximate evaluation if {@link #bootstrapResamples} is not set.
+	 */
+	private static final int DEFAULT_APPROXIMATE_RESAMPLES = 200;
 
-				System.out.print("Creating plots");
-				t = System.currentTimeMillis();
-				plotResult(result, pathResult);
-				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+	/**
+	 * Confidence bands of the last convergence check of approximate evaluation, null if none has been made.
+	 */
+	private static Bootstrap.ConfidenceBands approximateBands = null;
 
-				System.out.println("DONE");
-			}
-		}
-		catch (Exception e)
-		{
-			e.printStackTrace();
-		}
-		
-	}
+	/**
+	 * Number of images evaluated and available for approximate evaluation.
+	 */
+	private static int approximateImages, approximateImagesTotal;
 
+	/**
+	 * Determines groups of images whose results are aggregated separately, null to aggregate no groups.
+	 */
+	private static GroupKeyExtractor groupKeyExtractor = null;
 
 	/**
-	 * Runs evaluation with ground truth descriptions contained in a text file.
-	 *
-	 * @param pathGroundTruthFile     path to a text file containing ground truth descriptions, for more info see {@link GroundTruthDescription}
-	 * @param saliencyMapFiles        array of image files representing saliency maps
-	 * @param thresholdBinGroundTruth threshold to determine binary ground truth masks with, in [0.0, 1.0]
-	 * @param pathResult              path to save results to
-	 *
-	 * @return                        result of evaluation:<br>
-	 *												index 1: number of file/image<br>
-	 *												index 2: binary threshold used in saliency maps, in [0; 255]<br>
-	 *												index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 * Aggregates results per group while evaluating if {@link #groupKeyExtractor} is set.
 	 */
-	private static double[][][] evaluateWithGroundTruthFile(String pathGroundTruthFile, File[] saliencyMapFiles, double thresholdBinGroundTruth, String pathResult)
-	{
-		String groundTruthDescription = FileUtil.readFile(new File(pathGroundTruthFile));
-		if (groundTruthDescription == null) exit("Could not read '"+pathGroundTruthFile+"' -> stopping.", false);
+	private static GroupAggregator groupAggregator = null;
 
-		System.out.println("Ground truth descriptions read.");
-		String[] descriptions = groundTruthDescription.split("\n\n");
+	/**
+	 * Upper bounds (exclusive) of buckets of relative ground truth object sizes whose results are aggregated
+	 * separately, in ascending order, null to aggregate no size buckets. Objects at least as large as the
+	 * last bound are aggregated in a last bucket up to 1.0.
+	 */
+	private static double[] sizeBuckets = null;
 
-		double[][][] result = new double[descriptions.length][][];
-		long t;
+	/**
+	 * Aggregates results per size bucket while evaluating if {@link #sizeBuckets} are set.
+	 */
+	private static GroupAggregator sizeAggregator = null;
 
-		for (int iDescr=0; iDescr<descriptions.length; iDescr++)
-		{
-			t = System.currentTimeMillis();
+	/**
+	 * Backend creating plots, {@link #PLOT_BUILTIN}, {@link #PLOT_PTOLEMY} or {@link #PLOT_NONE}.
+	 */
+	private static int plotBackend = PLOT_BUILTIN;
 
-			GroundTruthDescription gtd = new GroundTruthDescription(descriptions[iDescr]);
+	/**
+	 * Holds areas under ROC curve by image name.
+	 */
+	private static Map<String, Double> areasUnderCurve;
 
-			if (gtd.isValid())
-			{
-				System.out.print("Evaluating '"+gtd.imageName+"' ("+(iDescr+1)+"/"+descriptions.length+")");
+	/**
+	 * Holds mean absolute errors by image name.
+	 */
+	private static Map<String, Double> meanAbsoluteErrors;
 
-				File sMapFile = FileUtil.findFile(FileUtil.getFileNameWithoutEnding(gtd.imageName), saliencyMapFiles);
-				if (sMapFile != null)
-				{
-					//TEST
-					//System.out.println(gtd);
+	/**
+	 * Holds weighted F-measures by image name.
+	 */
+	private static Map<String, Double> weightedFMeasures;
 
-					GroundTruth gt = new GroundTruth(gtd);
-					relativeGtSizes.put(gt.imageName, new Double(gt.getRelativeObjectSize()));
-					gt.setBinaryThreshold(thresholdBinGroundTruth);
+	/**
+	 * Holds S-measures by image name.
+	 */
+	private static Map<String, Double> structureMeasures;
 
-					if (pathResult != null) ImageUtil.saveImageAsPng(gt.getBinaryImage(), pathResult+"/"+gt.imageName);
+	/**
+	 * Holds mean E-measures by image name.
+	 */
+	private static Map<String, Double> enhancedAlignments;
 
-					SaliencyMap sMap = new SaliencyMap(sMapFile, gt.getWidth(), gt.getHeight());
+	/**
+	 * Holds metrics per object by image name (see {@link ObjectEvaluation#evaluate(de.unibonn.informatik.ivs.set.GroundTruth, de.unibonn.informatik.ivs.set.SaliencyMap, int[])}).
+	 */
+	private static Map<String, double[]> objectMetrics;
 
-					result[iDescr] = gt.evaluate(sMap);
+	/**
+	 * Holds metrics of scores evaluated at a finer resolution by image name (see {@link PreciseEvaluation}).
+	 */
+	private static Map<String, double[]> preciseMetrics;
 
-					System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
-				}
-				else
-				{
-					System.out.println(" - no saliency map file found.");
-				}
-			}
-			else
-			{
-				System.out.println("'"+descriptions[iDescr]+"' is not a valid ground truth description -> skipping");
-			}
-		}
+	/**
+	 * Number of bins of scores evaluated at a finer resolution, {@link PreciseEvaluation#EXACT} for every distinct score, -1 for none.
+	 */
+	private static int preciseBins = -1;
 
-		return result;
-	}
+	/**
+	 * Indicates if saliency maps smaller than their images are evaluated at their own resolution against a ground truth
+	 * scaled down to them (see {@link GroundTruth#getCoverage(int, int)}) instead of being scaled up.
+	 */
+	private static boolean mapResolution = false;
 
+	/**
+	 * Number of rows of the bands ground truth and saliency map images are read and evaluated in (see {@link TiledEvaluation}),
+	 * 0 to read whole images.
+	 */
+	private static int bandRows = 0;
 
 	/**
-	 * Runs evaluation with ground truths represented by binary images.
-	 *
-	 * @param pathGroundTruthImages path to a folder containing binary ground truth images
-	 * @param saliencyMapFiles      array of image files representing saliency maps
-	 *
-	 * @return                      result of evaluation:<br>
-	 *											  index 1: number of file/image<br>
-	 *                                 index 2: binary threshold used in saliency maps, in [0; 255]<br>
-	 *                                 index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 * Determines if files are read concurrently on (virtual) I/O threads and evaluated on
+	 * {@link #nThreads} worker threads (see {@link FileFanOut}) instead of one after another.
 	 */
-	private static double[][][] evaluateWithGroundTruthImages(String pathGroundTruthImages, File[] saliencyMapFiles)
-	{
-		File fileGroundTruth = new File(pathGroundTruthImages);
-		if (!fileGroundTruth.exists()) exit("Directory '"+fileGroundTruth.getAbsolutePath()+"' does not exist.", false);
-		if (!fileGroundTruth.isDirectory()) exit("'"+fileGroundTruth.getAbsolutePath()+"' is not a directory.", false);
+	private static boolean fanOutIo = false;
 
-		long t;
+	/**
+	 * Maximum number of images read or evaluated at the same time when {@link #fanOutIo} is set.
+	 */
+	private static int ioConcurrency = 64;
 
-		File[] groundTruthFiles = fileGroundTruth.listFiles();
+	/**
+	 * Number of worker threads decoding and evaluating images when {@link #fanOutIo} is set.
+	 */
+	private static int nThreads = Runtime.getRuntime().availableProcessors();
 
-		double[][][] result = new double[groundTruthFiles.length][][];
+	/**
+	 * Port a server listens on or a client connects to, -1 to serve standard input.
+	 */
+	private static int port = -1;
 
-		int iFile = 0;
+	/**
+	 * Host a client connects to.
+	 */
+	private static String host = "localhost";
 
-		for (File file: groundTruthFiles)
-		{
-			System.out.print("Evaluating '"+file.getName()+"' ("+(iFile+1)+"/"+groundTruthFiles.length+")");
+	/**
+	 * Memory budget in MB for ground truth masks cached by a server.
+	 */
+	private static int cacheSize = 512;
 
-			t = System.currentTimeMillis();
+	/**
+	 * Memory budget in MB for images evaluated at the same time with {@link #fanOutIo}, 0 for the default
+	 * (see {@link MemoryGovernor}).
+	 */
+	private static int memoryBudget = 0;
 
-			GroundTruth gt = new GroundTruth(file);
+	/**
+	 * Minimum time in milliseconds between writes of results in watch mode.
+	 */
+	private static long refreshInterval = 2000;
 
-			File sMapFile = FileUtil.findFile(FileUtil.getFileNameWithoutEnding(file.getName()), saliencyMapFiles);
-			if (sMapFile != null)
-			{
-				relativeGtSizes.put(gt.imageName, new Double(gt.getRelativeObjectSize()));
+	/**
+	 * Number of slowest images whose times per stage are reported (see {@link StageProfiler}), 0 for no report.
+	 */
+	private static int slowestImages = 10;
 
-				SaliencyMap sMap = new SaliencyMap(sMapFile, gt.getWidth(), gt.getHeight());
+	/**
+	 * Cache kept across jobs when running as a server, null otherwise.
+	 */
+	private static EvaluationCache cache = null;
 
-				//ImageUtil.saveImageAsPng(sMap.getMap(), "images/test/"+sMap.imageName);
+	/**
+	 * Determines if jobs are run by a server, in which case errors end the job instead of the application.
+	 */
+	private static boolean serving = false;
 
-				result[iFile++] = gt.evaluate(sMap);
+	/**
+	 * Archive the ground truth images are read from, null if they are read from a folder.
+	 */
+	private static ImageArchive groundTruthArchive = null;
 
-				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
-			}
-			else
-			{
-				System.out.println(" - no matching saliency map image found.");
-			}
-		}
+	/**
+	 * Archive the saliency maps of the method being evaluated are read from, null if they are read from a folder.
+	 */
+	private static ImageArchive saliencyMapArchive = null;
 
-		return result;
-					
-	}
+
+	/**
+	 * Thrown by {@link #exit(java.lang.String, boolean)} instead of terminating the application while serving jobs.
+	 */
+	static class ExitException extends RuntimeException
+	{
+		private static final long serialVersionUID = 1L;
+
+		ExitException(String message)
+		{
+			super(message);
+		}
+	}
+
+
+	/**
+	 * Main method to start from.
+	 *
+	 * @param args command line arguments
+	 */
+	public static void main(String[] args)
+	{
+		// determine what to do
+		parseCommandLineParameters(args);
+
+		// execute
+		try
+		{
+			if (mode == MODE_SERVE)
+			{
+				serving = true;
+				EvaluationServer server = new EvaluationServer((long)cacheSize*1024*1024);
+
+				if (port != -1) server.serve(port);
+				else
+				{
+					System.err.println("Reading evaluation jobs from standard input, one per line");
+					server.serve(new BufferedReader(new InputStreamReader(System.in)), System.out);
+				}
+			}
+			else if (mode == MODE_CLIENT)
+			{
+				if (port == -1) exit("Port of server not set -> stopping.", false);
+
+				// mode, host and port are meant for the client, everything else is passed on
+				java.util.List<String> jobArgs = new ArrayList<String>();
+				for (String arg: args)
+				{
+					String var = arg.indexOf("=") != -1 ? arg.substring(0, arg.indexOf("=")) : arg;
+					if (!var.equalsIgnoreCase("mode") && !var.equalsIgnoreCase("host") && !var.equalsIgnoreCase("port")) jobArgs.add(arg);
+				}
+
+				System.exit(EvaluationServer.submit(host, port, jobArgs.toArray(new String[jobArgs.size()])));
+			}
+			else run();
+		}
+		catch (Exception e)
+		{
+			e.printStackTrace();
+		}
+		
+	}
+
+
+	/**
+	 * Runs a job received by a server: parameters are reset to their defaults, then set from the job's parameters
+	 * as from command line parameters, and the job is run like a single invocation of the application.<br>
+	 * Errors end the job with an {@link ExitException}; jobs cannot start servers or read saliency maps from standard input.
+	 *
+	 * @param args  job parameters
+	 * @param cache cache kept across jobs
+	 *
+	 * @throws Exception if the job fails
+	 */
+	static synchronized void runJob(String[] args, EvaluationCache cache) throws Exception
+	{
+		serving = true;
+		Main.cache = cache;
+
+		parseCommandLineParameters(args);
+		if (mode == MODE_SERVE || mode == MODE_CLIENT || mode == MODE_WATCH) exit("Jobs cannot start servers, clients or watching.", false);
+		// standard input of a server is its job channel, not a stream of saliency maps
+		if (STDIN_PATH.equals(pathSaliencyMapImages)) exit("Jobs cannot read saliency maps from standard input (pathSM="+STDIN_PATH+").", false);
+
+		run();
+	}
+
+
+	/**
+	 * Runs the current mode with the current parameters.
+	 *
+	 * @throws Exception if running fails
+	 */
+	private static void run() throws Exception
+	{
+		if (mode == MODE_COPYSMALLGROUNDTRUTH)
+		{
+			if (pathGroundTruthImages == null) exit("Path to ground truth images not set -> stopping.", false);
+
+			System.out.println("coping images..");
+			copySmallGroundTruthImages(pathGroundTruthImages, pathResult, thresholdSizeGroundTruth);
+			System.out.println("DONE");
+		}
+		else if (mode == MODE_COPYIMAGES)
+		{
+			if (pathImagesToCopy == null) exit("Path to images to copy not set -> stopping.", false);
+			if (pathDefiningImageNames == null) exit("Path to images defining image names to copy not set -> stopping.", false);
+
+			System.out.println("coping files..");
+			FileUtil.copyDefinedFiles(pathImagesToCopy, pathResult, pathDefiningImageNames);
+			System.out.println("DONE");
+		}
+		else if (mode == MODE_PACK)
+		{
+			if (pathGroundTruthImages == null) exit("Path to ground truth images not set -> stopping.", false);
+			if (pathPackFile == null) exit("Path to pack file not set -> stopping.", false);
+
+			File directorySaliencyMaps = null;
+			if (pathSaliencyMapImages != null) directorySaliencyMaps = new File(pathSaliencyMapImages);
+
+			System.out.println("packing images..");
+			int nEntries = DatasetPack.write(new File(pathGroundTruthImages), directorySaliencyMaps, new File(pathPackFile));
+			System.out.println("Packed "+nEntries+" images to '"+pathPackFile+"'");
+			System.out.println("DONE");
+		}
+		else if (mode == MODE_WATCH)
+		{
+			if (pathGroundTruthImages == null) exit("Path to ground truth images not set -> stopping.", false);
+			if (pathSaliencyMapImages == null) exit("Path to saliency map images not set -> stopping.", false);
+
+			File directoryGroundTruth  = new File(pathGroundTruthImages);
+			File directorySaliencyMaps = new File(pathSaliencyMapImages);
+			if (!directoryGroundTruth.isDirectory()) exit("'"+directoryGroundTruth.getAbsolutePath()+"' is not a directory -> stopping.", false);
+			if (!directorySaliencyMaps.isDirectory()) exit("'"+directorySaliencyMaps.getAbsolutePath()+"' is not a directory -> stopping.", false);
+
+			File directoryResults = new File(pathResult);
+			if (!directoryResults.exists()) directoryResults.mkdirs();
+
+			EvaluationCache watchCache = cache != null ? cache : new EvaluationCache((long)cacheSize*1024*1024);
+			WatchEvaluation watch = new WatchEvaluation(directoryGroundTruth, directorySaliencyMaps, directoryResults, refreshInterval, plotBackend != PLOT_NONE, watchCache);
+			watch.setNormalization(normalization, clipPercent);
+			watch.watch();
+		}
+		else if (mode == MODE_EVALUATE)
+		{
+			validateEvaluationParameters();
+
+			boolean evaluatePack   = pathGroundTruthImages != null && DatasetPack.isPack(new File(pathGroundTruthImages));
+			boolean evaluateStream = STDIN_PATH.equals(pathSaliencyMapImages);
+
+			groundTruthArchive = pathGroundTruthImages != null && !evaluatePack ? openArchive(new File(pathGroundTruthImages)) : null;
+
+			File[] saliencyMapFiles = null;
+			if (pathSaliencyMapImages != null && !evaluateStream)
+			{
+				File directorySaliencyMaps = new File(pathSaliencyMapImages);
+
+				saliencyMapArchive = openArchive(directorySaliencyMaps);
+				if (saliencyMapArchive != null) saliencyMapFiles = saliencyMapArchive.getFiles();
+				else
+				{
+					if (!directorySaliencyMaps.isDirectory()) exit("'"+directorySaliencyMaps.getAbsolutePath()+"' is not a directory -> stopping.", false);
+
+					saliencyMapFiles = listFiles(directorySaliencyMaps);
+				}
+			}
+
+			approximateBands = null;
+
+			groupAggregator = groupKeyExtractor != null ? new GroupAggregator() : null;
+			sizeAggregator  = sizeBuckets != null ? new GroupAggregator() : null;
+			sweepAggregator = thresholdSweep ? new GroupAggregator() : null;
+
+			File[] saliencyMapFiles2 = null;
+			ImageArchive saliencyMapArchive2 = null;
+			if (pathSaliencyMapImages2 != null)
+			{
+				File directorySaliencyMaps2 = new File(pathSaliencyMapImages2);
+
+				saliencyMapArchive2 = openArchive(directorySaliencyMaps2);
+				if (saliencyMapArchive2 != null) saliencyMapFiles2 = saliencyMapArchive2.getFiles();
+				else
+				{
+					if (!directorySaliencyMaps2.isDirectory()) exit("'"+directorySaliencyMaps2.getAbsolutePath()+"' is not a directory -> stopping.", false);
+
+					saliencyMapFiles2 = listFiles(directorySaliencyMaps2);
+				}
+			}
+
+			// ground truths are decoded once for both methods
+			boolean temporaryCache = saliencyMapFiles2 != null && cache == null;
+			if (temporaryCache) cache = new EvaluationCache((long)cacheSize*1024*1024);
+
+			// index 1: number of file
+			// index 2: binary threshold between [0; 255]
+			// index 3: precision/recall
+			double[][][] result = null;
+			double[][][] result2 = null;
+
+			// maps are filled by worker threads if files are read concurrently
+			relativeGtSizes    = Collections.synchronizedMap(new HashMap<String, Double>());
+			areasUnderCurve    = Collections.synchronizedMap(new HashMap<String, Double>());
+			meanAbsoluteErrors = Collections.synchronizedMap(new HashMap<String, Double>());
+			weightedFMeasures  = Collections.synchronizedMap(new HashMap<String, Double>());
+			structureMeasures  = Collections.synchronizedMap(new HashMap<String, Double>());
+			enhancedAlignments = Collections.synchronizedMap(new HashMap<String, Double>());
+			objectMetrics      = Collections.synchronizedMap(new HashMap<String, double[]>());
+			preciseMetrics     = Collections.synchronizedMap(new HashMap<String, double[]>());
+
+			File directoryResults = new File(pathResult);
+			if (!directoryResults.exists()) directoryResults.mkdirs();
+
+			System.out.println("Using "+EvaluationKernel.getInstance().getName()+" evaluation kernel");
+			if (StageProfiler.emitsJfrEvents()) System.out.println("Stages of evaluation are emitted as JFR events (de.unibonn.informatik.ivs.set.Stage)");
+
+			StageProfiler.setSlowestImages(slowestImages);
+
+			result = evaluateMethod(evaluatePack, saliencyMapFiles);
+
+			if (saliencyMapFiles2 != null)
+			{
+				// only precision/recall of the second method is kept
+				Map<String, Double> areasUnderCurve1    = areasUnderCurve;
+				Map<String, Double> meanAbsoluteErrors1 = meanAbsoluteErrors;
+				Map<String, Double> weightedFMeasures1  = weightedFMeasures;
+				Map<String, Double> structureMeasures1  = structureMeasures;
+				Map<String, Double> enhancedAlignments1 = enhancedAlignments;
+				Map<String, double[]> objectMetrics1    = objectMetrics;
+				Map<String, double[]> preciseMetrics1   = preciseMetrics;
+				GroupAggregator groupAggregator1        = groupAggregator;
+				GroupAggregator sizeAggregator1         = sizeAggregator;
+				GroupAggregator sweepAggregator1        = sweepAggregator;
+				ImageArchive saliencyMapArchive1        = saliencyMapArchive;
+				areasUnderCurve    = Collections.synchronizedMap(new HashMap<String, Double>());
+				meanAbsoluteErrors = Collections.synchronizedMap(new HashMap<String, Double>());
+				weightedFMeasures  = Collections.synchronizedMap(new HashMap<String, Double>());
+				structureMeasures  = Collections.synchronizedMap(new HashMap<String, Double>());
+				enhancedAlignments = Collections.synchronizedMap(new HashMap<String, Double>());
+				objectMetrics      = Collections.synchronizedMap(new HashMap<String, double[]>());
+				preciseMetrics     = Collections.synchronizedMap(new HashMap<String, double[]>());
+				groupAggregator    = null;
+				sizeAggregator     = null;
+				sweepAggregator    = null;
+				saliencyMapArchive = saliencyMapArchive2;
+
+				System.out.println("Evaluating second method '"+pathSaliencyMapImages2+"'");
+				result2 = evaluateMethod(evaluatePack, saliencyMapFiles2);
+
+				areasUnderCurve    = areasUnderCurve1;
+				meanAbsoluteErrors = meanAbsoluteErrors1;
+				weightedFMeasures  = weightedFMeasures1;
+				structureMeasures  = structureMeasures1;
+				enhancedAlignments = enhancedAlignments1;
+				objectMetrics      = objectMetrics1;
+				preciseMetrics     = preciseMetrics1;
+				groupAggregator    = groupAggregator1;
+				sizeAggregator     = sizeAggregator1;
+				sweepAggregator    = sweepAggregator1;
+				saliencyMapArchive = saliencyMapArchive1;
+			}
+
+			if (temporaryCache) cache = null;
+
+			closeArchive(groundTruthArchive);
+			closeArchive(saliencyMapArchive);
+			closeArchive(saliencyMapArchive2);
+			groundTruthArchive = null;
+			saliencyMapArchive = null;
+
+			Long t = System.currentTimeMillis();
+
+			if ((metrics & METRIC_PRECISION_RECALL) != 0)
+			{
+				System.out.print("Saving complete results to '"+pathResult+"/"+"result_all.txt'");
+				t = System.currentTimeMillis();
+				saveAllResultsToFile(pathResult+"/"+"result_all.txt", result);
+				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+			}
+
+			System.out.print("Saving ground truth sizes to '"+pathResult+"/"+"ground_truth_sizes.txt'");
+			t = System.currentTimeMillis();
+			double meanGtSize = saveGtSizesToFile(pathResult+"/"+"ground_truth_sizes.txt");
+			System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+			System.out.println("MEAN GT SIZE: "+meanGtSize);
+
+			if ((metrics & (METRIC_AUC | METRIC_MAE | METRIC_WEIGHTED_F | METRIC_STRUCTURE | METRIC_ENHANCED_ALIGNMENT)) != 0)
+			{
+				System.out.print("Saving metrics to '"+pathResult+"/"+"result_metrics.txt'");
+				t = System.currentTimeMillis();
+				double[] meanMetrics = saveMetricsToFile(pathResult+"/"+"result_metrics.txt");
+				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+				if ((metrics & METRIC_AUC) != 0) System.out.println("MEAN AUC: "+meanMetrics[0]);
+				if ((metrics & METRIC_MAE) != 0) System.out.println("MEAN MAE: "+meanMetrics[1]);
+				if ((metrics & METRIC_WEIGHTED_F) != 0) System.out.println("MEAN WEIGHTED F: "+meanMetrics[2]);
+				if ((metrics & METRIC_STRUCTURE) != 0) System.out.println("MEAN S-MEASURE: "+meanMetrics[3]);
+				if ((metrics & METRIC_ENHANCED_ALIGNMENT) != 0) System.out.println("MEAN E-MEASURE: "+meanMetrics[4]);
+			}
+
+			if (preciseBins >= 0)
+			{
+				System.out.print("Saving metrics of scores to '"+pathResult+"/"+"result_precise.txt'");
+				t = System.currentTimeMillis();
+				double[] meanPreciseMetrics = savePreciseMetricsToFile(pathResult+"/"+"result_precise.txt");
+				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+				System.out.println("MEAN AUC / MAE / MAX F OF SCORES ("+(preciseBins == PreciseEvaluation.EXACT ? "exact" : preciseBins+" bins")+"): "
+					+meanPreciseMetrics[PreciseEvaluation.AUC]+" / "+meanPreciseMetrics[PreciseEvaluation.MAE]+" / "+meanPreciseMetrics[PreciseEvaluation.MAX_F]);
+			}
+
+			if ((metrics & METRIC_OBJECTS) != 0)
+			{
+				System.out.print("Saving metrics per object to '"+pathResult+"/"+"result_objects.txt'");
+				t = System.currentTimeMillis();
+				double[] meanObjectMetrics = saveObjectMetricsToFile(pathResult+"/"+"result_objects.txt");
+				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+				for (int iThreshold=0; iThreshold<objectThresholds.length; iThreshold++)
+				{
+					int offset = ObjectEvaluation.VALUES_PER_THRESHOLD*iThreshold;
+					System.out.println("MEAN OBJECT RECALL / HIT RATE / BOX IOU AT "+objectThresholds[iThreshold]+": "+meanObjectMetrics[offset+ObjectEvaluation.OBJECT_RECALL]
+						+" / "+meanObjectMetrics[offset+ObjectEvaluation.HIT_RATE]+" / "+meanObjectMetrics[offset+ObjectEvaluation.BOX_IOU]);
+				}
+			}
+
+			if ((metrics & METRIC_PRECISION_RECALL) != 0)
+			{
+				System.out.print("Saving mean results to '"+pathResult+"/"+"result_mean.txt'");
+				t = System.currentTimeMillis();
+				saveMeanResultsToFile(pathResult+"/"+"result_mean.txt", result);
+				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+
+				if (approximateBands != null)
+				{
+					saveApproximationToFile(pathResult+"/"+"result_approximate.txt");
+					System.out.println("APPROXIMATE MAX F: "+approximateBands.maxFMeasure+" +- "+getHalfWidth(approximateBands)+" ("+approximateImages+" of "+approximateImagesTotal+" images)");
+				}
+
+				if (plotBackend != PLOT_NONE)
+				{
+					System.out.print("Creating plots");
+					t = System.currentTimeMillis();
+					plotResult(result, pathResult);
+					System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+				}
+			}
+
+			if (groupAggregator != null)
+			{
+				System.out.print("Saving results per group to '"+pathResult+"/"+"result_groups.txt'");
+				t = System.currentTimeMillis();
+				saveGroupResults(pathResult, groupAggregator, "group", "");
+				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+			}
+
+			if (sizeAggregator != null)
+			{
+				System.out.print("Saving results per object size to '"+pathResult+"/"+"result_sizes.txt'");
+				t = System.currentTimeMillis();
+				saveGroupResults(pathResult, sizeAggregator, "size", "size_");
+				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+			}
+
+			if (sweepAggregator != null)
+			{
+				System.out.print("Saving results per ground truth threshold to '"+pathResult+"/"+"result_thresholds.txt'");
+				t = System.currentTimeMillis();
+				saveGroupResults(pathResult, sweepAggregator, "threshold", "thresholdGT_");
+				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+			}
+
+			if (bootstrapResamples > 0)
+			{
+				System.out.print("Saving bootstrap confidence bands to '"+pathResult+"/"+"result_bootstrap.txt'");
+				t = System.currentTimeMillis();
+				Bootstrap.ConfidenceBands bands = new Bootstrap(bootstrapResamples, seed, nThreads).getConfidenceBands(Bootstrap.getCurves(result), confidence);
+				saveConfidenceBandsToFile(pathResult+"/"+"result_bootstrap.txt", bands);
+				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+				System.out.println("MAX F: "+bands.maxFMeasure+" ["+bands.maxFMeasureLower+"; "+bands.maxFMeasureUpper+"]");
+			}
+
+			if (result2 != null)
+			{
+				// compare on images evaluated for both methods only
+				double[][][] paired1 = new double[result.length][][];
+				double[][][] paired2 = new double[result.length][][];
+				for (int iImage=0; iImage<result.length; iImage++)
+				{
+					if (result[iImage] != null && result2[iImage] != null)
+					{
+						paired1[iImage] = result[iImage];
+						paired2[iImage] = result2[iImage];
+					}
+				}
+
+				System.out.print("Saving comparison of methods to '"+pathResult+"/"+"result_comparison.txt'");
+				t = System.currentTimeMillis();
+				double[][] curves1 = Bootstrap.getCurves(paired1);
+				int nResamples = bootstrapResamples > 0 ? bootstrapResamples : DEFAULT_COMPARISON_RESAMPLES;
+				Bootstrap.Comparison comparison = new Bootstrap(nResamples, seed, nThreads).compare(curves1, Bootstrap.getCurves(paired2), confidence);
+				saveComparisonToFile(pathResult+"/"+"result_comparison.txt", comparison, curves1.length, nResamples);
+				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+				System.out.println("MAX F DIFFERENCE: "+comparison.difference+" ["+comparison.differenceLower+"; "+comparison.differenceUpper+"], p = "+comparison.pValue);
+			}
+
+			if (slowestImages > 0)
+			{
+				System.out.print("Saving slowest images to '"+pathResult+"/"+"result_slowest.txt'");
+				t = System.currentTimeMillis();
+				saveSlowestImagesToFile(pathResult+"/"+"result_slowest.txt");
+				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+			}
+
+			System.out.println("DONE");
+		}
+	}
+
+
+	/**
+	 * Checks that ground truths and saliency maps to evaluate are set and that the selected sources of both,
+	 * metrics and options of evaluation can be combined.<br>
+	 * Every evaluation path relies on these checks instead of checking its own parameters.
+	 */
+	private static void validateEvaluationParameters()
+	{
+		if (pathGroundTruthImages == null && pathGroundTruthFile == null && pathSequenceGroundTruth == null) exit("Path to ground truth images/file/sequence not set -> stopping.", false);
+
+		boolean evaluateSequences = pathSequenceGroundTruth != null;
+		boolean evaluatePack      = pathGroundTruthImages != null && DatasetPack.isPack(new File(pathGroundTruthImages));
+		boolean evaluateStream    = STDIN_PATH.equals(pathSaliencyMapImages);
+		boolean readsArchives     = (pathGroundTruthImages != null && !evaluatePack && ImageArchive.isArchive(new File(pathGroundTruthImages)))
+		                         || (pathSaliencyMapImages != null && !evaluateStream && ImageArchive.isArchive(new File(pathSaliencyMapImages)))
+		                         || (pathSaliencyMapImages2 != null && ImageArchive.isArchive(new File(pathSaliencyMapImages2)));
+
+		if (evaluateSequences)
+		{
+			if (pathSequenceSaliencyMaps == null) exit("Path to saliency map sequence not set -> stopping.", false);
+			if (pathSaliencyMapImages2 != null || approximateEpsilon > 0.0) exit("Sequences cannot be compared or evaluated approximately -> stopping.", false);
+		}
+
+		// a pack may contain saliency maps, so the path to saliency maps is optional then
+		if (pathSaliencyMapImages == null && !evaluatePack && !evaluateSequences) exit("Path to saliency map images not set -> stopping.", false);
+		if (pathSaliencyMapImages != null && !evaluateStream && !new File(pathSaliencyMapImages).exists()) exit("Directory '"+new File(pathSaliencyMapImages).getAbsolutePath()+"' does not exist -> stopping.", false);
+
+		if (evaluateStream && (pathGroundTruthImages == null || evaluatePack)) exit("Saliency maps from standard input require a folder or archive of ground truth images -> stopping.", false);
+		if (evaluateStream && (pathSaliencyMapImages2 != null || approximateEpsilon > 0.0)) exit("Saliency maps from standard input cannot be compared or evaluated approximately -> stopping.", false);
+
+		if ((bootstrapResamples > 0 || pathSaliencyMapImages2 != null) && (metrics & METRIC_PRECISION_RECALL) == 0) exit("Bootstrap and comparison of methods require metric pr -> stopping.", false);
+		if ((groupKeyExtractor != null || sizeBuckets != null) && (metrics & METRIC_PRECISION_RECALL) == 0) exit("Grouping requires metric pr -> stopping.", false);
+		if (approximateEpsilon > 0.0)
+		{
+			if ((metrics & METRIC_PRECISION_RECALL) == 0) exit("Approximate evaluation requires metric pr -> stopping.", false);
+			if (pathGroundTruthImages == null || evaluatePack) exit("Approximate evaluation requires a folder of ground truth images -> stopping.", false);
+			if (pathSaliencyMapImages2 != null) exit("Approximate evaluation cannot compare methods -> stopping.", false);
+			if (readsArchives) exit("Approximate evaluation reads images in random order and cannot read archives -> stopping.", false);
+		}
+
+		if (thresholdSweep && (pathGroundTruthFile == null || pathGroundTruthImages != null || evaluateSequences)) exit("Sweeping ground truth thresholds requires ground truth descriptions (fileGT) -> stopping.", false);
+		if (thresholdSweep && (metrics & METRIC_PRECISION_RECALL) == 0) exit("Sweeping ground truth thresholds requires metric pr -> stopping.", false);
+		if (mapResolution && (thresholdSweep || preciseBins >= 0 || (metrics & (METRIC_OBJECTS | METRIC_WEIGHTED_F | METRIC_STRUCTURE | METRIC_ENHANCED_ALIGNMENT)) != 0)) exit("Evaluation at map resolution supports metrics pr, auc and mae only -> stopping.", false);
+		// saliency maps stored in a pack are kept as histograms only
+		if (evaluatePack && pathSaliencyMapImages == null && (preciseBins >= 0 || (metrics & (METRIC_OBJECTS | METRIC_WEIGHTED_F | METRIC_STRUCTURE)) != 0)) exit("Saliency maps stored in a pack support metrics pr, auc, mae and em only, set pathSM -> stopping.", false);
+		if (bandRows > 0)
+		{
+			if (pathGroundTruthImages == null || evaluatePack || evaluateStream || readsArchives) exit("Evaluation in bands requires folders of ground truth images and saliency maps -> stopping.", false);
+			if (mapResolution || preciseBins >= 0 || (metrics & (METRIC_OBJECTS | METRIC_WEIGHTED_F | METRIC_STRUCTURE)) != 0) exit("Evaluation in bands supports metrics pr, auc, mae and em only -> stopping.", false);
+			if (approximateEpsilon > 0.0 || fanOutIo) exit("Evaluation in bands reads images one after another and cannot be combined with approximate or io -> stopping.", false);
+		}
+	}
+
+
+	/**
+	 * Evaluates the saliency maps of one method against the selected ground truths
+	 * (pack, ground truth images or ground truth descriptions).
+	 *
+	 * @param evaluatePack     true if ground truths are read from a pack
+	 * @param saliencyMapFiles array of image files representing saliency maps, null to use saliency maps of a pack
+	 *
+	 * @return                 result of evaluation:<br>
+	 *                            index 1: number of file/image<br>
+	 *                            index 2: binary threshold used in saliency maps, in [0; 255]<br>
+	 *                            index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 */
+	private static double[][][] evaluateMethod(boolean evaluatePack, File[] saliencyMapFiles)
+	{
+		if (pathSequenceGroundTruth != null) return evaluateSequences(new File(pathSequenceGroundTruth), new File(pathSequenceSaliencyMaps));
+		if (evaluatePack) return evaluateWithPack(pathGroundTruthImages, saliencyMapFiles);
+		if (STDIN_PATH.equals(pathSaliencyMapImages)) return evaluateStream(pathGroundTruthImages);
+		if (pathGroundTruthImages != null) return evaluateWithGroundTruthImages(pathGroundTruthImages, saliencyMapFiles);
+
+		String pathToSaveGroundTruthImages = null;
+		if (saveGroundTruthImages) pathToSaveGroundTruthImages = pathResult;
+		return evaluateWithGroundTruthFile(pathGroundTruthFile, saliencyMapFiles, thresholdBinGroundTruth, pathToSaveGroundTruthImages);
+	}
+
+
+	/**
+	 * Runs evaluation with ground truth descriptions contained in a text file.
+	 *
+	 * @param pathGroundTruthFile     path to a text file containing ground truth descriptions, for more info see {@link GroundTruthDescription}
+	 * @param saliencyMapFiles        array of image files representing saliency maps
+	 * @param thresholdBinGroundTruth threshold to determine binary ground truth masks with, in [0.0, 1.0]
+	 * @param pathResult              path to save results to
+	 *
+	 * @return                        result of evaluation:<br>
+	 *												index 1: number of file/image<br>
+	 *												index 2: binary threshold used in saliency maps, in [0; 255]<br>
+	 *												index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 */
+	private static double[][][] evaluateWithGroundTruthFile(String pathGroundTruthFile, File[] saliencyMapFiles, double thresholdBinGroundTruth, String pathResult)
+	{
+		String groundTruthDescription = FileUtil.readFile(new File(pathGroundTruthFile));
+		if (groundTruthDescription == null) exit("Could not read '"+pathGroundTruthFile+"' -> stopping.", false);
+
+		System.out.println("Ground truth descriptions read.");
+		String[] descriptions = groundTruthDescription.split("\n\n");
+
+		GroundTruthDescription[] gtds = new GroundTruthDescription[descriptions.length];
+		for (int iDescr=0; iDescr<descriptions.length; iDescr++) gtds[iDescr] = new GroundTruthDescription(descriptions[iDescr]);
+
+		// thresholds k/n at which binary ground truths of images with n rectangles change
+		SortedSet<Double> sweepThresholds = new TreeSet<Double>();
+		if (sweepAggregator != null)
+		{
+			for (GroundTruthDescription gtd: gtds)
+			{
+				int nVotes = gtd.isValid() ? gtd.rectangles.size() : 0;
+				for (int votes=0; votes<nVotes; votes++) sweepThresholds.add((double)votes / nVotes);
+			}
+		}
+
+		double[][][] result = new double[descriptions.length][][];
+		long t;
+
+		for (int iDescr=0; iDescr<descriptions.length; iDescr++)
+		{
+			t = System.currentTimeMillis();
+
+			GroundTruthDescription gtd = gtds[iDescr];
+
+			if (gtd.isValid())
+			{
+				System.out.print("Evaluating '"+gtd.imageName+"' ("+(iDescr+1)+"/"+descriptions.length+")");
+
+				File sMapFile = findSaliencyMapFile(FileUtil.getFileNameWithoutEnding(gtd.imageName), saliencyMapFiles);
+				if (sMapFile != null)
+				{
+					StageProfiler.beginImage(FileUtil.getFileNameWithoutEnding(gtd.imageName));
+					//TEST
+					//System.out.println(gtd);
+
+					GroundTruth gt = new GroundTruth(gtd);
+					relativeGtSizes.put(gt.imageName, new Double(gt.getRelativeObjectSize()));
+					gt.setBinaryThreshold(thresholdBinGroundTruth);
+
+					if (pathResult != null) ImageUtil.saveImageAsPng(gt.getBinaryImage(), pathResult+"/"+gt.imageName);
+
+					SaliencyMap sMap = loadSaliencyMap(sMapFile, gt.getWidth(), gt.getHeight());
+
+					result[iDescr] = evaluateSaliencyMap(gt, sMap);
+
+					// the vote histograms sum up to the histogram of the map, so they yield the same normalisation
+					int[][] voteHistograms = sweepAggregator != null ? normalize(gt.getVoteHistograms(sMap)) : null;
+					if (voteHistograms != null)
+					{
+						for (double threshold: sweepThresholds)
+						{
+							int[][] histograms = GroundTruth.getHistogramsForMinVotes(voteHistograms, GroundTruth.getMinVotes(threshold, gt.getNumberOfVotes()));
+
+							sweepAggregator.add(String.format(Locale.ENGLISH, "%.4f", threshold), GroundTruth.evaluate(histograms));
+						}
+					}
+
+					StageProfiler.endImage();
+					System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+				}
+				else
+				{
+					System.out.println(" - no saliency map file found.");
+				}
+			}
+			else
+			{
+				System.out.println("'"+descriptions[iDescr]+"' is not a valid ground truth description -> skipping");
+			}
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Runs evaluation with ground truths represented by binary images.<br>
+	 * Ground truths read from an archive are evaluated sequentially in archive order, also with {@link #fanOutIo}.
+	 *
+	 * @param pathGroundTruthImages path to a folder or archive containing binary ground truth images
+	 * @param saliencyMapFiles      array of image files representing saliency maps
+	 *
+	 * @return                      result of evaluation:<br>
+	 *											  index 1: number of file/image<br>
+	 *                                 index 2: binary threshold used in saliency maps, in [0; 255]<br>
+	 *                                 index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 */
+	private static double[][][] evaluateWithGroundTruthImages(String pathGroundTruthImages, File[] saliencyMapFiles)
+	{
+		File fileGroundTruth = new File(pathGroundTruthImages);
+		if (!fileGroundTruth.exists()) exit("Directory '"+fileGroundTruth.getAbsolutePath()+"' does not exist.", false);
+		if (groundTruthArchive == null && !fileGroundTruth.isDirectory()) exit("'"+fileGroundTruth.getAbsolutePath()+"' is not a directory.", false);
+
+		long t;
+
+		File[] groundTruthFiles = groundTruthArchive != null ? groundTruthArchive.getFiles() : listFiles(fileGroundTruth);
+
+		if (approximateEpsilon > 0.0) return evaluateApproximately(groundTruthFiles, saliencyMapFiles);
+		if (fanOutIo && groundTruthArchive == null && saliencyMapArchive == null) return evaluateWithGroundTruthImagesConcurrently(groundTruthFiles, saliencyMapFiles);
+
+		double[][][] result = new double[groundTruthFiles.length][][];
+
+		int iFile = 0;
+
+		for (File file: groundTruthFiles)
+		{
+			System.out.print("Evaluating '"+file.getName()+"' ("+(iFile+1)+"/"+groundTruthFiles.length+")");
+
+			t = System.currentTimeMillis();
+
+			File sMapFile = findSaliencyMapFile(FileUtil.getFileNameWithoutEnding(file.getName()), saliencyMapFiles);
+			if (sMapFile == null)
+			{
+				System.out.println(" - no matching saliency map image found.");
+				continue;
+			}
+
+			StageProfiler.beginImage(FileUtil.getFileNameWithoutEnding(file.getName()));
+
+			// large images are never decoded as a whole
+			if (bandRows > 0)
+			{
+				result[iFile++] = evaluateInBands(file, sMapFile);
+
+				StageProfiler.endImage();
+				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+				continue;
+			}
+
+			// entries of archives are not cached, as they cannot be told apart from changed entries
+			GroundTruth gt = groundTruthArchive != null ? new GroundTruth(file, readArchiveEntry(groundTruthArchive, file)) : loadGroundTruth(file, null);
+			relativeGtSizes.put(gt.imageName, new Double(gt.getRelativeObjectSize()));
+
+			SaliencyMap sMap = loadSaliencyMap(sMapFile, gt.getWidth(), gt.getHeight());
+
+			//ImageUtil.saveImageAsPng(sMap.getMap(), "images/test/"+sMap.imageName);
+
+			result[iFile++] = evaluateSaliencyMap(gt, sMap);
+
+			StageProfiler.endImage();
+			System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+		}
+
+		return result;
+					
+	}
+
+
+	/**
+	 * Runs an approximate evaluation with ground truths represented by binary images.<br>
+	 * Images are evaluated in a random order stratified by group (see {@link #groupKeyExtractor} and
+	 * {@link StratifiedSampler}). From time to time a bootstrap confidence interval of the maximum F-measure
+	 * of the mean curve is determined; evaluation stops as soon as its half-width is at most
+	 * {@link #approximateEpsilon}.
+	 *
+	 * @param groundTruthFiles binary ground truth images
+	 * @param saliencyMapFiles array of image files representing saliency maps
+	 *
+	 * @return                 result of evaluation, null for images not evaluated:<br>
+	 *                            index 1: number of ground truth file<br>
+	 *                            index 2: binary threshold used in saliency maps, in [0; 255]<br>
+	 *                            index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 */
+	private static double[][][] evaluateApproximately(File[] groundTruthFiles, File[] saliencyMapFiles)
+	{
+		double[][][] result = new double[groundTruthFiles.length][][];
+
+		String[] strata = null;
+		if (groupKeyExtractor != null)
+		{
+			strata = new String[groundTruthFiles.length];
+			for (int iFile=0; iFile<groundTruthFiles.length; iFile++) strata[iFile] = groupKeyExtractor.getGroup(groundTruthFiles[iFile].getName());
+		}
+
+		int[] order = StratifiedSampler.getOrder(groundTruthFiles.length, strata, seed);
+		Bootstrap bootstrap = new Bootstrap(bootstrapResamples > 0 ? bootstrapResamples : DEFAULT_APPROXIMATE_RESAMPLES, seed, nThreads);
+
+		approximateImages      = 0;
+		approximateImagesTotal = groundTruthFiles.length;
+
+		int nextCheck = APPROXIMATE_MIN_IMAGES;
+		long t;
+
+		for (int iOrder=0; iOrder<order.length; iOrder++)
+		{
+			File file = groundTruthFiles[order[iOrder]];
+
+			System.out.print("Evaluating '"+file.getName()+"' ("+(iOrder+1)+"/"+groundTruthFiles.length+")");
+
+			t = System.currentTimeMillis();
+
+			File sMapFile = findSaliencyMapFile(FileUtil.getFileNameWithoutEnding(file.getName()), saliencyMapFiles);
+			if (sMapFile == null)
+			{
+				System.out.println(" - no matching saliency map image found.");
+				continue;
+			}
+
+			StageProfiler.beginImage(FileUtil.getFileNameWithoutEnding(file.getName()));
+
+			GroundTruth gt = loadGroundTruth(file, null);
+			relativeGtSizes.put(gt.imageName, Double.valueOf(gt.getRelativeObjectSize()));
+
+			result[order[iOrder]] = evaluateSaliencyMap(gt, loadSaliencyMap(sMapFile, gt.getWidth(), gt.getHeight()));
+			approximateImages++;
+
+			StageProfiler.endImage();
+			System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+
+			if (approximateImages == nextCheck || iOrder == order.length-1)
+			{
+				approximateBands = bootstrap.getConfidenceBands(Bootstrap.getCurves(result), confidence);
+				double halfWidth = getHalfWidth(approximateBands);
+				System.out.println("MAX F after "+approximateImages+" images: "+approximateBands.maxFMeasure+" +- "+halfWidth);
+
+				if (halfWidth <= approximateEpsilon) break;
+
+				// check less often the more images are evaluated, as each check resamples all of them
+				nextCheck += Math.max(APPROXIMATE_MIN_IMAGES/2, approximateImages/10);
+			}
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Determines the half-width of the confidence interval of the maximum F-measure.
+	 *
+	 * @param bands confidence bands
+	 *
+	 * @return      half of the distance between upper and lower bound
+	 */
+	private static double getHalfWidth(Bootstrap.ConfidenceBands bands)
+	{
+		return (bands.maxFMeasureUpper-bands.maxFMeasureLower) / 2.0;
+	}
+
+
+	/**
+	 * Runs evaluation with ground truths represented by binary images, reading files concurrently
+	 * on (virtual) I/O threads and decoding/evaluating them on {@link #nThreads} worker threads (see {@link FileFanOut}).
+	 *
+	 * @param groundTruthFiles binary ground truth images
+	 * @param saliencyMapFiles array of image files representing saliency maps
+	 *
+	 * @return                 result of evaluation:<br>
+	 *                            index 1: number of ground truth file<br>
+	 *                            index 2: binary threshold used in saliency maps, in [0; 255]<br>
+	 *                            index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 */
+	private static double[][][] evaluateWithGroundTruthImagesConcurrently(final File[] groundTruthFiles, File[] saliencyMapFiles)
+	{
+		final double[][][] result = new double[groundTruthFiles.length][][];
+		final AtomicInteger nEvaluated = new AtomicInteger();
+
+		FileFanOut fanOut = new FileFanOut(ioConcurrency, nThreads);
+		MemoryGovernor governor = new MemoryGovernor((long)memoryBudget*1024*1024);
+		fanOut.setMemoryGovernor(governor);
+		System.out.println("Reading files on "+(fanOut.usesVirtualThreads() ? "virtual" : "platform")+" threads (max. "+ioConcurrency+" in flight, memory budget "+(governor.getBudget()/(1024*1024))+"MB), evaluating on "+nThreads+" threads");
+
+		for (int iFile=0; iFile<groundTruthFiles.length; iFile++)
+		{
+			final File groundTruthFile = groundTruthFiles[iFile];
+			final File sMapFile = findSaliencyMapFile(FileUtil.getFileNameWithoutEnding(groundTruthFile.getName()), saliencyMapFiles);
+			final int iResult = iFile;
+
+			if (sMapFile == null)
+			{
+				System.out.println("Evaluating '"+groundTruthFile.getName()+"' - no matching saliency map image found.");
+				continue;
+			}
+
+			// ground truths cached by a server need not be read again
+			final GroundTruth cachedGt = cache != null ? cache.getGroundTruth(groundTruthFile) : null;
+			File[] files = cachedGt != null ? new File[] {sMapFile} : new File[] {groundTruthFile, sMapFile};
+
+			fanOut.submit(files, new FileFanOut.Task()
+			{
+				public void process(byte[][] data)
+				{
+					long t = System.currentTimeMillis();
+
+					// the profile of a pool thread must not outlive its image, whichever way the task ends
+					StageProfiler.beginImage(FileUtil.getFileNameWithoutEnding(groundTruthFile.getName()));
+					try
+					{
+						GroundTruth gt = cachedGt != null ? cachedGt : loadGroundTruth(groundTruthFile, data[0]);
+						if (gt.getValues() == null)
+						{
+							System.out.println("Evaluating '"+groundTruthFile.getName()+"' - could not load ground truth image.");
+							return;
+						}
+
+						relativeGtSizes.put(gt.imageName, Double.valueOf(gt.getRelativeObjectSize()));
+
+						SaliencyMap sMap = new SaliencyMap(sMapFile, data[data.length-1], gt.getWidth(), gt.getHeight(), mapResolution);
+
+						result[iResult] = evaluateSaliencyMap(gt, sMap);
+					}
+					finally
+					{
+						StageProfiler.endImage();
+					}
+
+					System.out.println("Evaluated '"+groundTruthFile.getName()+"' ("+nEvaluated.incrementAndGet()+"/"+groundTruthFiles.length+") - finished in "+(System.currentTimeMillis()-t)+"ms");
+				}
+			});
+		}
+
+		fanOut.shutdown();
+
+		System.out.println("Evaluated "+nEvaluated.get()+" of "+groundTruthFiles.length+" images"
+			+(fanOut.getFailedJobs() > 0 ? ", "+fanOut.getFailedJobs()+" could not be read or evaluated (see standard error)" : ""));
+
+		return result;
+	}
+
+
+	/**
+	 * Runs evaluation with ground truths read from a pack file (see {@link DatasetPack}).<br>
+	 * If no saliency map files are given, saliency maps stored in the pack are evaluated without
+	 * unpacking anything; otherwise saliency maps are loaded from the files and evaluated against the
+	 * unpacked ground truth masks.
+	 *
+	 * @param pathPack         path to the pack file
+	 * @param saliencyMapFiles array of image files representing saliency maps, null to use saliency maps of the pack
+	 *
+	 * @return                 result of evaluation:<br>
+	 *                            index 1: number of entry in pack<br>
+	 *                            index 2: binary threshold used in saliency maps, in [0; 255]<br>
+	 *                            index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 */
+	private static double[][][] evaluateWithPack(String pathPack, File[] saliencyMapFiles)
+	{
+		DatasetPack pack = null;
+		try
+		{
+			pack = DatasetPack.open(new File(pathPack));
+		}
+		catch (IOException e)
+		{
+			exit("Could not open pack '"+pathPack+"': "+e.toString(), false);
+		}
+
+		double[][][] result = new double[pack.size()][][];
+		long t;
+
+		try
+		{
+			for (int iEntry=0; iEntry<pack.size(); iEntry++)
+			{
+				DatasetPack.Entry entry = pack.getEntry(iEntry);
+
+				System.out.print("Evaluating '"+entry.getImageName()+"' ("+(iEntry+1)+"/"+pack.size()+")");
+
+				t = System.currentTimeMillis();
+				StageProfiler.beginImage(entry.getImageName());
+
+				int[][] histograms = null;
+				StageProfiler.Stage stage = null;
+
+				if (saliencyMapFiles != null)
+				{
+					File sMapFile = findSaliencyMapFile(entry.getImageName(), saliencyMapFiles);
+					if (sMapFile != null)
+					{
+						GroundTruth gt = entry.getGroundTruth();
+						SaliencyMap sMap = loadSaliencyMap(sMapFile, gt.getWidth(), gt.getHeight());
+						sMap.getMapValues();
+
+						stage = StageProfiler.begin(StageProfiler.EVALUATE);
+						histograms = gt.getHistograms(sMap);
+						int[] normalizationTable = getNormalizationTable(histograms);
+						evaluateObjects(gt, sMap, normalizationTable);
+						evaluatePrecisely(gt, sMap, normalizationTable);
+						evaluateWeightedFMeasure(gt, sMap, normalizationTable);
+						evaluateStructureMeasure(gt, sMap, normalizationTable);
+					}
+				}
+				else
+				{
+					stage = StageProfiler.begin(StageProfiler.EVALUATE);
+					histograms = entry.getHistograms();
+				}
+				histograms = normalize(histograms);
+
+				if (histograms != null)
+				{
+					relativeGtSizes.put(entry.getImageName(), Double.valueOf(entry.getRelativeObjectSize()));
+
+					result[iEntry] = evaluateHistograms(entry.getImageName(), histograms);
+
+					stage.end(entry.getImageName(), entry.width, entry.height, null);
+					StageProfiler.endImage();
+					System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+				}
+				else
+				{
+					StageProfiler.endImage();
+					System.out.println(" - no matching saliency map found.");
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			exit("Could not read pack '"+pathPack+"': "+e.toString(), false);
+		}
+		finally
+		{
+			pack.close();
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Runs evaluation of a video with ground truth masks and saliency maps read frame by frame from containers
+	 * (see {@link FrameSequenceReader}). Frames are paired by index and named
+	 * <code>&lt;ground truth container&gt;_&lt;frame index&gt;</code>; mask values of at least 128 belong to the object.<br>
+	 * Frames are read through buffers reused for all frames, only the results per frame are kept.
+	 *
+	 * @param fileGroundTruth container of ground truth masks
+	 * @param fileSaliencyMaps container of saliency maps
+	 *
+	 * @return                 result of evaluation:<br>
+	 *                            index 1: number of frame<br>
+	 *                            index 2: binary threshold used in saliency maps, in [0; 255]<br>
+	 *                            index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 */
+	private static double[][][] evaluateSequences(File fileGroundTruth, File fileSaliencyMaps)
+	{
+		java.util.List<double[][]> result = new ArrayList<double[][]>();
+		String sequenceName = FileUtil.getFileNameWithoutEnding(fileGroundTruth.getName());
+
+		FrameSequenceReader groundTruths = null, saliencyMaps = null;
+		long t = System.currentTimeMillis();
+
+		try
+		{
+			groundTruths = new FrameSequenceReader(fileGroundTruth);
+			saliencyMaps = new FrameSequenceReader(fileSaliencyMaps);
+
+			boolean[] groundTruthValues = new boolean[0];
+			int[] saliencyValues = new int[0];
+
+			while (groundTruths.next())
+			{
+				int iFrame = groundTruths.getFrameIndex();
+
+				if (!saliencyMaps.next())
+				{
+					System.out.println("Saliency map sequence ends after "+iFrame+" frames, ground truth sequence is longer -> stopping.");
+					break;
+				}
+
+				int width  = groundTruths.getWidth();
+				int height = groundTruths.getHeight();
+				if (saliencyMaps.getWidth() != width || saliencyMaps.getHeight() != height) exit("Size of frame "+iFrame+" differs between sequences -> stopping.", false);
+
+				if (groundTruthValues.length != width*height)
+				{
+					groundTruthValues = new boolean[width*height];
+					saliencyValues    = new int[width*height];
+				}
+
+				String imageName = String.format("%s_%06d", sequenceName, iFrame);
+				StageProfiler.beginImage(imageName);
+
+				StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.MASK);
+				byte[] groundTruthFrame = groundTruths.getFrame();
+				byte[] saliencyFrame    = saliencyMaps.getFrame();
+				for (int i=0; i<groundTruthValues.length; i++)
+				{
+					groundTruthValues[i] = (groundTruthFrame[i] & 0xFF) >= 128;
+					saliencyValues[i]    =  saliencyFrame[i] & 0xFF;
+				}
+				stage.end(imageName, width, height, null);
+
+				stage = StageProfiler.begin(StageProfiler.EVALUATE);
+				GroundTruth gt = new GroundTruth(imageName, width, height, groundTruthValues);
+				SaliencyMap sMap = new SaliencyMap(imageName, width, height, saliencyValues);
+				int[][] histograms = gt.getHistograms(sMap);
+				int[] normalizationTable = getNormalizationTable(histograms);
+				evaluateObjects(gt, sMap, normalizationTable);
+				evaluatePrecisely(gt, sMap, normalizationTable);
+				evaluateWeightedFMeasure(gt, sMap, normalizationTable);
+				evaluateStructureMeasure(gt, sMap, normalizationTable);
+
+				if (histograms != null) relativeGtSizes.put(imageName, Double.valueOf(GroundTruth.getRelativeObjectSize(histograms)));
+				result.add(evaluateHistograms(imageName, SaliencyNormalization.apply(histograms, normalizationTable)));
+				stage.end(imageName, width, height, null);
+				StageProfiler.endImage();
+
+				if ((iFrame+1)%1000 == 0) System.out.println("Evaluated "+(iFrame+1)+" frames in "+(System.currentTimeMillis()-t)+"ms");
+			}
+
+			if (saliencyMaps.next()) System.out.println("Saliency map sequence is longer than ground truth sequence, remaining frames are ignored.");
+		}
+		catch (IOException e)
+		{
+			exit("Could not read sequence: "+e.getMessage(), false);
+		}
+		finally
+		{
+			try
+			{
+				if (groundTruths != null) groundTruths.close();
+				if (saliencyMaps != null) saliencyMaps.close();
+			}
+			catch (IOException e)
+			{
+				System.err.println("Could not close sequence: "+e.toString());
+			}
+		}
+
+		System.out.println("Evaluated "+result.size()+" frames in "+(System.currentTimeMillis()-t)+"ms");
+
+		return result.toArray(new double[result.size()][][]);
+	}
+
+
+	/**
+	 * Runs evaluation of saliency maps read from standard input as they arrive (see {@link FrameStreamReader}), e.g. written
+	 * by a saliency program piped into the evaluation. Each map is evaluated against the ground truth image of the same name
+	 * as soon as it has been received; maps are neither encoded nor stored, only the results per map are kept.
+	 *
+	 * @param pathGroundTruthImages path to a folder or archive of binary ground truth images
+	 *
+	 * @return                      result of evaluation:<br>
+	 *                                 index 1: number of map<br>
+	 *                                 index 2: binary threshold used in saliency maps, in [0; 255]<br>
+	 *                                 index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 */
+	private static double[][][] evaluateStream(String pathGroundTruthImages)
+	{
+		File fileGroundTruth = new File(pathGroundTruthImages);
+		if (!fileGroundTruth.exists()) exit("Directory '"+fileGroundTruth.getAbsolutePath()+"' does not exist.", false);
+		if (groundTruthArchive == null && !fileGroundTruth.isDirectory()) exit("'"+fileGroundTruth.getAbsolutePath()+"' is not a directory.", false);
+
+		File[] groundTruthFiles = groundTruthArchive != null ? groundTruthArchive.getFiles() : listFiles(fileGroundTruth);
+
+		// names of maps are matched exactly first, as a name may be contained in the names of several files
+		Map<String, File> groundTruthFilesByName = new HashMap<String, File>();
+		for (File file: groundTruthFiles) groundTruthFilesByName.put(FileUtil.getFileNameWithoutEnding(file.getName()), file);
+
+		java.util.List<double[][]> result = new ArrayList<double[][]>();
+		FrameStreamReader saliencyMaps = new FrameStreamReader(System.in);
+		long tStart = System.currentTimeMillis();
+		long t;
+
+		try
+		{
+			while (saliencyMaps.next())
+			{
+				String imageName = saliencyMaps.getImageName();
+				System.out.print("Evaluating '"+imageName+"' ("+(saliencyMaps.getFrameIndex()+1)+")");
+
+				File file = groundTruthFilesByName.get(imageName);
+				if (file == null) file = FileUtil.findFile(imageName, groundTruthFiles);
+				if (file == null)
+				{
+					System.out.println(" - no matching ground truth image found.");
+					continue;
+				}
+
+				t = System.currentTimeMillis();
+				StageProfiler.beginImage(imageName);
+
+				GroundTruth gt = groundTruthArchive != null ? new GroundTruth(file, readArchiveEntry(groundTruthArchive, file)) : loadGroundTruth(file, null);
+				if (gt.getValues() == null)
+				{
+					StageProfiler.endImage();
+					System.out.println(" - could not load ground truth image.");
+					continue;
+				}
+
+				relativeGtSizes.put(gt.imageName, Double.valueOf(gt.getRelativeObjectSize()));
+
+				SaliencyMap sMap = new SaliencyMap(imageName, saliencyMaps.getImage(), gt.getWidth(), gt.getHeight(), mapResolution);
+				result.add(evaluateSaliencyMap(gt, sMap));
+
+				StageProfiler.endImage();
+				System.out.println(" - finished in "+(System.currentTimeMillis()-t)+"ms");
+			}
+		}
+		catch (IOException e)
+		{
+			exit("Could not read saliency maps from standard input: "+e.getMessage(), false);
+		}
+
+		System.out.println("Evaluated "+result.size()+" saliency maps from standard input in "+(System.currentTimeMillis()-tStart)+"ms");
+
+		return result.toArray(new double[result.size()][][]);
+	}
+
+
+	/**
+	 * Loads a binary ground truth image, taking it from the cache when running as a server.
+	 *
+	 * @param file file containing the image
+	 * @param data contents of the file if already read, null to read the file
+	 *
+	 * @return     ground truth
+	 */
+	private static GroundTruth loadGroundTruth(File file, byte[] data)
+	{
+		GroundTruth gt = cache != null ? cache.getGroundTruth(file) : null;
+		if (gt != null) return gt;
+
+		gt = data != null ? new GroundTruth(file, data) : new GroundTruth(file);
+		if (cache != null) gt = cache.putGroundTruth(file, gt);
+
+		return gt;
+	}
+
+
+	/**
+	 * Loads a saliency map from a file or, if saliency maps are read from an archive, from an entry of the archive.
+	 * Smaller maps keep their resolution if evaluated at map resolution (see {@link #mapResolution}).
+	 *
+	 * @param file   file containing the map, or representing the entry (see {@link ImageArchive#getFiles()})
+	 * @param width  width to scale the map to
+	 * @param height height to scale the map to
+	 *
+	 * @return       saliency map
+	 */
+	private static SaliencyMap loadSaliencyMap(File file, int width, int height)
+	{
+		if (saliencyMapArchive != null) return new SaliencyMap(file, readArchiveEntry(saliencyMapArchive, file), width, height, mapResolution);
+
+		return new SaliencyMap(file, width, height, mapResolution);
+	}
+
+
+	/**
+	 * Opens a path as archive if it is a zip or tar archive (see {@link ImageArchive}).
+	 *
+	 * @param file path to a folder or archive
+	 *
+	 * @return     opened archive, null if the path is no archive
+	 */
+	private static ImageArchive openArchive(File file)
+	{
+		if (!ImageArchive.isArchive(file)) return null;
+
+		try
+		{
+			ImageArchive archive = new ImageArchive(file);
+			System.out.println("Reading "+archive.getFiles().length+" images from archive '"+file.getPath()+"'");
+
+			return archive;
+		}
+		catch (IOException e)
+		{
+			exit("Could not open archive '"+file.getPath()+"': "+e.toString(), false);
+			return null;
+		}
+	}
+
+
+	/**
+	 * Reads an entry of an archive.
+	 *
+	 * @param archive archive
+	 * @param file    file representing the entry
+	 *
+	 * @return        contents of the entry, empty if it cannot be read (which the decoders report as an unreadable image)
+	 */
+	private static byte[] readArchiveEntry(ImageArchive archive, File file)
+	{
+		try
+		{
+			return archive.read(file);
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not read '"+file.getPath()+"': "+e.toString());
+			return new byte[0];
+		}
+	}
+
+
+	/**
+	 * Closes an archive if it is open.
+	 *
+	 * @param archive archive, may be null
+	 */
+	private static void closeArchive(ImageArchive archive)
+	{
+		if (archive == null) return;
+
+		try
+		{
+			archive.close();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not close archive: "+e.toString());
+		}
+	}
+
+
+	/**
+	 * Lists a directory, taking the listing from the cache when running as a server.
+	 *
+	 * @param directory directory to list
+	 *
+	 * @return          files of the directory
+	 */
+	private static File[] listFiles(File directory)
+	{
+		if (cache != null) return cache.listFiles(directory);
+
+		return directory.listFiles();
+	}
+
+
+	/**
+	 * Searches the saliency map whose file name contains an image name (see {@link FileUtil#findFile(java.lang.String, java.io.File[])}),
+	 * remembering the result in the cache when running as a server.
+	 *
+	 * @param imageName        name of the image
+	 * @param saliencyMapFiles array of image files representing saliency maps, all in the same directory
+	 *
+	 * @return                 saliency map file, null if none matches
+	 */
+	private static File findSaliencyMapFile(String imageName, File[] saliencyMapFiles)
+	{
+		if (cache != null && saliencyMapArchive == null && saliencyMapFiles.length > 0) return cache.findFile(imageName, saliencyMapFiles[0].getParentFile());
+
+		return FileUtil.findFile(imageName, saliencyMapFiles);
+	}
+
+
+	/**
+	 * Evaluates a saliency map against a ground truth with all selected metrics (see {@link #metrics}).<br>
+	 * Saliency values are counted only once, all metrics are derived from the resulting histograms.
+	 * Areas under ROC curve and mean absolute errors are stored by image name.
+	 *
+	 * @param gt   ground truth to evaluate against
+	 * @param sMap saliency map to evaluate
+	 *
+	 * @return     precision/recall per threshold (see {@link GroundTruth#evaluate(int[][])}),
+	 *             null if precision/recall is not selected or evaluation failed
+	 */
+	private static double[][] evaluateSaliencyMap(GroundTruth gt, SaliencyMap sMap)
+	{
+		// values are determined first, so that their extraction is measured as stages of their own
+		gt.getValues();
+		sMap.getMapValues();
+
+		StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.EVALUATE);
+
+		int[][] histograms = gt.getHistograms(sMap);
+		int[] normalizationTable = getNormalizationTable(histograms);
+
+		evaluateObjects(gt, sMap, normalizationTable);
+		evaluatePrecisely(gt, sMap, normalizationTable);
+		evaluateWeightedFMeasure(gt, sMap, normalizationTable);
+		evaluateStructureMeasure(gt, sMap, normalizationTable);
+		double[][] result = evaluateHistograms(gt.imageName, SaliencyNormalization.apply(histograms, normalizationTable));
+
+		stage.end(gt.imageName, gt.getWidth(), gt.getHeight(), null);
+
+		return result;
+	}
+
+
+	/**
+	 * Evaluates a saliency map against its ground truth from bands of rows of both files (see {@link #bandRows}),
+	 * without holding either image in memory as a whole.
+	 *
+	 * @param groundTruthFile binary ground truth image file
+	 * @param sMapFile        saliency map image file of the same size
+	 *
+	 * @return                precision/recall per threshold (see {@link GroundTruth#evaluate(int[][])}),
+	 *                        null if precision/recall is not selected or evaluation failed
+	 */
+	private static double[][] evaluateInBands(File groundTruthFile, File sMapFile)
+	{
+		String imageName = FileUtil.getFileNameWithoutEnding(groundTruthFile.getName());
+
+		int[][] histograms;
+		try
+		{
+			histograms = TiledEvaluation.getHistograms(groundTruthFile, sMapFile, bandRows);
+		}
+		catch (IOException e)
+		{
+			System.err.println("Cannot evaluate '"+imageName+"': "+e.getMessage());
+			return null;
+		}
+
+		relativeGtSizes.put(imageName, Double.valueOf(GroundTruth.getRelativeObjectSize(histograms)));
+
+		return evaluateHistograms(imageName, normalize(histograms));
+	}
+
+
+	/**
+	 * Evaluates a saliency map per object if selected (see {@link #METRIC_OBJECTS}), storing the result by image name.
+	 *
+	 * @param gt                 ground truth to evaluate against
+	 * @param sMap               saliency map to evaluate
+	 * @param normalizationTable normalised value per saliency value (see {@link #getNormalizationTable(int[][])}), null if values are not normalised
+	 */
+	private static void evaluateObjects(GroundTruth gt, SaliencyMap sMap, int[] normalizationTable)
+	{
+		if ((metrics & METRIC_OBJECTS) == 0) return;
+
+		// thresholds of normalised values select the same pixels as the corresponding thresholds of original values
+		double[] result = ObjectEvaluation.evaluate(gt, sMap, SaliencyNormalization.getOriginalThresholds(normalizationTable, objectThresholds));
+		if (result != null) objectMetrics.put(gt.imageName, result);
+	}
+
+
+	/**
+	 * Evaluates the weighted F-measure of a saliency map if selected (see {@link #METRIC_WEIGHTED_F}), storing the result by image name.
+	 *
+	 * @param gt                 ground truth to evaluate against
+	 * @param sMap               saliency map to evaluate
+	 * @param normalizationTable normalised value per saliency value, null if values are not normalised
+	 */
+	private static void evaluateWeightedFMeasure(GroundTruth gt, SaliencyMap sMap, int[] normalizationTable)
+	{
+		if ((metrics & METRIC_WEIGHTED_F) == 0) return;
+
+		int[] saliencyValues = sMap.getMapValues();
+		if (saliencyValues == null || gt.getValues() == null || saliencyValues.length != gt.getValues().length) return;
+
+		weightedFMeasures.put(gt.imageName, Double.valueOf(WeightedFMeasure.evaluate(gt, saliencyValues, normalizationTable)));
+	}
+
+
+	/**
+	 * Evaluates the S-measure of a saliency map if selected (see {@link #METRIC_STRUCTURE}), storing the result by image name.
+	 *
+	 * @param gt                 ground truth to evaluate against
+	 * @param sMap               saliency map to evaluate
+	 * @param normalizationTable normalised value per saliency value, null if values are not normalised
+	 */
+	private static void evaluateStructureMeasure(GroundTruth gt, SaliencyMap sMap, int[] normalizationTable)
+	{
+		if ((metrics & METRIC_STRUCTURE) == 0) return;
+
+		int[] saliencyValues = sMap.getMapValues();
+		if (saliencyValues == null || gt.getValues() == null || saliencyValues.length != gt.getValues().length) return;
+
+		structureMeasures.put(gt.imageName, Double.valueOf(StructureMeasure.evaluate(gt, saliencyValues, normalizationTable)));
+	}
+
+
+	/**
+	 * Evaluates the scores of a saliency map at a finer resolution if selected (see {@link #preciseBins}), storing the result by image name.
+	 * Maps of 8 bits per value are evaluated with their (normalised) grey values as scores.
+	 *
+	 * @param gt                 ground truth to evaluate against
+	 * @param sMap               saliency map to evaluate
+	 * @param normalizationTable normalised value per saliency value, null if values are not normalised
+	 */
+	private static void evaluatePrecisely(GroundTruth gt, SaliencyMap sMap, int[] normalizationTable)
+	{
+		if (preciseBins < 0) return;
+
+		boolean[] groundTruthValues = gt.getValues();
+		float[] scores = sMap.getScores();
+		if (scores == null)
+		{
+			int[] saliencyValues = sMap.getMapValues();
+			if (saliencyValues == null) return;
+
+			if (normalizationTable != null)
+			{
+				int[] normalizedValues = new int[saliencyValues.length];
+				for (int i=0; i<saliencyValues.length; i++) normalizedValues[i] = normalizationTable[saliencyValues[i]];
+				saliencyValues = normalizedValues;
+			}
+
+			scores = PreciseEvaluation.getScores(saliencyValues);
+		}
+
+		if (groundTruthValues == null || scores.length != groundTruthValues.length) return;
+
+		preciseMetrics.put(gt.imageName, PreciseEvaluation.evaluate(groundTruthValues, scores, preciseBins));
+	}
+
+
+	/**
+	 * Derives the lookup table of the selected normalisation (see {@link #normalization}) from histograms of a map's values.
+	 *
+	 * @param histograms histograms of saliency values, e.g. inside/outside the ground truth object, may be null
+	 *
+	 * @return           normalised value per original value, null if values are not normalised
+	 */
+	private static int[] getNormalizationTable(int[][] histograms)
+	{
+		if (histograms == null) return null;
+
+		return SaliencyNormalization.getLookupTable(normalization, histograms, clipPercent);
+	}
+
+
+	/**
+	 * Normalises histograms of a map's values with the selected normalisation (see {@link #normalization}).
+	 *
+	 * @param histograms histograms of saliency values whose sum is the histogram of the map, may be null
+	 *
+	 * @return           histograms of normalised values
+	 */
+	private static int[][] normalize(int[][] histograms)
+	{
+		return SaliencyNormalization.apply(histograms, getNormalizationTable(histograms));
+	}
+
+
+	/**
+	 * Determines all selected metrics (see {@link #metrics}) from histograms of saliency values
+	 * (see {@link GroundTruth#getHistograms(de.unibonn.informatik.ivs.set.SaliencyMap)}).
+	 * Areas under ROC curve and mean absolute errors are stored by image name.
+	 *
+	 * @param imageName  name of the evaluated image
+	 * @param histograms histograms of saliency values inside/outside the ground truth object
+	 *
+	 * @return           precision/recall per threshold (see {@link GroundTruth#evaluate(int[][])}),
+	 *                   null if precision/recall is not selected or histograms are not available
+	 */
+	private static double[][] evaluateHistograms(String imageName, int[][] histograms)
+	{
+		if (histograms == null) return null;
+
+		if ((metrics & METRIC_AUC) != 0) areasUnderCurve.put(imageName, Double.valueOf(GroundTruth.getAreaUnderCurve(histograms)));
+		if ((metrics & METRIC_MAE) != 0) meanAbsoluteErrors.put(imageName, Double.valueOf(GroundTruth.getMeanAbsoluteError(histograms)));
+		if ((metrics & METRIC_ENHANCED_ALIGNMENT) != 0) enhancedAlignments.put(imageName, Double.valueOf(GroundTruth.getEnhancedAlignment(histograms)));
+
+		if ((metrics & METRIC_PRECISION_RECALL) == 0) return null;
+
+		double[][] result = GroundTruth.evaluate(histograms);
+
+		if (groupAggregator != null)
+		{
+			String group = groupKeyExtractor.getGroup(imageName);
+			if (group != null) groupAggregator.add(group, result);
+		}
+
+		if (sizeAggregator != null)
+		{
+			double relativeSize = GroundTruth.getRelativeObjectSize(histograms);
+			if (relativeSize >= 0.0) sizeAggregator.add(getSizeBucket(relativeSize), result);
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Determines the size bucket (see {@link #sizeBuckets}) of a relative ground truth object size.
+	 *
+	 * @param relativeSize relative object size, in [0.0; 1.0]
+	 *
+	 * @return             name of the bucket, <code>&lt;lower&gt;-&lt;upper&gt;</code>
+	 */
+	private static String getSizeBucket(double relativeSize)
+	{
+		double lower = 0.0;
+
+		for (double upper: sizeBuckets)
+		{
+			if (relativeSize < upper) return String.format(Locale.ENGLISH, "%.3f-%.3f", lower, upper);
+			lower = upper;
+		}
+
+		return String.format(Locale.ENGLISH, "%.3f-%.3f", lower, 1.0);
+	}
+
+
+	/**
+	 * Saves plots of an evaluation result to images files with the selected backend (see {@link #plotBackend}).<br>
+	 * Two plots are created:<br>
+	 * 1. A recall - precision curve (mean values per threshold (saved to file 'plot')<br>
+	 * 2. A plot of all recall - precision values (saved to file 'plot_all')
+	 * 
+	 * @param resultAll        evaluation result<br>
+	 *										index 1: number of file/image<br>
+	 *										index 2: binary threshold used in saliency maps, in [0; 255]<br>
+	 *										index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 * @param directoryResults folder to save plots to
+	 */
+	public static void plotResult(double[][][] resultAll, String directoryResults)
+	{
+		if (plotBackend == PLOT_BUILTIN) plotResultBuiltin(resultAll, directoryResults);
+		else if (plotBackend == PLOT_PTOLEMY) plotResultPtolemy(resultAll, directoryResults);
+	}
+
+
+	/**
+	 * Saves plots of an evaluation result with the built-in renderer (see {@link PlotRenderer}).<br>
+	 * All recall - precision values are counted in a density histogram with a bin per pixel
+	 * (see {@link DensityHistogram}) instead of being drawn one by one, so memory and time
+	 * hardly depend on the number of images.
+	 *
+	 * @param resultAll        evaluation result<br>
+	 *                            index 1: number of file/image<br>
+	 *                            index 2: binary threshold used in saliency maps, in [0; 255]<br>
+	 *                            index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 * @param directoryResults folder to save plots to
+	 */
+	private static void plotResultBuiltin(double[][][] resultAll, String directoryResults)
+	{
+		// plot mean values per threshold
+		plotCurve(determineMeanPerThreshold(resultAll), "Evaluation result by threshold", directoryResults+"/plot.png");
+
+		// plot ALL values
+		PlotRenderer plotAll = new PlotRenderer(800, 600);
+		plotAll.setRanges(0.0, 1.0, 0.0, 1.0);
+
+		DensityHistogram density = new DensityHistogram(plotAll.getPlotWidth(), plotAll.getPlotHeight(), 0.0, 1.0, 0.0, 1.0);
+		for (int iImage=0; iImage<resultAll.length; iImage++)
+		{
+			if (resultAll[iImage] != null)
+			{
+				for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+				{
+					density.add(resultAll[iImage][iThreshold][GroundTruth.RECALL], resultAll[iImage][iThreshold][GroundTruth.PRECISION]);
+				}
+			}
+		}
+
+		plotAll.drawGrid();
+		plotAll.drawDensity(density);
+		plotAll.drawAxes("Evaluation result - ALL values", "recall", "precision");
+
+		try
+		{
+			plotAll.save(new File(directoryResults+"/plot_all.png"));
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not save plot to '"+directoryResults+"/plot_all.png': "+e.toString());
+		}
+	}
+
+
+	/**
+	 * Saves a recall - precision curve with the built-in renderer (see {@link PlotRenderer}).
+	 *
+	 * @param values   mean values per threshold<br>
+	 *                    index 1: threshold, in [0; 255]<br>
+	 *                    index 2: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 * @param title    title of the plot
+	 * @param fileName name of the PNG file to save to
+	 */
+	static void plotCurve(double[][] values, String title, String fileName)
+	{
+		double[] recall    = new double[values.length];
+		double[] precision = new double[values.length];
+		for (int i=0; i<values.length; i++)
+		{
+			recall[i]    = values[i][GroundTruth.RECALL];
+			precision[i] = values[i][GroundTruth.PRECISION];
+		}
+
+		PlotRenderer plot = new PlotRenderer(800, 600);
+		plot.setRanges(0.0, 1.0, 0.2, 0.9);
+		plot.drawGrid();
+		plot.drawCurve(recall, precision, PlotRenderer.COLOUR_CURVE);
+		plot.drawAxes(title, "recall", "precision");
+
+		try
+		{
+			plot.save(new File(fileName));
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not save plot to '"+fileName+"': "+e.toString());
+		}
+	}
+
+
+	/**
+	 * Saves plots of an evaluation result with <code>ptolemy.plot.Plot</code>, painted by AWT.
+	 *
+	 * @param resultAll        evaluation result<br>
+	 *                            index 1: number of file/image<br>
+	 *                            index 2: binary threshold used in saliency maps, in [0; 255]<br>
+	 *                            index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 * @param directoryResults folder to save plots to
+	 */
+	private static void plotResultPtolemy(double[][][] resultAll, String directoryResults)
+	{
+		// plot mean values per threshold
+		double[][] values = determineMeanPerThreshold(resultAll);
+
+		Plot plot = new Plot();
+		plot.setTitle("Evaluation result by threshold");
+		plot.setSize(800, 600);
+		plot.setXLabel("recall");
+		plot.setXRange(0.0, 1.0);
+		plot.setYLabel("precision");
+		plot.setYRange(0.2, 0.9);
+		plot.setMarksStyle("none");
+
+		for (int i=0; i<values.length; i++)	plot.addPoint(0, values[i][GroundTruth.RECALL], values[i][GroundTruth.PRECISION], true);
+
+		BufferedImage plotImage = new BufferedImage(plot.getWidth(), plot.getHeight(), BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = plotImage.createGraphics();
+		plot.paint(graphics);
+		graphics.dispose();
+		ImageUtil.saveImageAsPng(plotImage, directoryResults+"/plot");
+
+
+		// plot ALL values
+		
+		Plot plotAll = new Plot();
+		plotAll.setTitle("Evaluation result - ALL values");
+		plotAll.setSize(800, 600);
+		plotAll.setXLabel("recall");
+		plotAll.setXRange(0.0, 1.0);
+		plotAll.setYLabel("precision");
+		plotAll.setYRange(0, 1);
+		plotAll.setXLabel("recall");
+		plotAll.setYLabel("precision");
+		plotAll.setMarksStyle("pixels");
+
+		for (int iImage=0; iImage<resultAll.length; iImage++)
+		{
+			if (resultAll[iImage] != null)
+			{
+				for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+				{
+					plotAll.addPoint(0, resultAll[iImage][iThreshold][GroundTruth.RECALL], resultAll[iImage][iThreshold][GroundTruth.PRECISION], false);
+				}
+			}
+		}
+				
+		BufferedImage plotImageAll = new BufferedImage(plotAll.getWidth(), plotAll.getHeight(), BufferedImage.TYPE_INT_RGB);
+		graphics = plotImageAll.createGraphics();
+		plotAll.paint(graphics);
+		graphics.dispose();
+		ImageUtil.saveImageAsPng(plotImageAll, directoryResults+"/plot_all");
+
+		/*
+		PlotFrame frame = new PlotFrame("Evaluation result by threshold", plot);
+		frame.setSize(800, 600);
+		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		frame.setVisible(true);
+		*/
+		
+	}
 
 
 	/**
-	 * Saves plots of an evaluation result to images files.<br>
-	 * Two plots are created:<br>
-	 * 1. A recall - precision curve (mean values per threshold (saved to file 'plot')<br>
-	 * 2. A plot of all recall - precision values (saved to file 'plot_all')
-	 * 
-	 * @param resultAll        evaluation result<br>
-	 *										index 1: number of file/image<br>
-	 *										index 2: binary threshold used in saliency maps, in [0; 255]<br>
-	 *										index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
-	 * @param directoryResults folder to save plots to
+	 * Copies all binary ground truth images whose salient object's relative size to the size of the associated image
+	 * is smaller than a threshold.
+	 *
+	 * @param sourceDir      source folder containing binary ground truth images
+	 * @param destinationDir folder to copy images to
+	 * @param threshold      maximum relative size of salient object
 	 */
-	public static void plotResult(double[][][] resultAll, String directoryResults)
+	private static void copySmallGroundTruthImages(String sourceDir, String destinationDir, double threshold)
 	{
-		// plot mean values per threshold
-		double[][] values = determineMeanPerThreshold(resultAll);
+		File directoryGroundTruth = new File(sourceDir);
+		if (!directoryGroundTruth.exists()) exit("Directory '"+directoryGroundTruth.getAbsolutePath()+"' does not exist -> stopping.", false);
+		if (!directoryGroundTruth.isDirectory()) exit("'"+directoryGroundTruth.getAbsolutePath()+"' is not a directory -> stopping.", false);
+		
+		File directoryResults = new File(destinationDir);
+		if (!directoryResults.exists()) directoryResults.mkdirs();
 
-		Plot plot = new Plot();
-		plot.setTitle("Evaluation result by threshold");
-		plot.setSize(800, 600);
-		plot.setXLabel("recall");
-		plot.setXRange(0.0, 1.0);
-		plot.setYLabel("precision");
-		plot.setYRange(0.2, 0.9);
-		plot.setMarksStyle("none");
+		File[] groundTruthFiles = directoryGroundTruth.listFiles();
+		int nFilesProcessed = 0;
+		int nFilesCopied    = 0;
+
+		for (File file: groundTruthFiles)
+		{
+			GroundTruth gt = new GroundTruth(file);
+			if (gt.getRelativeObjectSize() < threshold)
+			{
+				FileUtil.copyFile(file, new File(directoryResults.getAbsolutePath()+"/"+file.getName()));
+				nFilesCopied++;
+			}
+
+			nFilesProcessed++;
+
+			if (nFilesProcessed%100 == 0) System.out.println("processed "+nFilesProcessed+" of "+groundTruthFiles.length+" (copied: "+nFilesCopied+")");
+		}
+
+		System.out.println("Copied "+nFilesCopied+" files of "+groundTruthFiles.length);
+	}
+
+
+	/**
+	 * Writes relative ground truth sizes of all currently loaded ground truths to a file.
+	 *
+	 * @param fileName name of the file to save to
+	 *
+	 * @return         average size of relative ground truth size
+	 */
+	public static double saveGtSizesToFile(String fileName)
+	{
+		double result = 0.0;
+
+		try
+		{
+			BufferedWriter writer = new BufferedWriter(new FileWriter(fileName));
+			writer.append("# This file shows sizes of ground truths relative to their image's size");
+			writer.newLine();
+			writer.append("#");
+			writer.newLine();
+			writer.append("# image_name relative_size_gt");
+			writer.newLine();
+
+			double currRelSize;
+			Set<String> imageNames = relativeGtSizes.keySet();
+			for (String currImageName: imageNames)
+			{
+				currRelSize = relativeGtSizes.get(currImageName);
+				result += currRelSize;
+				
+				writer.append(currImageName+" "+String.format(Locale.ENGLISH, "%.4g", currRelSize));
+				writer.newLine();
+			}
+			
+			writer.close();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not write to '"+fileName+"': "+e.toString());
+			result = -1.0;
+		}
+
+		result /= relativeGtSizes.size();
+
+		return result;
+	}
+
+
+	/**
+	 * Writes areas under ROC curve and mean absolute errors of all evaluated images to a file.
+	 * Metrics that were not selected are written as NaN; the weighted F-measure, S-measure and E-measure are written
+	 * as additional columns if selected.
+	 *
+	 * @param fileName name of the file to save to
+	 *
+	 * @return         mean values of metrics, index 0: area under ROC curve, index 1: mean absolute error, index 2: weighted F-measure,
+	 *                 index 3: S-measure, index 4: mean E-measure
+	 */
+	public static double[] saveMetricsToFile(String fileName)
+	{
+		boolean withWeightedF = (metrics & METRIC_WEIGHTED_F) != 0;
+		boolean withStructure = (metrics & METRIC_STRUCTURE) != 0;
+		boolean withAlignment = (metrics & METRIC_ENHANCED_ALIGNMENT) != 0;
+
+		double[] result = new double[5];
+		int[] nValues = new int[5];
+
+		Set<String> imageNames = new TreeSet<String>(areasUnderCurve.keySet());
+		imageNames.addAll(meanAbsoluteErrors.keySet());
+		imageNames.addAll(weightedFMeasures.keySet());
+		imageNames.addAll(structureMeasures.keySet());
+		imageNames.addAll(enhancedAlignments.keySet());
+
+		try
+		{
+			BufferedWriter writer = new BufferedWriter(new FileWriter(fileName));
+			writer.append("# This file shows the area under the ROC curve and the mean absolute error of each saliency map");
+			writer.newLine();
+			writer.append("#");
+			writer.newLine();
+			writer.append("# image_name auc mae"+(withWeightedF ? " wfm" : "")+(withStructure ? " sm" : "")+(withAlignment ? " em" : ""));
+			writer.newLine();
+
+			for (String currImageName: imageNames)
+			{
+				double[] currMetrics = new double[5];
+				currMetrics[0] = areasUnderCurve.containsKey(currImageName) ? areasUnderCurve.get(currImageName) : Double.NaN;
+				currMetrics[1] = meanAbsoluteErrors.containsKey(currImageName) ? meanAbsoluteErrors.get(currImageName) : Double.NaN;
+				currMetrics[2] = weightedFMeasures.containsKey(currImageName) ? weightedFMeasures.get(currImageName) : Double.NaN;
+				currMetrics[3] = structureMeasures.containsKey(currImageName) ? structureMeasures.get(currImageName) : Double.NaN;
+				currMetrics[4] = enhancedAlignments.containsKey(currImageName) ? enhancedAlignments.get(currImageName) : Double.NaN;
+
+				// images without object or background have no AUC and are left out of the mean
+				for (int iMetric=0; iMetric<currMetrics.length; iMetric++)
+				{
+					if (!Double.isNaN(currMetrics[iMetric]))
+					{
+						result[iMetric] += currMetrics[iMetric];
+						nValues[iMetric]++;
+					}
+				}
+
+				writer.append(currImageName+" "+String.format(Locale.ENGLISH, "%.4g", currMetrics[0])+" "+String.format(Locale.ENGLISH, "%.4g", currMetrics[1]));
+				if (withWeightedF) writer.append(" "+String.format(Locale.ENGLISH, "%.4g", currMetrics[2]));
+				if (withStructure) writer.append(" "+String.format(Locale.ENGLISH, "%.4g", currMetrics[3]));
+				if (withAlignment) writer.append(" "+String.format(Locale.ENGLISH, "%.4g", currMetrics[4]));
+				writer.newLine();
+			}
+
+			writer.close();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not write to '"+fileName+"': "+e.toString());
+		}
+
+		for (int iMetric=0; iMetric<result.length; iMetric++) result[iMetric] = nValues[iMetric] > 0 ? result[iMetric] / nValues[iMetric] : Double.NaN;
+
+		return result;
+	}
+
+
+	/**
+	 * Writes metrics of scores evaluated at a finer resolution (see {@link PreciseEvaluation}) of all evaluated images to a file.
+	 *
+	 * @param fileName name of the file to save to
+	 *
+	 * @return         mean values over all images (indices as of {@link PreciseEvaluation#evaluate(boolean[], float[], int)}), NaN values left out
+	 */
+	public static double[] savePreciseMetricsToFile(String fileName)
+	{
+		double[] result = new double[PreciseEvaluation.N_THRESHOLDS+1];
+		int[] nImages = new int[result.length];
+
+		try
+		{
+			BufferedWriter writer = new BufferedWriter(new FileWriter(fileName));
+			writer.append("# This file shows the area under ROC curve, the mean absolute error and the maximum F-measure (beta^2 = 0.3) of each saliency map,");
+			writer.newLine();
+			writer.append("# determined from its scores "+(preciseBins == PreciseEvaluation.EXACT ? "at every distinct score" : "in "+preciseBins+" bins")+" instead of 256 grey values");
+			writer.newLine();
+			writer.append("#");
+			writer.newLine();
+			writer.append("# image_name auc mae max_f n_thresholds");
+			writer.newLine();
+
+			for (String currImageName: new TreeSet<String>(preciseMetrics.keySet()))
+			{
+				double[] currMetrics = preciseMetrics.get(currImageName);
+
+				writer.append(currImageName+String.format(Locale.ENGLISH, " %.6g %.6g %.6g %d", currMetrics[PreciseEvaluation.AUC], currMetrics[PreciseEvaluation.MAE],
+					currMetrics[PreciseEvaluation.MAX_F], (long)currMetrics[PreciseEvaluation.N_THRESHOLDS]));
+				writer.newLine();
+
+				for (int iValue=0; iValue<result.length; iValue++)
+				{
+					if (!Double.isNaN(currMetrics[iValue]))
+					{
+						result[iValue] += currMetrics[iValue];
+						nImages[iValue]++;
+					}
+				}
+			}
+
+			writer.close();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not write to '"+fileName+"': "+e.toString());
+		}
+
+		for (int iValue=0; iValue<result.length; iValue++) result[iValue] = nImages[iValue] > 0 ? result[iValue] / nImages[iValue] : Double.NaN;
+
+		return result;
+	}
+
+
+	/**
+	 * Writes metrics per object (see {@link ObjectEvaluation}) of all evaluated images to a file.
+	 * For each image the number of objects and per threshold object recall, hit rate and box IoU are listed.
+	 *
+	 * @param fileName name of the file to save to
+	 *
+	 * @return         mean values over all images per threshold, images without objects or boxes left out
+	 */
+	public static double[] saveObjectMetricsToFile(String fileName)
+	{
+		int nValues = ObjectEvaluation.VALUES_PER_THRESHOLD*objectThresholds.length;
+		double[] result = new double[nValues];
+		int[] nImages = new int[nValues];
+
+		try
+		{
+			BufferedWriter writer = new BufferedWriter(new FileWriter(fileName));
+			writer.append("# This file shows metrics per object (connected component of the ground truth) of each saliency map:");
+			writer.newLine();
+			writer.append("# mean recall of objects, fraction of objects with recall >= "+ObjectEvaluation.HIT_RECALL+" and mean best IoU of boxes at each threshold");
+			writer.newLine();
+			writer.append("#");
+			writer.newLine();
+			writer.append("# image_name n_objects");
+			for (int threshold: objectThresholds) writer.append(" recall_"+threshold+" hit_rate_"+threshold+" box_iou_"+threshold);
+			writer.newLine();
+
+			for (String currImageName: new TreeSet<String>(objectMetrics.keySet()))
+			{
+				double[] currMetrics = objectMetrics.get(currImageName);
+
+				writer.append(currImageName+" "+(int)currMetrics[0]);
+				for (int iValue=0; iValue<nValues; iValue++)
+				{
+					writer.append(" "+String.format(Locale.ENGLISH, "%.4g", currMetrics[1+iValue]));
+
+					if (!Double.isNaN(currMetrics[1+iValue]))
+					{
+						result[iValue] += currMetrics[1+iValue];
+						nImages[iValue]++;
+					}
+				}
+				writer.newLine();
+			}
+
+			writer.close();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not write to '"+fileName+"': "+e.toString());
+		}
+
+		for (int iValue=0; iValue<nValues; iValue++) result[iValue] = nImages[iValue] > 0 ? result[iValue] / nImages[iValue] : Double.NaN;
+
+		return result;
+	}
+
+
+	/**
+	 * Saves results aggregated per group: mean results per group to files <code>result_mean_&lt;prefix&gt;&lt;group&gt;.txt</code>
+	 * (see {@link #saveMeanValuesToFile(java.lang.String, double[][], java.lang.String)}), curves to
+	 * <code>plot_&lt;prefix&gt;&lt;group&gt;.png</code> unless plotting is switched off, and a summary of all groups
+	 * to <code>result_&lt;kind&gt;s.txt</code>.
+	 *
+	 * @param directoryResults folder to save results to
+	 * @param aggregator       results aggregated per group
+	 * @param kind             kind of groups, e.g. "group" or "size"
+	 * @param prefix           prefix of the file names per group
+	 */
+	public static void saveGroupResults(String directoryResults, GroupAggregator aggregator, String kind, String prefix)
+	{
+		String fileName = directoryResults+"/result_"+kind+"s.txt";
+
+		try
+		{
+			BufferedWriter writer = new BufferedWriter(new FileWriter(fileName));
+			writer.append("# This file shows the number of images and the maximum F-measure (beta^2 = 0.3) of the mean curve per "+kind);
+			writer.newLine();
+			writer.append("#");
+			writer.newLine();
+			writer.append("# "+kind+" n_images max_f");
+			writer.newLine();
 
-		for (int i=0; i<values.length; i++)	plot.addPoint(0, values[i][GroundTruth.RECALL], values[i][GroundTruth.PRECISION], true);
+			for (String group: aggregator.getGroups())
+			{
+				double[][] values = aggregator.getMean(group);
+				String name = prefix+group.replaceAll("[^A-Za-z0-9_.-]", "_");
 
-		BufferedImage plotImage = new BufferedImage(plot.getWidth(), plot.getHeight(), BufferedImage.TYPE_INT_RGB);
-		Graphics2D graphics = plotImage.createGraphics();
-		plot.paint(graphics);
-		graphics.dispose();
-		ImageUtil.saveImageAsPng(plotImage, directoryResults+"/plot");
+				saveMeanValuesToFile(directoryResults+"/result_mean_"+name+".txt", values, kind+": "+group+" ("+aggregator.getCount(group)+" images)");
+				if (plotBackend != PLOT_NONE) plotCurve(values, "Evaluation result - "+kind+" "+group, directoryResults+"/plot_"+name+".png");
 
+				writer.append(group+" "+aggregator.getCount(group)+" "+String.format(Locale.ENGLISH, "%.4g", GroundTruth.getMaxFMeasure(values, Bootstrap.F_MEASURE_BETA)));
+				writer.newLine();
+			}
 
-		// plot ALL values
-		
-		Plot plotAll = new Plot();
-		plotAll.setTitle("Evaluation result - ALL values");
-		plotAll.setSize(800, 600);
-		plotAll.setXLabel("recall");
-		plotAll.setXRange(0.0, 1.0);
-		plotAll.setYLabel("precision");
-		plotAll.setYRange(0, 1);
-		plotAll.setXLabel("recall");
-		plotAll.setYLabel("precision");
-		plotAll.setMarksStyle("pixels");
+			writer.close();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not write to '"+fileName+"': "+e.toString());
+		}
+	}
 
-		for (int iImage=0; iImage<resultAll.length; iImage++)
+
+	/**
+	 * Saves bootstrap confidence bands of the mean curve to a text file.<br>
+	 * For each threshold mean precision and mean recall are written with their bounds:<br>
+	 * <code>threshold mean_precision lower upper mean_recall lower upper</code>
+	 *
+	 * @param fileName name of the file to save to
+	 * @param bands    confidence bands
+	 */
+	public static void saveConfidenceBandsToFile(String fileName, Bootstrap.ConfidenceBands bands)
+	{
+		try
 		{
-			if (resultAll[iImage] != null)
+			BufferedWriter writer = new BufferedWriter(new FileWriter(fileName));
+			writer.append("# This file shows bootstrap confidence bands ("+bootstrapResamples+" resamples, seed "+seed+", confidence "+confidence+") of the mean precision/recall curve");
+			writer.newLine();
+			writer.append("# max F (beta^2 = 0.3): "+String.format(Locale.ENGLISH, "%.4g [%.4g; %.4g]", bands.maxFMeasure, bands.maxFMeasureLower, bands.maxFMeasureUpper));
+			writer.newLine();
+			writer.append("#");
+			writer.newLine();
+			writer.append("# threshold mean_precision precision_lower precision_upper mean_recall recall_lower recall_upper");
+			writer.newLine();
+
+			for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
 			{
-				for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+				writer.append(iThreshold+" ");
+
+				for (int iValue: new int[] {GroundTruth.PRECISION, GroundTruth.RECALL})
 				{
-					plotAll.addPoint(0, resultAll[iImage][iThreshold][GroundTruth.RECALL], resultAll[iImage][iThreshold][GroundTruth.PRECISION], false);
+					writer.append(String.format(Locale.ENGLISH, "%.4g %.4g %.4g ", bands.mean[iThreshold][iValue], bands.lower[iThreshold][iValue], bands.upper[iThreshold][iValue]));
 				}
+
+				writer.newLine();
 			}
-		}
-				
-		BufferedImage plotImageAll = new BufferedImage(plotAll.getWidth(), plotAll.getHeight(), BufferedImage.TYPE_INT_RGB);
-		graphics = plotImageAll.createGraphics();
-		plotAll.paint(graphics);
-		graphics.dispose();
-		ImageUtil.saveImageAsPng(plotImageAll, directoryResults+"/plot_all");
 
-		/*
-		PlotFrame frame = new PlotFrame("Evaluation result by threshold", plot);
-		frame.setSize(800, 600);
-		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-		frame.setVisible(true);
-		*/
-		
+			writer.close();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not write to '"+fileName+"': "+e.toString());
+		}
 	}
 
 
 	/**
-	 * Copies all binary ground truth images whose salient object's relative size to the size of the associated image
-	 * is smaller than a threshold.
+	 * Saves the estimate of an approximate evaluation (see {@link #evaluateApproximately(java.io.File[], java.io.File[])})
+	 * to a text file.
 	 *
-	 * @param sourceDir      source folder containing binary ground truth images
-	 * @param destinationDir folder to copy images to
-	 * @param threshold      maximum relative size of salient object
+	 * @param fileName name of the file to save to
 	 */
-	private static void copySmallGroundTruthImages(String sourceDir, String destinationDir, double threshold)
+	public static void saveApproximationToFile(String fileName)
 	{
-		File directoryGroundTruth = new File(sourceDir);
-		if (!directoryGroundTruth.exists()) exit("Directory '"+directoryGroundTruth.getAbsolutePath()+"' does not exist -> stopping.", false);
-		if (!directoryGroundTruth.isDirectory()) exit("'"+directoryGroundTruth.getAbsolutePath()+"' is not a directory -> stopping.", false);
-		
-		File directoryResults = new File(destinationDir);
-		if (!directoryResults.exists()) directoryResults.mkdirs();
-
-		File[] groundTruthFiles = directoryGroundTruth.listFiles();
-		int nFilesProcessed = 0;
-		int nFilesCopied    = 0;
-
-		for (File file: groundTruthFiles)
+		try
 		{
-			GroundTruth gt = new GroundTruth(file);
-			if (gt.getRelativeObjectSize() < threshold)
-			{
-				FileUtil.copyFile(file, new File(directoryResults.getAbsolutePath()+"/"+file.getName()));
-				nFilesCopied++;
-			}
-
-			nFilesProcessed++;
+			BufferedWriter writer = new BufferedWriter(new FileWriter(fileName));
+			writer.append("# This file shows the maximum F-measure (beta^2 = 0.3) of the mean curve estimated from a stratified random sample of images");
+			writer.newLine();
+			writer.append("# seed "+seed+", confidence "+confidence+", epsilon "+approximateEpsilon);
+			writer.newLine();
+			writer.append("#");
+			writer.newLine();
+			writer.append("# n_images n_images_total max_f max_f_lower max_f_upper half_width converged");
+			writer.newLine();
+			double halfWidth = getHalfWidth(approximateBands);
+			writer.append(approximateImages+" "+approximateImagesTotal+" "+String.format(Locale.ENGLISH, "%.4g %.4g %.4g %.4g ", approximateBands.maxFMeasure,
+				approximateBands.maxFMeasureLower, approximateBands.maxFMeasureUpper, halfWidth)+(halfWidth <= approximateEpsilon));
+			writer.newLine();
 
-			if (nFilesProcessed%100 == 0) System.out.println("processed "+nFilesProcessed+" of "+groundTruthFiles.length+" (copied: "+nFilesCopied+")");
+			writer.close();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not write to '"+fileName+"': "+e.toString());
 		}
-
-		System.out.println("Copied "+nFilesCopied+" files of "+groundTruthFiles.length);
 	}
 
 
 	/**
-	 * Writes relative ground truth sizes of all currently loaded ground truths to a file.
+	 * Saves the slowest images (see {@link StageProfiler}) with their times per stage to a text file.
 	 *
 	 * @param fileName name of the file to save to
-	 *
-	 * @return         average size of relative ground truth size
 	 */
-	public static double saveGtSizesToFile(String fileName)
+	public static void saveSlowestImagesToFile(String fileName)
 	{
-		double result = 0.0;
-
 		try
 		{
 			BufferedWriter writer = new BufferedWriter(new FileWriter(fileName));
-			writer.append("# This file shows sizes of ground truths relative to their image's size");
+			writer.append("# This file shows the "+slowestImages+" slowest images with their times per stage in ms, slowest first");
+			writer.newLine();
+			writer.append("# total includes time not spent in stages (e.g. reading files, determining metrics); formats are the endings and types of the decoded images");
 			writer.newLine();
 			writer.append("#");
 			writer.newLine();
-			writer.append("# image_name relative_size_gt");
+			writer.append("# image total");
+			for (String stageName: StageProfiler.STAGE_NAMES) writer.append(" "+stageName);
+			writer.append(" formats");
 			writer.newLine();
 
-			double currRelSize;
-			Set<String> imageNames = relativeGtSizes.keySet();
-			for (String currImageName: imageNames)
+			for (StageProfiler.Profile profile: StageProfiler.getSlowestImages())
 			{
-				currRelSize = relativeGtSizes.get(currImageName);
-				result += currRelSize;
-				
-				writer.append(currImageName+" "+String.format(Locale.ENGLISH, "%.4g", currRelSize));
+				writer.append(profile.imageName+String.format(Locale.ENGLISH, " %.3f", profile.totalNanos/1e6));
+				for (long nanos: profile.nanos) writer.append(String.format(Locale.ENGLISH, " %.3f", nanos/1e6));
+				writer.append(" "+(profile.formats.length() > 0 ? profile.formats : "-"));
 				writer.newLine();
 			}
-			
+
 			writer.close();
 		}
 		catch (IOException e)
 		{
 			System.err.println("Could not write to '"+fileName+"': "+e.toString());
-			result = -1.0;
 		}
+	}
 
-		result /= relativeGtSizes.size();
 
-		return result;
+	/**
+	 * Saves the comparison of two methods to a text file.
+	 *
+	 * @param fileName   name of the file to save to
+	 * @param comparison comparison of the methods
+	 * @param nImages    number of images evaluated for both methods
+	 * @param nResamples number of resamples and permutations
+	 */
+	public static void saveComparisonToFile(String fileName, Bootstrap.Comparison comparison, int nImages, int nResamples)
+	{
+		try
+		{
+			BufferedWriter writer = new BufferedWriter(new FileWriter(fileName));
+			writer.append("# This file compares the maximum F-measures (beta^2 = 0.3) of the mean curves of two methods");
+			writer.newLine();
+			writer.append("# method 1: "+pathSaliencyMapImages);
+			writer.newLine();
+			writer.append("# method 2: "+pathSaliencyMapImages2);
+			writer.newLine();
+			writer.append("# "+nImages+" images, "+nResamples+" resamples/permutations, seed "+seed+", confidence "+confidence);
+			writer.newLine();
+			writer.append("#");
+			writer.newLine();
+			writer.append("# max_f_1 max_f_2 difference difference_lower difference_upper p_value");
+			writer.newLine();
+			writer.append(String.format(Locale.ENGLISH, "%.4g %.4g %.4g %.4g %.4g %.4g", comparison.maxFMeasureA, comparison.maxFMeasureB,
+				comparison.difference, comparison.differenceLower, comparison.differenceUpper, comparison.pValue));
+			writer.newLine();
+
+			writer.close();
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not write to '"+fileName+"': "+e.toString());
+		}
 	}
 
 
@@ -554,22 +2635,41 @@ public class Main
 	 *										index 3: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
 	 */
 	public static void saveMeanResultsToFile(String fileName, double[][][] resultAll)
+	{
+		saveMeanValuesToFile(fileName, determineMeanPerThreshold(resultAll), null);
+	}
+
+
+	/**
+	 * Saves mean precision and mean recall per threshold to a text file in the format of
+	 * {@link #saveMeanResultsToFile(java.lang.String, double[][][])}.
+	 *
+	 * @param fileName name of the file to save to
+	 * @param values   means per threshold, null to write the header only (nothing evaluated)<br>
+	 *                    index 1: threshold, in [0; 255]<br>
+	 *                    index 2: either {@link GroundTruth#PRECISION} or {@link GroundTruth#RECALL}
+	 * @param comment  additional comment line describing the values, null for none
+	 */
+	public static void saveMeanValuesToFile(String fileName, double[][] values, String comment)
 	{
 		try
 		{
-			double[][] values = determineMeanPerThreshold(resultAll);
-
 			BufferedWriter writer = new BufferedWriter(new FileWriter(fileName));
 			writer.append("# This file shows results of an evaluation of saliencymaps as described in");
 			writer.newLine();
 			writer.append("# R. Achanta, S. Hemami, F. Estrada and S. Ssstrunk, Frequency-tuned Salient Region Detection, IEEE International Conference on Computer Vision and Pattern Recognition (CVPR), 2009.");
 			writer.newLine();
+			if (comment != null)
+			{
+				writer.append("# "+comment);
+				writer.newLine();
+			}
 			writer.append("#");
 			writer.newLine();
 			writer.append("# threshold mean_precision mean_recall");
 			writer.newLine();
 
-			for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+			for (int iThreshold=0; values!=null && iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
 			{
 				writer.append(iThreshold+" ");
 
@@ -606,9 +2706,9 @@ public class Main
 
 		// determine actual number of evaluated images
 		int actualResults = 0;
-		for (int iImage=0; iImage<result.length; iImage++) if (resultAll[iImage] != null) actualResults++;
+		for (int iImage=0; iImage<resultAll.length; iImage++) if (resultAll[iImage] != null) actualResults++;
 
-		for (int iImage=0; iImage<result.length; iImage++)
+		for (int iImage=0; iImage<resultAll.length; iImage++)
 		{
 			for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
 			{
@@ -631,10 +2731,46 @@ public class Main
 	 */
 	private static void parseCommandLineParameters(String[] args)
 	{
-		// set default values
+		// set default values, a server parses parameters once per job
 		mode = MODE_EVALUATE;
-		pathGroundTruthImages = null;
-		pathGroundTruthFile = null;
+		pathGroundTruthImages    = null;
+		pathGroundTruthFile      = null;
+		pathSaliencyMapImages    = null;
+		pathSaliencyMapImages2   = null;
+		pathSequenceGroundTruth  = null;
+		pathSequenceSaliencyMaps = null;
+		pathImagesToCopy         = ".";
+		pathDefiningImageNames   = null;
+		pathPackFile             = null;
+		pathResult               = ".";
+		thresholdBinGroundTruth  = 0.5;
+		thresholdSweep           = false;
+		thresholdSizeGroundTruth = 0.5;
+		saveGroundTruthImages    = false;
+		metrics                  = METRIC_PRECISION_RECALL | METRIC_AUC | METRIC_MAE;
+		objectThresholds         = new int[] {128};
+		normalization            = SaliencyNormalization.NONE;
+		preciseBins              = -1;
+		mapResolution            = false;
+		bandRows                 = 0;
+		clipPercent              = SaliencyNormalization.DEFAULT_CLIP_PERCENT;
+		memoryBudget             = 0;
+		cacheSize                = 512;
+		refreshInterval          = 2000;
+		port                     = -1;
+		host                     = "localhost";
+		slowestImages            = 10;
+		fanOutIo                 = false;
+		ioConcurrency            = 64;
+		nThreads                 = Runtime.getRuntime().availableProcessors();
+		plotBackend              = PLOT_BUILTIN;
+		groupKeyExtractor        = null;
+		sizeBuckets              = null;
+		approximateEpsilon       = 0.0;
+		bootstrapResamples       = 0;
+		seed                     = 20110317L;
+		confidence               = 0.95;
+		EvaluationKernel.setInstance(null);
 
 		if (args.length > 0)
 		{
@@ -644,6 +2780,7 @@ public class Main
 				  || args[0].toLowerCase().startsWith("--h"))
 			{
 				printUsage();
+				if (serving) throw new ExitException("Usage printed.");
 				System.exit(0);
 			}
 		}
@@ -663,6 +2800,10 @@ public class Main
 							  if (val.equalsIgnoreCase("copySmallGroundTruth")) mode = MODE_COPYSMALLGROUNDTRUTH;
 						else if (val.equalsIgnoreCase("copyImages"))           mode = MODE_COPYIMAGES;
 						else if (val.equalsIgnoreCase("evaluate"))             mode = MODE_EVALUATE;
+						else if (val.equalsIgnoreCase("pack"))                 mode = MODE_PACK;
+						else if (val.equalsIgnoreCase("serve"))                mode = MODE_SERVE;
+						else if (val.equalsIgnoreCase("client"))               mode = MODE_CLIENT;
+						else if (val.equalsIgnoreCase("watch"))                mode = MODE_WATCH;
 					}
 					else if (var.equalsIgnoreCase("pathGT"))
 					{
@@ -676,13 +2817,66 @@ public class Main
 					{
 						pathSaliencyMapImages = val;
 					}
+					else if (var.equalsIgnoreCase("pathSM2"))
+					{
+						pathSaliencyMapImages2 = val;
+					}
+					else if (var.equalsIgnoreCase("sequenceGT"))
+					{
+						pathSequenceGroundTruth = val;
+					}
+					else if (var.equalsIgnoreCase("sequenceSM"))
+					{
+						pathSequenceSaliencyMaps = val;
+					}
+					else if (var.equalsIgnoreCase("groupBy"))
+					{
+						groupKeyExtractor = GroupKeyExtractor.fromRegex(val);
+					}
+					else if (var.equalsIgnoreCase("groupFile"))
+					{
+						groupKeyExtractor = GroupKeyExtractor.fromFile(new File(val));
+						if (groupKeyExtractor == null) exit("Could not read group file '"+val+"' -> stopping.", false);
+					}
+					else if (var.equalsIgnoreCase("sizeBuckets"))
+					{
+						String[] bounds = val.split(",");
+						sizeBuckets = new double[bounds.length];
+						for (int iBound=0; iBound<bounds.length; iBound++)
+						{
+							sizeBuckets[iBound] = Double.parseDouble(bounds[iBound].trim());
+							if (sizeBuckets[iBound] <= (iBound > 0 ? sizeBuckets[iBound-1] : 0.0) || sizeBuckets[iBound] >= 1.0) exit("Size buckets must be ascending bounds in ]0.0; 1.0[ -> stopping.", false);
+						}
+					}
+					else if (var.equalsIgnoreCase("approximate"))
+					{
+						approximateEpsilon = Double.parseDouble(val);
+						if (approximateEpsilon <= 0.0) exit("Epsilon of approximate evaluation must be positive -> stopping.", false);
+					}
+					else if (var.equalsIgnoreCase("bootstrap"))
+					{
+						bootstrapResamples = Integer.parseInt(val);
+					}
+					else if (var.equalsIgnoreCase("seed"))
+					{
+						seed = Long.parseLong(val);
+					}
+					else if (var.equalsIgnoreCase("confidence"))
+					{
+						confidence = Double.parseDouble(val);
+					}
+					else if (var.equalsIgnoreCase("filePack"))
+					{
+						pathPackFile = val;
+					}
 					else if (var.equalsIgnoreCase("pathResult"))
 					{
 						pathResult = val;
 					}
 					else if (var.equalsIgnoreCase("thresholdGT"))
 					{
-						thresholdBinGroundTruth = Double.parseDouble(val);
+						if (val.equalsIgnoreCase("sweep")) thresholdSweep = true;
+						else thresholdBinGroundTruth = Double.parseDouble(val);
 					}
 					else if (var.equalsIgnoreCase("thresholdSize"))
 					{
@@ -700,6 +2894,114 @@ public class Main
 					{
 						saveGroundTruthImages = Boolean.parseBoolean(val);
 					}
+					else if (var.equalsIgnoreCase("metrics"))
+					{
+						metrics = 0;
+						for (String metric: val.split(","))
+						{
+							     if (metric.trim().equalsIgnoreCase("pr"))  metrics |= METRIC_PRECISION_RECALL;
+							else if (metric.trim().equalsIgnoreCase("auc")) metrics |= METRIC_AUC;
+							else if (metric.trim().equalsIgnoreCase("mae")) metrics |= METRIC_MAE;
+							else if (metric.trim().equalsIgnoreCase("objects")) metrics |= METRIC_OBJECTS;
+							else if (metric.trim().equalsIgnoreCase("wf"))  metrics |= METRIC_WEIGHTED_F;
+							else if (metric.trim().equalsIgnoreCase("sm"))  metrics |= METRIC_STRUCTURE;
+							else if (metric.trim().equalsIgnoreCase("em"))  metrics |= METRIC_ENHANCED_ALIGNMENT;
+							else exit("'"+metric+"' is not a valid metric!", true);
+						}
+					}
+					else if (var.equalsIgnoreCase("objectThresholds"))
+					{
+						String[] thresholds = val.split(",");
+						objectThresholds = new int[thresholds.length];
+						for (int iThreshold=0; iThreshold<thresholds.length; iThreshold++)
+						{
+							objectThresholds[iThreshold] = Integer.parseInt(thresholds[iThreshold].trim());
+							if (objectThresholds[iThreshold] < 0 || objectThresholds[iThreshold] > 255) exit("Object thresholds must be in [0; 255] -> stopping.", false);
+						}
+					}
+					else if (var.equalsIgnoreCase("kernel"))
+					{
+						     if (val.equalsIgnoreCase("scalar")) EvaluationKernel.setInstance(EvaluationKernel.createKernel(false));
+						else if (val.equalsIgnoreCase("vector"))
+						{
+							EvaluationKernel kernel = EvaluationKernel.createVectorKernel();
+							if (kernel == null) exit("Vectorised kernel is not available (requires the classes of src-vector built with JDK 16+ and java --add-modules jdk.incubator.vector) -> stopping.", false);
+							EvaluationKernel.setInstance(kernel);
+						}
+						else exit("'"+val+"' is not a valid kernel!", true);
+					}
+					else if (var.equalsIgnoreCase("io"))
+					{
+						     if (val.equalsIgnoreCase("virtual"))    fanOutIo = true;
+						else if (val.equalsIgnoreCase("sequential")) fanOutIo = false;
+						else exit("'"+val+"' is not a valid I/O mode!", true);
+					}
+					else if (var.equalsIgnoreCase("ioThreads"))
+					{
+						ioConcurrency = Integer.parseInt(val);
+					}
+					else if (var.equalsIgnoreCase("threads"))
+					{
+						nThreads = Integer.parseInt(val);
+					}
+					else if (var.equalsIgnoreCase("plot"))
+					{
+						     if (val.equalsIgnoreCase("builtin")) plotBackend = PLOT_BUILTIN;
+						else if (val.equalsIgnoreCase("ptolemy")) plotBackend = PLOT_PTOLEMY;
+						else if (val.equalsIgnoreCase("none"))    plotBackend = PLOT_NONE;
+						else exit("'"+val+"' is not a valid plot backend!", true);
+					}
+					else if (var.equalsIgnoreCase("port"))
+					{
+						port = Integer.parseInt(val);
+					}
+					else if (var.equalsIgnoreCase("host"))
+					{
+						host = val;
+					}
+					else if (var.equalsIgnoreCase("cacheSize"))
+					{
+						cacheSize = Integer.parseInt(val);
+					}
+					else if (var.equalsIgnoreCase("memoryBudget"))
+					{
+						memoryBudget = Integer.parseInt(val);
+					}
+					else if (var.equalsIgnoreCase("refresh"))
+					{
+						refreshInterval = Long.parseLong(val);
+					}
+					else if (var.equalsIgnoreCase("resolution"))
+					{
+						     if (val.equalsIgnoreCase("map"))   mapResolution = true;
+						else if (val.equalsIgnoreCase("image")) mapResolution = false;
+						else exit("'"+val+"' is not a valid resolution!", true);
+					}
+					else if (var.equalsIgnoreCase("bandRows"))
+					{
+						bandRows = Integer.parseInt(val);
+						if (bandRows < 1) exit("Number of rows per band must be at least 1 -> stopping.", false);
+					}
+					else if (var.equalsIgnoreCase("bins"))
+					{
+						preciseBins = val.equalsIgnoreCase("exact") ? PreciseEvaluation.EXACT : Integer.parseInt(val);
+						if (preciseBins < 0 || (preciseBins != PreciseEvaluation.EXACT && preciseBins < 2)) exit("Number of bins must be at least 2 (or exact) -> stopping.", false);
+					}
+					else if (var.equalsIgnoreCase("normalize"))
+					{
+						normalization = SaliencyNormalization.parseMode(val);
+						if (normalization == -1) exit("'"+val+"' is not a valid normalisation (none, minmax, percentile or equalize)!", true);
+					}
+					else if (var.equalsIgnoreCase("clip"))
+					{
+						clipPercent = Double.parseDouble(val);
+						if (clipPercent < 0.0 || clipPercent >= 50.0) exit("Percent of values to clip must be in [0; 50) -> stopping.", false);
+					}
+					else if (var.equalsIgnoreCase("slowest"))
+					{
+						slowestImages = Integer.parseInt(val);
+						if (slowestImages < 0) exit("Number of slowest images must not be negative -> stopping.", false);
+					}
 					else
 					{
 						exit("'"+var+"' is not a valid parameter!", true);
@@ -710,6 +3012,10 @@ public class Main
 					exit("Could not interpret '"+args[iArg]+"'!", true);
 				}
 			}
+			catch (ExitException e)
+			{
+				throw e;
+			}
 			catch (Exception e)
 			{
 				exit("Could not interpret '"+args[iArg]+"': "+e+".", true);
@@ -731,11 +3037,38 @@ public class Main
 		"\n" +
 		"1) Evaluation with ground truth images:\n" +
 		"      required parameters:\n" +
-		"         pathGT=<pathToGroundTruthImages>\n" +
-		"         pathSM=<pathToSaliencyMapImages>\n" +
+		"         pathGT=<pathToGroundTruthImages> (a folder, a zip/tar archive or a pack file, see 6)\n" +
+		"         pathSM=<pathToSaliencyMapImages> (a folder or a zip/tar archive, optional if pathGT is a pack file containing saliency maps)\n" +
+		"                                           (saliency maps stored in a pack support metrics pr, auc, mae and em only, without bins)\n" +
 		"      optional parameters:\n" +
 		"         mode=Evaluation                  (default: Evaluation)\n" +
 		"         pathResult=<pathToSaveResultsTo> (default: current directory)\n" +
+		"         metrics=pr,auc,mae,objects,wf,sm,em (metrics to evaluate, wf: weighted F-measure, sm: S-measure, em: mean E-measure,\n" +
+		"                                           default: pr,auc,mae)\n" +
+		"         objectThresholds=<t1>,<t2>,...   (thresholds of metrics per object: recall, hit rate, box IoU, default: 128)\n" +
+		"         normalize=minmax|percentile|equalize (normalise saliency values of each map before evaluation, default: none)\n" +
+		"         clip=<percent>                   (percent of values clipped at each end by normalize=percentile, default: 1)\n" +
+		"         bins=<n>|exact                   (AUC, MAE and max. F of scores in n bins or at every distinct score in result_precise.txt,\n" +
+		"                                           for 16 bit PNG/PGM, float PFM and raw .f32 maps with a .f32.hdr file of width=, height=,\n" +
+		"                                           byteOrder=little|big; curves keep 256 grey values)\n" +
+		"         resolution=image|map             (evaluate smaller maps at their own resolution against a ground truth scaled down by area\n" +
+		"                                           coverage instead of scaling them up; metrics pr, auc and mae only, default: image)\n" +
+		"         bandRows=<n>                     (read images of folders in bands of n rows, e.g. 256, so that gigapixel images need memory\n" +
+		"                                           for a band only; maps must have the size of their ground truth, metrics pr, auc, mae and em only)\n" +
+		"         kernel=vector|scalar             (evaluation kernel, default: scalar; vector stops if it is not available)\n" +
+		"         io=virtual                       (read files on virtual threads and evaluate in parallel, default: sequential)\n" +
+		"         ioThreads=<n>                    (max. images read/evaluated at the same time with io=virtual, default: 64)\n" +
+		"         threads=<n>                      (worker threads with io=virtual, default: number of processors)\n" +
+		"         memoryBudget=<MB>                (memory for images in flight with io=virtual, ~10 bytes per pixel, default: half of max. heap)\n" +
+		"         plot=builtin|ptolemy|none        (plot renderer, default: builtin)\n" +
+		"         bootstrap=<n>                    (bootstrap confidence bands of mean curve and max. F with n resamples, default: off)\n" +
+		"         pathSM2=<pathToSaliencyMapImages> (compare with a second method: paired bootstrap and permutation test of max. F)\n" +
+		"         seed=<seed> confidence=<level>   (resampling, default: 20110317 and 0.95)\n" +
+		"         groupBy=<regex>                  (mean results per group, e.g. groupBy=^\\d+_(\\d+)_ groups by category of 0_13_13308)\n" +
+		"         groupFile=<file>                 (mean results per group, groups read from lines '<imageName> <group>')\n" +
+		"         sizeBuckets=<b1>,<b2>,...        (mean results per relative object size, e.g. 0.05,0.1,0.25, default: off)\n" +
+		"         approximate=<epsilon>            (evaluate random images, stratified by groupBy/groupFile, until max. F is known +- epsilon)\n" +
+		"         slowest=<n>                      (report the n slowest images with times per stage in result_slowest.txt, default: 10, 0: off)\n" +
 		"\n" +
 		"2) Evaluation with ground truth descriptions stored in file:\n" +
 		"      required parameters:\n" +
@@ -745,7 +3078,32 @@ public class Main
 		"         mode=Evaluation                    (default: Evaluation)\n" +
 		"         pathResult=<pathToSaveResultsTo>   (default: current directory)\n" +
 		"         thresholdGT=<thresholdGroundTruth> (threshold to determine binary ground truth, in [0.0; 1.0], default: 0.5)\n" +
+		"         thresholdGT=sweep                  (additionally mean results for every threshold k/n of n rectangles, in one pass)\n" +
 		"         saveGT=true                        (saves binary ground truth images, default: false)\n" +
+		"         metrics=pr,auc,mae,objects,wf,sm,em (metrics to evaluate, wf: weighted F-measure, sm: S-measure, em: mean E-measure,\n" +
+		"                                             default: pr,auc,mae)\n" +
+		"         objectThresholds=<t1>,<t2>,...     (as for 1, boxes are compared to the rectangles of descriptions)\n" +
+		"         kernel=vector|scalar               (evaluation kernel, default: scalar; vector stops if it is not available)\n" +
+		"         plot=builtin|ptolemy|none          (plot renderer, default: builtin)\n" +
+		"         bootstrap=<n> pathSM2=<path> seed=<seed> confidence=<level> (as for 1)\n" +
+		"         groupBy=<regex> groupFile=<file> sizeBuckets=<b1>,<b2>,... (as for 1)\n" +
+		"\n" +
+		"2b) Evaluation of a video with frames stored in containers (concatenated PGM, Y4M or raw with <file>.hdr: width=.. height=..)\n" +
+		"      required parameters:\n" +
+		"         sequenceGT=<pathToGroundTruthContainer> (masks, values >= 128 belong to the object)\n" +
+		"         sequenceSM=<pathToSaliencyMapContainer> (frames paired by index with the masks)\n" +
+		"      optional parameters:\n" +
+		"         pathResult, metrics, kernel, plot, bootstrap, groupBy, groupFile, sizeBuckets (as for 1)\n" +
+		"\n" +
+		"2c) Evaluation of saliency maps streamed on standard input as they are computed, without image files\n" +
+		"      required parameters:\n" +
+		"         pathGT=<pathToGroundTruthImages> (a folder or a zip/tar archive)\n" +
+		"         pathSM=-                         (frames of: name length (2 bytes), name (UTF-8), width, height (4 bytes each),\n" +
+		"                                           width*height grey values (1 byte each); numbers big-endian, see SaliencyStreamWriter\n" +
+		"                                           in CognitiveVision/src)\n" +
+		"      optional parameters:\n" +
+		"         pathResult, metrics, normalize, resolution, kernel, plot, bootstrap, groupBy, groupFile, sizeBuckets (as for 1)\n" +
+		"      e.g. ./saliency | java -jar SaliencyEvaluationTool.jar pathGT=gt pathSM=-\n" +
 		"\n" +
 		"3) Copy ground truth images with small objects (relative size < thresholdSize)\n" +
 		"      required parameters:\n" +
@@ -754,6 +3112,7 @@ public class Main
 		"      optional parameters:\n" +
 		"         pathResult=<pathToCopyTo> (default: current directory)\n" +
 		"         thresholdSize=<threshold> (in [0.0; 1.0], default: 0.5)\n" +
+		"      To evaluate small objects separately, sizeBuckets=<threshold> with 1) needs no copy.\n" +
 		"\n" +
 		"4) Copy images defined by image names existing in a directory\n" +
 		"      required parameters:\n" +
@@ -762,6 +3121,48 @@ public class Main
 		"         pathDef=<pathDefiningNames>\n" +
 		"      optional parameters:\n" +
 		"         pathResult=<pathToCopyTo> (default: current directory)\n" +
+		"\n" +
+		"5) Benchmarks of evaluation kernels and of reading files sequentially/concurrently are not part of the jar,\n" +
+		"   they are run from the test classes (see Benchmark in the test sources):\n" +
+		"      java -cp build/classes:build/test/classes de.unibonn.informatik.ivs.set.Benchmark kernel|io ...\n" +
+		"\n" +
+		"6) Pack ground truth images (and saliency maps) into a single file for faster evaluation\n" +
+		"      required parameters:\n" +
+		"         mode=Pack\n" +
+		"         pathGT=<pathToGroundTruthImages>\n" +
+		"         filePack=<pathToPackFile>\n" +
+		"      optional parameters:\n" +
+		"         pathSM=<pathToSaliencyMapImages> (saliency maps to include, default: none)\n" +
+		"\n" +
+		"7) Serve evaluation jobs from a long-running process, keeping ground truths and lookups cached\n" +
+		"      required parameters:\n" +
+		"         mode=Serve\n" +
+		"      optional parameters:\n" +
+		"         port=<port>      (listen on this port of the loopback interface, default: read jobs from standard input)\n" +
+		"         cacheSize=<MB>   (memory for cached ground truth masks, default: 512)\n" +
+		"      Each line of input is a job with parameters as in 1) or 2), e.g. pathGT=gt pathSM=method1 metrics=auc\n" +
+		"      The output of a job ends with a line '#END OK' or '#END FAILED <message>'; 'shutdown' stops the server.\n" +
+		"\n" +
+		"8) Send an evaluation job to a server started with mode=Serve port=<port>\n" +
+		"      required parameters:\n" +
+		"         mode=Client\n" +
+		"         port=<port>\n" +
+		"         parameters of the job as in 1) or 2)\n" +
+		"      optional parameters:\n" +
+		"         host=<host>      (default: localhost)\n" +
+		"\n" +
+		"9) Keep mean results and plot up to date while saliency maps are (re)generated\n" +
+		"      required parameters:\n" +
+		"         mode=Watch\n" +
+		"         pathGT=<pathToGroundTruthImages> (a folder)\n" +
+		"         pathSM=<pathToSaliencyMapImages> (folder to watch)\n" +
+		"      optional parameters:\n" +
+		"         pathResult=<pathToSaveResultsTo> (default: current directory)\n" +
+		"         refresh=<ms>                     (min. time between writes of result_mean.txt and plot.png, default: 2000)\n" +
+		"         plot=builtin|none cacheSize=<MB> (as for 1 and 7)\n" +
+		"\n" +
+		"The vectorised kernel requires JDK 16+ and the incubator module:\n" +
+		"java --add-modules jdk.incubator.vector -jar SaliencyEvaluationTool.jar ...\n" +
 		"";
 
 		System.out.println(usage);
@@ -778,6 +3179,8 @@ public class Main
 	private static void exit(String message, boolean showUsage)
 	{
 		System.err.println(message);
+		// a server's client only gets the message
+		if (serving) throw new ExitException(message);
 		if (showUsage) printUsage();
 		System.exit(1);
 	}
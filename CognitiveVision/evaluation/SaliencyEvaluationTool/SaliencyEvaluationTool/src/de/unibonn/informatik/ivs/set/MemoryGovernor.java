@@ -0,0 +1,174 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import javax.imageio.*;
+import javax.imageio.stream.*;
+
+
+/**
+ * Admits jobs against a memory budget, so that the number of images evaluated at the same time adapts to their size:
+ * many small images fan out, large images are evaluated one after the other.<br>
+ * <br>
+ * The footprint of a job is estimated from the dimensions in the image headers (read without decoding the images)
+ * at {@link #BYTES_PER_PIXEL} bytes per pixel, plus the size of the files themselves. A job acquires its footprint from
+ * a fair semaphore of kilobyte permits before its files are read and releases it when it has been processed. A job
+ * larger than the whole budget acquires the whole budget, i.e. runs alone.
+ *
+ * @version		2026.1018
+ *
+ */
+public class MemoryGovernor
+{
+
+	/**
+	 * Estimated memory per pixel of an image in flight: decoded image, greyed/scaled copies, boolean[] and int[] values.
+	 */
+	public static final int BYTES_PER_PIXEL = 10;
+
+	/**
+	 * Fraction of the maximum heap used as budget by default.
+	 */
+	public static final double DEFAULT_BUDGET_FRACTION = 0.5;
+
+	/**
+	 * Budget in kilobytes.
+	 */
+	private int budget;
+
+	/**
+	 * Permits of kilobytes not yet acquired, fair so that large jobs are not overtaken forever by small ones.
+	 */
+	private Semaphore available;
+
+
+	/**
+	 * Constructs a governor.
+	 *
+	 * @param budgetBytes memory budget in bytes, 0 or less for the default budget ({@link #DEFAULT_BUDGET_FRACTION} of the maximum heap)
+	 */
+	public MemoryGovernor(long budgetBytes)
+	{
+		if (budgetBytes <= 0) budgetBytes = (long)(Runtime.getRuntime().maxMemory()*DEFAULT_BUDGET_FRACTION);
+
+		budget = (int)Math.max(1, Math.min(Integer.MAX_VALUE, budgetBytes/1024));
+		available = new Semaphore(budget, true);
+	}
+
+
+	/**
+	 * Returns the budget.
+	 *
+	 * @return budget in bytes
+	 */
+	public long getBudget()
+	{
+		return (long)budget*1024;
+	}
+
+
+	/**
+	 * Estimates the memory needed to evaluate the images in some files.
+	 *
+	 * @param files image files of a job
+	 *
+	 * @return      estimated footprint in bytes, {@link Long#MAX_VALUE} if a header cannot be read
+	 */
+	public static long estimateFootprint(File[] files)
+	{
+		long fileBytes = 0;
+		long maxPixels = 0;
+
+		for (File file: files)
+		{
+			fileBytes += file.length();
+
+			long pixels = getNumberOfPixels(file);
+			if (pixels < 0) return Long.MAX_VALUE;
+			maxPixels = Math.max(maxPixels, pixels);
+		}
+
+		// saliency maps are scaled to the size of their ground truth, so the largest image determines the footprint
+		return fileBytes + BYTES_PER_PIXEL*maxPixels;
+	}
+
+
+	/**
+	 * Reads the dimensions of an image from its header.
+	 *
+	 * @param file image file
+	 *
+	 * @return     width*height, -1 if the header cannot be read
+	 */
+	public static long getNumberOfPixels(File file)
+	{
+		ImageInputStream in = null;
+
+		try
+		{
+			in = ImageIO.createImageInputStream(file);
+			if (in == null) return -1;
+
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			if (!readers.hasNext()) return -1;
+
+			ImageReader reader = readers.next();
+			try
+			{
+				reader.setInput(in, true, true);
+				return (long)reader.getWidth(0)*reader.getHeight(0);
+			}
+			finally
+			{
+				reader.dispose();
+			}
+		}
+		catch (IOException e)
+		{
+			return -1;
+		}
+		finally
+		{
+			try
+			{
+				if (in != null) in.close();
+			}
+			catch (IOException e)
+			{
+				// nothing left to clean up
+			}
+		}
+	}
+
+
+	/**
+	 * Acquires memory for a job, blocking until enough of the budget is available.
+	 *
+	 * @param bytes footprint of the job in bytes
+	 *
+	 * @return      acquired kilobytes, to pass to {@link #release(int)}
+	 */
+	public int acquire(long bytes)
+	{
+		// rounded up without overflow, unknown footprints are Long.MAX_VALUE
+		int permits = (int)Math.max(1, Math.min(budget, bytes/1024 + (bytes%1024 > 0 ? 1 : 0)));
+		available.acquireUninterruptibly(permits);
+
+		return permits;
+	}
+
+
+	/**
+	 * Releases memory acquired for a job.
+	 *
+	 * @param permits kilobytes returned by {@link #acquire(long)}
+	 */
+	public void release(int permits)
+	{
+		available.release(permits);
+	}
+
+}
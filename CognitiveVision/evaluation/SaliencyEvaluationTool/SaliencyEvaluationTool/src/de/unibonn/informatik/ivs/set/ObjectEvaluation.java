@@ -0,0 +1,147 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.Rectangle;
+import java.util.*;
+
+
+/**
+ * Evaluates saliency maps per object instead of per pixel, so that a method finding one large object
+ * but missing several small ones is not rated as well as one finding all of them.<br>
+ * <br>
+ * Objects are the connected components of the binary ground truth (see {@link ConnectedComponents}). At each selected
+ * threshold the following values are determined:<br>
+ * 1. object recall: mean over objects of the fraction of the object's pixels whose saliency value reaches the threshold<br>
+ * 2. hit rate: fraction of objects of which at least {@link #HIT_RECALL} of the pixels reach the threshold<br>
+ * 3. box IoU: mean over reference boxes of the best intersection over union with the bounding box of any component
+ *    of the thresholded saliency map; reference boxes are the rectangles of a ground truth description, or the
+ *    bounding boxes of the objects for ground truth images
+ *
+ * @version		2026.1018
+ *
+ */
+public class ObjectEvaluation
+{
+
+	/**
+	 * Fraction of an object's pixels that must reach the threshold for the object to be hit.
+	 */
+	public static final double HIT_RECALL = 0.5;
+
+	/**
+	 * Number of values per threshold in results of {@link #evaluate(de.unibonn.informatik.ivs.set.GroundTruth, de.unibonn.informatik.ivs.set.SaliencyMap, int[])}.
+	 */
+	public static final int VALUES_PER_THRESHOLD = 3;
+
+	/**
+	 * Offsets of values of a threshold in results.
+	 */
+	public static final int OBJECT_RECALL = 0, HIT_RATE = 1, BOX_IOU = 2;
+
+	/**
+	 * Labellers of ground truths and of thresholded saliency maps per thread, reused for all images.
+	 */
+	private static final ThreadLocal<ConnectedComponents[]> LABELLERS = new ThreadLocal<ConnectedComponents[]>()
+	{
+		@Override
+		protected ConnectedComponents[] initialValue()
+		{
+			return new ConnectedComponents[] {new ConnectedComponents(), new ConnectedComponents()};
+		}
+	};
+
+
+	/**
+	 * Evaluates a saliency map per object at several thresholds.
+	 *
+	 * @param gt         ground truth
+	 * @param sMap       saliency map of the same size
+	 * @param thresholds binary thresholds, in [0; 255]
+	 *
+	 * @return           null if values are not available, otherwise<br>
+	 *                   index 0: number of objects<br>
+	 *                   index 1+{@link #VALUES_PER_THRESHOLD}*iThreshold+{@link #OBJECT_RECALL}: object recall<br>
+	 *                   index 1+{@link #VALUES_PER_THRESHOLD}*iThreshold+{@link #HIT_RATE}: hit rate<br>
+	 *                   index 1+{@link #VALUES_PER_THRESHOLD}*iThreshold+{@link #BOX_IOU}: box IoU<br>
+	 *                   Values are NaN if there are no objects or reference boxes.
+	 */
+	public static double[] evaluate(GroundTruth gt, SaliencyMap sMap, int[] thresholds)
+	{
+		boolean[] groundTruthValues = gt.getValues();
+		int[] saliencyValues = sMap.getMapValues();
+		if (groundTruthValues == null || saliencyValues == null || sMap.getWidth() != gt.getWidth() || sMap.getHeight() != gt.getHeight()) return null;
+
+		int width  = gt.getWidth();
+		int height = gt.getHeight();
+
+		ConnectedComponents objects    = LABELLERS.get()[0];
+		ConnectedComponents components = LABELLERS.get()[1];
+
+		int nObjects = objects.label(groundTruthValues, width, height, saliencyValues, thresholds);
+
+		List<Rectangle> referenceBoxes = gt.getRectangles();
+		if (referenceBoxes == null)
+		{
+			referenceBoxes = new ArrayList<Rectangle>(nObjects);
+			for (int iObject=0; iObject<nObjects; iObject++) referenceBoxes.add(objects.getBoundingBox(iObject));
+		}
+
+		double[] result = new double[1+VALUES_PER_THRESHOLD*thresholds.length];
+		result[0] = nObjects;
+
+		for (int iThreshold=0; iThreshold<thresholds.length; iThreshold++)
+		{
+			int offset = 1+VALUES_PER_THRESHOLD*iThreshold;
+
+			double sumRecall = 0.0;
+			int nHits = 0;
+			for (int iObject=0; iObject<nObjects; iObject++)
+			{
+				double recall = (double)objects.getHits(iObject, iThreshold) / objects.getArea(iObject);
+				sumRecall += recall;
+				if (recall >= HIT_RECALL) nHits++;
+			}
+
+			result[offset+OBJECT_RECALL] = nObjects > 0 ? sumRecall / nObjects : Double.NaN;
+			result[offset+HIT_RATE]      = nObjects > 0 ? (double)nHits / nObjects : Double.NaN;
+
+			int nComponents = components.label(saliencyValues, thresholds[iThreshold], width, height);
+			Rectangle[] boxes = new Rectangle[nComponents];
+			for (int iComponent=0; iComponent<nComponents; iComponent++) boxes[iComponent] = components.getBoundingBox(iComponent);
+
+			double sumIou = 0.0;
+			for (Rectangle reference: referenceBoxes)
+			{
+				double bestIou = 0.0;
+				for (Rectangle box: boxes) bestIou = Math.max(bestIou, getIntersectionOverUnion(reference, box));
+				sumIou += bestIou;
+			}
+
+			result[offset+BOX_IOU] = referenceBoxes.size() > 0 ? sumIou / referenceBoxes.size() : Double.NaN;
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Determines the intersection over union of two boxes.
+	 *
+	 * @param a first box
+	 * @param b second box
+	 *
+	 * @return  area of intersection divided by area of union, in [0.0; 1.0]
+	 */
+	public static double getIntersectionOverUnion(Rectangle a, Rectangle b)
+	{
+		long intersectionWidth  = Math.min(a.x+a.width,  b.x+b.width)  - Math.max(a.x, b.x);
+		long intersectionHeight = Math.min(a.y+a.height, b.y+b.height) - Math.max(a.y, b.y);
+		if (intersectionWidth <= 0 || intersectionHeight <= 0) return 0.0;
+
+		long intersection = intersectionWidth*intersectionHeight;
+
+		return (double)intersection / ((long)a.width*a.height + (long)b.width*b.height - intersection);
+	}
+
+}
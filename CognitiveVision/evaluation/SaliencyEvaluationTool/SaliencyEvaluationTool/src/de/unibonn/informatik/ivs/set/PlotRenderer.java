@@ -0,0 +1,470 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+
+
+/**
+ * Draws simple x/y plots into an array of RGB pixels and saves them as PNG (see {@link PngEncoder}).<br>
+ * <br>
+ * Unlike <code>ptolemy.plot.Plot</code> neither AWT nor Swing is needed, so plots are created quickly and
+ * headless. Text is drawn with a built-in 5x7 pixel font of upper case letters, digits and some punctuation;
+ * lower case letters are drawn as upper case ones.<br>
+ * <br>
+ * A plot is drawn in layers: {@link #drawGrid()} first, then data ({@link #drawCurve(double[], double[], int)},
+ * {@link #drawDensity(de.unibonn.informatik.ivs.set.DensityHistogram)}), finally
+ * {@link #drawAxes(java.lang.String, java.lang.String, java.lang.String)}.
+ *
+ * @version		2026.1018
+ *
+ */
+public class PlotRenderer
+{
+
+	/**
+	 * Colour of the background.
+	 */
+	public static final int COLOUR_BACKGROUND = 0xFFFFFF;
+
+	/**
+	 * Colour of axes and text.
+	 */
+	public static final int COLOUR_FOREGROUND = 0x000000;
+
+	/**
+	 * Colour of grid lines.
+	 */
+	public static final int COLOUR_GRID       = 0xE0E0E0;
+
+	/**
+	 * Default colour of curves.
+	 */
+	public static final int COLOUR_CURVE      = 0xFF0000;
+
+
+	/**
+	 * Characters of the built-in font.
+	 */
+	private static final String FONT_CHARACTERS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ.-:()/,_=%+";
+
+	/**
+	 * Glyphs of the built-in font, in the order of {@link #FONT_CHARACTERS}.<br>
+	 * Each glyph consists of 7 rows of 5 bits, the highest bit being the leftmost pixel.
+	 */
+	private static final int[][] FONT_GLYPHS =
+	{
+		{14,17,19,21,25,17,14}, {4,12,4,4,4,4,14},    {14,17,1,2,4,8,31},     {31,2,4,2,1,17,14},    {2,6,10,18,31,2,2},
+		{31,16,30,1,1,17,14},   {6,8,16,30,17,17,14}, {31,1,2,4,8,8,8},       {14,17,17,14,17,17,14}, {14,17,17,15,1,2,12},
+		{14,17,17,31,17,17,17}, {30,17,17,30,17,17,30}, {14,17,16,16,16,17,14}, {28,18,17,17,17,18,28}, {31,16,16,30,16,16,31},
+		{31,16,16,30,16,16,16}, {14,17,16,23,17,17,15}, {17,17,17,31,17,17,17}, {14,4,4,4,4,4,14},      {7,2,2,2,2,18,12},
+		{17,18,20,24,20,18,17}, {16,16,16,16,16,16,31}, {17,27,21,21,17,17,17}, {17,17,25,21,19,17,17}, {14,17,17,17,17,17,14},
+		{30,17,17,30,16,16,16}, {14,17,17,17,21,18,13}, {30,17,17,30,20,18,17}, {15,16,16,14,1,1,30},    {31,4,4,4,4,4,4},
+		{17,17,17,17,17,17,14}, {17,17,17,17,17,10,4},  {17,17,17,21,21,21,10}, {17,17,10,4,10,17,17},   {17,17,17,10,4,4,4},
+		{31,1,2,4,8,16,31},
+		{0,0,0,0,0,12,12}, {0,0,0,31,0,0,0}, {0,12,12,0,12,12,0}, {2,4,8,8,8,4,2}, {8,4,2,2,2,4,8},
+		{0,1,2,4,8,16,0},  {0,0,0,0,12,4,8}, {0,0,0,0,0,0,31},    {0,0,31,0,31,0,0}, {24,25,2,4,8,19,3}, {0,4,4,31,4,4,0}
+	};
+
+	/**
+	 * Width of a glyph including spacing, in pixels at scale 1.
+	 */
+	private static final int GLYPH_ADVANCE = 6;
+
+	/**
+	 * Height of a glyph, in pixels at scale 1.
+	 */
+	private static final int GLYPH_HEIGHT  = 7;
+
+	/**
+	 * Distance between grid lines and tick labels in units of the axes.
+	 */
+	private static final double TICK_STEP = 0.1;
+
+	/**
+	 * Margins around the plot area, in pixels.
+	 */
+	private static final int MARGIN_LEFT = 70, MARGIN_RIGHT = 30, MARGIN_TOP = 60, MARGIN_BOTTOM = 60;
+
+
+	/**
+	 * Width and height of the image.
+	 */
+	private int width, height;
+
+	/**
+	 * Pixels row by row as <code>0xRRGGBB</code>.
+	 */
+	private int[] pixels;
+
+	/**
+	 * Ranges of the axes.
+	 */
+	private double xMin = 0.0, xMax = 1.0, yMin = 0.0, yMax = 1.0;
+
+
+	/**
+	 * Constructs a plot with an empty (white) image.
+	 *
+	 * @param width  width of the image
+	 * @param height height of the image
+	 */
+	public PlotRenderer(int width, int height)
+	{
+		this.width  = width;
+		this.height = height;
+
+		pixels = new int[width*height];
+		Arrays.fill(pixels, COLOUR_BACKGROUND);
+	}
+
+
+	/**
+	 * Sets the ranges of the axes. Data outside the ranges is clipped.
+	 *
+	 * @param xMin minimum x value
+	 * @param xMax maximum x value
+	 * @param yMin minimum y value
+	 * @param yMax maximum y value
+	 */
+	public void setRanges(double xMin, double xMax, double yMin, double yMax)
+	{
+		this.xMin = xMin;
+		this.xMax = xMax;
+		this.yMin = yMin;
+		this.yMax = yMax;
+	}
+
+
+	/**
+	 * Returns the width of the plot area, e.g. to create a {@link DensityHistogram} with a bin per pixel.
+	 *
+	 * @return width in pixels
+	 */
+	public int getPlotWidth()
+	{
+		return width-MARGIN_LEFT-MARGIN_RIGHT;
+	}
+
+
+	/**
+	 * Returns the height of the plot area, e.g. to create a {@link DensityHistogram} with a bin per pixel.
+	 *
+	 * @return height in pixels
+	 */
+	public int getPlotHeight()
+	{
+		return height-MARGIN_TOP-MARGIN_BOTTOM;
+	}
+
+
+	/**
+	 * Draws grid lines at every tick.
+	 */
+	public void drawGrid()
+	{
+		for (double x: getTicks(xMin, xMax))
+		{
+			int px = toPixelX(x);
+			for (int py=MARGIN_TOP; py<MARGIN_TOP+getPlotHeight(); py++) setPixel(px, py, COLOUR_GRID);
+		}
+
+		for (double y: getTicks(yMin, yMax))
+		{
+			int py = toPixelY(y);
+			for (int px=MARGIN_LEFT; px<MARGIN_LEFT+getPlotWidth(); px++) setPixel(px, py, COLOUR_GRID);
+		}
+	}
+
+
+	/**
+	 * Draws a curve through points, connecting them with lines in the given order.
+	 * Points with a NaN coordinate are left out.
+	 *
+	 * @param x      x values of points
+	 * @param y      y values of points
+	 * @param colour colour as <code>0xRRGGBB</code>
+	 */
+	public void drawCurve(double[] x, double[] y, int colour)
+	{
+		int previousX = -1, previousY = -1;
+		boolean previous = false;
+
+		for (int i=0; i<x.length; i++)
+		{
+			if (Double.isNaN(x[i]) || Double.isNaN(y[i]))
+			{
+				previous = false;
+				continue;
+			}
+
+			int px = toPixelX(x[i]);
+			int py = toPixelY(y[i]);
+
+			if (previous) drawLine(previousX, previousY, px, py, colour);
+
+			previousX = px;
+			previousY = py;
+			previous  = true;
+		}
+	}
+
+
+	/**
+	 * Draws a density heatmap. Each bin of the histogram is drawn as a rectangle of the plot area;
+	 * its colour ranges from light to dark blue logarithmically with the number of points, empty bins are not drawn.
+	 * The histogram is expected to cover the ranges of the axes.
+	 *
+	 * @param density histogram of points
+	 */
+	public void drawDensity(DensityHistogram density)
+	{
+		int nBinsX = density.getNumberOfBinsX();
+		int nBinsY = density.getNumberOfBinsY();
+		double logMaxCount = Math.log(1+density.getMaxCount());
+
+		for (int py=0; py<getPlotHeight(); py++)
+		{
+			int binY = (getPlotHeight()-1-py) * nBinsY / getPlotHeight();
+
+			for (int px=0; px<getPlotWidth(); px++)
+			{
+				int count = density.getCount(px * nBinsX / getPlotWidth(), binY);
+				if (count > 0) setPixel(MARGIN_LEFT+px, MARGIN_TOP+py, getDensityColour(Math.log(1+count) / logMaxCount));
+			}
+		}
+	}
+
+
+	/**
+	 * Draws axes with tick labels, axis labels and a title.
+	 *
+	 * @param title  title above the plot
+	 * @param xLabel label of the x axis
+	 * @param yLabel label of the y axis
+	 */
+	public void drawAxes(String title, String xLabel, String yLabel)
+	{
+		int left   = MARGIN_LEFT-1;
+		int right  = MARGIN_LEFT+getPlotWidth();
+		int top    = MARGIN_TOP-1;
+		int bottom = MARGIN_TOP+getPlotHeight();
+
+		drawLine(left, top,    right, top,    COLOUR_FOREGROUND);
+		drawLine(left, bottom, right, bottom, COLOUR_FOREGROUND);
+		drawLine(left, top,    left,  bottom, COLOUR_FOREGROUND);
+		drawLine(right, top,   right, bottom, COLOUR_FOREGROUND);
+
+		for (double x: getTicks(xMin, xMax))
+		{
+			String label = String.format(Locale.ENGLISH, "%.1f", x);
+			int px = toPixelX(x);
+			drawLine(px, bottom, px, bottom+4, COLOUR_FOREGROUND);
+			drawText(label, px-getTextWidth(label, 1)/2, bottom+8, 1, false, COLOUR_FOREGROUND);
+		}
+
+		for (double y: getTicks(yMin, yMax))
+		{
+			String label = String.format(Locale.ENGLISH, "%.1f", y);
+			int py = toPixelY(y);
+			drawLine(left-4, py, left, py, COLOUR_FOREGROUND);
+			drawText(label, left-8-getTextWidth(label, 1), py-GLYPH_HEIGHT/2, 1, false, COLOUR_FOREGROUND);
+		}
+
+		drawText(title,  (width-getTextWidth(title, 2))/2, (MARGIN_TOP-2*GLYPH_HEIGHT)/2, 2, false, COLOUR_FOREGROUND);
+		drawText(xLabel, MARGIN_LEFT+(getPlotWidth()-getTextWidth(xLabel, 1))/2, bottom+30, 1, false, COLOUR_FOREGROUND);
+		drawText(yLabel, MARGIN_TOP+(getPlotHeight()+getTextWidth(yLabel, 1))/2, 20, 1, true, COLOUR_FOREGROUND);
+	}
+
+
+	/**
+	 * Draws a line of text.
+	 *
+	 * @param text     text to draw, characters missing in the built-in font are left blank
+	 * @param x        left of the text (bottom when drawn vertically)
+	 * @param y        top of the text (left when drawn vertically)
+	 * @param scale    size of a font pixel in image pixels
+	 * @param vertical true to draw the text bottom-up
+	 * @param colour   colour as <code>0xRRGGBB</code>
+	 */
+	public void drawText(String text, int x, int y, int scale, boolean vertical, int colour)
+	{
+		text = text.toUpperCase(Locale.ENGLISH);
+
+		for (int iChar=0; iChar<text.length(); iChar++)
+		{
+			int iGlyph = FONT_CHARACTERS.indexOf(text.charAt(iChar));
+			if (iGlyph == -1) continue;
+
+			for (int row=0; row<GLYPH_HEIGHT; row++)
+			{
+				for (int column=0; column<5; column++)
+				{
+					if ((FONT_GLYPHS[iGlyph][row] & (0x10 >> column)) == 0) continue;
+
+					// offset of the font pixel along and across the line of text
+					int along  = (iChar*GLYPH_ADVANCE+column) * scale;
+					int across = row * scale;
+
+					for (int dy=0; dy<scale; dy++)
+					{
+						for (int dx=0; dx<scale; dx++)
+						{
+							if (vertical) setPixel(y+across+dy, x-along-dx, colour);
+							else          setPixel(x+along+dx, y+across+dy, colour);
+						}
+					}
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Returns the width of a line of text.
+	 *
+	 * @param text  text
+	 * @param scale size of a font pixel in image pixels
+	 *
+	 * @return      width in pixels
+	 */
+	public int getTextWidth(String text, int scale)
+	{
+		return (text.length()*GLYPH_ADVANCE-1) * scale;
+	}
+
+
+	/**
+	 * Saves the image as PNG.
+	 *
+	 * @param file file to save to
+	 *
+	 * @throws IOException if writing fails
+	 */
+	public void save(File file) throws IOException
+	{
+		PngEncoder.write(pixels, width, height, file);
+	}
+
+
+	/**
+	 * Draws a line two pixels wide with Bresenham's algorithm.
+	 *
+	 * @param x0     x of start
+	 * @param y0     y of start
+	 * @param x1     x of end
+	 * @param y1     y of end
+	 * @param colour colour as <code>0xRRGGBB</code>
+	 */
+	private void drawLine(int x0, int y0, int x1, int y1, int colour)
+	{
+		int dx =  Math.abs(x1-x0), sx = x0 < x1 ? 1 : -1;
+		int dy = -Math.abs(y1-y0), sy = y0 < y1 ? 1 : -1;
+		int error = dx+dy;
+
+		while (true)
+		{
+			setPixel(x0, y0, colour);
+			if (dx >= -dy) setPixel(x0, y0+1, colour);
+			else           setPixel(x0+1, y0, colour);
+
+			if (x0 == x1 && y0 == y1) break;
+
+			int error2 = 2*error;
+			if (error2 >= dy) { error += dy; x0 += sx; }
+			if (error2 <= dx) { error += dx; y0 += sy; }
+		}
+	}
+
+
+	/**
+	 * Sets a pixel, ignoring coordinates outside of the image.
+	 *
+	 * @param x      x of pixel
+	 * @param y      y of pixel
+	 * @param colour colour as <code>0xRRGGBB</code>
+	 */
+	private void setPixel(int x, int y, int colour)
+	{
+		if (x >= 0 && x < width && y >= 0 && y < height) pixels[y*width+x] = colour;
+	}
+
+
+	/**
+	 * Maps an x value to a pixel column. Values outside the range are clipped to the border of the plot area.
+	 *
+	 * @param x x value
+	 *
+	 * @return  pixel column
+	 */
+	private int toPixelX(double x)
+	{
+		double relative = Math.max(0.0, Math.min(1.0, (x-xMin) / (xMax-xMin)));
+
+		return MARGIN_LEFT + (int)Math.round(relative * (getPlotWidth()-1));
+	}
+
+
+	/**
+	 * Maps a y value to a pixel row. Values outside the range are clipped to the border of the plot area.
+	 *
+	 * @param y y value
+	 *
+	 * @return  pixel row
+	 */
+	private int toPixelY(double y)
+	{
+		double relative = Math.max(0.0, Math.min(1.0, (y-yMin) / (yMax-yMin)));
+
+		return MARGIN_TOP + getPlotHeight()-1 - (int)Math.round(relative * (getPlotHeight()-1));
+	}
+
+
+	/**
+	 * Determines the values of ticks within a range, at multiples of {@link #TICK_STEP}.
+	 *
+	 * @param min minimum of range
+	 * @param max maximum of range
+	 *
+	 * @return    tick values
+	 */
+	private static double[] getTicks(double min, double max)
+	{
+		int first = (int)Math.ceil(min/TICK_STEP - 1e-9);
+		int last  = (int)Math.floor(max/TICK_STEP + 1e-9);
+
+		double[] result = new double[Math.max(0, last-first+1)];
+		for (int i=0; i<result.length; i++) result[i] = (first+i) * TICK_STEP;
+
+		return result;
+	}
+
+
+	/**
+	 * Determines the colour of a density value.
+	 *
+	 * @param density density in [0.0; 1.0]
+	 *
+	 * @return        colour from light blue (low density) to dark blue (high density)
+	 */
+	private static int getDensityColour(double density)
+	{
+		int[] stops = {0x9ECAE1, 0x3182BD, 0x08306B};
+
+		double position = density * (stops.length-1);
+		int iStop = Math.min(stops.length-2, (int)position);
+		double fraction = position - iStop;
+
+		int result = 0;
+		for (int shift=0; shift<=16; shift+=8)
+		{
+			int from = (stops[iStop]   >> shift) & 0xFF;
+			int to   = (stops[iStop+1] >> shift) & 0xFF;
+			result |= ((int)Math.round(from + (to-from)*fraction)) << shift;
+		}
+
+		return result;
+	}
+
+}
@@ -0,0 +1,134 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.zip.*;
+
+
+/**
+ * Encodes RGB pixels as PNG without ImageIO or AWT.<br>
+ * Images are written as 8 bit truecolour without alpha, every row with filter type 0 (none);
+ * plots consist mostly of runs of equal pixels, which deflate compresses well without filtering.
+ *
+ * @version		2026.1018
+ *
+ */
+public class PngEncoder
+{
+
+	/**
+	 * Signature every PNG file starts with.
+	 */
+	private static final byte[] SIGNATURE = {(byte)0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+
+	/**
+	 * Writes pixels to a PNG file.
+	 *
+	 * @param pixels pixels row by row as <code>0xRRGGBB</code>
+	 * @param width  image width
+	 * @param height image height
+	 * @param file   file to write to
+	 *
+	 * @throws IOException if writing fails
+	 */
+	public static void write(int[] pixels, int width, int height, File file) throws IOException
+	{
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+
+		try
+		{
+			out.write(encode(pixels, width, height));
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+
+	/**
+	 * Encodes pixels as PNG.
+	 *
+	 * @param pixels pixels row by row as <code>0xRRGGBB</code>
+	 * @param width  image width
+	 * @param height image height
+	 *
+	 * @return       contents of a PNG file
+	 */
+	public static byte[] encode(int[] pixels, int width, int height)
+	{
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(result);
+
+		try
+		{
+			out.write(SIGNATURE);
+
+			ByteArrayOutputStream header = new ByteArrayOutputStream();
+			DataOutputStream headerOut = new DataOutputStream(header);
+			headerOut.writeInt(width);
+			headerOut.writeInt(height);
+			headerOut.writeByte(8);  // bit depth
+			headerOut.writeByte(2);  // colour type truecolour
+			headerOut.writeByte(0);  // compression method deflate
+			headerOut.writeByte(0);  // filter method
+			headerOut.writeByte(0);  // no interlace
+			writeChunk(out, "IHDR", header.toByteArray());
+
+			ByteArrayOutputStream imageData = new ByteArrayOutputStream();
+			DeflaterOutputStream deflater = new DeflaterOutputStream(imageData, new Deflater(Deflater.BEST_COMPRESSION));
+			byte[] row = new byte[1+3*width];
+
+			for (int y=0; y<height; y++)
+			{
+				// row[0] is the filter type
+				for (int x=0; x<width; x++)
+				{
+					int pixel = pixels[y*width+x];
+					row[1+3*x]   = (byte)(pixel >> 16);
+					row[1+3*x+1] = (byte)(pixel >> 8);
+					row[1+3*x+2] = (byte)pixel;
+				}
+				deflater.write(row);
+			}
+			deflater.close();
+			writeChunk(out, "IDAT", imageData.toByteArray());
+
+			writeChunk(out, "IEND", new byte[0]);
+		}
+		catch (IOException e)
+		{
+			// cannot happen when writing to memory
+			throw new IllegalStateException(e);
+		}
+
+		return result.toByteArray();
+	}
+
+
+	/**
+	 * Writes a chunk: length, type, data and the CRC of type and data.
+	 *
+	 * @param out  stream to write to
+	 * @param type chunk type, four ASCII letters
+	 * @param data chunk data
+	 *
+	 * @throws IOException if writing fails
+	 */
+	private static void writeChunk(DataOutputStream out, String type, byte[] data) throws IOException
+	{
+		byte[] typeBytes = type.getBytes("US-ASCII");
+
+		CRC32 crc = new CRC32();
+		crc.update(typeBytes);
+		crc.update(data);
+
+		out.writeInt(data.length);
+		out.write(typeBytes);
+		out.write(data);
+		out.writeInt((int)crc.getValue());
+	}
+
+}
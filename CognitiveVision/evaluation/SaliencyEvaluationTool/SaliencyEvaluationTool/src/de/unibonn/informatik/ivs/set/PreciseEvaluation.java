@@ -0,0 +1,274 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.util.*;
+
+
+/**
+ * Evaluates saliency scores at a finer resolution than the {@link SaliencyMap#NUM_GREYSCALES} grey values of
+ * the curves, so that maps with more than 8 bits per value do not lose their ranking to ties at each grey value.<br>
+ * <br>
+ * Scores are either counted in a configurable number of bins uniformly dividing [0.0; 1.0], each bin being a threshold,
+ * or evaluated exactly: pixels are sorted once by score (O(n log n)) and every distinct score is a threshold. In both
+ * cases the thresholds are swept from the highest score downwards, accumulating true and false positives, which yields
+ * the area under the ROC curve and the maximum F-measure; the mean absolute error is determined from the scores directly.<br>
+ * <br>
+ * Only primitive arrays are used: bins are counted in int arrays, and for exact evaluation each pixel's score and
+ * ground truth value are packed into one long, so that sorting is a primitive sort of a long array.
+ *
+ * @version		2026.1018
+ *
+ */
+public class PreciseEvaluation
+{
+
+	/**
+	 * Number of bins indicating exact evaluation.
+	 */
+	public static final int EXACT = 0;
+
+	/**
+	 * Indices of values in results of {@link #evaluate(boolean[], float[], int)}.
+	 */
+	public static final int AUC = 0, MAE = 1, MAX_F = 2, N_THRESHOLDS = 3;
+
+	/**
+	 * Square of the beta value of F-measures.
+	 */
+	private static final double BETA_SQUARED = Bootstrap.F_MEASURE_BETA*Bootstrap.F_MEASURE_BETA;
+
+
+	/**
+	 * Accumulates true and false positives over thresholds swept downwards.
+	 */
+	private static class Sweep
+	{
+		/**
+		 * Number of object and background pixels.
+		 */
+		long nObject, nBackground;
+
+		/**
+		 * Pixels selected by the current threshold.
+		 */
+		long truePositive = 0, falsePositive = 0;
+
+		/**
+		 * Area under ROC curve so far, not yet divided by nObject*nBackground.
+		 */
+		double area = 0.0;
+
+		/**
+		 * Maximum F-measure so far.
+		 */
+		double maxFMeasure = 0.0;
+
+		/**
+		 * Number of thresholds so far.
+		 */
+		int nThresholds = 0;
+
+		/**
+		 * Constructs a sweep starting above the highest score, where nothing is selected.
+		 *
+		 * @param nObject     number of object pixels
+		 * @param nBackground number of background pixels
+		 */
+		Sweep(long nObject, long nBackground)
+		{
+			this.nObject     = nObject;
+			this.nBackground = nBackground;
+		}
+
+		/**
+		 * Lowers the threshold to the next score (or bin), selecting its object and background pixels.
+		 *
+		 * @param objectPixels     object pixels of the score
+		 * @param backgroundPixels background pixels of the score
+		 */
+		void add(long objectPixels, long backgroundPixels)
+		{
+			if (objectPixels+backgroundPixels == 0) return;
+
+			long lastTruePositive = truePositive;
+			truePositive  += objectPixels;
+			falsePositive += backgroundPixels;
+			nThresholds++;
+
+			// ties of object and background pixels form a diagonal segment of the ROC curve
+			area += (double)backgroundPixels * (lastTruePositive + truePositive) / 2.0;
+
+			// F-measure as by GroundTruth.getFMeasure(), without allocating per threshold
+			double precision = (double)truePositive / (truePositive+falsePositive);
+			double recall    = nObject > 0 ? (double)truePositive / nObject : 0.0;
+			if (precision+recall > 0.0)
+			{
+				double fMeasure = (1.0+BETA_SQUARED) * precision * recall / (BETA_SQUARED*precision + recall);
+				if (fMeasure > maxFMeasure) maxFMeasure = fMeasure;
+			}
+		}
+
+		/**
+		 * Returns the area under ROC curve of all thresholds swept.
+		 *
+		 * @return area in [0.0; 1.0], NaN if object or background is empty
+		 */
+		double getAreaUnderCurve()
+		{
+			return nObject == 0 || nBackground == 0 ? Double.NaN : area / ((double)nObject * nBackground);
+		}
+	}
+
+
+	/**
+	 * Evaluates scores against a binary ground truth.
+	 *
+	 * @param groundTruth binary ground truth values row by row
+	 * @param scores      scores row by row, expected in [0.0; 1.0] for bins and the mean absolute error
+	 * @param nBins       number of bins, {@link #EXACT} to use every distinct score as threshold
+	 *
+	 * @return            index {@link #AUC}: area under ROC curve, NaN if object or background is empty<br>
+	 *                    index {@link #MAE}: mean absolute error of scores clipped to [0.0; 1.0]<br>
+	 *                    index {@link #MAX_F}: maximum F-measure (beta^2 = 0.3) over all thresholds<br>
+	 *                    index {@link #N_THRESHOLDS}: number of thresholds selecting pixels
+	 */
+	public static double[] evaluate(boolean[] groundTruth, float[] scores, int nBins)
+	{
+		long nObject = 0;
+		double errorSum = 0.0;
+
+		for (int i=0; i<scores.length; i++)
+		{
+			float score = clip(scores[i]);
+
+			if (groundTruth[i])
+			{
+				nObject++;
+				errorSum += 1.0-score;
+			}
+			else errorSum += score;
+		}
+
+		Sweep sweep = new Sweep(nObject, scores.length-nObject);
+
+		if (nBins == EXACT) sweepSorted(groundTruth, scores, sweep);
+		else sweepBins(groundTruth, scores, nBins, sweep);
+
+		double[] result = new double[4];
+		result[AUC]          = sweep.getAreaUnderCurve();
+		result[MAE]          = scores.length > 0 ? errorSum / scores.length : Double.NaN;
+		result[MAX_F]        = sweep.maxFMeasure;
+		result[N_THRESHOLDS] = sweep.nThresholds;
+
+		return result;
+	}
+
+
+	/**
+	 * Converts saliency values to scores in [0.0; 1.0].
+	 *
+	 * @param values saliency values in [0; 255]
+	 *
+	 * @return       scores
+	 */
+	public static float[] getScores(int[] values)
+	{
+		float[] result = new float[values.length];
+		for (int i=0; i<values.length; i++) result[i] = values[i] / (float)(SaliencyMap.NUM_GREYSCALES-1);
+
+		return result;
+	}
+
+
+	/**
+	 * Sweeps bins of scores.
+	 *
+	 * @param groundTruth binary ground truth values
+	 * @param scores      scores
+	 * @param nBins       number of bins dividing [0.0; 1.0]
+	 * @param sweep       sweep to add the bins to
+	 */
+	private static void sweepBins(boolean[] groundTruth, float[] scores, int nBins, Sweep sweep)
+	{
+		int[] objectBins     = new int[nBins];
+		int[] backgroundBins = new int[nBins];
+
+		for (int i=0; i<scores.length; i++)
+		{
+			int bin = Math.min(nBins-1, (int)(clip(scores[i])*nBins));
+
+			if (groundTruth[i]) objectBins[bin]++;
+			else backgroundBins[bin]++;
+		}
+
+		for (int bin=nBins-1; bin>=0; bin--) sweep.add(objectBins[bin], backgroundBins[bin]);
+	}
+
+
+	/**
+	 * Sorts pixels by score and sweeps every distinct score.
+	 *
+	 * @param groundTruth binary ground truth values
+	 * @param scores      scores
+	 * @param sweep       sweep to add the scores to
+	 */
+	private static void sweepSorted(boolean[] groundTruth, float[] scores, Sweep sweep)
+	{
+		// score in the upper bits in an order preserving encoding, ground truth value in the lowest bit
+		long[] keys = new long[scores.length];
+		for (int i=0; i<scores.length; i++) keys[i] = ((long)getSortableBits(scores[i]) << 1) | (groundTruth[i] ? 1 : 0);
+
+		Arrays.sort(keys);
+
+		int i = keys.length-1;
+		while (i >= 0)
+		{
+			long score = keys[i] >> 1;
+			long objectPixels = 0, backgroundPixels = 0;
+
+			for (; i >= 0 && keys[i] >> 1 == score; i--)
+			{
+				if ((keys[i] & 1) != 0) objectPixels++;
+				else backgroundPixels++;
+			}
+
+			sweep.add(objectPixels, backgroundPixels);
+		}
+	}
+
+
+	/**
+	 * Encodes a float as an int whose signed order is the order of the floats (NaN is treated as 0).
+	 *
+	 * @param value float
+	 *
+	 * @return      encoding
+	 */
+	private static int getSortableBits(float value)
+	{
+		if (Float.isNaN(value)) value = 0f;
+
+		// -0.0 and 0.0 are the same score
+		int bits = Float.floatToIntBits(value == 0f ? 0f : value);
+
+		// negative floats are ordered inversely by their bits
+		return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+	}
+
+
+	/**
+	 * Clips a score to [0.0; 1.0].
+	 *
+	 * @param score score
+	 *
+	 * @return      clipped score, 0.0 for NaN
+	 */
+	private static float clip(float score)
+	{
+		if (!(score > 0f)) return 0f;
+
+		return Math.min(1f, score);
+	}
+
+}
@@ -0,0 +1,332 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+
+/**
+ * Reads saliency maps with more than 8 bits per value, which cannot be read by ImageIO, into floating-point scores.<br>
+ * <br>
+ * Supported files:<br>
+ * 1. Binary PGM images (<code>P5</code>, <code>.pgm</code>) with 8 or 16 bits per value; scores are values divided by the maximum value<br>
+ * 2. Greyscale portable float maps (<code>Pf</code>, <code>.pfm</code>) with rows stored bottom to top and the byte order
+ *    given by the sign of the scale factor<br>
+ * 3. Raw float32 values row by row (<code>.f32</code>) without any header, described by a sidecar file <code>&lt;file&gt;.hdr</code>
+ *    containing lines <code>width=&lt;width&gt;</code>, <code>height=&lt;height&gt;</code> and optionally
+ *    <code>byteOrder=little|big</code> (default: little)<br>
+ * <br>
+ * Scores of float maps are used as they are; they are expected in [0.0; 1.0] wherever they are quantised to grey values.
+ * 16 bit PNG images are read by ImageIO and converted by {@link SaliencyMap} itself.
+ *
+ * @version		2026.1018
+ *
+ */
+public class PreciseMapReader
+{
+
+	/**
+	 * Width of the map read.
+	 */
+	private int width;
+
+	/**
+	 * Height of the map read.
+	 */
+	private int height;
+
+	/**
+	 * Scores row by row.
+	 */
+	private float[] scores;
+
+	/**
+	 * Short description of the format read, e.g. "pgm 16 bit".
+	 */
+	private String format;
+
+	/**
+	 * Position in the contents while parsing a header.
+	 */
+	private int position = 0;
+
+
+	/**
+	 * Reads a map from the contents of a file.
+	 *
+	 * @param file file the contents have been read from; the sidecar header of a raw file is read next to it
+	 * @param data contents of the file
+	 *
+	 * @throws IOException if the contents are malformed or the sidecar header cannot be read
+	 */
+	public PreciseMapReader(File file, byte[] data) throws IOException
+	{
+		String ending = getEnding(file.getName());
+
+		     if (ending.equals("pgm")) readPgm(data);
+		else if (ending.equals("pfm")) readPfm(data);
+		else if (ending.equals("f32")) readRaw(data, new File(file.getPath()+".hdr"));
+		else throw new IOException("'"+file.getName()+"' is no PGM, PFM or raw float32 map");
+	}
+
+
+	/**
+	 * Determines if a file is read by this reader, judging by its ending.
+	 *
+	 * @param fileName name of the file
+	 *
+	 * @return         true for <code>.pgm</code>, <code>.pfm</code> and <code>.f32</code> files
+	 */
+	public static boolean isSupported(String fileName)
+	{
+		String ending = getEnding(fileName);
+
+		return ending.equals("pgm") || ending.equals("pfm") || ending.equals("f32");
+	}
+
+
+	/**
+	 * Returns the ending of a file name in lower case.
+	 *
+	 * @param fileName name of the file
+	 *
+	 * @return         ending without dot, empty if there is none
+	 */
+	private static String getEnding(String fileName)
+	{
+		int pos = fileName.lastIndexOf('.');
+
+		return pos != -1 ? fileName.substring(pos+1).toLowerCase(Locale.ENGLISH) : "";
+	}
+
+
+	/**
+	 * Reads a binary PGM image.
+	 *
+	 * @param data contents of the file
+	 *
+	 * @throws IOException if the image is malformed
+	 */
+	private void readPgm(byte[] data) throws IOException
+	{
+		if (data.length < 2 || data[0] != 'P' || data[1] != '5') throw new IOException("No binary PGM image");
+		position = 2;
+
+		width  = readNumber(data);
+		height = readNumber(data);
+		int maxValue = readNumber(data);
+		if (maxValue < 1 || maxValue > 65535) throw new IOException("Invalid max. value "+maxValue+" of PGM image");
+
+		int bytesPerValue = maxValue > 255 ? 2 : 1;
+		checkLength(data, (long)width*height*bytesPerValue);
+
+		scores = new float[width*height];
+		for (int i=0; i<scores.length; i++)
+		{
+			// 16 bit values are stored most significant byte first
+			int value = bytesPerValue == 2 ? (data[position+2*i] & 0xFF) << 8 | (data[position+2*i+1] & 0xFF) : data[position+i] & 0xFF;
+			scores[i] = (float)value / maxValue;
+		}
+
+		format = "pgm "+(8*bytesPerValue)+" bit";
+	}
+
+
+	/**
+	 * Reads a greyscale portable float map.
+	 *
+	 * @param data contents of the file
+	 *
+	 * @throws IOException if the map is malformed or has colour channels
+	 */
+	private void readPfm(byte[] data) throws IOException
+	{
+		if (data.length < 2 || data[0] != 'P' || data[1] != 'f') throw new IOException("No greyscale portable float map");
+		position = 2;
+
+		width  = readNumber(data);
+		height = readNumber(data);
+		String scale = readToken(data);
+
+		ByteOrder byteOrder;
+		try
+		{
+			byteOrder = Double.parseDouble(scale) < 0.0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IOException("Invalid scale '"+scale+"' of portable float map");
+		}
+
+		checkLength(data, (long)width*height*4);
+
+		FloatBuffer values = ByteBuffer.wrap(data, position, width*height*4).order(byteOrder).asFloatBuffer();
+		scores = new float[width*height];
+
+		// rows are stored from bottom to top
+		for (int y=0; y<height; y++) values.get(scores, (height-1-y)*width, width);
+
+		format = "pfm float";
+	}
+
+
+	/**
+	 * Reads raw float32 values described by a sidecar header file.
+	 *
+	 * @param data       contents of the file
+	 * @param headerFile sidecar header file
+	 *
+	 * @throws IOException if the header file does not exist or is malformed, or the size does not match
+	 */
+	private void readRaw(byte[] data, File headerFile) throws IOException
+	{
+		if (!headerFile.isFile()) throw new IOException("No header file '"+headerFile.getPath()+"' for raw float32 values");
+
+		Properties header = new Properties();
+		Reader reader = new FileReader(headerFile);
+		try
+		{
+			header.load(reader);
+		}
+		finally
+		{
+			reader.close();
+		}
+
+		try
+		{
+			width  = Integer.parseInt(header.getProperty("width",  "-1").trim());
+			height = Integer.parseInt(header.getProperty("height", "-1").trim());
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IOException("Malformed header file '"+headerFile.getPath()+"': "+e.getMessage());
+		}
+		if (width <= 0 || height <= 0) throw new IOException("Header file '"+headerFile.getPath()+"' must define width and height");
+
+		ByteOrder byteOrder = header.getProperty("byteOrder", "little").trim().equalsIgnoreCase("big") ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+
+		position = 0;
+		checkLength(data, (long)width*height*4);
+
+		scores = new float[width*height];
+		ByteBuffer.wrap(data, 0, width*height*4).order(byteOrder).asFloatBuffer().get(scores);
+
+		format = "f32 float";
+	}
+
+
+	/**
+	 * Checks that the contents hold the values following the header.
+	 *
+	 * @param data   contents of the file
+	 * @param length number of bytes of values
+	 *
+	 * @throws IOException if the contents are too short
+	 */
+	private void checkLength(byte[] data, long length) throws IOException
+	{
+		if (width <= 0 || height <= 0) throw new IOException("Invalid size "+width+"x"+height);
+		if (data.length-position < length) throw new IOException("Values are truncated ("+(data.length-position)+" of "+length+" bytes)");
+	}
+
+
+	/**
+	 * Reads a number of a header, skipping white space and comments before it.
+	 *
+	 * @param data contents of the file
+	 *
+	 * @return     number
+	 *
+	 * @throws IOException if the header is malformed
+	 */
+	private int readNumber(byte[] data) throws IOException
+	{
+		String token = readToken(data);
+
+		try
+		{
+			return Integer.parseInt(token);
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IOException("Malformed header: '"+token+"' is no number");
+		}
+	}
+
+
+	/**
+	 * Reads a token of a header, skipping white space and comments before it.
+	 * The single white space character ending the token is consumed, after the last token the values follow.
+	 *
+	 * @param data contents of the file
+	 *
+	 * @return     token
+	 *
+	 * @throws IOException if the header ends
+	 */
+	private String readToken(byte[] data) throws IOException
+	{
+		while (position < data.length && (data[position] == '#' || Character.isWhitespace(data[position])))
+		{
+			if (data[position] == '#') while (position < data.length && data[position] != '\n') position++;
+			position++;
+		}
+
+		int start = position;
+		while (position < data.length && !Character.isWhitespace(data[position])) position++;
+		if (start == position) throw new IOException("Header is truncated");
+
+		String result = new String(data, start, position-start, "US-ASCII");
+		position++;
+
+		return result;
+	}
+
+
+	/**
+	 * Returns the width of the map.
+	 *
+	 * @return width
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+
+
+	/**
+	 * Returns the height of the map.
+	 *
+	 * @return height
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+
+
+	/**
+	 * Returns the scores of the map.
+	 *
+	 * @return scores row by row
+	 */
+	public float[] getScores()
+	{
+		return scores;
+	}
+
+
+	/**
+	 * Returns a short description of the format read.
+	 *
+	 * @return format, e.g. "pgm 16 bit" or "pfm float"
+	 */
+	public String getFormat()
+	{
+		return format;
+	}
+
+}
@@ -16,7 +16,10 @@ import java.awt.image.*;
  * the size of that image must be provided to scale the saliency map internally.<br>
  * As a result all methods that return a representation of the saliency map
  * ({@link #getMap()} and {@link #getMapValues()}) return a representaion that fits to the size
- * of the image the saliency map refers to.
+ * of the image the saliency map refers to.<br>
+ * Maps constructed to keep their resolution (e.g. {@link #SaliencyMap(java.io.File, int, int, boolean)}) are not scaled up if they
+ * are smaller than the image; they are evaluated against a ground truth scaled down to their size instead
+ * (see {@link GroundTruth#getHistograms(de.unibonn.informatik.ivs.set.SaliencyMap)}).
  *
  * @author		Bernd Wendt
  * @version		2011.0314
@@ -40,6 +43,34 @@ public class SaliencyMap
 	 */
 	BufferedImage saliencyMap;
 
+	/**
+	 * Saliency values row by row, determined from {@link #saliencyMap} on first use
+	 * or given directly (see {@link #SaliencyMap(java.lang.String, int, int, int[])})
+	 */
+	int[] mapValues;
+
+	/**
+	 * Scores row by row of maps with more than 8 bits per value or read by {@link PreciseMapReader}, scaled to the size
+	 * of the image saliency map refers to; in [0.0; 1.0] except for float maps, which are kept as they are.
+	 * Null for 8 bit maps.
+	 */
+	float[] scores;
+
+	/**
+	 * Width of saliency map given by values only
+	 */
+	int width;
+
+	/**
+	 * Height of saliency map given by values only
+	 */
+	int height;
+
+	/**
+	 * Indicates if a map smaller than the image it refers to keeps its resolution instead of being scaled up.
+	 */
+	private boolean keepResolution = false;
+
 
 	/**
 	 * Constructs from a saliency map image
@@ -67,6 +98,89 @@ public class SaliencyMap
 	}
 
 
+	/**
+	 * Constructs from a saliency map image, optionally keeping the resolution of a map smaller than the image it refers to.
+	 *
+	 * @param file           file containing saliency image
+	 * @param width          width of image saliency map refers to
+	 * @param height         height of image saliency map refers to
+	 * @param keepResolution true to scale the map only if it exceeds the size of the image
+	 */
+	public SaliencyMap(File file, int width, int height, boolean keepResolution)
+	{
+		this.keepResolution = keepResolution;
+		loadSaliencyMap(file, width, height);
+	}
+
+
+	/**
+	 * Constructs from the contents of a saliency map image file that have already been read into memory
+	 *
+	 * @param file   file the saliency image has been read from
+	 * @param data   contents of the file
+	 * @param width  width of image saliency map refers to
+	 * @param height height of image saliency map refers to
+	 */
+	public SaliencyMap(File file, byte[] data, int width, int height)
+	{
+		this(file, data, width, height, false);
+	}
+
+
+	/**
+	 * Constructs from the contents of a saliency map image file that have already been read into memory,
+	 * optionally keeping the resolution of a map smaller than the image it refers to.
+	 *
+	 * @param file           file the saliency image has been read from
+	 * @param data           contents of the file
+	 * @param width          width of image saliency map refers to
+	 * @param height         height of image saliency map refers to
+	 * @param keepResolution true to scale the map only if it exceeds the size of the image
+	 */
+	public SaliencyMap(File file, byte[] data, int width, int height, boolean keepResolution)
+	{
+		this.keepResolution = keepResolution;
+
+		if (PreciseMapReader.isSupported(file.getName())) initPreciseMap(file, data, width, height);
+		else initSaliencyMap(ImageUtil.loadImage(data, file.getAbsolutePath()), FileUtil.getFileNameWithoutEnding(file.getName()), width, height);
+	}
+
+
+	/**
+	 * Constructs from a greyscale image that has been decoded or received already, e.g. read by a {@link FrameStreamReader}.
+	 *
+	 * @param imageName      name of the image saliency map refers to
+	 * @param image          saliency image
+	 * @param width          width of image saliency map refers to
+	 * @param height         height of image saliency map refers to
+	 * @param keepResolution true to scale the map only if it exceeds the size of the image
+	 */
+	public SaliencyMap(String imageName, BufferedImage image, int width, int height, boolean keepResolution)
+	{
+		this.keepResolution = keepResolution;
+		initSaliencyMap(image, imageName, width, height);
+	}
+
+
+	/**
+	 * Constructs from saliency values that already fit to the size of the image the saliency map refers to,
+	 * e.g. read from a {@link DatasetPack}.<br>
+	 * No image is created unless it is requested by {@link #getMap()}.
+	 *
+	 * @param imageName name of the image saliency map refers to
+	 * @param width     width of image saliency map refers to
+	 * @param height    height of image saliency map refers to
+	 * @param values    saliency values in [0; 255] row by row
+	 */
+	public SaliencyMap(String imageName, int width, int height, int[] values)
+	{
+		this.imageName = imageName;
+		this.width     = width;
+		this.height    = height;
+		this.mapValues = values;
+	}
+
+
 	/**
 	 * Loads saliency map image.<br>
 	 * If the saliency image differs from the size of the image it refers to,
@@ -94,12 +208,195 @@ public class SaliencyMap
 	 */
 	private void loadSaliencyMap(File file, int width, int height)
 	{
-		saliencyMap = ImageUtil.loadImage(file);
+		if (PreciseMapReader.isSupported(file.getName()))
+		{
+			try
+			{
+				initPreciseMap(file, FileUtil.readBytes(file), width, height);
+			}
+			catch (IOException e)
+			{
+				System.err.println("Could not load image '"+file.getAbsolutePath()+"': "+e.toString());
+			}
+		}
+		else initSaliencyMap(ImageUtil.loadImage(file), FileUtil.getFileNameWithoutEnding(file.getName()), width, height);
+	}
+
+
+	/**
+	 * Initialises saliency map from the contents of a file read by {@link PreciseMapReader}.<br>
+	 * Grey values are the scores clipped to [0.0; 1.0] and quantised to {@link #NUM_GREYSCALES} values.
+	 *
+	 * @param file   file the saliency map has been read from
+	 * @param data   contents of the file
+	 * @param width  width of image saliency map refers to
+	 * @param height height of image saliency map refers to
+	 */
+	private void initPreciseMap(File file, byte[] data, int width, int height)
+	{
+		StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.DECODE);
+
+		PreciseMapReader reader;
+		try
+		{
+			reader = new PreciseMapReader(file, data);
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not load image '"+file.getAbsolutePath()+"': "+e.toString());
+			stage.end(null, -1, -1, StageProfiler.getFormat(file.getName(), null));
+			return;
+		}
+
+		stage.end(null, reader.getWidth(), reader.getHeight(), reader.getFormat());
+
+		imageName = FileUtil.getFileNameWithoutEnding(file.getName());
+
+		if (keepsResolution(reader.getWidth(), reader.getHeight(), width, height))
+		{
+			width  = reader.getWidth();
+			height = reader.getHeight();
+		}
+
+		initScores(reader.getScores(), reader.getWidth(), reader.getHeight(), width, height);
+	}
+
+
+	/**
+	 * Determines if a map keeps its resolution instead of being scaled to the size of the image it refers to.
+	 *
+	 * @param mapWidth  width of the map
+	 * @param mapHeight height of the map
+	 * @param width     width of image saliency map refers to
+	 * @param height    height of image saliency map refers to
+	 *
+	 * @return          true if resolution is kept and the map does not exceed the image in either dimension
+	 */
+	private boolean keepsResolution(int mapWidth, int mapHeight, int width, int height)
+	{
+		return keepResolution && mapWidth <= width && mapHeight <= height;
+	}
+
+
+	/**
+	 * Keeps scores, scaling them to the size of the image saliency map refers to, and derives the saliency values from them:
+	 * scores are clipped to [0.0; 1.0] and quantised to {@link #NUM_GREYSCALES} values.
+	 *
+	 * @param values       scores row by row
+	 * @param valuesWidth  width of the scores
+	 * @param valuesHeight height of the scores
+	 * @param width        width of image saliency map refers to
+	 * @param height       height of image saliency map refers to
+	 */
+	private void initScores(float[] values, int valuesWidth, int valuesHeight, int width, int height)
+	{
+		this.width  = width;
+		this.height = height;
+
+		if (valuesWidth == width && valuesHeight == height) scores = values;
+		else scores = scaleScores(values, valuesWidth, valuesHeight, width, height);
+
+		mapValues = new int[scores.length];
+		for (int i=0; i<scores.length; i++)
+		{
+			// NaN is rounded to 0
+			mapValues[i] = Math.round(Math.max(0f, Math.min(1f, scores[i])) * (NUM_GREYSCALES-1));
+		}
+	}
+
+
+	/**
+	 * Scales scores bilinearly.
+	 *
+	 * @param values       scores row by row
+	 * @param valuesWidth  width of the scores
+	 * @param valuesHeight height of the scores
+	 * @param width        width to scale to
+	 * @param height       height to scale to
+	 *
+	 * @return             scaled scores row by row
+	 */
+	private float[] scaleScores(float[] values, int valuesWidth, int valuesHeight, int width, int height)
+	{
+		StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.SCALE);
+
+		// bilinear interpolation between the centres of the original pixels
+		float[] result = new float[width*height];
+		double scaleX = (double)valuesWidth / width;
+		double scaleY = (double)valuesHeight / height;
+
+		for (int y=0; y<height; y++)
+		{
+			double sourceY = Math.max(0.0, Math.min(valuesHeight-1, (y+0.5)*scaleY - 0.5));
+			int y0 = (int)sourceY;
+			int y1 = Math.min(y0+1, valuesHeight-1);
+			double weightY = sourceY-y0;
+
+			for (int x=0; x<width; x++)
+			{
+				double sourceX = Math.max(0.0, Math.min(valuesWidth-1, (x+0.5)*scaleX - 0.5));
+				int x0 = (int)sourceX;
+				int x1 = Math.min(x0+1, valuesWidth-1);
+				double weightX = sourceX-x0;
+
+				double top    = values[y0*valuesWidth+x0]*(1.0-weightX) + values[y0*valuesWidth+x1]*weightX;
+				double bottom = values[y1*valuesWidth+x0]*(1.0-weightX) + values[y1*valuesWidth+x1]*weightX;
+
+				result[y*width+x] = (float)(top*(1.0-weightY) + bottom*weightY);
+			}
+		}
+
+		stage.end(imageName, width, height, null);
+
+		return result;
+	}
+
+
+	/**
+	 * Initialises saliency map from a loaded image.<br>
+	 * If the saliency image differs from the size of the image it refers to,
+	 * the saliency image is scaled up/down.
+	 *
+	 * @param image     loaded saliency image, may be null if loading failed
+	 * @param imageName name of the image saliency map refers to
+	 * @param width     width of image saliency map refers to
+	 * @param height    height of image saliency map refers to
+	 */
+	private void initSaliencyMap(BufferedImage image, String imageName, int width, int height)
+	{
+		saliencyMap = image;
 
 		if (saliencyMap != null)
 		{
-			// image name is file name without ending
-			imageName = FileUtil.getFileNameWithoutEnding(file.getName());
+			this.imageName = imageName;
+
+			if (keepsResolution(saliencyMap.getWidth(), saliencyMap.getHeight(), width, height))
+			{
+				width  = saliencyMap.getWidth();
+				height = saliencyMap.getHeight();
+			}
+
+			// the grey image keeps 8 bits only, so 16 bit images are kept as scores instead
+			Raster raster = saliencyMap.getRaster();
+			int bitsPerValue = raster.getSampleModel().getSampleSize(0);
+			if (raster.getNumBands() == 1 && bitsPerValue > 8)
+			{
+				int imageWidth  = raster.getWidth();
+				int imageHeight = raster.getHeight();
+				float maxValue  = (float)((1L << bitsPerValue) - 1);
+
+				float[] values = new float[imageWidth*imageHeight];
+				int[] row = new int[imageWidth];
+				for (int y=0; y<imageHeight; y++)
+				{
+					raster.getSamples(0, y, imageWidth, 1, 0, row);
+					for (int x=0; x<imageWidth; x++) values[y*imageWidth+x] = row[x] / maxValue;
+				}
+
+				saliencyMap = null;
+				initScores(values, imageWidth, imageHeight, width, height);
+				return;
+			}
 
 			if (saliencyMap.getType() != BufferedImage.TYPE_BYTE_GRAY) saliencyMap = ImageUtil.greyImage(saliencyMap);
 
@@ -108,6 +405,18 @@ public class SaliencyMap
 	}
 
 
+	/**
+	 * Returns the scores of a map with more than 8 bits per value.
+	 * The array is shared by all callers, it must not be modified.
+	 *
+	 * @return scores row by row, null for 8 bit maps
+	 */
+	public float[] getScores()
+	{
+		return scores;
+	}
+
+
 	/**
 	 * Returns an greyscale image that represents the saliency map.
 	 *
@@ -115,6 +424,12 @@ public class SaliencyMap
 	 */
 	public BufferedImage getMap()
 	{
+		if (saliencyMap == null && mapValues != null)
+		{
+			saliencyMap = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+			saliencyMap.getRaster().setPixels(0, 0, width, height, mapValues);
+		}
+
 		return saliencyMap;
 	}
 
@@ -130,6 +445,7 @@ public class SaliencyMap
 	public int getWidth()
 	{
 		if (saliencyMap != null) return saliencyMap.getWidth();
+		if (mapValues != null) return width;
 		return -1;
 	}
 
@@ -145,31 +461,41 @@ public class SaliencyMap
 	public int getHeight()
 	{
 		if (saliencyMap != null) return saliencyMap.getHeight();
+		if (mapValues != null) return height;
 		return -1;
 	}
 
 
 	/**
 	 * Returns the values of the map as one-dimensional array of integers.
-	 * Values are in range [0; 255] and represent the saliency map column by column.
+	 * Values are in range [0; 255] and represent the saliency map row by row.<br>
+	 * The array is determined once and shared by all callers, it must not be modified.
 	 *
 	 * @return array containing the map's values
 	 */
 	public int[] getMapValues()
 	{
+		if (mapValues != null) return mapValues;
 		if (saliencyMap == null) return null;
 
-		int[] result = new int[saliencyMap.getWidth()*saliencyMap.getHeight()];
-		int i=0;
+		StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.GREY);
+
+		int width  = saliencyMap.getWidth();
+		int height = saliencyMap.getHeight();
 
-		for (int x=0; x<saliencyMap.getWidth(); x++)
+		int[] result = new int[width*height];
+
+		for (int y=0; y<height; y++)
 		{
-			for (int y=0; y<saliencyMap.getHeight(); y++)
-			{
-				result[i++] = saliencyMap.getRGB(x, y) & 0xFF;
-			}
+			saliencyMap.getRGB(0, y, width, 1, result, y*width, width);
 		}
 
+		for (int i=0; i<result.length; i++) result[i] &= 0xFF;
+
+		mapValues = result;
+
+		stage.end(imageName, width, height, null);
+
 		return result;
 	}
 
@@ -183,15 +509,13 @@ public class SaliencyMap
 	 */
 	BufferedImage getBinaryMap(int binaryThreshold)
 	{
-		BufferedImage result = new BufferedImage(saliencyMap.getWidth(), saliencyMap.getHeight(), BufferedImage.TYPE_BYTE_BINARY);
+		BufferedImage result = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_BYTE_BINARY);
 
-		for (int x=0; x<saliencyMap.getWidth(); x++)
-		{
-			for (int y=0; y<saliencyMap.getHeight(); y++)
-			{
-				if ((saliencyMap.getRGB(x, y) & 0xFF) >= binaryThreshold) result.setRGB(x, y, 0xFFFFFFFF);
-			}
-		}
+		// sample 1 is white in the binary image's colour model
+		int[] samples = new int[result.getWidth()*result.getHeight()];
+		EvaluationKernel.getInstance().threshold(getMapValues(), binaryThreshold, samples);
+
+		result.getRaster().setPixels(0, 0, result.getWidth(), result.getHeight(), samples);
 
 		return result;
 
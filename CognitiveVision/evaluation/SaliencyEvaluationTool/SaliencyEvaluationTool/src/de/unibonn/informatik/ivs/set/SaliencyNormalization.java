@@ -0,0 +1,232 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+/**
+ * Normalises the saliency values of a map before they are evaluated, so that methods emitting maps of different
+ * dynamic ranges can be compared without rescaling the maps beforehand.<br>
+ * <br>
+ * A normalisation is a lookup table of {@link SaliencyMap#NUM_GREYSCALES} entries derived from the histogram of the
+ * map's values, which the evaluation determines anyway (see {@link GroundTruth#getHistograms(de.unibonn.informatik.ivs.set.SaliencyMap)}).
+ * All lookup tables are monotonically non-decreasing, so they are applied to histograms instead of pixels: the histograms
+ * of normalised values are the histograms of the original values with their bins remapped, and a normalised value reaches
+ * a threshold exactly if the original value reaches the smallest value mapped to the threshold or above
+ * (see {@link #getOriginalThresholds(int[], int[])}). Normalisation therefore costs nothing per pixel.<br>
+ * <br>
+ * Modes:<br>
+ * 1. {@link #MINMAX}: stretches the values between the smallest and the largest value to [0; 255]<br>
+ * 2. {@link #PERCENTILE}: stretches the values between two percentiles to [0; 255], clipping values beyond them<br>
+ * 3. {@link #EQUALIZE}: equalises the histogram, i.e. maps each value to its cumulative frequency
+ *
+ * @version		2026.1018
+ *
+ */
+public class SaliencyNormalization
+{
+
+	/**
+	 * Constant indicating that values are not normalised.
+	 */
+	public static final int NONE       = 0;
+
+	/**
+	 * Constant indicating a min-max stretch.
+	 */
+	public static final int MINMAX     = 1;
+
+	/**
+	 * Constant indicating a stretch between percentiles.
+	 */
+	public static final int PERCENTILE = 2;
+
+	/**
+	 * Constant indicating histogram equalisation.
+	 */
+	public static final int EQUALIZE   = 3;
+
+	/**
+	 * Percent of values clipped at each end by {@link #PERCENTILE} by default.
+	 */
+	public static final double DEFAULT_CLIP_PERCENT = 1.0;
+
+
+	/**
+	 * Derives the lookup table of a normalisation from histograms of a map's values.
+	 *
+	 * @param mode        {@link #MINMAX}, {@link #PERCENTILE} or {@link #EQUALIZE}
+	 * @param histograms  histograms of saliency values whose sum is the histogram of the map, e.g. inside/outside the object
+	 * @param clipPercent percent of values clipped at each end by {@link #PERCENTILE}, in [0.0; 50.0)
+	 *
+	 * @return            normalised value per original value, null for {@link #NONE} or a map without values
+	 */
+	public static int[] getLookupTable(int mode, int[][] histograms, double clipPercent)
+	{
+		if (mode == NONE) return null;
+
+		int nValues = SaliencyMap.NUM_GREYSCALES;
+
+		// cumulative histogram of the map
+		long[] cumulative = new long[nValues];
+		long sum = 0;
+		for (int iValue=0; iValue<nValues; iValue++)
+		{
+			for (int[] histogram: histograms) sum += histogram[iValue];
+			cumulative[iValue] = sum;
+		}
+		if (sum == 0) return null;
+
+		int[] result = new int[nValues];
+
+		if (mode == EQUALIZE)
+		{
+			// the lowest value present maps to 0, the highest to 255
+			long lowest = getLowestValueCount(cumulative);
+			if (sum == lowest) return getIdentity();
+
+			for (int iValue=0; iValue<nValues; iValue++)
+			{
+				result[iValue] = (int)Math.max(0, Math.round((double)(cumulative[iValue]-lowest) / (sum-lowest) * (nValues-1)));
+			}
+
+			return result;
+		}
+
+		int lower, upper;
+		if (mode == MINMAX)
+		{
+			lower = getPercentileValue(cumulative, 0);
+			upper = getPercentileValue(cumulative, sum-1);
+		}
+		else
+		{
+			long nClipped = (long)Math.floor(sum*clipPercent/100.0);
+			lower = getPercentileValue(cumulative, nClipped);
+			upper = getPercentileValue(cumulative, sum-1-nClipped);
+		}
+
+		// a map of a single value cannot be stretched
+		if (upper <= lower) return getIdentity();
+
+		for (int iValue=0; iValue<nValues; iValue++)
+		{
+			int value = (int)Math.round((double)(iValue-lower) * (nValues-1) / (upper-lower));
+			result[iValue] = Math.max(0, Math.min(nValues-1, value));
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Determines the number of pixels of the lowest value present in a map.
+	 *
+	 * @param cumulative cumulative histogram of the map
+	 *
+	 * @return           number of pixels
+	 */
+	private static long getLowestValueCount(long[] cumulative)
+	{
+		for (long count: cumulative) if (count > 0) return count;
+
+		return 0;
+	}
+
+
+	/**
+	 * Determines the value of the pixel at a rank when the pixels are sorted by value.
+	 *
+	 * @param cumulative cumulative histogram of the map
+	 * @param rank       rank of the pixel, starting at 0
+	 *
+	 * @return           value
+	 */
+	private static int getPercentileValue(long[] cumulative, long rank)
+	{
+		for (int iValue=0; iValue<cumulative.length; iValue++) if (cumulative[iValue] > rank) return iValue;
+
+		return cumulative.length-1;
+	}
+
+
+	/**
+	 * Returns a lookup table that keeps all values.
+	 *
+	 * @return identity
+	 */
+	private static int[] getIdentity()
+	{
+		int[] result = new int[SaliencyMap.NUM_GREYSCALES];
+		for (int iValue=0; iValue<result.length; iValue++) result[iValue] = iValue;
+
+		return result;
+	}
+
+
+	/**
+	 * Remaps the bins of histograms of original values to histograms of normalised values.
+	 *
+	 * @param histograms  histograms of original saliency values, may be null
+	 * @param lookupTable normalised value per original value, null to keep the histograms
+	 *
+	 * @return            histograms of normalised values (new arrays unless nothing is normalised)
+	 */
+	public static int[][] apply(int[][] histograms, int[] lookupTable)
+	{
+		if (histograms == null || lookupTable == null) return histograms;
+
+		int[][] result = new int[histograms.length][SaliencyMap.NUM_GREYSCALES];
+
+		for (int iHistogram=0; iHistogram<histograms.length; iHistogram++)
+		{
+			for (int iValue=0; iValue<lookupTable.length; iValue++) result[iHistogram][lookupTable[iValue]] += histograms[iHistogram][iValue];
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Translates thresholds of normalised values to thresholds of original values, so that thresholding the original
+	 * values selects the same pixels as thresholding the normalised values.
+	 *
+	 * @param lookupTable normalised value per original value, monotonically non-decreasing; null to keep the thresholds
+	 * @param thresholds  thresholds of normalised values
+	 *
+	 * @return            smallest original value whose normalised value reaches each threshold,
+	 *                    {@link SaliencyMap#NUM_GREYSCALES} if no value does
+	 */
+	public static int[] getOriginalThresholds(int[] lookupTable, int[] thresholds)
+	{
+		if (lookupTable == null) return thresholds;
+
+		int[] result = new int[thresholds.length];
+
+		for (int iThreshold=0; iThreshold<thresholds.length; iThreshold++)
+		{
+			int value = 0;
+			while (value < lookupTable.length && lookupTable[value] < thresholds[iThreshold]) value++;
+			result[iThreshold] = value;
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Parses the name of a normalisation mode.
+	 *
+	 * @param name none, minmax, percentile or equalize
+	 *
+	 * @return     mode constant, -1 if the name is unknown
+	 */
+	public static int parseMode(String name)
+	{
+		     if (name.equalsIgnoreCase("none"))       return NONE;
+		else if (name.equalsIgnoreCase("minmax"))     return MINMAX;
+		else if (name.equalsIgnoreCase("percentile")) return PERCENTILE;
+		else if (name.equalsIgnoreCase("equalize"))   return EQUALIZE;
+
+		return -1;
+	}
+
+}
@@ -0,0 +1,44 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+/**
+ * Evaluation kernel using plain Java loops, available on every platform.
+ *
+ * @version		2026.1018
+ *
+ */
+public class ScalarEvaluationKernel extends EvaluationKernel
+{
+
+	@Override
+	public String getName()
+	{
+		return "scalar";
+	}
+
+
+	@Override
+	public void addToHistograms(int[] saliencyValues, boolean[] groundTruthValues, int[][] histograms)
+	{
+		int[] histogramObject     = histograms[GroundTruth.OBJECT];
+		int[] histogramBackground = histograms[GroundTruth.BACKGROUND];
+
+		for (int i=0; i<groundTruthValues.length; i++)
+		{
+			if (groundTruthValues[i]) histogramObject[saliencyValues[i]]++;
+			else histogramBackground[saliencyValues[i]]++;
+		}
+	}
+
+
+	@Override
+	public void threshold(int[] saliencyValues, int binaryThreshold, int[] result)
+	{
+		for (int i=0; i<saliencyValues.length; i++)
+		{
+			result[i] = saliencyValues[i] >= binaryThreshold ? 1 : 0;
+		}
+	}
+
+}
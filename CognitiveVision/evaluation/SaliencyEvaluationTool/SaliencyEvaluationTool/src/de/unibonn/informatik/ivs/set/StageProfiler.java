@@ -0,0 +1,387 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.image.BufferedImage;
+import java.util.*;
+
+
+/**
+ * Measures the time spent per image in the stages of an evaluation and keeps the slowest images.<br>
+ * <br>
+ * Stages are measured by {@link #begin(int)} and {@link Stage#end(java.lang.String, int, int, java.lang.String)}
+ * wherever they happen (decoders, image conversions, evaluation); the times are added to the image currently evaluated
+ * by the calling thread (see {@link #beginImage(java.lang.String)} and {@link #endImage()}). Finished images are kept in
+ * a bounded heap, so only the slowest {@link #setSlowestImages(int) n} images are held in memory however many are evaluated.<br>
+ * <br>
+ * Each stage is also reported to a {@link Listener}. If the JDK provides JDK Flight Recorder (<code>jdk.jfr</code>), the
+ * listener <code>JfrStageListener</code> emits a custom event per stage with image name, dimensions and format, which
+ * is recorded e.g. when starting with <code>java -XX:StartFlightRecording=filename=set.jfr -jar SaliencyEvaluationTool.jar</code>.
+ * Like the vectorised evaluation kernel (see {@link EvaluationKernel}) it is compiled only if the compiling JDK provides
+ * the module and loaded by reflection.
+ *
+ * @version		2026.1018
+ *
+ */
+public class StageProfiler
+{
+
+	/**
+	 * Constant indicating decoding of an image file.
+	 */
+	public static final int DECODE   = 0;
+
+	/**
+	 * Constant indicating conversion of a saliency map to grey values.
+	 */
+	public static final int GREY     = 1;
+
+	/**
+	 * Constant indicating scaling of a saliency map to the size of its ground truth.
+	 */
+	public static final int SCALE    = 2;
+
+	/**
+	 * Constant indicating extraction of binary values of a ground truth (from an image or a description).
+	 */
+	public static final int MASK     = 3;
+
+	/**
+	 * Constant indicating evaluation of a saliency map against its ground truth (histograms, metrics, objects).
+	 */
+	public static final int EVALUATE = 4;
+
+	/**
+	 * Constant indicating writing of an image.
+	 */
+	public static final int WRITE    = 5;
+
+	/**
+	 * Names of stages, by constant.
+	 */
+	public static final String[] STAGE_NAMES = {"decode", "grey", "scale", "mask", "evaluate", "write"};
+
+	/**
+	 * Fully qualified name of the listener emitting JFR events, which is loaded by reflection only.
+	 */
+	private static final String JFR_LISTENER_CLASS = "de.unibonn.informatik.ivs.set.JfrStageListener";
+
+	/**
+	 * Names of image types, by {@link BufferedImage} type constant.
+	 */
+	private static final String[] IMAGE_TYPE_NAMES = {"custom", "int RGB", "int ARGB", "int ARGB pre", "int BGR", "3 byte BGR", "4 byte ABGR",
+	                                                  "4 byte ABGR pre", "RGB 565", "RGB 555", "byte grey", "ushort grey", "binary", "indexed"};
+
+	/**
+	 * Listener stages are reported to.
+	 */
+	private static Listener listener = createListener();
+
+	/**
+	 * Image evaluated by each thread, null if none.
+	 */
+	private static final ThreadLocal<Profile> CURRENT = new ThreadLocal<Profile>();
+
+	/**
+	 * Slowest images so far, the fastest of them at the head.
+	 */
+	private static PriorityQueue<Profile> slowest = new PriorityQueue<Profile>();
+
+	/**
+	 * Number of slowest images to keep, 0 to keep none.
+	 */
+	private static int nSlowest = 0;
+
+
+	/**
+	 * Receives the stages measured.
+	 */
+	public interface Listener
+	{
+
+		/**
+		 * Called when a stage begins.
+		 *
+		 * @param stage stage constant
+		 *
+		 * @return      object passed to {@link #end(java.lang.Object, int, java.lang.String, int, int, java.lang.String)}, may be null
+		 */
+		Object begin(int stage);
+
+
+		/**
+		 * Called when a stage ends.
+		 *
+		 * @param token     object returned by {@link #begin(int)}
+		 * @param stage     stage constant
+		 * @param imageName name of the image
+		 * @param width     width of the image processed
+		 * @param height    height of the image processed
+		 * @param format    format of the image processed
+		 */
+		void end(Object token, int stage, String imageName, int width, int height, String format);
+
+	}
+
+
+	/**
+	 * A stage being measured.
+	 */
+	public static class Stage
+	{
+
+		/**
+		 * Stage constant.
+		 */
+		private final int stage;
+
+		/**
+		 * Begin in nanoseconds.
+		 */
+		private final long begin;
+
+		/**
+		 * Object returned by the listener at the begin.
+		 */
+		private final Object token;
+
+
+		/**
+		 * Constructs a stage beginning now.
+		 *
+		 * @param stage stage constant
+		 */
+		private Stage(int stage)
+		{
+			this.stage = stage;
+			this.token = listener != null ? listener.begin(stage) : null;
+			this.begin = System.nanoTime();
+		}
+
+
+		/**
+		 * Ends the stage, adding its duration to the image evaluated by the calling thread.
+		 *
+		 * @param imageName name of the image, null for the image evaluated by the calling thread
+		 * @param width     width of the image processed
+		 * @param height    height of the image processed
+		 * @param format    format of the image processed, null if not known
+		 */
+		public void end(String imageName, int width, int height, String format)
+		{
+			long duration = System.nanoTime()-begin;
+
+			Profile profile = CURRENT.get();
+			if (profile != null)
+			{
+				profile.nanos[stage] += duration;
+				if (stage == DECODE && format != null) profile.addFormat(format);
+				if (imageName == null) imageName = profile.imageName;
+			}
+
+			if (listener != null) listener.end(token, stage, imageName, width, height, format);
+		}
+
+	}
+
+
+	/**
+	 * Times of the stages of one image.
+	 */
+	public static class Profile implements Comparable<Profile>
+	{
+
+		/**
+		 * Name of the image.
+		 */
+		public final String imageName;
+
+		/**
+		 * Nanoseconds spent per stage.
+		 */
+		public final long[] nanos = new long[STAGE_NAMES.length];
+
+		/**
+		 * Nanoseconds from {@link StageProfiler#beginImage(java.lang.String)} to {@link StageProfiler#endImage()}, including time not spent in stages.
+		 */
+		public long totalNanos;
+
+		/**
+		 * Formats of the decoded files, separated by commas.
+		 */
+		public String formats = "";
+
+		/**
+		 * Begin in nanoseconds.
+		 */
+		private final long begin = System.nanoTime();
+
+
+		/**
+		 * Constructs a profile of an image whose evaluation begins now.
+		 *
+		 * @param imageName name of the image
+		 */
+		private Profile(String imageName)
+		{
+			this.imageName = imageName;
+		}
+
+
+		/**
+		 * Adds the format of a decoded file.
+		 *
+		 * @param format format
+		 */
+		private void addFormat(String format)
+		{
+			formats = formats.length() == 0 ? format : formats+", "+format;
+		}
+
+
+		/**
+		 * Orders profiles by total time.
+		 *
+		 * @param other profile to compare to
+		 *
+		 * @return      negative if this profile is faster, positive if it is slower
+		 */
+		public int compareTo(Profile other)
+		{
+			return Long.compare(totalNanos, other.totalNanos);
+		}
+
+	}
+
+
+	/**
+	 * Loads the listener emitting JFR events.
+	 *
+	 * @return listener, null if it was not compiled or <code>jdk.jfr</code> is not present
+	 */
+	private static Listener createListener()
+	{
+		try
+		{
+			return (Listener)Class.forName(JFR_LISTENER_CLASS).getDeclaredConstructor().newInstance();
+		}
+		catch (Exception e)
+		{
+			return null;
+		}
+		catch (LinkageError e)
+		{
+			// class exists but the running JDK has no flight recorder
+			return null;
+		}
+	}
+
+
+	/**
+	 * Determines if stages are emitted as JFR events.
+	 *
+	 * @return true if the JFR listener has been loaded
+	 */
+	public static boolean emitsJfrEvents()
+	{
+		return listener != null;
+	}
+
+
+	/**
+	 * Sets the number of slowest images to keep and forgets all images kept so far.
+	 *
+	 * @param n number of images, 0 to keep none
+	 */
+	public static synchronized void setSlowestImages(int n)
+	{
+		nSlowest = Math.max(0, n);
+		slowest  = new PriorityQueue<Profile>();
+	}
+
+
+	/**
+	 * Begins measuring a stage.
+	 *
+	 * @param stage stage constant
+	 *
+	 * @return      stage to end when it is done
+	 */
+	public static Stage begin(int stage)
+	{
+		return new Stage(stage);
+	}
+
+
+	/**
+	 * Begins the evaluation of an image by the calling thread; stages measured by the thread are added to it.
+	 *
+	 * @param imageName name of the image
+	 */
+	public static void beginImage(String imageName)
+	{
+		CURRENT.set(new Profile(imageName));
+	}
+
+
+	/**
+	 * Ends the evaluation of the image of the calling thread and keeps it if it is one of the slowest.
+	 */
+	public static void endImage()
+	{
+		Profile profile = CURRENT.get();
+		if (profile == null) return;
+
+		CURRENT.remove();
+		profile.totalNanos = System.nanoTime()-profile.begin;
+
+		synchronized (StageProfiler.class)
+		{
+			if (nSlowest == 0) return;
+
+			if (slowest.size() < nSlowest) slowest.add(profile);
+			else if (profile.compareTo(slowest.peek()) > 0)
+			{
+				slowest.poll();
+				slowest.add(profile);
+			}
+		}
+	}
+
+
+	/**
+	 * Returns the slowest images kept so far.
+	 *
+	 * @return profiles, slowest first
+	 */
+	public static synchronized List<Profile> getSlowestImages()
+	{
+		List<Profile> result = new ArrayList<Profile>(slowest);
+		Collections.sort(result, Collections.reverseOrder());
+
+		return result;
+	}
+
+
+	/**
+	 * Describes the format of a decoded image by the ending of its file and the type of the image.
+	 *
+	 * @param fileName name of the file the image has been decoded from
+	 * @param image    decoded image, may be null
+	 *
+	 * @return         format, e.g. "png 3 byte BGR" or "bmp binary"
+	 */
+	public static String getFormat(String fileName, BufferedImage image)
+	{
+		int pos = fileName.lastIndexOf('.');
+		String ending = pos != -1 ? fileName.substring(pos+1).toLowerCase(Locale.ENGLISH) : "?";
+		if (image == null) return ending;
+
+		int type = image.getType();
+		String typeName = type >= 0 && type < IMAGE_TYPE_NAMES.length ? IMAGE_TYPE_NAMES[type] : "type "+type;
+		if (type == BufferedImage.TYPE_CUSTOM) typeName += " "+image.getColorModel().getPixelSize()+" bit";
+
+		return ending+" "+typeName;
+	}
+
+}
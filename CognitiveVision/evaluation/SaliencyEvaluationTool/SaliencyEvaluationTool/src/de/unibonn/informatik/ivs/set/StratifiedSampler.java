@@ -0,0 +1,79 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.util.*;
+
+
+/**
+ * Determines a random order of items in which every stratum (e.g. image category) is represented in proportion
+ * to its size at any point, so that evaluating a prefix of the order approximates evaluating all items.<br>
+ * <br>
+ * Items are shuffled within their stratum; the next item is always taken from the stratum that is furthest
+ * behind its proportional share. The order only depends on the items, their strata and the seed.
+ *
+ * @version		2026.1018
+ *
+ */
+public class StratifiedSampler
+{
+
+	/**
+	 * Determines a stratified random order of items.
+	 *
+	 * @param nItems number of items
+	 * @param strata stratum of each item, null for a single stratum (plain random order)
+	 * @param seed   seed of the random order
+	 *
+	 * @return       indices of the items in sampling order
+	 */
+	public static int[] getOrder(int nItems, String[] strata, long seed)
+	{
+		Random random = new Random(seed);
+
+		// items of each stratum in random order, strata sorted for a reproducible order
+		Map<String, List<Integer>> itemsByStratum = new TreeMap<String, List<Integer>>();
+		for (int iItem=0; iItem<nItems; iItem++)
+		{
+			String stratum = strata != null && strata[iItem] != null ? strata[iItem] : "";
+
+			List<Integer> items = itemsByStratum.get(stratum);
+			if (items == null)
+			{
+				items = new ArrayList<Integer>();
+				itemsByStratum.put(stratum, items);
+			}
+			items.add(iItem);
+		}
+
+		List<List<Integer>> stratumItems = new ArrayList<List<Integer>>(itemsByStratum.values());
+		for (List<Integer> items: stratumItems) Collections.shuffle(items, random);
+
+		int[] nTaken = new int[stratumItems.size()];
+		int[] result = new int[nItems];
+
+		for (int iResult=0; iResult<nItems; iResult++)
+		{
+			// stratum whose share of taken items is lowest
+			int iNext = -1;
+			double minShare = Double.MAX_VALUE;
+			for (int iStratum=0; iStratum<stratumItems.size(); iStratum++)
+			{
+				int size = stratumItems.get(iStratum).size();
+				if (nTaken[iStratum] == size) continue;
+
+				double share = (nTaken[iStratum]+0.5) / size;
+				if (share < minShare)
+				{
+					minShare = share;
+					iNext = iStratum;
+				}
+			}
+
+			result[iResult] = stratumItems.get(iNext).get(nTaken[iNext]++);
+		}
+
+		return result;
+	}
+
+}
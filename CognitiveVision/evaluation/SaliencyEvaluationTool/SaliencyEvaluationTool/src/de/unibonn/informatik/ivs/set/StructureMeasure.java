@@ -0,0 +1,225 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+/**
+ * Structure measure (S-measure) of a saliency map as described in
+ * D.-P. Fan, M.-M. Cheng, Y. Liu, T. Li and A. Borji, Structure-measure: A New Way to Evaluate Foreground Maps,
+ * IEEE International Conference on Computer Vision (ICCV), 2017.<br>
+ * <br>
+ * The measure combines an object-aware term, comparing the distributions of saliency values inside and outside
+ * the object, and a region-aware term, the structural similarity of map and ground truth in the four quadrants
+ * around the centroid of the object weighted by their areas. It follows the authors' reference implementation
+ * (alpha = 0.5, standard deviations normalised by n-1).<br>
+ * All terms only depend on the sums of saliency values, of their squares and of their products with the ground truth
+ * per quadrant. These are the values a summed-area table of the map and the ground truth holds at the centroid,
+ * so they are accumulated in a single pass over both images after the centroid is found, instead of building
+ * the tables as a whole or revisiting the pixels of each quadrant. Sums are kept as integers of the (normalised)
+ * saliency values, so that maps constant within a quadrant give exactly vanishing variances like the reference implementation.
+ *
+ * @version		2026.1018
+ *
+ */
+public class StructureMeasure
+{
+
+	/**
+	 * Weight of the object-aware term, the region-aware term is weighted by <code>1 - ALPHA</code>.
+	 */
+	private static final double ALPHA = 0.5;
+
+	/**
+	 * Small constant avoiding divisions by zero, as in the reference implementation.
+	 */
+	private static final double EPSILON = Math.ulp(1.0);
+
+	/**
+	 * Indices of the sums per quadrant: number of pixels, of object pixels, sum of saliency values, of their squares,
+	 * of saliency values of object pixels and of their squares.
+	 */
+	private static final int N = 0, N_OBJECT = 1, SUM = 2, SUM_SQUARES = 3, SUM_OBJECT = 4, SUM_SQUARES_OBJECT = 5;
+
+
+	/**
+	 * Determines the S-measure of a saliency map.
+	 *
+	 * @param gt                 ground truth of the same size as the map
+	 * @param saliencyValues     saliency values in [0; 255] row by row
+	 * @param normalizationTable normalised value per saliency value (see {@link SaliencyNormalization}), null if values are not normalised
+	 *
+	 * @return                   S-measure in [0.0; 1.0], NaN if the images are empty
+	 */
+	public static double evaluate(GroundTruth gt, int[] saliencyValues, int[] normalizationTable)
+	{
+		boolean[] groundTruthValues = gt.getValues();
+		int width  = gt.getWidth();
+		int height = gt.getHeight();
+		if (width*height == 0) return Double.NaN;
+
+		// centroid of the object as number of columns/rows left of/above it, the image centre without object
+		long nObject = 0, sumX = 0, sumY = 0;
+		for (int y=0; y<height; y++)
+		{
+			int offset = y*width;
+			for (int x=0; x<width; x++)
+			{
+				if (groundTruthValues[offset+x])
+				{
+					nObject++;
+					sumX += x+1;
+					sumY += y+1;
+				}
+			}
+		}
+		int splitX = nObject > 0 ? (int)Math.round((double)sumX / nObject) : Math.round(width/2f);
+		int splitY = nObject > 0 ? (int)Math.round((double)sumY / nObject) : Math.round(height/2f);
+
+		// sums per quadrant: left top, right top, left bottom, right bottom
+		long[][] sums = new long[4][6];
+		for (int y=0; y<height; y++)
+		{
+			int offset = y*width;
+			int iQuadrant = y < splitY ? 0 : 2;
+
+			addToSums(groundTruthValues, saliencyValues, normalizationTable, offset,        offset+splitX, sums[iQuadrant]);
+			addToSums(groundTruthValues, saliencyValues, normalizationTable, offset+splitX, offset+width,  sums[iQuadrant+1]);
+		}
+		sums[0][N] = (long)splitX*splitY;
+		sums[1][N] = (long)(width-splitX)*splitY;
+		sums[2][N] = (long)splitX*(height-splitY);
+		sums[3][N] = (long)(width-splitX)*(height-splitY);
+
+		long[] total = new long[6];
+		for (long[] quadrant: sums) for (int iSum=0; iSum<total.length; iSum++) total[iSum] += quadrant[iSum];
+
+		double maxValue = SaliencyMap.NUM_GREYSCALES-1;
+		long n = total[N];
+
+		if (nObject == 0) return 1.0 - total[SUM] / (n*maxValue);
+		if (nObject == n) return total[SUM] / (n*maxValue);
+
+		// object-aware term: saliency inside the object, inverted saliency outside of it
+		long nBackground = n-nObject;
+		double objectScore     = getObjectScore(nObject, total[SUM_OBJECT], total[SUM_SQUARES_OBJECT], maxValue, false);
+		double backgroundScore = getObjectScore(nBackground, total[SUM]-total[SUM_OBJECT], total[SUM_SQUARES]-total[SUM_SQUARES_OBJECT], maxValue, true);
+		double relativeObjectSize = (double)nObject / n;
+		double objectTerm = relativeObjectSize * objectScore + (1.0-relativeObjectSize) * backgroundScore;
+
+		// region-aware term: structural similarity per quadrant, empty quadrants have no weight
+		double regionTerm = 0.0;
+		for (long[] quadrant: sums)
+		{
+			if (quadrant[N] > 0) regionTerm += (double)quadrant[N] / n * getStructuralSimilarity(quadrant, maxValue);
+		}
+
+		return Math.max(0.0, ALPHA * objectTerm + (1.0-ALPHA) * regionTerm);
+	}
+
+
+	/**
+	 * Adds saliency values of a part of a row to the sums of a quadrant.
+	 *
+	 * @param groundTruthValues  binary ground truth values row by row
+	 * @param saliencyValues     saliency values in [0; 255] row by row
+	 * @param normalizationTable normalised value per saliency value, null if values are not normalised
+	 * @param from               first index, inclusive
+	 * @param to                 last index, exclusive
+	 * @param sums               sums of the quadrant
+	 */
+	private static void addToSums(boolean[] groundTruthValues, int[] saliencyValues, int[] normalizationTable, int from, int to, long[] sums)
+	{
+		long nObject = 0, sum = 0, sumSquares = 0, sumObject = 0, sumSquaresObject = 0;
+
+		for (int i=from; i<to; i++)
+		{
+			int value = normalizationTable != null ? normalizationTable[saliencyValues[i]] : saliencyValues[i];
+			sum        += value;
+			sumSquares += value*value;
+
+			if (groundTruthValues[i])
+			{
+				nObject++;
+				sumObject        += value;
+				sumSquaresObject += value*value;
+			}
+		}
+
+		sums[N_OBJECT]           += nObject;
+		sums[SUM]                += sum;
+		sums[SUM_SQUARES]        += sumSquares;
+		sums[SUM_OBJECT]         += sumObject;
+		sums[SUM_SQUARES_OBJECT] += sumSquaresObject;
+	}
+
+
+	/**
+	 * Determines the similarity of the distribution of saliency values in a region to the ideal distribution of 1.0 everywhere,
+	 * preferring high means with low standard deviation.
+	 *
+	 * @param n          number of pixels of the region
+	 * @param sum        sum of saliency values of the region
+	 * @param sumSquares sum of squared saliency values of the region
+	 * @param maxValue   saliency value representing 1.0
+	 * @param inverted   whether the inverted saliency values are compared
+	 *
+	 * @return           similarity in [0.0; 1.0], 0.0 for empty regions
+	 */
+	private static double getObjectScore(long n, long sum, long sumSquares, double maxValue, boolean inverted)
+	{
+		if (n == 0) return 0.0;
+
+		// inverting the values keeps their standard deviation
+		double mean = sum / (n*maxValue);
+		if (inverted) mean = 1.0-mean;
+		double standardDeviation = Math.sqrt(Math.max(0.0, getCentralSum(n, sum, sum, sumSquares)) / (n*maxValue*maxValue) / (n-1+EPSILON));
+
+		return 2.0 * mean / (mean*mean + 1.0 + standardDeviation + EPSILON);
+	}
+
+
+	/**
+	 * Determines the structural similarity of saliency values and ground truth in a quadrant as in the reference implementation.
+	 *
+	 * @param sums     sums of the quadrant
+	 * @param maxValue saliency value representing 1.0
+	 *
+	 * @return         structural similarity
+	 */
+	private static double getStructuralSimilarity(long[] sums, double maxValue)
+	{
+		long n = sums[N];
+
+		// ground truth values are 0 or 1, i.e. their squares are themselves and their products with saliency values are the sums over the object
+		double meanMap         = sums[SUM] / (n*maxValue);
+		double meanGroundTruth = (double)sums[N_OBJECT] / n;
+		double varianceMap         = Math.max(0.0, getCentralSum(n, sums[SUM], sums[SUM], sums[SUM_SQUARES])) / (n*maxValue*maxValue) / (n-1+EPSILON);
+		double varianceGroundTruth = getCentralSum(n, sums[N_OBJECT], sums[N_OBJECT], sums[N_OBJECT]) / n / (n-1+EPSILON);
+		double covariance          = getCentralSum(n, sums[SUM], sums[N_OBJECT], sums[SUM_OBJECT]) / (n*maxValue) / (n-1+EPSILON);
+
+		double alpha = 4.0 * meanMap * meanGroundTruth * covariance;
+		double beta  = (meanMap*meanMap + meanGroundTruth*meanGroundTruth) * (varianceMap + varianceGroundTruth);
+
+		if (alpha != 0.0) return alpha / (beta + EPSILON);
+
+		return beta == 0.0 ? 1.0 : 0.0;
+	}
+
+
+	/**
+	 * Determines the sum of products of two variables centred at their means, multiplied by the number of values:
+	 * <code>n*sum(a*b) - sum(a)*sum(b)</code>.<br>
+	 * Both products are rounded once from exact integers, so the result is exactly 0 if either variable is constant.
+	 *
+	 * @param n           number of values
+	 * @param sumA        sum of the first variable
+	 * @param sumB        sum of the second variable
+	 * @param sumProducts sum of products of both variables
+	 *
+	 * @return            centred sum of products times n
+	 */
+	private static double getCentralSum(long n, long sumA, long sumB, long sumProducts)
+	{
+		return (double)n*sumProducts - (double)sumA*sumB;
+	}
+
+}
@@ -0,0 +1,156 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.image.*;
+import java.io.*;
+
+
+/**
+ * Determines the histograms of a saliency map inside/outside the ground truth object (see {@link GroundTruth#getHistograms(SaliencyMap)})
+ * from matching bands of rows of both image files, without holding either image in memory as a whole.<br>
+ * <br>
+ * Both files are read by an {@link ImageBandReader}; peak memory is proportional to the width of the images times the
+ * number of rows per band, so that images of a gigapixel and more can be evaluated on a small heap. Values of each band
+ * are determined exactly like those of whole images ({@link GroundTruth#getValues()}, {@link SaliencyMap#getMapValues()}),
+ * so the histograms are identical to the ones of the whole images. Maps are not scaled: they must have the size of
+ * their ground truth.
+ *
+ * @version		2026.1018
+ *
+ */
+public class TiledEvaluation
+{
+
+	/**
+	 * Determines the histograms of a saliency map from its file and the file of its ground truth band by band.
+	 *
+	 * @param groundTruthFile binary ground truth image file
+	 * @param saliencyMapFile saliency map image file of the same size
+	 * @param bandRows        number of rows read at once
+	 *
+	 * @return                histograms of saliency values<br>
+	 *                        index1: {@link GroundTruth#OBJECT} or {@link GroundTruth#BACKGROUND}<br>
+	 *                        index2: saliency value in [0; 255]
+	 *
+	 * @throws IOException if either file cannot be read or the sizes differ
+	 */
+	public static int[][] getHistograms(File groundTruthFile, File saliencyMapFile, int bandRows) throws IOException
+	{
+		ImageBandReader groundTruth = ImageBandReader.open(groundTruthFile);
+		try
+		{
+			ImageBandReader saliencyMap = ImageBandReader.open(saliencyMapFile);
+			try
+			{
+				int width  = groundTruth.getWidth();
+				int height = groundTruth.getHeight();
+
+				if (saliencyMap.getWidth() != width || saliencyMap.getHeight() != height)
+				{
+					throw new IOException("Size of saliency map ("+saliencyMap.getWidth()+"x"+saliencyMap.getHeight()+") does not match ground truth ("+width+"x"+height+")");
+				}
+
+				int[][] result = new int[2][SaliencyMap.NUM_GREYSCALES];
+				EvaluationKernel kernel = EvaluationKernel.getInstance();
+
+				boolean[] groundTruthValues = null;
+				int[] saliencyValues = null;
+				int[] rgbRow = new int[width];
+
+				for (int y=0; y<height; y+=bandRows)
+				{
+					StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.DECODE);
+					BufferedImage groundTruthBand = groundTruth.readBand(bandRows);
+					BufferedImage saliencyMapBand = saliencyMap.readBand(bandRows);
+					stage.end(null, width, groundTruthBand.getHeight(), null);
+
+					int nValues = width*groundTruthBand.getHeight();
+					if (groundTruthValues == null || groundTruthValues.length != nValues)
+					{
+						groundTruthValues = new boolean[nValues];
+						saliencyValues    = new int[nValues];
+					}
+
+					getGroundTruthValues(groundTruthBand, groundTruthValues, rgbRow);
+					getSaliencyValues(saliencyMapBand, saliencyValues);
+
+					kernel.addToHistograms(saliencyValues, groundTruthValues, result);
+				}
+
+				return result;
+			}
+			finally
+			{
+				saliencyMap.close();
+			}
+		}
+		finally
+		{
+			groundTruth.close();
+		}
+	}
+
+
+	/**
+	 * Determines binary ground truth values of a band like {@link GroundTruth#getValues()}: white pixels belong to the object.
+	 *
+	 * @param band   band of a ground truth image
+	 * @param result array to write values to row by row
+	 * @param rgbRow buffer of a row
+	 */
+	private static void getGroundTruthValues(BufferedImage band, boolean[] result, int[] rgbRow)
+	{
+		StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.MASK);
+
+		int width  = band.getWidth();
+		int height = band.getHeight();
+
+		for (int y=0; y<height; y++)
+		{
+			band.getRGB(0, y, width, 1, rgbRow, 0, width);
+
+			for (int x=0; x<width; x++) result[y*width+x] = rgbRow[x] == 0xFFFFFFFF;
+		}
+
+		stage.end(null, width, height, null);
+	}
+
+
+	/**
+	 * Determines saliency values of a band like {@link SaliencyMap#getMapValues()}: 8 bit bands are converted to grey,
+	 * single band images of more bits are quantised from their relative values.
+	 *
+	 * @param band   band of a saliency map image
+	 * @param result array to write values to row by row
+	 */
+	private static void getSaliencyValues(BufferedImage band, int[] result)
+	{
+		int width  = band.getWidth();
+		int height = band.getHeight();
+
+		Raster raster = band.getRaster();
+		int bitsPerValue = raster.getSampleModel().getSampleSize(0);
+		if (raster.getNumBands() == 1 && bitsPerValue > 8)
+		{
+			float maxValue = (float)((1L << bitsPerValue) - 1);
+
+			raster.getSamples(0, 0, width, height, 0, result);
+			for (int i=0; i<width*height; i++)
+			{
+				result[i] = Math.round(Math.min(1f, result[i] / maxValue) * (SaliencyMap.NUM_GREYSCALES-1));
+			}
+			return;
+		}
+
+		if (band.getType() != BufferedImage.TYPE_BYTE_GRAY) band = ImageUtil.greyImage(band);
+
+		StageProfiler.Stage stage = StageProfiler.begin(StageProfiler.GREY);
+
+		for (int y=0; y<height; y++) band.getRGB(0, y, width, 1, result, y*width, width);
+		for (int i=0; i<width*height; i++) result[i] &= 0xFF;
+
+		stage.end(null, width, height, null);
+	}
+
+}
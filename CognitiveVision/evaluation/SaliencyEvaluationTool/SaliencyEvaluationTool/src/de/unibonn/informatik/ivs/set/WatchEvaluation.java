@@ -0,0 +1,275 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * Keeps an evaluation up to date while saliency maps are (re)generated.<br>
+ * <br>
+ * All saliency maps are evaluated once, then the folder of saliency maps is watched. Saliency maps created or
+ * modified are evaluated again against the cached ground truth; the mean curve is updated incrementally by removing
+ * the image's previous result from the running sums and adding the new one. Deleted saliency maps are removed.
+ * Mean results and the plot are written at most once per refresh interval, so that a pipeline writing many maps
+ * in a short time does not cause a write per map.<br>
+ * Watching is started in mode <code>watch</code>, see {@link Main}.
+ *
+ * @version		2026.1018
+ *
+ */
+public class WatchEvaluation
+{
+
+	/**
+	 * Group all images are aggregated in.
+	 */
+	private static final String GROUP_ALL = "all";
+
+	/**
+	 * Folders of ground truth images, saliency maps and results.
+	 */
+	private File directoryGroundTruth, directorySaliencyMaps, directoryResults;
+
+	/**
+	 * Minimum time between writes of results in milliseconds.
+	 */
+	private long refreshInterval;
+
+	/**
+	 * Flag that determines if the plot is written with the results.
+	 */
+	private boolean plot;
+
+	/**
+	 * Cache of decoded ground truths.
+	 */
+	private EvaluationCache cache;
+
+	/**
+	 * Ground truth images by image name (file name without ending).
+	 */
+	private Map<String, File> groundTruthFiles = new HashMap<String, File>();
+
+	/**
+	 * Distinct lengths of the image names of {@link #groundTruthFiles}, longest first.
+	 */
+	private int[] imageNameLengths = new int[0];
+
+	/**
+	 * Current precision/recall per threshold by image name.
+	 */
+	private Map<String, double[][]> results = new HashMap<String, double[][]>();
+
+	/**
+	 * Running sums of all current results.
+	 */
+	private GroupAggregator aggregator = new GroupAggregator();
+
+	/**
+	 * Normalisation of saliency values (see {@link SaliencyNormalization}).
+	 */
+	private int normalization = SaliencyNormalization.NONE;
+
+	/**
+	 * Percent of values clipped at each end by {@link SaliencyNormalization#PERCENTILE}.
+	 */
+	private double clipPercent = SaliencyNormalization.DEFAULT_CLIP_PERCENT;
+
+
+	/**
+	 * Constructs an evaluation to keep up to date.
+	 *
+	 * @param directoryGroundTruth  folder of binary ground truth images
+	 * @param directorySaliencyMaps folder of saliency maps to watch
+	 * @param directoryResults      folder to write results to
+	 * @param refreshInterval       minimum time between writes of results in milliseconds
+	 * @param plot                  flag that determines if the plot is written with the results
+	 * @param cache                 cache of decoded ground truths
+	 */
+	public WatchEvaluation(File directoryGroundTruth, File directorySaliencyMaps, File directoryResults, long refreshInterval, boolean plot, EvaluationCache cache)
+	{
+		this.directoryGroundTruth  = directoryGroundTruth;
+		this.directorySaliencyMaps = directorySaliencyMaps;
+		this.directoryResults      = directoryResults;
+		this.refreshInterval       = refreshInterval;
+		this.plot                  = plot;
+		this.cache                 = cache;
+	}
+
+
+	/**
+	 * Evaluates all saliency maps, then watches the folder of saliency maps until it is deleted or the thread is interrupted.
+	 *
+	 * @throws IOException          if the folder cannot be watched
+	 * @throws InterruptedException if the thread is interrupted while waiting for changes
+	 */
+	public void watch() throws IOException, InterruptedException
+	{
+		for (File file: cache.listFiles(directoryGroundTruth)) groundTruthFiles.put(FileUtil.getFileNameWithoutEnding(file.getName()), file);
+
+		SortedSet<Integer> lengths = new TreeSet<Integer>(Collections.reverseOrder());
+		for (String imageName: groundTruthFiles.keySet()) lengths.add(Integer.valueOf(imageName.length()));
+		imageNameLengths = new int[lengths.size()];
+		int iLength = 0;
+		for (Integer length: lengths) imageNameLengths[iLength++] = length.intValue();
+
+		// register before the initial evaluation, so that no change gets lost
+		WatchService watcher = FileSystems.getDefault().newWatchService();
+		directorySaliencyMaps.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+		long t = System.currentTimeMillis();
+		File[] saliencyMapFiles = directorySaliencyMaps.listFiles();
+		for (File file: saliencyMapFiles) update(file);
+		System.out.println("Evaluated "+results.size()+" saliency maps in "+(System.currentTimeMillis()-t)+"ms");
+
+		writeResults();
+		long lastWrite = System.currentTimeMillis();
+
+		System.out.println("Watching '"+directorySaliencyMaps.getAbsolutePath()+"' for changes, refreshing results at most every "+refreshInterval+"ms");
+
+		// file names changed since results were last written
+		Set<String> changed = new LinkedHashSet<String>();
+
+		while (true)
+		{
+			long waitTime = changed.isEmpty() ? Long.MAX_VALUE : Math.max(1, lastWrite+refreshInterval-System.currentTimeMillis());
+
+			WatchKey key = watcher.poll(waitTime, TimeUnit.MILLISECONDS);
+			if (key != null)
+			{
+				for (WatchEvent<?> event: key.pollEvents())
+				{
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+					{
+						// events have been lost, so every saliency map may have changed
+						for (File file: directorySaliencyMaps.listFiles()) changed.add(file.getName());
+					}
+					else changed.add(event.context().toString());
+				}
+
+				if (!key.reset())
+				{
+					System.err.println("'"+directorySaliencyMaps.getAbsolutePath()+"' cannot be watched any longer -> stopping.");
+					break;
+				}
+			}
+
+			if (!changed.isEmpty() && System.currentTimeMillis()-lastWrite >= refreshInterval)
+			{
+				t = System.currentTimeMillis();
+				int nUpdated = 0;
+				for (String fileName: changed) if (update(new File(directorySaliencyMaps, fileName))) nUpdated++;
+				changed.clear();
+
+				if (nUpdated > 0)
+				{
+					writeResults();
+					System.out.println("Updated "+nUpdated+" saliency maps in "+(System.currentTimeMillis()-t)+"ms, "+results.size()+" images evaluated");
+				}
+
+				lastWrite = System.currentTimeMillis();
+			}
+		}
+
+		watcher.close();
+	}
+
+
+	/**
+	 * Sets the normalisation of saliency values, which must be done before watching.
+	 *
+	 * @param normalization normalisation mode (see {@link SaliencyNormalization})
+	 * @param clipPercent   percent of values clipped at each end by {@link SaliencyNormalization#PERCENTILE}
+	 */
+	public void setNormalization(int normalization, double clipPercent)
+	{
+		this.normalization = normalization;
+		this.clipPercent   = clipPercent;
+	}
+
+
+	/**
+	 * Evaluates a created or modified saliency map, or removes the result of a deleted one, updating the running sums.
+	 *
+	 * @param saliencyMapFile saliency map file
+	 *
+	 * @return                true if results have changed, false if the file does not belong to any ground truth or cannot be evaluated
+	 */
+	private boolean update(File saliencyMapFile)
+	{
+		String imageName = getImageName(saliencyMapFile.getName());
+		if (imageName == null) return false;
+
+		double[][] previous = results.remove(imageName);
+		if (previous != null) aggregator.remove(GROUP_ALL, previous);
+
+		if (!saliencyMapFile.isFile()) return previous != null;
+
+		File groundTruthFile = groundTruthFiles.get(imageName);
+		GroundTruth gt = cache.getGroundTruth(groundTruthFile);
+		if (gt == null)
+		{
+			gt = new GroundTruth(groundTruthFile);
+			gt = cache.putGroundTruth(groundTruthFile, gt);
+		}
+
+		// a map that is still being written cannot be decoded yet, the writer's next event brings it back
+		int[][] histograms = gt.getHistograms(new SaliencyMap(saliencyMapFile, gt.getWidth(), gt.getHeight()));
+		if (histograms == null) return previous != null;
+
+		histograms = SaliencyNormalization.apply(histograms, SaliencyNormalization.getLookupTable(normalization, histograms, clipPercent));
+
+		double[][] result = GroundTruth.evaluate(histograms);
+		results.put(imageName, result);
+		aggregator.add(GROUP_ALL, result);
+
+		return true;
+	}
+
+
+	/**
+	 * Determines the ground truth a saliency map belongs to: the longest image name contained in the saliency map's
+	 * file name (as saliency maps are found by {@link FileUtil#findFile(java.lang.String, java.io.File[])}).<br>
+	 * Substrings of the file name of the lengths of image names are looked up, longest first, so the effort
+	 * does not depend on the number of ground truths.
+	 *
+	 * @param saliencyMapFileName file name of the saliency map
+	 *
+	 * @return                    image name, null if no ground truth matches
+	 */
+	private String getImageName(String saliencyMapFileName)
+	{
+		for (int length: imageNameLengths)
+		{
+			for (int from=0; from+length<=saliencyMapFileName.length(); from++)
+			{
+				String imageName = saliencyMapFileName.substring(from, from+length);
+				if (groundTruthFiles.containsKey(imageName)) return imageName;
+			}
+		}
+
+		return null;
+	}
+
+
+	/**
+	 * Writes the current mean results and, if selected, the plot of the mean curve.
+	 * Without any saliency maps left, the results only consist of the header and the plot is removed, so that no stale means remain.
+	 */
+	private void writeResults()
+	{
+		double[][] values = aggregator.getMean(GROUP_ALL);
+
+		Main.saveMeanValuesToFile(directoryResults+"/result_mean.txt", values, results.size()+" images evaluated");
+
+		if (!plot) return;
+
+		if (values != null) Main.plotCurve(values, "Evaluation result by threshold", directoryResults+"/plot.png");
+		else new File(directoryResults, "plot.png").delete();
+	}
+
+}
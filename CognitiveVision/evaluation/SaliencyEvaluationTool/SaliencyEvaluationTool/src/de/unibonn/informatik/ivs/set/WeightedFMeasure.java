@@ -0,0 +1,236 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.Rectangle;
+
+
+/**
+ * Weighted F-measure of a saliency map as described in
+ * R. Margolin, L. Zelnik-Manor and A. Tal, How to Evaluate Foreground Maps?, IEEE Conference on Computer Vision and Pattern Recognition (CVPR), 2014.<br>
+ * <br>
+ * Unlike precision/recall of binarised maps, the weighted F-measure evaluates the saliency values themselves:
+ * errors of object pixels may be compensated by the (Gaussian smoothed) errors of their surroundings, and false
+ * positives count the more the farther they are from the object. It follows the authors' reference implementation
+ * (beta = 1, Gaussian of 7x7 pixels and sigma 5, zero padding). The distance of every background pixel to the object
+ * is taken from the distance transform kept by the ground truth (see {@link GroundTruth#getDistanceTransform()}),
+ * so it is determined once for all maps evaluated against the same ground truth. Smoothed errors are only needed
+ * for object pixels, so errors are only smoothed around the bounding box of the object.<br>
+ * The buffers of the error images are kept per thread and reused.
+ *
+ * @version		2026.1018
+ *
+ */
+public class WeightedFMeasure
+{
+
+	/**
+	 * Radius of the Gaussian smoothing errors.
+	 */
+	private static final int KERNEL_RADIUS = 3;
+
+	/**
+	 * Standard deviation of the Gaussian smoothing errors.
+	 */
+	private static final double KERNEL_SIGMA = 5.0;
+
+	/**
+	 * Distance at which the weight of a false positive is halfway between 1 and 2.
+	 */
+	private static final double HALF_WEIGHT_DISTANCE = 5.0;
+
+	/**
+	 * Number of squared distances whose weights are looked up; farther pixels take the weight of the last one,
+	 * which differs from theirs by less than 10^-15.
+	 */
+	private static final int WEIGHT_TABLE_SIZE = 1 << 16;
+
+	/**
+	 * Small constant avoiding divisions by zero, as in the reference implementation.
+	 */
+	private static final double EPSILON = Math.ulp(1.0);
+
+	/**
+	 * One-dimensional Gaussian, normalised; its outer product is the normalised two-dimensional Gaussian.
+	 */
+	private static final double[] KERNEL = new double[2*KERNEL_RADIUS+1];
+
+	/**
+	 * Weights of false positives by squared distance to the object. Only object pixels have the distance 0,
+	 * their weight is 0, so that all pixels are weighted without telling object and background apart.
+	 */
+	private static final double[] WEIGHTS = new double[WEIGHT_TABLE_SIZE];
+
+	static
+	{
+		double sum = 0.0;
+		for (int i=-KERNEL_RADIUS; i<=KERNEL_RADIUS; i++)
+		{
+			KERNEL[i+KERNEL_RADIUS] = Math.exp(-(double)(i*i) / (2.0*KERNEL_SIGMA*KERNEL_SIGMA));
+			sum += KERNEL[i+KERNEL_RADIUS];
+		}
+		for (int i=0; i<KERNEL.length; i++) KERNEL[i] /= sum;
+
+		for (int squaredDistance=1; squaredDistance<WEIGHT_TABLE_SIZE; squaredDistance++) WEIGHTS[squaredDistance] = getWeight(squaredDistance);
+	}
+
+	/**
+	 * Error buffers per thread.
+	 */
+	private static final ThreadLocal<double[][]> BUFFERS = new ThreadLocal<double[][]>()
+	{
+		protected double[][] initialValue()
+		{
+			return new double[2][0];
+		}
+	};
+
+
+	/**
+	 * Determines the weighted F-measure of a saliency map.
+	 *
+	 * @param gt                 ground truth of the same size as the map
+	 * @param saliencyValues     saliency values in [0; 255] row by row
+	 * @param normalizationTable normalised value per saliency value (see {@link SaliencyNormalization}), null if values are not normalised
+	 *
+	 * @return                   weighted F-measure in [0.0; 1.0], NaN if the ground truth contains no object
+	 */
+	public static double evaluate(GroundTruth gt, int[] saliencyValues, int[] normalizationTable)
+	{
+		boolean[] groundTruthValues = gt.getValues();
+		int width  = gt.getWidth();
+		int height = gt.getHeight();
+		int n      = width*height;
+
+		DistanceTransform distances = gt.getDistanceTransform();
+		Rectangle bounds = distances.getMaskBounds();
+		if (n == 0 || bounds.isEmpty()) return Double.NaN;
+
+		// relative saliency per saliency value
+		double[] relativeValues = new double[SaliencyMap.NUM_GREYSCALES];
+		for (int value=0; value<relativeValues.length; value++)
+		{
+			relativeValues[value] = (normalizationTable != null ? normalizationTable[value] : value) / (double)(SaliencyMap.NUM_GREYSCALES-1);
+		}
+
+		// false positives, weighted by distance to the object
+		int[] squaredDistances = distances.getSquaredDistances();
+		double backgroundErrorSum = 0.0;
+		for (int i=0; i<n; i++) backgroundErrorSum += relativeValues[saliencyValues[i]] * WEIGHTS[Math.min(squaredDistances[i], WEIGHT_TABLE_SIZE-1)];
+
+		// smoothed errors are only needed for object pixels, so only the pixels the kernel reaches from the object are smoothed
+		int objectX = bounds.x, objectY = bounds.y, objectWidth = bounds.width, objectHeight = bounds.height;
+		int fromX = Math.max(0, objectX-KERNEL_RADIUS), toX = Math.min(width,  objectX+objectWidth+KERNEL_RADIUS);
+		int fromY = Math.max(0, objectY-KERNEL_RADIUS), toY = Math.min(height, objectY+objectHeight+KERNEL_RADIUS);
+		int windowWidth = toX-fromX, windowHeight = toY-fromY;
+
+		double[][] buffers = BUFFERS.get();
+		if (buffers[0].length < windowWidth*windowHeight)
+		{
+			buffers[0] = new double[windowWidth*windowHeight];
+			buffers[1] = new double[windowWidth*windowHeight];
+		}
+		double[] errors   = buffers[0];
+		double[] smoothed = buffers[1];
+
+		// every pixel takes the error of its nearest object pixel before smoothing,
+		// which is its own error for object pixels
+		int[] nearest = distances.getNearest();
+		for (int y=fromY; y<toY; y++)
+		{
+			int offset = y*width, windowOffset = (y-fromY)*windowWidth-fromX;
+			for (int x=fromX; x<toX; x++) errors[windowOffset+x] = 1.0 - relativeValues[saliencyValues[nearest[offset+x]]];
+		}
+
+		// rows of the window end at the image or farther from the object than the kernel reaches
+		smoothHorizontally(errors, smoothed, windowWidth, windowHeight);
+
+		// columns are only smoothed at object pixels: offsets and weights of the rows of the kernel,
+		// rows outside of the image count as 0
+		int[] rowOffsets    = new int[KERNEL.length];
+		double[] rowWeights = new double[KERNEL.length];
+
+		double objectErrorSum = 0.0;
+		int nObject = 0;
+		for (int y=objectY; y<objectY+objectHeight; y++)
+		{
+			for (int iRow=0; iRow<KERNEL.length; iRow++)
+			{
+				int row = y+iRow-KERNEL_RADIUS;
+				boolean inside = row >= fromY && row < toY;
+				rowOffsets[iRow] = ((inside ? row : y)-fromY)*windowWidth + objectX-fromX;
+				rowWeights[iRow] = inside ? KERNEL[iRow] : 0.0;
+			}
+
+			int offset = y*width + objectX;
+			for (int x=0; x<objectWidth; x++)
+			{
+				if (!groundTruthValues[offset+x]) continue;
+
+				double smoothedError = 0.0;
+				for (int iRow=0; iRow<KERNEL.length; iRow++) smoothedError += rowWeights[iRow] * smoothed[rowOffsets[iRow]+x];
+
+				// the smoothed error replaces a larger error of an object pixel
+				double error = 1.0 - relativeValues[saliencyValues[offset+x]];
+				objectErrorSum += error < smoothedError ? error : smoothedError;
+				nObject++;
+			}
+		}
+
+		double truePositives  = nObject - objectErrorSum;
+		double recall         = 1.0 - objectErrorSum / nObject;
+		double precision      = truePositives / (EPSILON + truePositives + backgroundErrorSum);
+
+		return 2.0 * recall * precision / (EPSILON + recall + precision);
+	}
+
+
+	/**
+	 * Determines the weight of a false positive at a distance from the object, from 1 next to the object up to 2 far from it.
+	 *
+	 * @param squaredDistance squared distance to the nearest object pixel
+	 *
+	 * @return                weight
+	 */
+	private static double getWeight(int squaredDistance)
+	{
+		return 2.0 - Math.exp(Math.log(0.5) / HALF_WEIGHT_DISTANCE * Math.sqrt(squaredDistance));
+	}
+
+
+	/**
+	 * Smooths errors along rows; pixels outside of the image count as 0.
+	 *
+	 * @param errors errors row by row
+	 * @param result array to write smoothed errors to
+	 * @param width  width of the image
+	 * @param height height of the image
+	 */
+	private static void smoothHorizontally(double[] errors, double[] result, int width, int height)
+	{
+		double k0 = KERNEL[0], k1 = KERNEL[1], k2 = KERNEL[2], k3 = KERNEL[3];
+
+		for (int y=0; y<height; y++)
+		{
+			int offset = y*width;
+
+			// the kernel is symmetric
+			for (int i=offset+KERNEL_RADIUS; i<offset+width-KERNEL_RADIUS; i++)
+			{
+				result[i] = k3*errors[i] + k2*(errors[i-1]+errors[i+1]) + k1*(errors[i-2]+errors[i+2]) + k0*(errors[i-3]+errors[i+3]);
+			}
+
+			// borders, where the kernel reaches beyond the row
+			for (int x=0; x<width; x++)
+			{
+				if (x == KERNEL_RADIUS && x < width-KERNEL_RADIUS) x = width-KERNEL_RADIUS;
+
+				double sum = 0.0;
+				int from = Math.max(0, x-KERNEL_RADIUS), to = Math.min(width-1, x+KERNEL_RADIUS);
+				for (int xx=from; xx<=to; xx++) sum += KERNEL[xx-x+KERNEL_RADIUS] * errors[offset+xx];
+				result[offset+x] = sum;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Checks the stratified sampling order and that approximate evaluation stops early with the mean of the sampled images,
+ * or evaluates all images if the estimate does not converge.
+ *
+ * @version		2026.1018
+ *
+ */
+public class ApproximateEvaluationTest
+{
+
+	/**
+	 * Folder of images and results, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Checks that the order is a permutation that only depends on the seed and represents strata proportionally in every prefix.
+	 */
+	@Test
+	public void testStratifiedOrder()
+	{
+		String[] strata = new String[40];
+		for (int iItem=0; iItem<strata.length; iItem++) strata[iItem] = iItem%4 == 0 ? "b" : "a";
+
+		int[] order = StratifiedSampler.getOrder(strata.length, strata, 3);
+		assertArrayEquals(order, StratifiedSampler.getOrder(strata.length, strata, 3));
+		assertFalse(Arrays.equals(order, StratifiedSampler.getOrder(strata.length, strata, 4)));
+
+		boolean[] taken = new boolean[strata.length];
+		int nB = 0;
+		for (int iOrder=0; iOrder<order.length; iOrder++)
+		{
+			assertFalse(taken[order[iOrder]]);
+			taken[order[iOrder]] = true;
+
+			if (strata[order[iOrder]].equals("b")) nB++;
+			assertEquals("items of b after "+(iOrder+1)+" items", (iOrder+1)/4.0, nB, 1.0);
+		}
+
+		int[] plain = StratifiedSampler.getOrder(10, null, 3);
+		int[] sorted = plain.clone();
+		Arrays.sort(sorted);
+		for (int iItem=0; iItem<sorted.length; iItem++) assertEquals(iItem, sorted[iItem]);
+	}
+
+
+	/**
+	 * Checks the images evaluated with a large and a tiny epsilon.
+	 *
+	 * @throws Exception if evaluation fails
+	 */
+	@Test
+	public void testStopping() throws Exception
+	{
+		int nImages = 30;
+		long seed = 5;
+
+		File directoryGroundTruth  = folder.newFolder("gt");
+		File directorySaliencyMaps = folder.newFolder("sm");
+		File directoryResults      = folder.newFolder("result");
+		EvaluationFixture.writeImages(directoryGroundTruth, directorySaliencyMaps, nImages, 15);
+
+		// images in the order evaluation lists and samples them
+		File[] groundTruthFiles = directoryGroundTruth.listFiles();
+		int[] order = StratifiedSampler.getOrder(groundTruthFiles.length, null, seed);
+
+		List<double[][]> curves = new ArrayList<double[][]>();
+		for (int iOrder=0; iOrder<order.length; iOrder++)
+		{
+			int iImage = Integer.parseInt(FileUtil.getFileNameWithoutEnding(groundTruthFiles[order[iOrder]].getName()).substring(4));
+			curves.add(GroundTruth.evaluate(EvaluationFixture.getHistograms(directoryGroundTruth, directorySaliencyMaps, iImage)));
+		}
+
+		// converged at the first check, after 20 images
+		EvaluationFixture.run("pathGT="+directoryGroundTruth, "pathSM="+directorySaliencyMaps, "pathResult="+directoryResults,
+			"approximate=1.0", "seed="+seed, "plot=none", "slowest=0");
+
+		String[] columns = EvaluationFixture.readRows(new File(directoryResults, "result_approximate.txt")).get(0);
+		assertEquals("20", columns[0]);
+		assertEquals(Integer.toString(nImages), columns[1]);
+		assertEquals("true", columns[6]);
+		EvaluationFixture.assertCurveEquals("first 20 images", EvaluationFixture.getMean(curves.subList(0, 20)), EvaluationFixture.readMeanValues(new File(directoryResults, "result_mean.txt")));
+
+		// never converges, so all images are evaluated
+		EvaluationFixture.run("pathGT="+directoryGroundTruth, "pathSM="+directorySaliencyMaps, "pathResult="+directoryResults,
+			"approximate=0.0000001", "seed="+seed, "plot=none", "slowest=0");
+
+		columns = EvaluationFixture.readRows(new File(directoryResults, "result_approximate.txt")).get(0);
+		assertEquals(Integer.toString(nImages), columns[0]);
+		assertEquals("false", columns[6]);
+		EvaluationFixture.assertCurveEquals("all images", EvaluationFixture.getMean(curves), EvaluationFixture.readMeanValues(new File(directoryResults, "result_mean.txt")));
+	}
+
+}
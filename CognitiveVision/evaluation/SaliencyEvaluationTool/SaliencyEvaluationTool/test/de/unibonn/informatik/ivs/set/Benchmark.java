@@ -0,0 +1,258 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+
+/**
+ * Provides micro benchmarks for performance critical parts of SET.<br>
+ * Benchmarks are developer tools kept with the test sources, so they are not part of the application's jar.
+ * They are started from the compiled classes and tests, e.g.<br>
+ * <code>java -cp build/classes:build/test/classes de.unibonn.informatik.ivs.set.Benchmark kernel 3840x2160 50</code><br>
+ * <code>java -cp build/classes:build/test/classes de.unibonn.informatik.ivs.set.Benchmark io &lt;pathGT&gt; &lt;pathSM&gt; 5 64 8</code>
+ *
+ * @version		2026.1018
+ *
+ */
+public class Benchmark
+{
+
+	/**
+	 * Seed for generating synthetic data, fixed so that runs are comparable.
+	 */
+	private static final long SEED = 20110317L;
+
+
+	/**
+	 * Runs a benchmark.
+	 *
+	 * @param args <code>kernel [&lt;width&gt;x&lt;height&gt; [&lt;iterations&gt;]]</code> (default: 3840x2160, 50) or
+	 *             <code>io &lt;pathGT&gt; &lt;pathSM&gt; [&lt;latency in ms&gt; [&lt;ioThreads&gt; [&lt;threads&gt;]]]</code>
+	 *             (default: 5, 64, number of processors)
+	 */
+	public static void main(String[] args)
+	{
+		if (args.length >= 3 && args[0].equalsIgnoreCase("io"))
+		{
+			int latency       = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+			int ioConcurrency = args.length > 4 ? Integer.parseInt(args[4]) : 64;
+			int nThreads      = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+			benchmarkIo(new File(args[1]), new File(args[2]), latency, ioConcurrency, nThreads);
+		}
+		else if (args.length == 0 || args[0].equalsIgnoreCase("kernel"))
+		{
+			String[] dimensions = args.length > 1 ? args[1].toLowerCase().split("x") : new String[] {"3840", "2160"};
+			int iterations      = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+			benchmarkKernels(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]), iterations);
+		}
+		else System.err.println("Usage: Benchmark kernel [<width>x<height> [<iterations>]] | io <pathGT> <pathSM> [<latency> [<ioThreads> [<threads>]]]");
+	}
+
+
+	/**
+	 * Compares evaluation kernels (see {@link EvaluationKernel}) on a synthetic saliency map and ground truth.<br>
+	 * Measures histogramming (as used by {@link GroundTruth#getHistograms(de.unibonn.informatik.ivs.set.SaliencyMap)})
+	 * and thresholding (as used by {@link SaliencyMap#getBinaryMap(int)}) and prints times per iteration.
+	 *
+	 * @param width      width of synthetic maps
+	 * @param height     height of synthetic maps
+	 * @param iterations number of measured iterations per kernel, the same number is run before for warm up
+	 */
+	public static void benchmarkKernels(int width, int height, int iterations)
+	{
+		int[] saliencyValues = new int[width*height];
+		boolean[] groundTruthValues = new boolean[width*height];
+		createSyntheticData(width, height, saliencyValues, groundTruthValues);
+
+		List<EvaluationKernel> kernels = new ArrayList<EvaluationKernel>();
+		kernels.add(new ScalarEvaluationKernel());
+
+		EvaluationKernel vectorKernel = EvaluationKernel.createVectorKernel();
+		if (vectorKernel != null) kernels.add(vectorKernel);
+		else System.out.println("Vectorised kernel not available (requires JDK 16+ and --add-modules jdk.incubator.vector)");
+
+		System.out.println("Benchmarking evaluation kernels on "+width+"x"+height+" maps, "+iterations+" iterations");
+
+		double[] histogramTimes = new double[kernels.size()];
+		double[] thresholdTimes = new double[kernels.size()];
+		int[][] referenceHistograms = null;
+
+		for (int iKernel=0; iKernel<kernels.size(); iKernel++)
+		{
+			EvaluationKernel kernel = kernels.get(iKernel);
+
+			int[][] histograms = new int[2][SaliencyMap.NUM_GREYSCALES];
+			int[] binaryValues = new int[saliencyValues.length];
+
+			for (int iRun=0; iRun<2; iRun++)
+			{
+				// first run warms up the JIT compiler, second run is measured
+				long t = System.nanoTime();
+				for (int iIteration=0; iIteration<iterations; iIteration++)
+				{
+					histograms = new int[2][SaliencyMap.NUM_GREYSCALES];
+					kernel.addToHistograms(saliencyValues, groundTruthValues, histograms);
+				}
+				histogramTimes[iKernel] = (System.nanoTime()-t) / 1e6 / iterations;
+
+				t = System.nanoTime();
+				for (int iIteration=0; iIteration<iterations; iIteration++)
+				{
+					kernel.threshold(saliencyValues, iIteration%SaliencyMap.NUM_GREYSCALES, binaryValues);
+				}
+				thresholdTimes[iKernel] = (System.nanoTime()-t) / 1e6 / iterations;
+			}
+
+			if (referenceHistograms == null) referenceHistograms = histograms;
+			else if (!Arrays.deepEquals(referenceHistograms, histograms)) System.err.println("Kernel '"+kernel.getName()+"' computes different histograms!");
+
+			System.out.println(String.format(Locale.ENGLISH, "%-20s histogram: %8.3fms   threshold: %8.3fms", kernel.getName(), histogramTimes[iKernel], thresholdTimes[iKernel]));
+		}
+
+		for (int iKernel=1; iKernel<kernels.size(); iKernel++)
+		{
+			System.out.println(String.format(Locale.ENGLISH, "Speed-up of %s: histogram %.2fx, threshold %.2fx", kernels.get(iKernel).getName(), histogramTimes[0]/histogramTimes[iKernel], thresholdTimes[0]/thresholdTimes[iKernel]));
+		}
+	}
+
+
+	/**
+	 * Compares reading, decoding and evaluating ground truth/saliency map pairs one after another with
+	 * reading them concurrently (see {@link FileFanOut}).<br>
+	 * Slow storage is simulated by adding a fixed latency to every file read in both variants.
+	 *
+	 * @param directoryGroundTruth  folder containing binary ground truth images
+	 * @param directorySaliencyMaps folder containing saliency map images
+	 * @param latency               latency in ms added to each file read
+	 * @param ioConcurrency         maximum number of pairs in flight when reading concurrently
+	 * @param nThreads              number of worker threads when reading concurrently
+	 */
+	public static void benchmarkIo(File directoryGroundTruth, File directorySaliencyMaps, int latency, int ioConcurrency, int nThreads)
+	{
+		File[] groundTruthFiles = directoryGroundTruth.listFiles();
+		File[] saliencyMapFiles = directorySaliencyMaps.listFiles();
+		if (groundTruthFiles == null || saliencyMapFiles == null)
+		{
+			System.err.println("Ground truth and saliency map paths must be directories");
+			return;
+		}
+
+		// determine pairs once, so that only reading and evaluating is measured
+		List<File[]> pairs = new ArrayList<File[]>();
+		for (File groundTruthFile: groundTruthFiles)
+		{
+			File sMapFile = FileUtil.findFile(FileUtil.getFileNameWithoutEnding(groundTruthFile.getName()), saliencyMapFiles);
+			if (sMapFile != null) pairs.add(new File[] {groundTruthFile, sMapFile});
+		}
+
+		System.out.println("Benchmarking I/O on "+pairs.size()+" image pairs, "+latency+"ms latency per file read");
+
+		// sequential loop as in evaluation without io=virtual
+		long t = System.currentTimeMillis();
+		long nObjectPixels = 0;
+		try
+		{
+			for (File[] pair: pairs)
+			{
+				if (latency > 0) Thread.sleep(latency);
+				GroundTruth gt = new GroundTruth(pair[0], FileUtil.readBytes(pair[0]));
+				if (latency > 0) Thread.sleep(latency);
+				SaliencyMap sMap = new SaliencyMap(pair[1], FileUtil.readBytes(pair[1]), gt.getWidth(), gt.getHeight());
+
+				nObjectPixels += sumObjectPixels(gt.getHistograms(sMap));
+			}
+		}
+		catch (Exception e)
+		{
+			System.err.println("Sequential benchmark failed: "+e.toString());
+			return;
+		}
+		long timeSequential = System.currentTimeMillis()-t;
+
+		// concurrent reads
+		final AtomicLong nObjectPixelsConcurrent = new AtomicLong();
+		FileFanOut fanOut = new FileFanOut(ioConcurrency, nThreads);
+		fanOut.setSimulatedLatency(latency);
+
+		t = System.currentTimeMillis();
+		for (final File[] pair: pairs)
+		{
+			fanOut.submit(pair, new FileFanOut.Task()
+			{
+				public void process(byte[][] data)
+				{
+					GroundTruth gt = new GroundTruth(pair[0], data[0]);
+					SaliencyMap sMap = new SaliencyMap(pair[1], data[1], gt.getWidth(), gt.getHeight());
+
+					nObjectPixelsConcurrent.addAndGet(sumObjectPixels(gt.getHistograms(sMap)));
+				}
+			});
+		}
+		fanOut.shutdown();
+		long timeConcurrent = System.currentTimeMillis()-t;
+
+		if (nObjectPixels != nObjectPixelsConcurrent.get()) System.err.println("Concurrent evaluation counted different object pixels!");
+
+		System.out.println(String.format(Locale.ENGLISH, "%-45s %8dms", "sequential", timeSequential));
+		System.out.println(String.format(Locale.ENGLISH, "%-45s %8dms", (fanOut.usesVirtualThreads() ? "virtual" : "platform")+" I/O threads ("+ioConcurrency+" in flight), "+nThreads+" workers", timeConcurrent));
+		System.out.println(String.format(Locale.ENGLISH, "Speed-up: %.2fx", (double)timeSequential/Math.max(1, timeConcurrent)));
+	}
+
+
+	/**
+	 * Sums the object histogram, used to check that benchmark variants did the same work.
+	 *
+	 * @param histograms histograms of saliency values
+	 *
+	 * @return           number of ground truth object pixels, 0 if histograms are not available
+	 */
+	private static long sumObjectPixels(int[][] histograms)
+	{
+		if (histograms == null) return 0;
+
+		long result = 0;
+		for (int value=0; value<SaliencyMap.NUM_GREYSCALES; value++) result += histograms[GroundTruth.OBJECT][value];
+
+		return result;
+	}
+
+
+	/**
+	 * Creates a synthetic saliency map (smooth blob with noise) and a ground truth (ellipse) that roughly resemble real data.
+	 *
+	 * @param width             width of maps
+	 * @param height            height of maps
+	 * @param saliencyValues    array to write saliency values to, row by row
+	 * @param groundTruthValues array to write ground truth values to, row by row
+	 */
+	static void createSyntheticData(int width, int height, int[] saliencyValues, boolean[] groundTruthValues)
+	{
+		Random random = new Random(SEED);
+
+		double centerX = width  * 0.45;
+		double centerY = height * 0.55;
+		double radiusX = width  * 0.25;
+		double radiusY = height * 0.3;
+
+		for (int y=0; y<height; y++)
+		{
+			for (int x=0; x<width; x++)
+			{
+				double dx = (x-centerX) / radiusX;
+				double dy = (y-centerY) / radiusY;
+				double distance = dx*dx + dy*dy;
+
+				int value = (int)(255.0 * Math.exp(-distance) + random.nextGaussian()*20.0);
+
+				saliencyValues[y*width+x] = Math.max(0, Math.min(SaliencyMap.NUM_GREYSCALES-1, value));
+				groundTruthValues[y*width+x] = distance <= 1.0;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,112 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.util.*;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Checks percentiles, maximum F-measures and that resampling does not depend on the number of threads.
+ *
+ * @version		2026.1018
+ *
+ */
+public class BootstrapTest
+{
+
+	/**
+	 * Checks interpolation between sorted values.
+	 */
+	@Test
+	public void testPercentile()
+	{
+		double[] values = {1.0, 2.0, 4.0, 8.0};
+
+		assertEquals(1.0, Bootstrap.getPercentile(values, 0.0), 0.0);
+		assertEquals(8.0, Bootstrap.getPercentile(values, 1.0), 0.0);
+		assertEquals(3.0, Bootstrap.getPercentile(values, 0.5), 1e-12);
+		assertTrue(Double.isNaN(Bootstrap.getPercentile(new double[0], 0.5)));
+	}
+
+
+	/**
+	 * Checks the maximum F-measure of a curve against the F-measure of its best threshold.
+	 */
+	@Test
+	public void testMaxFMeasure()
+	{
+		double[] curve = new double[2*SaliencyMap.NUM_GREYSCALES];
+		curve[2*10+GroundTruth.PRECISION] = 0.5;
+		curve[2*10+GroundTruth.RECALL]    = 0.5;
+		curve[2*20+GroundTruth.PRECISION] = 0.9;
+		curve[2*20+GroundTruth.RECALL]    = 0.6;
+
+		double beta2 = 0.3;
+		assertEquals((1.0+beta2)*0.9*0.6 / (beta2*0.9+0.6), Bootstrap.getMaxFMeasure(curve), 1e-12);
+		assertEquals(0.0, Bootstrap.getMaxFMeasure(new double[2*SaliencyMap.NUM_GREYSCALES]), 0.0);
+	}
+
+
+	/**
+	 * Checks that equal seeds give equal confidence bands and comparisons for any number of threads,
+	 * and that the bands contain the mean curve.
+	 */
+	@Test
+	public void testThreadIndependence()
+	{
+		double[][] curvesA = createCurves(new Random(5), 30);
+		double[][] curvesB = createCurves(new Random(6), 30);
+
+		Bootstrap.ConfidenceBands bands1 = new Bootstrap(200, 42, 1).getConfidenceBands(curvesA, 0.95);
+		Bootstrap.ConfidenceBands bands4 = new Bootstrap(200, 42, 4).getConfidenceBands(curvesA, 0.95);
+		for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+		{
+			assertArrayEquals(bands1.lower[iThreshold], bands4.lower[iThreshold], 0.0);
+			assertArrayEquals(bands1.upper[iThreshold], bands4.upper[iThreshold], 0.0);
+			for (int i=0; i<2; i++)
+			{
+				assertTrue(bands1.lower[iThreshold][i] <= bands1.mean[iThreshold][i]+1e-6);
+				assertTrue(bands1.upper[iThreshold][i] >= bands1.mean[iThreshold][i]-1e-6);
+			}
+		}
+		assertEquals(bands1.maxFMeasureLower, bands4.maxFMeasureLower, 0.0);
+		assertEquals(bands1.maxFMeasureUpper, bands4.maxFMeasureUpper, 0.0);
+
+		Bootstrap.Comparison comparison1 = new Bootstrap(200, 42, 1).compare(curvesA, curvesB, 0.95);
+		Bootstrap.Comparison comparison4 = new Bootstrap(200, 42, 4).compare(curvesA, curvesB, 0.95);
+		assertEquals(comparison1.differenceLower, comparison4.differenceLower, 0.0);
+		assertEquals(comparison1.differenceUpper, comparison4.differenceUpper, 0.0);
+		assertEquals(comparison1.pValue, comparison4.pValue, 0.0);
+		assertEquals(comparison1.maxFMeasureA-comparison1.maxFMeasureB, comparison1.difference, 1e-12);
+	}
+
+
+	/**
+	 * Creates random precision/recall curves, recall decreasing with the threshold.
+	 *
+	 * @param random  random generator
+	 * @param nCurves number of curves
+	 *
+	 * @return        curves, precision and recall alternating by threshold
+	 */
+	private static double[][] createCurves(Random random, int nCurves)
+	{
+		double[][] result = new double[nCurves][2*SaliencyMap.NUM_GREYSCALES];
+		for (double[] curve: result)
+		{
+			double quality = random.nextDouble();
+			for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+			{
+				double t = iThreshold / 255.0;
+				curve[2*iThreshold+GroundTruth.PRECISION] = 0.2 + 0.8*quality*t;
+				curve[2*iThreshold+GroundTruth.RECALL]    = 1.0 - t*t*(1.0-0.5*quality);
+			}
+		}
+
+		return result;
+	}
+
+}
@@ -0,0 +1,184 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.Rectangle;
+import java.util.*;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Compares components labelled in a single pass with components found by flood fill.
+ *
+ * @version		2026.1018
+ *
+ */
+public class ConnectedComponentsTest
+{
+
+	/**
+	 * Finds the 8-connected components of a mask by flood fill, seeded in scan order.
+	 *
+	 * @param mask           binary values row by row
+	 * @param width          width of the mask
+	 * @param height         height of the mask
+	 * @param saliencyValues saliency values row by row
+	 * @param thresholds     thresholds to count hits for
+	 *
+	 * @return               per component: area, bounding box (x, y, width, height) and hits per threshold
+	 */
+	private static List<int[]> getReferenceComponents(boolean[] mask, int width, int height, int[] saliencyValues, int[] thresholds)
+	{
+		List<int[]> result = new ArrayList<int[]>();
+		boolean[] visited = new boolean[mask.length];
+
+		for (int seed=0; seed<mask.length; seed++)
+		{
+			if (!mask[seed] || visited[seed]) continue;
+
+			int[] component = new int[5+thresholds.length];
+			int minX = width, minY = height, maxX = -1, maxY = -1;
+
+			Deque<Integer> pixels = new ArrayDeque<Integer>();
+			pixels.add(seed);
+			visited[seed] = true;
+			while (!pixels.isEmpty())
+			{
+				int i = pixels.poll();
+				int x = i%width, y = i/width;
+
+				component[0]++;
+				minX = Math.min(minX, x);
+				minY = Math.min(minY, y);
+				maxX = Math.max(maxX, x);
+				maxY = Math.max(maxY, y);
+				for (int iThreshold=0; iThreshold<thresholds.length; iThreshold++) if (saliencyValues[i] >= thresholds[iThreshold]) component[5+iThreshold]++;
+
+				for (int dy=-1; dy<=1; dy++)
+				{
+					for (int dx=-1; dx<=1; dx++)
+					{
+						int nx = x+dx, ny = y+dy;
+						if (nx < 0 || ny < 0 || nx >= width || ny >= height) continue;
+
+						int n = ny*width+nx;
+						if (mask[n] && !visited[n])
+						{
+							visited[n] = true;
+							pixels.add(n);
+						}
+					}
+				}
+			}
+
+			component[1] = minX;
+			component[2] = minY;
+			component[3] = maxX-minX+1;
+			component[4] = maxY-minY+1;
+			result.add(component);
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Checks random masks of several densities and sizes with the same labeller, which has to grow its arrays.
+	 */
+	@Test
+	public void testRandomMasks()
+	{
+		Random random = new Random(21);
+		ConnectedComponents labeller = new ConnectedComponents();
+		int[] thresholds = {0, 100, 200};
+
+		int[][] sizes = {{1, 1}, {7, 1}, {1, 9}, {16, 12}, {64, 48}, {33, 70}, {8, 8}};
+		for (int[] size: sizes)
+		{
+			for (double density: new double[] {0.0, 0.3, 0.5, 0.6, 1.0})
+			{
+				int width = size[0], height = size[1];
+				boolean[] mask = new boolean[width*height];
+				int[] saliencyValues = new int[width*height];
+				for (int i=0; i<mask.length; i++)
+				{
+					mask[i] = random.nextDouble() < density;
+					saliencyValues[i] = random.nextInt(SaliencyMap.NUM_GREYSCALES);
+				}
+
+				String message = width+"x"+height+", density "+density;
+				List<int[]> expected = getReferenceComponents(mask, width, height, saliencyValues, thresholds);
+				assertEquals(message, expected.size(), labeller.label(mask, width, height, saliencyValues, thresholds));
+				assertEquals(message, expected.size(), labeller.getNumberOfComponents());
+
+				for (int iComponent=0; iComponent<expected.size(); iComponent++)
+				{
+					int[] component = expected.get(iComponent);
+					assertEquals(message, component[0], labeller.getArea(iComponent));
+					assertEquals(message, new Rectangle(component[1], component[2], component[3], component[4]), labeller.getBoundingBox(iComponent));
+					for (int iThreshold=0; iThreshold<thresholds.length; iThreshold++) assertEquals(message, component[5+iThreshold], labeller.getHits(iComponent, iThreshold));
+				}
+
+				// the thresholded map, without hits
+				boolean[] thresholded = new boolean[saliencyValues.length];
+				for (int i=0; i<thresholded.length; i++) thresholded[i] = saliencyValues[i] >= 128;
+
+				expected = getReferenceComponents(thresholded, width, height, saliencyValues, new int[0]);
+				assertEquals(message, expected.size(), labeller.label(saliencyValues, 128, width, height));
+				for (int iComponent=0; iComponent<expected.size(); iComponent++)
+				{
+					int[] component = expected.get(iComponent);
+					assertEquals(message, component[0], labeller.getArea(iComponent));
+					assertEquals(message, new Rectangle(component[1], component[2], component[3], component[4]), labeller.getBoundingBox(iComponent));
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Checks a spiral and a comb, whose labels are merged late in the scan.
+	 */
+	@Test
+	public void testMerges()
+	{
+		String[] rows =
+		{
+			"#########",
+			"........#",
+			"#####.#.#",
+			"#...#.#.#",
+			"#.#.#.#.#",
+			"#.#...#.#",
+			"#.#####.#",
+			"#.......#",
+			"#########",
+		};
+
+		int width = rows[0].length(), height = rows.length;
+		boolean[] mask = new boolean[width*height];
+		for (int y=0; y<height; y++) for (int x=0; x<width; x++) mask[y*width+x] = rows[y].charAt(x) == '#';
+
+		// the outer ring and the spiral inside it
+		ConnectedComponents labeller = new ConnectedComponents();
+		List<int[]> expected = getReferenceComponents(mask, width, height, new int[mask.length], new int[0]);
+		assertEquals(2, expected.size());
+		assertEquals(2, labeller.label(mask, width, height, null, null));
+		for (int iComponent=0; iComponent<expected.size(); iComponent++) assertEquals(expected.get(iComponent)[0], labeller.getArea(iComponent));
+		assertEquals(new Rectangle(0, 0, width, height), labeller.getBoundingBox(0));
+
+		// teeth connected only by the last row, and diagonal neighbours
+		boolean[] comb = new boolean[5*4];
+		for (int x=0; x<5; x+=2) for (int y=0; y<3; y++) comb[y*5+x] = true;
+		for (int x=0; x<5; x++) comb[3*5+x] = true;
+		assertEquals(1, labeller.label(comb, 5, 4, null, null));
+		assertEquals(14, labeller.getArea(0));
+
+		boolean[] diagonal = {true, false, true, false, true, false, true, false, true};
+		assertEquals(1, labeller.label(diagonal, 3, 3, null, null));
+		assertEquals(5, labeller.getArea(0));
+	}
+
+}
@@ -0,0 +1,154 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.image.*;
+import java.io.*;
+import java.util.*;
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Packs ground truth images and saliency maps and compares the unpacked entries with the images they were packed from.
+ *
+ * @version		2026.1018
+ *
+ */
+public class DatasetPackTest
+{
+
+	/**
+	 * Folder of images and packs, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Writes a ground truth image with a random object and a random saliency map.
+	 *
+	 * @param random                random numbers
+	 * @param directoryGroundTruth  folder to write the ground truth to
+	 * @param directorySaliencyMaps folder to write the saliency map to, null for no saliency map
+	 * @param imageName             name of both images
+	 * @param width                 width of both images
+	 * @param height                height of both images
+	 *
+	 * @throws IOException if writing fails
+	 */
+	private static void writeImages(Random random, File directoryGroundTruth, File directorySaliencyMaps, String imageName, int width, int height) throws IOException
+	{
+		BufferedImage groundTruthImage = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+		BufferedImage saliencyMapImage = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+		for (int y=0; y<height; y++)
+		{
+			for (int x=0; x<width; x++)
+			{
+				groundTruthImage.getRaster().setSample(x, y, 0, random.nextInt(3) == 0 ? 255 : 0);
+				saliencyMapImage.getRaster().setSample(x, y, 0, random.nextInt(SaliencyMap.NUM_GREYSCALES));
+			}
+		}
+
+		assertTrue(ImageIO.write(groundTruthImage, "png", new File(directoryGroundTruth, imageName+".png")));
+		if (directorySaliencyMaps != null) assertTrue(ImageIO.write(saliencyMapImage, "png", new File(directorySaliencyMaps, imageName+"_sm.png")));
+	}
+
+
+	/**
+	 * Checks masks, saliency maps, histograms and object sizes of entries with and without saliency map,
+	 * for sizes whose masks do not fill their last byte.
+	 *
+	 * @throws IOException if writing or reading fails
+	 */
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		Random random = new Random(8);
+		File directoryGroundTruth  = folder.newFolder("gt");
+		File directorySaliencyMaps = folder.newFolder("sm");
+
+		writeImages(random, directoryGroundTruth, directorySaliencyMaps, "a", 13, 7);
+		writeImages(random, directoryGroundTruth, directorySaliencyMaps, "b", 16, 16);
+		writeImages(random, directoryGroundTruth, null, "c", 5, 3);
+
+		File filePack = new File(folder.getRoot(), "dataset.pack");
+		assertEquals(3, DatasetPack.write(directoryGroundTruth, directorySaliencyMaps, filePack));
+		assertTrue(DatasetPack.isPack(filePack));
+		assertFalse(DatasetPack.isPack(new File(directoryGroundTruth, "a.png")));
+
+		DatasetPack pack = DatasetPack.open(filePack);
+		try
+		{
+			assertEquals(3, pack.size());
+
+			for (String imageName: new String[] {"a", "b", "c"})
+			{
+				DatasetPack.Entry entry = pack.findEntry(imageName);
+				assertNotNull(imageName, entry);
+				assertEquals(imageName, entry.getImageName());
+
+				GroundTruth expectedGt = new GroundTruth(new File(directoryGroundTruth, imageName+".png"));
+				GroundTruth gt = entry.getGroundTruth();
+				assertEquals(expectedGt.getWidth(), gt.getWidth());
+				assertEquals(expectedGt.getHeight(), gt.getHeight());
+				assertArrayEquals(imageName, expectedGt.getValues(), gt.getValues());
+				assertEquals(expectedGt.getRelativeObjectSize(), entry.getRelativeObjectSize(), 1e-12);
+
+				File saliencyMapFile = new File(directorySaliencyMaps, imageName+"_sm.png");
+				assertEquals(saliencyMapFile.exists(), entry.hasSaliencyMap());
+				if (!entry.hasSaliencyMap())
+				{
+					assertNull(entry.getSaliencyMap());
+					assertNull(entry.getHistograms());
+					continue;
+				}
+
+				SaliencyMap expectedMap = new SaliencyMap(saliencyMapFile, gt.getWidth(), gt.getHeight());
+				assertArrayEquals(imageName, expectedMap.getMapValues(), entry.getSaliencyMap().getMapValues());
+
+				int[][] expectedHistograms = expectedGt.getHistograms(expectedMap);
+				int[][] histograms = entry.getHistograms();
+				for (int iHistogram=0; iHistogram<expectedHistograms.length; iHistogram++) assertArrayEquals(imageName, expectedHistograms[iHistogram], histograms[iHistogram]);
+			}
+
+			assertNull(pack.findEntry("d"));
+		}
+		finally
+		{
+			pack.close();
+		}
+	}
+
+
+	/**
+	 * Checks a pack of ground truths only.
+	 *
+	 * @throws IOException if writing or reading fails
+	 */
+	@Test
+	public void testGroundTruthsOnly() throws IOException
+	{
+		File directoryGroundTruth = folder.newFolder("gt");
+		writeImages(new Random(9), directoryGroundTruth, null, "a", 9, 9);
+
+		File filePack = new File(folder.getRoot(), "dataset.pack");
+		assertEquals(1, DatasetPack.write(directoryGroundTruth, null, filePack));
+
+		DatasetPack pack = DatasetPack.open(filePack);
+		try
+		{
+			assertFalse(pack.getEntry(0).hasSaliencyMap());
+			assertArrayEquals(new GroundTruth(new File(directoryGroundTruth, "a.png")).getValues(), pack.getEntry(0).getGroundTruth().getValues());
+		}
+		finally
+		{
+			pack.close();
+		}
+	}
+
+}
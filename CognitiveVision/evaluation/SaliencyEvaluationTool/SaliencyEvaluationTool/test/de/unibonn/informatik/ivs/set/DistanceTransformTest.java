@@ -0,0 +1,122 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.Rectangle;
+import java.util.*;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Compares the distance transform with a brute force search for the nearest mask pixel.
+ *
+ * @version		2026.1018
+ *
+ */
+public class DistanceTransformTest
+{
+
+	/**
+	 * Checks distances, nearest pixels and the bounding box for random masks of sparse, dense and round objects.
+	 */
+	@Test
+	public void testRandomMasks()
+	{
+		Random random = new Random(1);
+
+		for (int iMask=0; iMask<200; iMask++)
+		{
+			int width  = 1+random.nextInt(40);
+			int height = 1+random.nextInt(30);
+			boolean[] mask = createMask(random, width, height, iMask%3);
+
+			DistanceTransform transform = new DistanceTransform(mask, width, height);
+			int[] squaredDistances = transform.getSquaredDistances();
+			int[] nearest = transform.getNearest();
+
+			int minX = width, maxX = -1, minY = height, maxY = -1;
+			for (int i=0; i<mask.length; i++)
+			{
+				if (!mask[i]) continue;
+				minX = Math.min(minX, i%width);
+				maxX = Math.max(maxX, i%width);
+				minY = Math.min(minY, i/width);
+				maxY = Math.max(maxY, i/width);
+			}
+			if (maxX < 0) continue;
+
+			assertEquals(new Rectangle(minX, minY, maxX-minX+1, maxY-minY+1), transform.getMaskBounds());
+
+			for (int i=0; i<mask.length; i++)
+			{
+				int expected = Integer.MAX_VALUE;
+				for (int j=0; j<mask.length; j++) if (mask[j]) expected = Math.min(expected, getSquaredDistance(i, j, width));
+
+				assertEquals("squared distance of pixel "+i, expected, squaredDistances[i]);
+				assertTrue("nearest pixel of pixel "+i+" is in the mask", mask[nearest[i]]);
+				assertEquals("distance to nearest pixel of pixel "+i, expected, getSquaredDistance(i, nearest[i], width));
+			}
+		}
+	}
+
+
+	/**
+	 * Checks the result for a mask without pixels.
+	 */
+	@Test
+	public void testEmptyMask()
+	{
+		DistanceTransform transform = new DistanceTransform(new boolean[12], 4, 3);
+
+		for (int i=0; i<12; i++)
+		{
+			assertEquals(Integer.MAX_VALUE, transform.getSquaredDistances()[i]);
+			assertEquals(-1, transform.getNearest()[i]);
+		}
+		assertTrue(transform.getMaskBounds().isEmpty());
+	}
+
+
+	/**
+	 * Creates a random mask.
+	 *
+	 * @param random random generator
+	 * @param width  width of the mask
+	 * @param height height of the mask
+	 * @param type   0: sparse pixels, 1: dense pixels, 2: disc in the centre
+	 *
+	 * @return       mask row by row
+	 */
+	static boolean[] createMask(Random random, int width, int height, int type)
+	{
+		boolean[] mask = new boolean[width*height];
+		for (int i=0; i<mask.length; i++)
+		{
+			if      (type == 0) mask[i] = random.nextInt(40) == 0;
+			else if (type == 1) mask[i] = random.nextInt(3) == 0;
+			else                mask[i] = Math.hypot(i%width-width/2.0, i/width-height/2.0) < Math.min(width, height)/3.0;
+		}
+
+		return mask;
+	}
+
+
+	/**
+	 * Determines the squared distance of two pixels.
+	 *
+	 * @param i     index of the first pixel
+	 * @param j     index of the second pixel
+	 * @param width width of the image
+	 *
+	 * @return      squared distance
+	 */
+	private static int getSquaredDistance(int i, int j, int width)
+	{
+		int dx = i%width - j%width, dy = i/width - j/width;
+
+		return dx*dx + dy*dy;
+	}
+
+}
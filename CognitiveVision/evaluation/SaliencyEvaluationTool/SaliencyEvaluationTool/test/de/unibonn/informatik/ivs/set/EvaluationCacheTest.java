@@ -0,0 +1,177 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.image.*;
+import java.io.*;
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Checks eviction of cached ground truths by budget and recency, invalidation of changed files and directories,
+ * and that data derived from cached ground truths counts against the budget.
+ *
+ * @version		2026.1018
+ *
+ */
+public class EvaluationCacheTest
+{
+
+	/**
+	 * Width and height of ground truth images, so that each mask takes 100 bytes.
+	 */
+	private static final int SIZE = 10;
+
+	/**
+	 * Folder of images, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Writes a ground truth image with a square object.
+	 *
+	 * @param name name of the file
+	 *
+	 * @return     written file
+	 *
+	 * @throws IOException if writing fails
+	 */
+	private File writeGroundTruth(String name) throws IOException
+	{
+		BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_BYTE_GRAY);
+		for (int y=2; y<6; y++) for (int x=3; x<8; x++) image.getRaster().setSample(x, y, 0, 255);
+
+		File file = new File(folder.getRoot(), name);
+		assertTrue(ImageIO.write(image, "png", file));
+
+		return file;
+	}
+
+
+	/**
+	 * Reads a ground truth and caches it.
+	 *
+	 * @param cache cache
+	 * @param file  ground truth image file
+	 *
+	 * @return      ground truth returned by the cache
+	 */
+	private static GroundTruth put(EvaluationCache cache, File file)
+	{
+		return cache.putGroundTruth(file, new GroundTruth(file));
+	}
+
+
+	/**
+	 * Checks that the least recently used ground truth is dropped when the budget is exceeded.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	@Test
+	public void testEviction() throws IOException
+	{
+		File fileA = writeGroundTruth("a.png");
+		File fileB = writeGroundTruth("b.png");
+		File fileC = writeGroundTruth("c.png");
+
+		EvaluationCache cache = new EvaluationCache(2*SIZE*SIZE+50);
+		GroundTruth gtA = put(cache, fileA);
+		put(cache, fileB);
+
+		assertSame(gtA, cache.getGroundTruth(fileA));
+		assertArrayEquals(new GroundTruth(fileA).getValues(), gtA.getValues());
+
+		// a has been used more recently than b
+		put(cache, fileC);
+		assertNotNull(cache.getGroundTruth(fileA));
+		assertNull(cache.getGroundTruth(fileB));
+		assertNotNull(cache.getGroundTruth(fileC));
+
+		// masks larger than the budget are not cached
+		EvaluationCache small = new EvaluationCache(SIZE*SIZE-1);
+		GroundTruth gt = new GroundTruth(fileA);
+		assertSame(gt, small.putGroundTruth(fileA, gt));
+		assertNull(small.getGroundTruth(fileA));
+	}
+
+
+	/**
+	 * Checks that a distance transform derived from a cached ground truth counts against the budget on the next access.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	@Test
+	public void testDerivedData() throws IOException
+	{
+		File fileA = writeGroundTruth("a.png");
+		File fileB = writeGroundTruth("b.png");
+
+		EvaluationCache cache = new EvaluationCache(2*SIZE*SIZE+50);
+		GroundTruth gtA = put(cache, fileA);
+		put(cache, fileB);
+
+		assertEquals(SIZE*SIZE, gtA.getRetainedBytes());
+		assertNotNull(gtA.getDistanceTransform());
+		assertEquals(9*SIZE*SIZE, gtA.getRetainedBytes());
+
+		// a is the least recently used ground truth and now exceeds the budget together with b
+		assertNotNull(cache.getGroundTruth(fileB));
+		assertNull(cache.getGroundTruth(fileA));
+	}
+
+
+	/**
+	 * Checks that ground truths are read again after their file changed.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	@Test
+	public void testModifiedFile() throws IOException
+	{
+		File file = writeGroundTruth("a.png");
+
+		EvaluationCache cache = new EvaluationCache(1024*1024);
+		put(cache, file);
+		assertNotNull(cache.getGroundTruth(file));
+
+		assertTrue(file.setLastModified(file.lastModified()+10000));
+		assertNull(cache.getGroundTruth(file));
+
+		put(cache, file);
+		assertNotNull(cache.getGroundTruth(file));
+	}
+
+
+	/**
+	 * Checks that listings and files found by name are determined again after a directory changed.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	@Test
+	public void testDirectory() throws IOException
+	{
+		File directory = folder.getRoot();
+		writeGroundTruth("a_sm.png");
+
+		EvaluationCache cache = new EvaluationCache(1024*1024);
+		assertEquals(1, cache.listFiles(directory).length);
+		assertNotNull(cache.findFile("a", directory));
+		assertNull(cache.findFile("b", directory));
+
+		writeGroundTruth("b_sm.png");
+		assertTrue(directory.setLastModified(directory.lastModified()+10000));
+
+		assertEquals(2, cache.listFiles(directory).length);
+		assertEquals("b_sm.png", cache.findFile("b", directory).getName());
+
+		assertNull(cache.listFiles(new File(directory, "a_sm.png")));
+	}
+
+}
@@ -0,0 +1,220 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.image.*;
+import java.io.*;
+import java.util.*;
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Writes small data sets, runs evaluations as jobs of a server (see {@link Main#runJob(java.lang.String[], de.unibonn.informatik.ivs.set.EvaluationCache)})
+ * and reads their result files, for tests comparing the application's results with results determined directly.
+ *
+ * @version		2026.1018
+ *
+ */
+class EvaluationFixture
+{
+
+	/**
+	 * Width of written images.
+	 */
+	static final int WIDTH = 24;
+
+	/**
+	 * Height of written images.
+	 */
+	static final int HEIGHT = 18;
+
+	/**
+	 * Tolerance of values read from result files, which are written with 4 significant digits.
+	 */
+	static final double TOLERANCE = 1e-3;
+
+
+	/**
+	 * Returns the name of an image of a data set.
+	 *
+	 * @param iImage number of the image
+	 *
+	 * @return       image name
+	 */
+	static String getImageName(int iImage)
+	{
+		return String.format(Locale.ENGLISH, "img_%02d", iImage);
+	}
+
+
+	/**
+	 * Writes ground truth images with rectangular objects of growing size and saliency maps that are noisy but brighter
+	 * inside the objects. Image i is written to <code>img_ii.png</code> and <code>img_ii_sm.png</code>.
+	 *
+	 * @param directoryGroundTruth  folder to write ground truths to
+	 * @param directorySaliencyMaps folder to write saliency maps to
+	 * @param nImages               number of images
+	 * @param seed                  seed of the noise
+	 *
+	 * @throws IOException if writing fails
+	 */
+	static void writeImages(File directoryGroundTruth, File directorySaliencyMaps, int nImages, long seed) throws IOException
+	{
+		Random random = new Random(seed);
+
+		for (int iImage=0; iImage<nImages; iImage++)
+		{
+			int objectWidth  = 2 + iImage*(WIDTH-4)/Math.max(1, nImages-1);
+			int objectHeight = 2 + random.nextInt(HEIGHT-4);
+			int left = random.nextInt(WIDTH-objectWidth+1);
+			int top  = random.nextInt(HEIGHT-objectHeight+1);
+
+			BufferedImage groundTruthImage = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+			BufferedImage saliencyMapImage = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+			for (int y=0; y<HEIGHT; y++)
+			{
+				for (int x=0; x<WIDTH; x++)
+				{
+					boolean object = x >= left && x < left+objectWidth && y >= top && y < top+objectHeight;
+					int value = (object ? 120 : 0) + random.nextInt(136);
+
+					groundTruthImage.getRaster().setSample(x, y, 0, object ? 255 : 0);
+					saliencyMapImage.getRaster().setSample(x, y, 0, value);
+				}
+			}
+
+			assertTrue(ImageIO.write(groundTruthImage, "png", new File(directoryGroundTruth, getImageName(iImage)+".png")));
+			assertTrue(ImageIO.write(saliencyMapImage, "png", new File(directorySaliencyMaps, getImageName(iImage)+"_sm.png")));
+		}
+	}
+
+
+	/**
+	 * Determines the histograms of an image of a data set written by {@link #writeImages(java.io.File, java.io.File, int, long)}
+	 * directly from its files.
+	 *
+	 * @param directoryGroundTruth  folder of ground truths
+	 * @param directorySaliencyMaps folder of saliency maps
+	 * @param iImage                number of the image
+	 *
+	 * @return                      histograms of saliency values inside/outside the object
+	 */
+	static int[][] getHistograms(File directoryGroundTruth, File directorySaliencyMaps, int iImage)
+	{
+		GroundTruth gt = new GroundTruth(new File(directoryGroundTruth, getImageName(iImage)+".png"));
+
+		return gt.getHistograms(new SaliencyMap(new File(directorySaliencyMaps, getImageName(iImage)+"_sm.png"), gt.getWidth(), gt.getHeight()));
+	}
+
+
+	/**
+	 * Runs an evaluation as a job, so that errors end the job instead of the test.
+	 *
+	 * @param args parameters as on the command line
+	 *
+	 * @throws Exception if the evaluation fails
+	 */
+	static void run(String... args) throws Exception
+	{
+		Main.runJob(args, null);
+	}
+
+
+	/**
+	 * Reads a file of mean precision and mean recall per threshold (see {@link Main#saveMeanValuesToFile(java.lang.String, double[][], java.lang.String)}).
+	 *
+	 * @param file result file
+	 *
+	 * @return     means per threshold, indexed by threshold and {@link GroundTruth#PRECISION}/{@link GroundTruth#RECALL}
+	 *
+	 * @throws IOException if reading fails
+	 */
+	static double[][] readMeanValues(File file) throws IOException
+	{
+		double[][] result = new double[SaliencyMap.NUM_GREYSCALES][2];
+
+		for (String[] columns: readRows(file))
+		{
+			int threshold = Integer.parseInt(columns[0]);
+			result[threshold][GroundTruth.PRECISION] = Double.parseDouble(columns[1]);
+			result[threshold][GroundTruth.RECALL]    = Double.parseDouble(columns[2]);
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Reads the rows of a result file, skipping comments.
+	 *
+	 * @param file result file
+	 *
+	 * @return     columns of each row
+	 *
+	 * @throws IOException if reading fails
+	 */
+	static List<String[]> readRows(File file) throws IOException
+	{
+		List<String[]> result = new ArrayList<String[]>();
+
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		try
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				line = line.trim();
+				if (line.length() > 0 && !line.startsWith("#")) result.add(line.split("\\s+"));
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Computes the mean of precision/recall curves.
+	 *
+	 * @param curves curves per threshold (see {@link GroundTruth#evaluate(int[][])})
+	 *
+	 * @return       mean precision/recall per threshold
+	 */
+	static double[][] getMean(List<double[][]> curves)
+	{
+		double[][] result = new double[SaliencyMap.NUM_GREYSCALES][2];
+
+		for (double[][] curve: curves)
+		{
+			for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+			{
+				result[iThreshold][GroundTruth.PRECISION] += curve[iThreshold][GroundTruth.PRECISION] / curves.size();
+				result[iThreshold][GroundTruth.RECALL]    += curve[iThreshold][GroundTruth.RECALL]    / curves.size();
+			}
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Asserts that two curves are equal within the precision of result files.
+	 *
+	 * @param message  message on failure
+	 * @param expected expected curve
+	 * @param actual   actual curve
+	 */
+	static void assertCurveEquals(String message, double[][] expected, double[][] actual)
+	{
+		for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+		{
+			assertArrayEquals(message+", threshold "+iThreshold, expected[iThreshold], actual[iThreshold], TOLERANCE);
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.util.*;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Checks the evaluation kernels against direct counts, including lengths that do not fill whole vectors.<br>
+ * The vectorised kernel is checked as well if it can be loaded (JDK 16+ with <code>--add-modules jdk.incubator.vector</code>).
+ *
+ * @version		2026.1018
+ *
+ */
+public class EvaluationKernelTest
+{
+
+	/**
+	 * Lengths of checked value arrays.
+	 */
+	private static final int[] LENGTHS = {0, 1, 7, 17, 64, 1000, 4099};
+
+
+	/**
+	 * Returns all kernels that can be created.
+	 *
+	 * @return scalar kernel and, if available, vectorised kernel
+	 */
+	private static List<EvaluationKernel> getKernels()
+	{
+		List<EvaluationKernel> kernels = new ArrayList<EvaluationKernel>();
+		kernels.add(new ScalarEvaluationKernel());
+
+		EvaluationKernel vectorKernel = EvaluationKernel.createVectorKernel();
+		if (vectorKernel != null) kernels.add(vectorKernel);
+
+		return kernels;
+	}
+
+
+	/**
+	 * Checks that the scalar kernel is used unless another kernel is set.
+	 */
+	@Test
+	public void testDefaultKernel()
+	{
+		EvaluationKernel.setInstance(null);
+
+		assertTrue(EvaluationKernel.getInstance() instanceof ScalarEvaluationKernel);
+		assertTrue(EvaluationKernel.createKernel(false) instanceof ScalarEvaluationKernel);
+		assertNotNull(EvaluationKernel.createKernel(true));
+	}
+
+
+	/**
+	 * Checks histograms against counting every pixel, added to histograms that already hold counts.
+	 */
+	@Test
+	public void testHistograms()
+	{
+		Random random = new Random(5);
+
+		for (EvaluationKernel kernel: getKernels())
+		{
+			for (int length: LENGTHS)
+			{
+				int[] saliencyValues = new int[length];
+				boolean[] groundTruthValues = new boolean[length];
+				for (int i=0; i<length; i++)
+				{
+					saliencyValues[i] = random.nextInt(SaliencyMap.NUM_GREYSCALES);
+					groundTruthValues[i] = random.nextInt(3) == 0;
+				}
+
+				int[][] expected = new int[2][SaliencyMap.NUM_GREYSCALES];
+				expected[GroundTruth.OBJECT][0] = 3;
+				for (int i=0; i<length; i++) expected[groundTruthValues[i] ? GroundTruth.OBJECT : GroundTruth.BACKGROUND][saliencyValues[i]]++;
+
+				int[][] histograms = new int[2][SaliencyMap.NUM_GREYSCALES];
+				histograms[GroundTruth.OBJECT][0] = 3;
+				kernel.addToHistograms(saliencyValues, groundTruthValues, histograms);
+
+				assertTrue(kernel.getName()+", length "+length, Arrays.deepEquals(expected, histograms));
+			}
+		}
+	}
+
+
+	/**
+	 * Checks thresholding at the lowest, highest and some grey values in between.
+	 */
+	@Test
+	public void testThreshold()
+	{
+		Random random = new Random(7);
+
+		for (EvaluationKernel kernel: getKernels())
+		{
+			for (int length: LENGTHS)
+			{
+				int[] saliencyValues = new int[length];
+				for (int i=0; i<length; i++) saliencyValues[i] = random.nextInt(SaliencyMap.NUM_GREYSCALES);
+
+				for (int binaryThreshold: new int[] {0, 1, 128, 254, 255})
+				{
+					int[] result = new int[length];
+					Arrays.fill(result, 7);
+					kernel.threshold(saliencyValues, binaryThreshold, result);
+
+					for (int i=0; i<length; i++) assertEquals(kernel.getName()+", length "+length+", threshold "+binaryThreshold, saliencyValues[i] >= binaryThreshold ? 1 : 0, result[i]);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Compares results of the embeddable evaluator with the result files of the command line evaluation of the same
+ * data set, and checks images handed over in memory.
+ *
+ * @version		2026.1018
+ *
+ */
+public class EvaluatorTest
+{
+
+	/**
+	 * Number of images with saliency maps.
+	 */
+	private static final int N_IMAGES = 6;
+
+	/**
+	 * Folder of images and results, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Compares the results of an evaluator with the result files of the command line evaluation.
+	 *
+	 * @param evaluator             evaluator to check
+	 * @param directoryGroundTruth  folder of ground truths
+	 * @param directorySaliencyMaps folder of saliency maps
+	 * @param directoryResults      folder of results of the command line evaluation
+	 *
+	 * @throws IOException if reading fails
+	 */
+	private static void assertResultsEqual(Evaluator evaluator, File directoryGroundTruth, File directorySaliencyMaps, File directoryResults) throws IOException
+	{
+		Evaluator.Result result = evaluator.evaluate(new ImageProvider.Directory(directoryGroundTruth), new ImageProvider.Directory(directorySaliencyMaps));
+
+		// the ground truth without map fails, the others are evaluated
+		assertEquals(N_IMAGES, result.images.size());
+		assertEquals(Collections.singleton("missing"), result.failures.keySet());
+
+		double[][] meanValues = EvaluationFixture.readMeanValues(new File(directoryResults, "result_mean.txt"));
+		EvaluationFixture.assertCurveEquals("mean", meanValues, result.meanPrecisionRecall);
+		assertEquals(GroundTruth.getMaxFMeasure(meanValues, Bootstrap.F_MEASURE_BETA), result.maxFMeasure, EvaluationFixture.TOLERANCE);
+
+		List<String[]> rows = EvaluationFixture.readRows(new File(directoryResults, "result_metrics.txt"));
+		assertEquals(N_IMAGES, rows.size());
+
+		double aucSum = 0.0, maeSum = 0.0;
+		for (int iImage=0; iImage<N_IMAGES; iImage++)
+		{
+			Evaluator.ImageResult image = result.images.get(iImage);
+			String[] columns = rows.get(iImage);
+
+			assertEquals(columns[0], image.imageName);
+			assertEquals(image.imageName, Double.parseDouble(columns[1]), image.areaUnderCurve,    EvaluationFixture.TOLERANCE);
+			assertEquals(image.imageName, Double.parseDouble(columns[2]), image.meanAbsoluteError, EvaluationFixture.TOLERANCE);
+
+			aucSum += image.areaUnderCurve;
+			maeSum += image.meanAbsoluteError;
+		}
+		assertEquals(aucSum / N_IMAGES, result.meanAreaUnderCurve, 1e-12);
+		assertEquals(maeSum / N_IMAGES, result.meanAbsoluteError,  1e-12);
+	}
+
+
+	/**
+	 * Compares results without and with normalisation, evaluated by several threads sharing a cache.
+	 *
+	 * @throws Exception if evaluation fails
+	 */
+	@Test
+	public void testMatchesCommandLine() throws Exception
+	{
+		File directoryGroundTruth  = folder.newFolder("gt");
+		File directorySaliencyMaps = folder.newFolder("sm");
+		EvaluationFixture.writeImages(directoryGroundTruth, directorySaliencyMaps, N_IMAGES, 61);
+		FileUtil.copyFile(new File(directoryGroundTruth, EvaluationFixture.getImageName(0)+".png"), new File(directoryGroundTruth, "missing.png"));
+
+		EvaluationCache cache = new EvaluationCache(1024*1024);
+
+		File directoryResults = folder.newFolder("result");
+		EvaluationFixture.run("pathGT="+directoryGroundTruth, "pathSM="+directorySaliencyMaps, "pathResult="+directoryResults, "plot=none", "slowest=0");
+		assertResultsEqual(Evaluator.builder().threads(3).cache(cache).build(), directoryGroundTruth, directorySaliencyMaps, directoryResults);
+
+		File directoryNormalized = folder.newFolder("normalized");
+		EvaluationFixture.run("pathGT="+directoryGroundTruth, "pathSM="+directorySaliencyMaps, "pathResult="+directoryNormalized, "normalize=equalize", "plot=none", "slowest=0");
+		assertResultsEqual(Evaluator.builder().threads(2).cache(cache).normalization(SaliencyNormalization.EQUALIZE).build(), directoryGroundTruth, directorySaliencyMaps, directoryNormalized);
+	}
+
+
+	/**
+	 * Checks that images handed over as masks and values give the results of their files, and that missing maps are
+	 * reported.
+	 *
+	 * @throws Exception if evaluation fails
+	 */
+	@Test
+	public void testInMemory() throws Exception
+	{
+		File directoryGroundTruth  = folder.newFolder("gt");
+		File directorySaliencyMaps = folder.newFolder("sm");
+		EvaluationFixture.writeImages(directoryGroundTruth, directorySaliencyMaps, 1, 62);
+
+		String imageName = EvaluationFixture.getImageName(0);
+		File groundTruthFile = new File(directoryGroundTruth, imageName+".png");
+		File saliencyMapFile = new File(directorySaliencyMaps, imageName+"_sm.png");
+
+		// the grey values stored in the file
+		GroundTruth gt = new GroundTruth(groundTruthFile);
+		java.awt.image.Raster raster = javax.imageio.ImageIO.read(saliencyMapFile).getRaster();
+		byte[] bytes = new byte[gt.getWidth()*gt.getHeight()];
+		for (int y=0; y<gt.getHeight(); y++) for (int x=0; x<gt.getWidth(); x++) bytes[y*gt.getWidth()+x] = (byte)raster.getSample(x, y, 0);
+
+		Evaluator evaluator = Evaluator.builder().build();
+		Evaluator.ImageResult expected = evaluator.evaluate(ImageSource.fromFile(groundTruthFile), ImageSource.fromFile(saliencyMapFile));
+
+		ImageSource mask = ImageSource.fromMask(imageName, gt.getWidth(), gt.getHeight(), gt.getValues());
+		Evaluator.ImageResult actual = evaluator.evaluate(mask, ImageSource.fromValues(imageName, gt.getWidth(), gt.getHeight(), bytes));
+		assertEquals(imageName, actual.imageName);
+		assertEquals(expected.areaUnderCurve,     actual.areaUnderCurve,     0.0);
+		assertEquals(expected.meanAbsoluteError,  actual.meanAbsoluteError,  0.0);
+		assertEquals(expected.maxFMeasure,        actual.maxFMeasure,        0.0);
+		assertEquals(expected.relativeObjectSize, actual.relativeObjectSize, 0.0);
+		EvaluationFixture.assertCurveEquals("in memory", expected.precisionRecall, actual.precisionRecall);
+
+		// maps of another size are scaled like map files, missing maps are reported
+		ImageProvider.InMemory saliencyMaps = new ImageProvider.InMemory().put(ImageSource.fromValues(imageName, 2, 2, new byte[4]));
+		Evaluator.Result result = evaluator.evaluate(new ImageProvider.InMemory().put(mask).put(ImageSource.fromMask("other", 2, 2, new boolean[4])), saliencyMaps);
+		assertEquals(1, result.images.size());
+		assertEquals(0.5, result.images.get(0).areaUnderCurve, 0.0);
+		assertEquals(Collections.singletonMap("other", "Saliency map not found"), result.failures);
+	}
+
+}
@@ -0,0 +1,136 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Checks that files read concurrently reach their tasks as read one after another, and that failed jobs are counted.
+ *
+ * @version		2026.1018
+ *
+ */
+public class FileFanOutTest
+{
+
+	/**
+	 * Folder of files, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Writes a file of random contents.
+	 *
+	 * @param random random numbers
+	 * @param name   name of the file
+	 *
+	 * @return       written file
+	 *
+	 * @throws IOException if writing fails
+	 */
+	private File writeFile(Random random, String name) throws IOException
+	{
+		byte[] data = new byte[random.nextInt(5000)];
+		random.nextBytes(data);
+
+		File file = folder.newFile(name);
+		OutputStream out = new FileOutputStream(file);
+		try
+		{
+			out.write(data);
+		}
+		finally
+		{
+			out.close();
+		}
+
+		return file;
+	}
+
+
+	/**
+	 * Checks the contents passed to tasks with fewer jobs in flight than jobs submitted.
+	 *
+	 * @throws IOException if writing or reading fails
+	 */
+	@Test
+	public void testContents() throws IOException
+	{
+		Random random = new Random(10);
+		final Map<String, byte[][]> contents = new ConcurrentHashMap<String, byte[][]>();
+
+		List<File[]> jobs = new ArrayList<File[]>();
+		for (int iJob=0; iJob<40; iJob++) jobs.add(new File[] {writeFile(random, "gt"+iJob), writeFile(random, "sm"+iJob)});
+
+		FileFanOut fanOut = new FileFanOut(4, 3);
+		for (final File[] files: jobs)
+		{
+			fanOut.submit(files, new FileFanOut.Task()
+			{
+				public void process(byte[][] data)
+				{
+					contents.put(files[0].getName(), data);
+				}
+			});
+		}
+		fanOut.shutdown();
+
+		assertEquals(0, fanOut.getFailedJobs());
+		assertEquals(jobs.size(), contents.size());
+		for (File[] files: jobs)
+		{
+			byte[][] data = contents.get(files[0].getName());
+			assertEquals(files.length, data.length);
+			for (int iFile=0; iFile<files.length; iFile++) assertArrayEquals(files[iFile].getName(), FileUtil.readBytes(files[iFile]), data[iFile]);
+		}
+	}
+
+
+	/**
+	 * Checks that jobs with a missing file or a failing task are counted, and that the other jobs are still processed.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	@Test
+	public void testFailedJobs() throws IOException
+	{
+		Random random = new Random(11);
+		final Set<String> processed = Collections.synchronizedSet(new HashSet<String>());
+
+		File[][] jobs =
+		{
+			{writeFile(random, "gt0"), writeFile(random, "sm0")},
+			{writeFile(random, "gt1"), new File(folder.getRoot(), "missing")},
+			{writeFile(random, "gt2"), writeFile(random, "sm2")},
+			{writeFile(random, "fails"), writeFile(random, "sm3")},
+		};
+
+		FileFanOut fanOut = new FileFanOut(2, 2);
+		for (final File[] files: jobs)
+		{
+			fanOut.submit(files, new FileFanOut.Task()
+			{
+				public void process(byte[][] data)
+				{
+					if (files[0].getName().equals("fails")) throw new IllegalStateException("task fails");
+					processed.add(files[0].getName());
+				}
+			});
+		}
+		fanOut.shutdown();
+
+		assertEquals(2, fanOut.getFailedJobs());
+		assertEquals(new HashSet<String>(Arrays.asList("gt0", "gt2")), processed);
+	}
+
+}
@@ -0,0 +1,161 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Reads frames of PGM, YUV4MPEG2 and raw containers.
+ *
+ * @version		2026.1018
+ *
+ */
+public class FrameSequenceReaderTest
+{
+
+	/**
+	 * Folder of containers, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Checks concatenated PGM images, including comments and a max. value below 255.
+	 *
+	 * @throws IOException if writing or reading fails
+	 */
+	@Test
+	public void testPgm() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write("P5\n# first frame\n3 2\n255\n".getBytes("US-ASCII"));
+		out.write(new byte[] {0, 1, 2, 3, 4, 5});
+		out.write("\nP5 2 1 127\n".getBytes("US-ASCII"));
+		out.write(new byte[] {127, 63});
+
+		FrameSequenceReader reader = new FrameSequenceReader(write("frames.pgm", out.toByteArray()));
+		assertEquals(FrameSequenceReader.FORMAT_PGM, reader.getFormat());
+
+		assertTrue(reader.next());
+		assertEquals(3, reader.getWidth());
+		assertEquals(2, reader.getHeight());
+		assertArrayEquals(new byte[] {0, 1, 2, 3, 4, 5}, reader.getFrame());
+
+		assertTrue(reader.next());
+		assertEquals(1, reader.getFrameIndex());
+		assertArrayEquals(new byte[] {(byte)255, 126}, reader.getFrame());
+
+		assertFalse(reader.next());
+		reader.close();
+	}
+
+
+	/**
+	 * Checks that the luma planes of a 4:2:0 YUV4MPEG2 container are read and the chroma planes skipped.
+	 *
+	 * @throws IOException if writing or reading fails
+	 */
+	@Test
+	public void testY4m() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write("YUV4MPEG2 W3 H3 F25:1 C420jpeg\n".getBytes("US-ASCII"));
+		for (int iFrame=0; iFrame<2; iFrame++)
+		{
+			out.write("FRAME\n".getBytes("US-ASCII"));
+			for (int i=0; i<9; i++) out.write(10*iFrame+i);
+			for (int i=0; i<8; i++) out.write(128);
+		}
+
+		FrameSequenceReader reader = new FrameSequenceReader(write("frames.y4m", out.toByteArray()));
+		assertEquals(FrameSequenceReader.FORMAT_Y4M, reader.getFormat());
+
+		for (int iFrame=0; iFrame<2; iFrame++)
+		{
+			assertTrue(reader.next());
+			for (int i=0; i<9; i++) assertEquals(10*iFrame+i, reader.getFrame()[i]);
+		}
+
+		assertFalse(reader.next());
+		reader.close();
+	}
+
+
+	/**
+	 * Checks raw planes described by a sidecar header file.
+	 *
+	 * @throws IOException if writing or reading fails
+	 */
+	@Test
+	public void testRaw() throws IOException
+	{
+		write("frames.raw.hdr", "width=2\nheight=2\n".getBytes("US-ASCII"));
+		FrameSequenceReader reader = new FrameSequenceReader(write("frames.raw", new byte[] {1, 2, 3, 4, 5, 6, 7, 8}));
+		assertEquals(FrameSequenceReader.FORMAT_RAW, reader.getFormat());
+
+		assertTrue(reader.next());
+		assertArrayEquals(new byte[] {1, 2, 3, 4}, reader.getFrame());
+		assertTrue(reader.next());
+		assertArrayEquals(new byte[] {5, 6, 7, 8}, reader.getFrame());
+		assertFalse(reader.next());
+		reader.close();
+	}
+
+
+	/**
+	 * Checks that a container ending within a frame is reported.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	@Test(expected = IOException.class)
+	public void testTruncatedFrame() throws IOException
+	{
+		write("frames.raw.hdr", "width=2\nheight=2\n".getBytes("US-ASCII"));
+		FrameSequenceReader reader = new FrameSequenceReader(write("frames.raw", new byte[] {1, 2, 3, 4, 5}));
+
+		try
+		{
+			assertTrue(reader.next());
+			reader.next();
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+
+
+	/**
+	 * Writes a file to the temporary folder.
+	 *
+	 * @param name name of the file
+	 * @param data contents
+	 *
+	 * @return     file
+	 *
+	 * @throws IOException if writing fails
+	 */
+	private File write(String name, byte[] data) throws IOException
+	{
+		File file = new File(folder.getRoot(), name);
+		OutputStream out = new FileOutputStream(file);
+		try
+		{
+			out.write(data);
+		}
+		finally
+		{
+			out.close();
+		}
+
+		return file;
+	}
+
+}
@@ -0,0 +1,98 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.image.*;
+import java.io.*;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Reads frames written in the format of <code>SaliencyStreamWriter</code>.
+ *
+ * @version		2026.1018
+ *
+ */
+public class FrameStreamReaderTest
+{
+
+	/**
+	 * Checks names, sizes and grey values of frames of changing sizes.
+	 *
+	 * @throws IOException if reading fails
+	 */
+	@Test
+	public void testFrames() throws IOException
+	{
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(stream);
+		writeFrame(out, "first",             3, 2, 0);
+		writeFrame(out, "zweite_\u00e4", 3, 2, 100);
+		writeFrame(out, "third",             1, 4, 200);
+
+		FrameStreamReader reader = new FrameStreamReader(new ByteArrayInputStream(stream.toByteArray()));
+		String[] names = {"first", "zweite_\u00e4", "third"};
+		int[][] sizes  = {{3, 2}, {3, 2}, {1, 4}};
+		int[] offsets  = {0, 100, 200};
+
+		for (int iFrame=0; iFrame<names.length; iFrame++)
+		{
+			assertTrue(reader.next());
+			assertEquals(iFrame, reader.getFrameIndex());
+			assertEquals(names[iFrame], reader.getImageName());
+
+			BufferedImage image = reader.getImage();
+			assertEquals(sizes[iFrame][0], image.getWidth());
+			assertEquals(sizes[iFrame][1], image.getHeight());
+			for (int i=0; i<image.getWidth()*image.getHeight(); i++)
+			{
+				assertEquals(offsets[iFrame]+i, image.getRaster().getSample(i%image.getWidth(), i/image.getWidth(), 0));
+			}
+		}
+
+		assertFalse(reader.next());
+		reader.close();
+	}
+
+
+	/**
+	 * Checks that a stream ending within a frame is reported.
+	 *
+	 * @throws IOException if writing the frame fails
+	 */
+	@Test(expected = IOException.class)
+	public void testTruncatedFrame() throws IOException
+	{
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		writeFrame(new DataOutputStream(stream), "image", 4, 4, 0);
+		byte[] data = stream.toByteArray();
+
+		FrameStreamReader reader = new FrameStreamReader(new ByteArrayInputStream(data, 0, data.length-1));
+		reader.next();
+	}
+
+
+	/**
+	 * Writes a frame of grey values counting up from an offset.
+	 *
+	 * @param out    stream
+	 * @param name   image name
+	 * @param width  width of the frame
+	 * @param height height of the frame
+	 * @param offset grey value of the first pixel
+	 *
+	 * @throws IOException if writing fails
+	 */
+	private static void writeFrame(DataOutputStream out, String name, int width, int height, int offset) throws IOException
+	{
+		byte[] nameBytes = name.getBytes("UTF-8");
+		out.writeShort(nameBytes.length);
+		out.write(nameBytes);
+		out.writeInt(width);
+		out.writeInt(height);
+		for (int i=0; i<width*height; i++) out.write(offset+i);
+	}
+
+}
@@ -0,0 +1,91 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Checks precision/recall, area under ROC curve and mean absolute error derived from hand-built histograms.
+ *
+ * @version		2026.1018
+ *
+ */
+public class GroundTruthTest
+{
+
+	/**
+	 * Builds histograms of saliency values.
+	 *
+	 * @param objectValues     saliency values of object pixels
+	 * @param backgroundValues saliency values of background pixels
+	 *
+	 * @return                 histograms indexed by {@link GroundTruth#OBJECT}/{@link GroundTruth#BACKGROUND} and saliency value
+	 */
+	private static int[][] createHistograms(int[] objectValues, int[] backgroundValues)
+	{
+		int[][] histograms = new int[2][SaliencyMap.NUM_GREYSCALES];
+		for (int value: objectValues) histograms[GroundTruth.OBJECT][value]++;
+		for (int value: backgroundValues) histograms[GroundTruth.BACKGROUND][value]++;
+
+		return histograms;
+	}
+
+
+	/**
+	 * Checks precision and recall at thresholds between and at the grey values used.
+	 */
+	@Test
+	public void testPrecisionRecall()
+	{
+		double[][] result = GroundTruth.evaluate(createHistograms(new int[] {255, 255, 100}, new int[] {200, 0, 0}));
+
+		assertEquals(1.0, result[255][GroundTruth.PRECISION], 1e-12);
+		assertEquals(2.0/3.0, result[255][GroundTruth.RECALL], 1e-12);
+		assertEquals(2.0/3.0, result[200][GroundTruth.PRECISION], 1e-12);
+		assertEquals(2.0/3.0, result[101][GroundTruth.RECALL], 1e-12);
+		assertEquals(3.0/4.0, result[100][GroundTruth.PRECISION], 1e-12);
+		assertEquals(1.0, result[100][GroundTruth.RECALL], 1e-12);
+		assertEquals(3.0/6.0, result[0][GroundTruth.PRECISION], 1e-12);
+	}
+
+
+	/**
+	 * Checks the area under the ROC curve, which is the probability that an object pixel is more salient than a background pixel.
+	 */
+	@Test
+	public void testAreaUnderCurve()
+	{
+		// object pixels of 255 beat all three background pixels, the one of 100 beats two of them
+		assertEquals(8.0/9.0, GroundTruth.getAreaUnderCurve(createHistograms(new int[] {255, 255, 100}, new int[] {200, 0, 0})), 1e-12);
+
+		// ties count half
+		assertEquals(0.5, GroundTruth.getAreaUnderCurve(createHistograms(new int[] {50}, new int[] {50})), 1e-12);
+		assertEquals(0.75, GroundTruth.getAreaUnderCurve(createHistograms(new int[] {50, 60}, new int[] {50})), 1e-12);
+
+		assertEquals(1.0, GroundTruth.getAreaUnderCurve(createHistograms(new int[] {1}, new int[] {0})), 0.0);
+		assertEquals(0.0, GroundTruth.getAreaUnderCurve(createHistograms(new int[] {0}, new int[] {1})), 0.0);
+
+		assertTrue(Double.isNaN(GroundTruth.getAreaUnderCurve(createHistograms(new int[0], new int[] {10}))));
+		assertTrue(Double.isNaN(GroundTruth.getAreaUnderCurve(createHistograms(new int[] {10}, new int[0]))));
+	}
+
+
+	/**
+	 * Checks the mean absolute error against the sum of absolute differences of the pixels.
+	 */
+	@Test
+	public void testMeanAbsoluteError()
+	{
+		// object errors 0, 0, 155, background errors 200, 0, 0
+		assertEquals(355.0/(6*255), GroundTruth.getMeanAbsoluteError(createHistograms(new int[] {255, 255, 100}, new int[] {200, 0, 0})), 1e-12);
+
+		assertEquals(0.0, GroundTruth.getMeanAbsoluteError(createHistograms(new int[] {255}, new int[] {0})), 0.0);
+		assertEquals(1.0, GroundTruth.getMeanAbsoluteError(createHistograms(new int[] {0}, new int[] {255})), 0.0);
+		assertEquals(0.5, GroundTruth.getMeanAbsoluteError(createHistograms(new int[] {50}, new int[] {50})), 1e-12);
+
+		assertTrue(Double.isNaN(GroundTruth.getMeanAbsoluteError(new int[2][SaliencyMap.NUM_GREYSCALES])));
+	}
+
+}
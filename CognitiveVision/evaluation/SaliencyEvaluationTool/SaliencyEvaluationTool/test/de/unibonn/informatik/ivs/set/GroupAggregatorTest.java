@@ -0,0 +1,196 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Compares means per group with means computed group by group in a separate pass, and checks how groups are extracted from image names.
+ *
+ * @version		2026.1018
+ *
+ */
+public class GroupAggregatorTest
+{
+
+	/**
+	 * Folder of group files, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Creates precision/recall of a random saliency map.
+	 *
+	 * @param random random numbers
+	 *
+	 * @return       precision/recall per threshold (see {@link GroundTruth#evaluate(int[][])})
+	 */
+	private static double[][] createPrecisionRecall(Random random)
+	{
+		int[][] histograms = new int[2][SaliencyMap.NUM_GREYSCALES];
+		for (int i=0; i<500; i++) histograms[random.nextInt(2)][random.nextInt(SaliencyMap.NUM_GREYSCALES)]++;
+
+		return GroundTruth.evaluate(histograms);
+	}
+
+
+	/**
+	 * Computes the mean of the curves of one group.
+	 *
+	 * @param curves curves of all images
+	 * @param groups group of each image
+	 * @param group  group to average
+	 *
+	 * @return       mean precision/recall per threshold
+	 */
+	private static double[][] getReferenceMean(List<double[][]> curves, List<String> groups, String group)
+	{
+		double[][] result = new double[SaliencyMap.NUM_GREYSCALES][2];
+		int count = 0;
+
+		for (int iImage=0; iImage<curves.size(); iImage++)
+		{
+			if (!groups.get(iImage).equals(group)) continue;
+
+			count++;
+			for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+			{
+				result[iThreshold][GroundTruth.PRECISION] += curves.get(iImage)[iThreshold][GroundTruth.PRECISION];
+				result[iThreshold][GroundTruth.RECALL]    += curves.get(iImage)[iThreshold][GroundTruth.RECALL];
+			}
+		}
+
+		for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++)
+		{
+			result[iThreshold][GroundTruth.PRECISION] /= count;
+			result[iThreshold][GroundTruth.RECALL]    /= count;
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Asserts that two curves are equal up to rounding.
+	 *
+	 * @param message  message on failure
+	 * @param expected expected curve
+	 * @param actual   actual curve
+	 */
+	private static void assertCurveEquals(String message, double[][] expected, double[][] actual)
+	{
+		for (int iThreshold=0; iThreshold<SaliencyMap.NUM_GREYSCALES; iThreshold++) assertArrayEquals(message+", threshold "+iThreshold, expected[iThreshold], actual[iThreshold], 1e-12);
+	}
+
+
+	/**
+	 * Checks means and counts per group, also after removing images, with images added from several threads.
+	 *
+	 * @throws InterruptedException if waiting for threads is interrupted
+	 */
+	@Test
+	public void testMeans() throws InterruptedException
+	{
+		Random random = new Random(12);
+		GroupKeyExtractor extractor = GroupKeyExtractor.fromRegex("^\\d+_(\\d+)_");
+
+		final List<double[][]> curves = new ArrayList<double[][]>();
+		final List<String> groups = new ArrayList<String>();
+		for (int iImage=0; iImage<60; iImage++)
+		{
+			curves.add(createPrecisionRecall(random));
+			groups.add(extractor.getGroup(iImage+"_"+(iImage%4)+"_"+random.nextInt(100000)+".png"));
+		}
+
+		final GroupAggregator aggregator = new GroupAggregator();
+		Thread[] threads = new Thread[3];
+		for (int iThread=0; iThread<threads.length; iThread++)
+		{
+			final int first = iThread;
+			threads[iThread] = new Thread()
+			{
+				public void run()
+				{
+					for (int iImage=first; iImage<curves.size(); iImage+=3) aggregator.add(groups.get(iImage), curves.get(iImage));
+				}
+			};
+			threads[iThread].start();
+		}
+		for (Thread thread: threads) thread.join();
+
+		assertEquals(Arrays.asList("0", "1", "2", "3"), aggregator.getGroups());
+		for (String group: aggregator.getGroups())
+		{
+			assertEquals(15, aggregator.getCount(group));
+			assertCurveEquals("group "+group, getReferenceMean(curves, groups, group), aggregator.getMean(group));
+		}
+
+		// removing an image gives the mean of the others
+		aggregator.remove(groups.get(0), curves.get(0));
+		assertEquals(14, aggregator.getCount(groups.get(0)));
+		assertCurveEquals("group without first image", getReferenceMean(curves.subList(1, curves.size()), groups.subList(1, groups.size()), groups.get(0)), aggregator.getMean(groups.get(0)));
+
+		assertEquals(0, aggregator.getCount("unknown"));
+		assertNull(aggregator.getMean("unknown"));
+	}
+
+
+	/**
+	 * Checks that a group is dropped with its last image.
+	 */
+	@Test
+	public void testRemoveLast()
+	{
+		double[][] curve = createPrecisionRecall(new Random(13));
+
+		GroupAggregator aggregator = new GroupAggregator();
+		aggregator.add("a", curve);
+		aggregator.remove("a", curve);
+
+		assertTrue(aggregator.getGroups().isEmpty());
+		assertNull(aggregator.getMean("a"));
+	}
+
+
+	/**
+	 * Checks groups extracted by regular expressions and read from group files.
+	 *
+	 * @throws IOException if writing the group file fails
+	 */
+	@Test
+	public void testGroupKeyExtractor() throws IOException
+	{
+		assertEquals("13", GroupKeyExtractor.fromRegex("^\\d+_(\\d+)_").getGroup("0_13_13308.png"));
+		assertNull(GroupKeyExtractor.fromRegex("^\\d+_(\\d+)_").getGroup("image.png"));
+		assertEquals("cat", GroupKeyExtractor.fromRegex("cat|dog").getGroup("my_cat_1"));
+
+		File file = folder.newFile("groups.txt");
+		Writer writer = new FileWriter(file);
+		try
+		{
+			writer.write("# image group\n\nimg1.jpg   indoor\nimg2 outdoor\nimg3\n");
+		}
+		finally
+		{
+			writer.close();
+		}
+
+		GroupKeyExtractor extractor = GroupKeyExtractor.fromFile(file);
+		assertEquals("indoor", extractor.getGroup("img1.png"));
+		assertEquals("outdoor", extractor.getGroup("img2"));
+		assertNull(extractor.getGroup("img3"));
+		assertNull(extractor.getGroup("img4"));
+
+		assertNull(GroupKeyExtractor.fromFile(new File(folder.getRoot(), "missing.txt")));
+	}
+
+}
@@ -0,0 +1,151 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Lists and reads the entries of zip and tar archives.
+ *
+ * @version		2026.1018
+ *
+ */
+public class ImageArchiveTest
+{
+
+	/**
+	 * Folder of archives, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Checks entries of a zip archive, leaving out folders.
+	 *
+	 * @throws IOException if writing or reading fails
+	 */
+	@Test
+	public void testZip() throws IOException
+	{
+		File file = folder.newFile("maps.zip");
+		ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+		out.putNextEntry(new ZipEntry("maps/"));
+		out.putNextEntry(new ZipEntry("maps/b.png"));
+		out.write(new byte[] {1, 2, 3});
+		out.putNextEntry(new ZipEntry("maps/a.png"));
+		out.write(new byte[] {4});
+		out.close();
+
+		assertTrue(ImageArchive.isArchive(file));
+		checkEntries(file);
+	}
+
+
+	/**
+	 * Checks entries of a tar archive, including a GNU long name and a ustar name prefix.
+	 *
+	 * @throws IOException if writing or reading fails
+	 */
+	@Test
+	public void testTar() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] longName = "maps/b.png".getBytes(StandardCharsets.UTF_8);
+		writeTarEntry(out, "././@LongLink", "", 'L', longName);
+		writeTarEntry(out, "truncated", "", '0', new byte[] {1, 2, 3});
+		writeTarEntry(out, "a.png", "maps", '0', new byte[] {4});
+		out.write(new byte[1024]);
+
+		File file = folder.newFile("maps.tar");
+		OutputStream fileOut = new FileOutputStream(file);
+		fileOut.write(out.toByteArray());
+		fileOut.close();
+
+		assertTrue(ImageArchive.isArchive(file));
+		checkEntries(file);
+	}
+
+
+	/**
+	 * Checks that an archive contains <code>maps/b.png</code> of 3 bytes and <code>maps/a.png</code> of 1 byte in this order.
+	 *
+	 * @param file archive
+	 *
+	 * @throws IOException if reading fails
+	 */
+	private static void checkEntries(File file) throws IOException
+	{
+		ImageArchive archive = new ImageArchive(file);
+		try
+		{
+			File[] files = archive.getFiles();
+			assertEquals(2, files.length);
+			assertEquals(new File(file, "maps/b.png"), files[0]);
+			assertEquals("a.png", files[1].getName());
+
+			assertArrayEquals(new byte[] {1, 2, 3}, archive.read(files[0]));
+			assertArrayEquals(new byte[] {4}, archive.read(files[1]));
+		}
+		finally
+		{
+			archive.close();
+		}
+	}
+
+
+	/**
+	 * Writes an entry of a ustar archive.
+	 *
+	 * @param out    stream
+	 * @param name   name of the entry
+	 * @param prefix name prefix of the entry
+	 * @param type   type of the entry
+	 * @param data   contents
+	 *
+	 * @throws IOException if writing fails
+	 */
+	private static void writeTarEntry(OutputStream out, String name, String prefix, char type, byte[] data) throws IOException
+	{
+		byte[] header = new byte[512];
+		put(header, 0,   name);
+		put(header, 100, "0000644");
+		put(header, 124, String.format("%011o", data.length));
+		put(header, 148, "        ");
+		header[156] = (byte)type;
+		put(header, 257, "ustar");
+		put(header, 263, "00");
+		put(header, 345, prefix);
+
+		int checksum = 0;
+		for (byte value: header) checksum += value & 0xFF;
+		put(header, 148, String.format("%06o", checksum));
+
+		out.write(header);
+		out.write(data);
+		out.write(new byte[(512 - data.length%512) % 512]);
+	}
+
+
+	/**
+	 * Puts an ASCII string into a tar header.
+	 *
+	 * @param header header
+	 * @param offset offset of the field
+	 * @param value  string
+	 */
+	private static void put(byte[] header, int offset, String value)
+	{
+		byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+		System.arraycopy(bytes, 0, header, offset, bytes.length);
+	}
+
+}
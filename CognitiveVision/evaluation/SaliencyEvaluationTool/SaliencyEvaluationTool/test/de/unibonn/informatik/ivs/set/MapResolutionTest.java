@@ -0,0 +1,195 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.util.*;
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Compares the coverage of smaller saliency maps with overlaps determined pixel by pixel, and evaluation at map
+ * resolution with the evaluation of maps upscaled by an integer factor.
+ *
+ * @version		2026.1018
+ *
+ */
+public class MapResolutionTest
+{
+
+	/**
+	 * Folder of images and results, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Creates random binary values with some larger objects.
+	 *
+	 * @param random random numbers
+	 * @param width  width
+	 * @param height height
+	 *
+	 * @return       values row by row
+	 */
+	private static boolean[] createGroundTruth(Random random, int width, int height)
+	{
+		boolean[] result = new boolean[width*height];
+		for (int i=0; i<result.length; i++) result[i] = random.nextInt(5) == 0;
+
+		int left = random.nextInt(width), top = random.nextInt(height);
+		for (int y=top; y<Math.min(height, top+height/2); y++) for (int x=left; x<Math.min(width, left+width/3); x++) result[y*width+x] = true;
+
+		return result;
+	}
+
+
+	/**
+	 * Checks coverages of maps of several sizes, including sizes that do not divide the size of the ground truth.
+	 */
+	@Test
+	public void testCoverage()
+	{
+		Random random = new Random(51);
+		int width = 23, height = 17;
+		boolean[] values = createGroundTruth(random, width, height);
+		GroundTruth gt = new GroundTruth("test", width, height, values);
+
+		int[][] mapSizes = {{23, 17}, {11, 17}, {7, 5}, {10, 8}, {1, 1}, {22, 3}};
+		for (int[] mapSize: mapSizes)
+		{
+			int mapWidth = mapSize[0], mapHeight = mapSize[1];
+			int[] coverage = gt.getCoverage(mapWidth, mapHeight);
+			assertSame(coverage, gt.getCoverage(mapWidth, mapHeight));
+
+			int scale = GroundTruth.getCoverageScale(mapWidth*mapHeight);
+			for (int mapY=0; mapY<mapHeight; mapY++)
+			{
+				for (int mapX=0; mapX<mapWidth; mapX++)
+				{
+					// overlap of every ground truth pixel with the map pixel, in units of 1/mapWidth x 1/mapHeight ground truth pixels
+					long objectArea = 0;
+					for (int y=0; y<height; y++)
+					{
+						long overlapY = Math.max(0, Math.min((y+1)*mapHeight, (mapY+1)*height) - Math.max(y*mapHeight, mapY*height));
+						for (int x=0; x<width; x++)
+						{
+							long overlapX = Math.max(0, Math.min((x+1)*mapWidth, (mapX+1)*width) - Math.max(x*mapWidth, mapX*width));
+							if (values[y*width+x]) objectArea += overlapX*overlapY;
+						}
+					}
+
+					assertEquals(mapWidth+"x"+mapHeight+", pixel "+mapX+","+mapY, Math.round(objectArea*scale/((double)width*height)), coverage[mapY*mapWidth+mapX]);
+				}
+			}
+		}
+
+		// the whole object in a single pixel
+		int nObject = 0;
+		for (boolean value: values) if (value) nObject++;
+		assertEquals(Math.round(nObject*(double)GroundTruth.COVERAGE_SCALE/(width*height)), gt.getCoverage(1, 1)[0]);
+
+		assertEquals(GroundTruth.COVERAGE_SCALE, GroundTruth.getCoverageScale(100));
+		assertEquals(1, GroundTruth.getCoverageScale(Integer.MAX_VALUE));
+	}
+
+
+	/**
+	 * Checks that histograms of a map of half the size are the histograms of the map upscaled by 2, weighted by the
+	 * area of a map pixel.
+	 */
+	@Test
+	public void testHistograms()
+	{
+		Random random = new Random(52);
+		int width = 24, height = 18;
+		GroundTruth gt = new GroundTruth("test", width, height, createGroundTruth(random, width, height));
+
+		int[] smallValues = new int[(width/2)*(height/2)];
+		for (int i=0; i<smallValues.length; i++) smallValues[i] = random.nextInt(SaliencyMap.NUM_GREYSCALES);
+
+		int[] upscaledValues = new int[width*height];
+		for (int y=0; y<height; y++) for (int x=0; x<width; x++) upscaledValues[y*width+x] = smallValues[(y/2)*(width/2)+x/2];
+
+		int[][] expected = gt.getHistograms(new SaliencyMap("test", width, height, upscaledValues));
+		int[][] actual   = gt.getHistograms(new SaliencyMap("test", width/2, height/2, smallValues));
+		for (int iValue=0; iValue<SaliencyMap.NUM_GREYSCALES; iValue++)
+		{
+			assertEquals(GroundTruth.COVERAGE_SCALE/4*expected[GroundTruth.OBJECT][iValue],     actual[GroundTruth.OBJECT][iValue]);
+			assertEquals(GroundTruth.COVERAGE_SCALE/4*expected[GroundTruth.BACKGROUND][iValue], actual[GroundTruth.BACKGROUND][iValue]);
+		}
+
+		assertEquals(GroundTruth.getAreaUnderCurve(expected),    GroundTruth.getAreaUnderCurve(actual),    1e-12);
+		assertEquals(GroundTruth.getMeanAbsoluteError(expected), GroundTruth.getMeanAbsoluteError(actual), 1e-12);
+
+		// larger maps are not evaluated at their resolution
+		assertNull(gt.getHistograms(new SaliencyMap("test", width+1, height, new int[(width+1)*height])));
+	}
+
+
+	/**
+	 * Compares the mean curve of an evaluation at map resolution with the means of the maps upscaled by 2, and checks
+	 * that metrics needing pixel masks are rejected.
+	 *
+	 * @throws Exception if evaluation fails
+	 */
+	@Test
+	public void testEvaluation() throws Exception
+	{
+		int nImages = 5;
+
+		File directoryGroundTruth  = folder.newFolder("gt");
+		File directoryMaps         = folder.newFolder("maps");
+		File directorySaliencyMaps = folder.newFolder("sm");
+		File directoryResults      = folder.newFolder("result");
+		EvaluationFixture.writeImages(directoryGroundTruth, directoryMaps, nImages, 53);
+
+		int width = EvaluationFixture.WIDTH, height = EvaluationFixture.HEIGHT;
+
+		List<double[][]> curves = new ArrayList<double[][]>();
+		for (int iImage=0; iImage<nImages; iImage++)
+		{
+			String imageName = EvaluationFixture.getImageName(iImage);
+
+			// every other pixel of every other row
+			BufferedImage map = ImageIO.read(new File(directoryMaps, imageName+"_sm.png"));
+			BufferedImage smallMap = new BufferedImage(width/2, height/2, BufferedImage.TYPE_BYTE_GRAY);
+			for (int y=0; y<height/2; y++) for (int x=0; x<width/2; x++) smallMap.getRaster().setSample(x, y, 0, map.getRaster().getSample(2*x, 2*y, 0));
+			File smallMapFile = new File(directorySaliencyMaps, imageName+"_sm.png");
+			assertTrue(ImageIO.write(smallMap, "png", smallMapFile));
+
+			// values as read by the evaluation
+			SaliencyMap sMap = new SaliencyMap(smallMapFile, width, height, true);
+			assertEquals(width/2, sMap.getWidth());
+			int[] upscaledValues = new int[width*height];
+			for (int y=0; y<height; y++) for (int x=0; x<width; x++) upscaledValues[y*width+x] = sMap.getMapValues()[(y/2)*(width/2)+x/2];
+
+			GroundTruth gt = new GroundTruth(new File(directoryGroundTruth, imageName+".png"));
+			curves.add(GroundTruth.evaluate(gt.getHistograms(new SaliencyMap(imageName, width, height, upscaledValues))));
+		}
+
+		EvaluationFixture.run("pathGT="+directoryGroundTruth, "pathSM="+directorySaliencyMaps, "pathResult="+directoryResults,
+			"resolution=map", "plot=none", "slowest=0");
+
+		EvaluationFixture.assertCurveEquals("map resolution", EvaluationFixture.getMean(curves), EvaluationFixture.readMeanValues(new File(directoryResults, "result_mean.txt")));
+
+		try
+		{
+			EvaluationFixture.run("pathGT="+directoryGroundTruth, "pathSM="+directorySaliencyMaps, "pathResult="+directoryResults,
+				"resolution=map", "metrics=pr,objects", "plot=none");
+			fail("object metrics accepted at map resolution");
+		}
+		catch (Main.ExitException e)
+		{
+			// expected
+		}
+	}
+
+}
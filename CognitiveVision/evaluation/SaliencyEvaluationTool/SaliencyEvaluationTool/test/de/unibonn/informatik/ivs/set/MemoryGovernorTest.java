@@ -0,0 +1,144 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Checks footprints estimated from image headers and that jobs are admitted only while they fit into the budget.
+ *
+ * @version		2026.1018
+ *
+ */
+public class MemoryGovernorTest
+{
+
+	/**
+	 * Folder of images, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Checks footprints of images of different sizes and of files that are no images.
+	 *
+	 * @throws IOException if writing files fails
+	 */
+	@Test
+	public void testFootprint() throws IOException
+	{
+		File small = new File(folder.getRoot(), "small.png");
+		File large = new File(folder.getRoot(), "large.jpg");
+		assertTrue(ImageIO.write(new BufferedImage(24, 18, BufferedImage.TYPE_BYTE_GRAY), "png", small));
+		assertTrue(ImageIO.write(new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB), "jpg", large));
+
+		assertEquals(24*18, MemoryGovernor.getNumberOfPixels(small));
+		assertEquals(300*200, MemoryGovernor.getNumberOfPixels(large));
+
+		// the largest image counts, the files all
+		assertEquals(small.length()+large.length()+MemoryGovernor.BYTES_PER_PIXEL*300*200, MemoryGovernor.estimateFootprint(new File[] {small, large}));
+
+		File text = folder.newFile("text.png");
+		Writer writer = new FileWriter(text);
+		try
+		{
+			writer.write("no image");
+		}
+		finally
+		{
+			writer.close();
+		}
+
+		assertEquals(-1, MemoryGovernor.getNumberOfPixels(text));
+		assertEquals(-1, MemoryGovernor.getNumberOfPixels(new File(folder.getRoot(), "missing.png")));
+		assertEquals(Long.MAX_VALUE, MemoryGovernor.estimateFootprint(new File[] {small, text}));
+	}
+
+
+	/**
+	 * Checks the budget and the permits acquired for small, oversized and empty jobs.
+	 */
+	@Test
+	public void testPermits()
+	{
+		MemoryGovernor governor = new MemoryGovernor(10*1024);
+		assertEquals(10*1024, governor.getBudget());
+
+		assertEquals(1, governor.acquire(0));
+		governor.release(1);
+		assertEquals(2, governor.acquire(1025));
+		governor.release(2);
+
+		// a job larger than the budget, or of unknown size, runs alone
+		int permits = governor.acquire(11*1024);
+		assertEquals(10, permits);
+		governor.release(permits);
+		permits = governor.acquire(Long.MAX_VALUE);
+		assertEquals(10, permits);
+		governor.release(permits);
+
+		long defaultBudget = new MemoryGovernor(0).getBudget();
+		assertEquals(Runtime.getRuntime().maxMemory()*MemoryGovernor.DEFAULT_BUDGET_FRACTION, defaultBudget, 1024);
+	}
+
+
+	/**
+	 * Checks that a job waits while another job holds too much of the budget.
+	 *
+	 * @throws InterruptedException if waiting for the job is interrupted
+	 */
+	@Test
+	public void testAdmission() throws InterruptedException
+	{
+		final MemoryGovernor governor = new MemoryGovernor(5*1024);
+		final AtomicBoolean admitted = new AtomicBoolean(false);
+
+		int permits = governor.acquire(3*1024);
+
+		Thread job = new Thread()
+		{
+			public void run()
+			{
+				int permits = governor.acquire(4*1024);
+				admitted.set(true);
+				governor.release(permits);
+			}
+		};
+		job.start();
+
+		job.join(200);
+		assertFalse("admitted beyond budget", admitted.get());
+
+		// a small job that would fit does not overtake the waiting job
+		final AtomicBoolean smallAdmitted = new AtomicBoolean(false);
+		Thread smallJob = new Thread()
+		{
+			public void run()
+			{
+				governor.release(governor.acquire(2*1024));
+				smallAdmitted.set(admitted.get());
+			}
+		};
+		smallJob.start();
+
+		smallJob.join(200);
+		assertTrue(smallJob.isAlive());
+
+		governor.release(permits);
+		job.join(10000);
+		smallJob.join(10000);
+		assertTrue("admitted after release", admitted.get());
+		assertTrue("small job after waiting job", smallAdmitted.get());
+	}
+
+}
@@ -0,0 +1,110 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.Rectangle;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Checks object recall, hit rate and box IoU of a ground truth with two objects.
+ *
+ * @version		2026.1018
+ *
+ */
+public class ObjectEvaluationTest
+{
+
+	/**
+	 * Width of the test images.
+	 */
+	private static final int WIDTH = 12;
+
+	/**
+	 * Height of the test images.
+	 */
+	private static final int HEIGHT = 8;
+
+
+	/**
+	 * Checks the values of an object found completely and an object whose left half is found.
+	 */
+	@Test
+	public void testTwoObjects()
+	{
+		boolean[] groundTruthValues = new boolean[WIDTH*HEIGHT];
+		int[] saliencyValues = new int[WIDTH*HEIGHT];
+		for (int y=1; y<5; y++)
+		{
+			// object of 3x4 pixels, all with saliency 200
+			for (int x=1; x<4; x++)
+			{
+				groundTruthValues[y*WIDTH+x] = true;
+				saliencyValues[y*WIDTH+x] = 200;
+			}
+
+			// object of 4x4 pixels, left half with saliency 150
+			for (int x=6; x<10; x++)
+			{
+				groundTruthValues[y*WIDTH+x] = true;
+				saliencyValues[y*WIDTH+x] = x < 8 ? 150 : 50;
+			}
+		}
+
+		GroundTruth gt = new GroundTruth("test", WIDTH, HEIGHT, groundTruthValues);
+		SaliencyMap sMap = new SaliencyMap("test", WIDTH, HEIGHT, saliencyValues);
+
+		double[] result = ObjectEvaluation.evaluate(gt, sMap, new int[] {100, 175, 250});
+		assertEquals(1+3*ObjectEvaluation.VALUES_PER_THRESHOLD, result.length);
+		assertEquals(2, result[0], 0.0);
+
+		// both objects hit, second with half of its pixels and half of its box
+		assertEquals(0.75, result[1+ObjectEvaluation.OBJECT_RECALL], 1e-12);
+		assertEquals(1.0,  result[1+ObjectEvaluation.HIT_RATE],      1e-12);
+		assertEquals(0.75, result[1+ObjectEvaluation.BOX_IOU],       1e-12);
+
+		// only the first object
+		int offset = 1+ObjectEvaluation.VALUES_PER_THRESHOLD;
+		assertEquals(0.5, result[offset+ObjectEvaluation.OBJECT_RECALL], 1e-12);
+		assertEquals(0.5, result[offset+ObjectEvaluation.HIT_RATE],      1e-12);
+		assertEquals(0.5, result[offset+ObjectEvaluation.BOX_IOU],       1e-12);
+
+		// nothing
+		offset = 1+2*ObjectEvaluation.VALUES_PER_THRESHOLD;
+		assertEquals(0.0, result[offset+ObjectEvaluation.OBJECT_RECALL], 0.0);
+		assertEquals(0.0, result[offset+ObjectEvaluation.HIT_RATE],      0.0);
+		assertEquals(0.0, result[offset+ObjectEvaluation.BOX_IOU],       0.0);
+	}
+
+
+	/**
+	 * Checks that values are undefined without objects and that maps of another size are not evaluated.
+	 */
+	@Test
+	public void testUndefined()
+	{
+		GroundTruth gt = new GroundTruth("test", WIDTH, HEIGHT, new boolean[WIDTH*HEIGHT]);
+
+		double[] result = ObjectEvaluation.evaluate(gt, new SaliencyMap("test", WIDTH, HEIGHT, new int[WIDTH*HEIGHT]), new int[] {128});
+		assertEquals(0, result[0], 0.0);
+		for (int i=1; i<result.length; i++) assertTrue(Double.isNaN(result[i]));
+
+		assertNull(ObjectEvaluation.evaluate(gt, new SaliencyMap("test", WIDTH, HEIGHT+1, new int[WIDTH*(HEIGHT+1)]), new int[] {128}));
+	}
+
+
+	/**
+	 * Checks the intersection over union of overlapping, touching and nested boxes.
+	 */
+	@Test
+	public void testIntersectionOverUnion()
+	{
+		assertEquals(1.0,       ObjectEvaluation.getIntersectionOverUnion(new Rectangle(2, 3, 4, 5), new Rectangle(2, 3, 4, 5)), 1e-12);
+		assertEquals(2.0/6,     ObjectEvaluation.getIntersectionOverUnion(new Rectangle(0, 0, 2, 2), new Rectangle(1, 0, 2, 2)), 1e-12);
+		assertEquals(0.0,       ObjectEvaluation.getIntersectionOverUnion(new Rectangle(0, 0, 2, 2), new Rectangle(2, 0, 2, 2)), 0.0);
+		assertEquals(4.0/16,    ObjectEvaluation.getIntersectionOverUnion(new Rectangle(0, 0, 4, 4), new Rectangle(1, 1, 2, 2)), 1e-12);
+	}
+
+}
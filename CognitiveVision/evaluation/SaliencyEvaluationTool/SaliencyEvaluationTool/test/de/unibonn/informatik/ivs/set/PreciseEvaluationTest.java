@@ -0,0 +1,261 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Compares precise evaluation with brute-force results and with the evaluation of 8 bit maps, and reads maps of each
+ * format supported by {@link PreciseMapReader}.
+ *
+ * @version		2026.1018
+ *
+ */
+public class PreciseEvaluationTest
+{
+
+	/**
+	 * Folder of map files, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Determines the area under ROC curve as the fraction of object/background pairs ranked correctly, ties counting half.
+	 *
+	 * @param groundTruth binary ground truth values
+	 * @param scores      scores
+	 *
+	 * @return            area under ROC curve
+	 */
+	private static double getPairwiseAreaUnderCurve(boolean[] groundTruth, float[] scores)
+	{
+		double sum = 0.0;
+		long nPairs = 0;
+
+		for (int iObject=0; iObject<scores.length; iObject++)
+		{
+			if (!groundTruth[iObject]) continue;
+
+			for (int iBackground=0; iBackground<scores.length; iBackground++)
+			{
+				if (groundTruth[iBackground]) continue;
+
+				nPairs++;
+				if (scores[iObject] > scores[iBackground]) sum += 1.0;
+				else if (scores[iObject] == scores[iBackground]) sum += 0.5;
+			}
+		}
+
+		return sum / nPairs;
+	}
+
+
+	/**
+	 * Determines the maximum F-measure over all thresholds at the distinct scores.
+	 *
+	 * @param groundTruth binary ground truth values
+	 * @param scores      scores
+	 *
+	 * @return            maximum F-measure
+	 */
+	private static double getBruteForceMaxFMeasure(boolean[] groundTruth, float[] scores)
+	{
+		int nObject = 0;
+		for (boolean value: groundTruth) if (value) nObject++;
+
+		double result = 0.0;
+		for (float threshold: scores)
+		{
+			int truePositive = 0, selected = 0;
+			for (int i=0; i<scores.length; i++)
+			{
+				if (scores[i] < threshold) continue;
+
+				selected++;
+				if (groundTruth[i]) truePositive++;
+			}
+
+			double[] precisionRecall = new double[2];
+			precisionRecall[GroundTruth.PRECISION] = (double)truePositive / selected;
+			precisionRecall[GroundTruth.RECALL]    = (double)truePositive / nObject;
+			if (truePositive > 0) result = Math.max(result, GroundTruth.getFMeasure(precisionRecall, Bootstrap.F_MEASURE_BETA));
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Checks exact evaluation of random scores with ties and values beyond [0.0; 1.0].
+	 */
+	@Test
+	public void testExact()
+	{
+		Random random = new Random(41);
+
+		for (int iMap=0; iMap<5; iMap++)
+		{
+			int nPixels = 300;
+			boolean[] groundTruth = new boolean[nPixels];
+			float[] scores = new float[nPixels];
+			double errorSum = 0.0;
+			for (int i=0; i<nPixels; i++)
+			{
+				groundTruth[i] = random.nextInt(3) == 0;
+				scores[i] = (groundTruth[i] ? 0.3f : 0f) + (iMap == 0 ? random.nextInt(10)/10f : 1.2f*random.nextFloat()-0.1f);
+
+				float clipped = Math.max(0f, Math.min(1f, scores[i]));
+				errorSum += groundTruth[i] ? 1.0-clipped : clipped;
+			}
+
+			Set<Float> distinctScores = new HashSet<Float>();
+			for (float score: scores) distinctScores.add(score);
+
+			double[] result = PreciseEvaluation.evaluate(groundTruth, scores, PreciseEvaluation.EXACT);
+			assertEquals("map "+iMap, getPairwiseAreaUnderCurve(groundTruth, scores), result[PreciseEvaluation.AUC],   1e-12);
+			assertEquals("map "+iMap, errorSum / nPixels,                               result[PreciseEvaluation.MAE],   1e-9);
+			assertEquals("map "+iMap, getBruteForceMaxFMeasure(groundTruth, scores),    result[PreciseEvaluation.MAX_F], 1e-12);
+			assertEquals("map "+iMap, distinctScores.size(),                            result[PreciseEvaluation.N_THRESHOLDS], 0.0);
+		}
+
+		// undefined without background
+		assertTrue(Double.isNaN(PreciseEvaluation.evaluate(new boolean[] {true, true}, new float[] {0.2f, 0.7f}, PreciseEvaluation.EXACT)[PreciseEvaluation.AUC]));
+	}
+
+
+	/**
+	 * Checks that 256 bins of 8 bit values give the results of the histograms of the values, and that scores which
+	 * are equal in 8 bits are ranked when evaluated exactly.
+	 */
+	@Test
+	public void testQuantisation()
+	{
+		Random random = new Random(42);
+
+		int nPixels = 1000;
+		boolean[] groundTruth = new boolean[nPixels];
+		int[] values = new int[nPixels];
+		int[][] histograms = new int[2][SaliencyMap.NUM_GREYSCALES];
+		for (int i=0; i<nPixels; i++)
+		{
+			groundTruth[i] = random.nextInt(4) == 0;
+			values[i] = Math.min(255, (groundTruth[i] ? 60 : 0) + random.nextInt(200));
+			histograms[groundTruth[i] ? GroundTruth.OBJECT : GroundTruth.BACKGROUND][values[i]]++;
+		}
+
+		double[] result = PreciseEvaluation.evaluate(groundTruth, PreciseEvaluation.getScores(values), SaliencyMap.NUM_GREYSCALES);
+		assertEquals(GroundTruth.getAreaUnderCurve(histograms),   result[PreciseEvaluation.AUC], 1e-12);
+		assertEquals(GroundTruth.getMeanAbsoluteError(histograms), result[PreciseEvaluation.MAE], 1e-6);
+		assertEquals(GroundTruth.getMaxFMeasure(GroundTruth.evaluate(histograms), Bootstrap.F_MEASURE_BETA), result[PreciseEvaluation.MAX_F], 1e-12);
+
+		// 16 bit object values slightly above background values of the same upper 8 bits
+		float[] scores = new float[nPixels];
+		int[][] quantised = new int[2][SaliencyMap.NUM_GREYSCALES];
+		for (int i=0; i<nPixels; i++)
+		{
+			int value = random.nextInt(SaliencyMap.NUM_GREYSCALES)*256 + (groundTruth[i] ? 200 : 50);
+			scores[i] = value / 65535f;
+			quantised[groundTruth[i] ? GroundTruth.OBJECT : GroundTruth.BACKGROUND][value >> 8]++;
+		}
+
+		// pairs tied in 8 bits count half there, but are ranked correctly in 16 bits
+		long nObject = 0, nTies = 0;
+		for (int iValue=0; iValue<SaliencyMap.NUM_GREYSCALES; iValue++)
+		{
+			nObject += quantised[GroundTruth.OBJECT][iValue];
+			nTies   += (long)quantised[GroundTruth.OBJECT][iValue]*quantised[GroundTruth.BACKGROUND][iValue];
+		}
+		double exact = PreciseEvaluation.evaluate(groundTruth, scores, PreciseEvaluation.EXACT)[PreciseEvaluation.AUC];
+		assertEquals(getPairwiseAreaUnderCurve(groundTruth, scores), exact, 1e-12);
+		assertTrue(nTies > 0);
+		assertEquals(GroundTruth.getAreaUnderCurve(quantised) + 0.5*nTies/(nObject*(nPixels-nObject)), exact, 1e-12);
+	}
+
+
+	/**
+	 * Checks the scores read from 16 bit PGM, PFM and raw float32 files and that malformed files are rejected.
+	 *
+	 * @throws IOException if writing or reading fails
+	 */
+	@Test
+	public void testReader() throws IOException
+	{
+		float[] scores = {0.0f, 0.25f, 0.5f, 0.75f, 1.0f, 0.125f};
+
+		// 16 bit PGM, most significant byte first
+		ByteArrayOutputStream pgm = new ByteArrayOutputStream();
+		pgm.write("P5\n# 16 bit\n3 2\n65535\n".getBytes("US-ASCII"));
+		for (float score: scores)
+		{
+			int value = Math.round(score*65535);
+			pgm.write(value >> 8);
+			pgm.write(value & 0xFF);
+		}
+		PreciseMapReader reader = new PreciseMapReader(new File(folder.getRoot(), "map.pgm"), pgm.toByteArray());
+		assertEquals(3, reader.getWidth());
+		assertEquals(2, reader.getHeight());
+		assertEquals("pgm 16 bit", reader.getFormat());
+		for (int i=0; i<scores.length; i++) assertEquals(scores[i], reader.getScores()[i], 1e-4);
+
+		// PFM little endian, rows from bottom to top
+		ByteBuffer pfmValues = ByteBuffer.allocate(4*scores.length).order(ByteOrder.LITTLE_ENDIAN);
+		for (int y=1; y>=0; y--) for (int x=0; x<3; x++) pfmValues.putFloat(scores[y*3+x]);
+		ByteArrayOutputStream pfm = new ByteArrayOutputStream();
+		pfm.write("Pf\n3 2\n-1.0\n".getBytes("US-ASCII"));
+		pfm.write(pfmValues.array());
+		reader = new PreciseMapReader(new File(folder.getRoot(), "map.pfm"), pfm.toByteArray());
+		assertArrayEquals(scores, reader.getScores(), 0f);
+
+		// raw float32 big endian with sidecar header
+		ByteBuffer rawValues = ByteBuffer.allocate(4*scores.length).order(ByteOrder.BIG_ENDIAN);
+		for (float score: scores) rawValues.putFloat(score);
+		File rawFile = new File(folder.getRoot(), "map.f32");
+		Writer writer = new FileWriter(rawFile.getPath()+".hdr");
+		try
+		{
+			writer.write("width=3\nheight=2\nbyteOrder=big\n");
+		}
+		finally
+		{
+			writer.close();
+		}
+		reader = new PreciseMapReader(rawFile, rawValues.array());
+		assertArrayEquals(scores, reader.getScores(), 0f);
+		assertEquals("f32 float", reader.getFormat());
+
+		assertTrue(PreciseMapReader.isSupported("a.PFM"));
+		assertFalse(PreciseMapReader.isSupported("a.png"));
+
+		byte[] truncated = Arrays.copyOf(pgm.toByteArray(), pgm.size()-1);
+		try
+		{
+			new PreciseMapReader(new File(folder.getRoot(), "map.pgm"), truncated);
+			fail("truncated values accepted");
+		}
+		catch (IOException e)
+		{
+			// expected
+		}
+
+		try
+		{
+			new PreciseMapReader(new File(folder.getRoot(), "other.f32"), rawValues.array());
+			fail("raw values without header accepted");
+		}
+		catch (IOException e)
+		{
+			// expected
+		}
+	}
+
+}
@@ -0,0 +1,190 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Compares normalisation applied to histograms with normalisation applied to pixels, and checks the lookup tables
+ * of each mode.
+ *
+ * @version		2026.1018
+ *
+ */
+public class SaliencyNormalizationTest
+{
+
+	/**
+	 * Modes checked.
+	 */
+	private static final int[] MODES = {SaliencyNormalization.MINMAX, SaliencyNormalization.PERCENTILE, SaliencyNormalization.EQUALIZE};
+
+	/**
+	 * Folder of images and results, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Creates a map whose values lie in a part of the range.
+	 *
+	 * @param random random numbers
+	 * @param nPixels number of pixels
+	 * @param lowest  lowest value
+	 * @param range   number of values
+	 *
+	 * @return        values
+	 */
+	private static int[] createValues(Random random, int nPixels, int lowest, int range)
+	{
+		int[] result = new int[nPixels];
+		for (int i=0; i<nPixels; i++) result[i] = lowest + (int)(range*random.nextDouble()*random.nextDouble());
+
+		return result;
+	}
+
+
+	/**
+	 * Counts values inside/outside the object.
+	 *
+	 * @param values values
+	 * @param object true for object pixels
+	 *
+	 * @return       histograms indexed by {@link GroundTruth#OBJECT}/{@link GroundTruth#BACKGROUND}
+	 */
+	private static int[][] getHistograms(int[] values, boolean[] object)
+	{
+		int[][] result = new int[2][SaliencyMap.NUM_GREYSCALES];
+		for (int i=0; i<values.length; i++) result[object[i] ? GroundTruth.OBJECT : GroundTruth.BACKGROUND][values[i]]++;
+
+		return result;
+	}
+
+
+	/**
+	 * Checks remapped histograms and translated thresholds against normalised pixels, for maps of different ranges.
+	 */
+	@Test
+	public void testHistogramsAndThresholds()
+	{
+		Random random = new Random(31);
+
+		for (int[] range: new int[][] {{0, 256}, {40, 90}, {200, 56}, {7, 1}})
+		{
+			int[] values = createValues(random, 2000, range[0], range[1]);
+			boolean[] object = new boolean[values.length];
+			for (int i=0; i<object.length; i++) object[i] = random.nextInt(4) == 0;
+
+			int[][] histograms = getHistograms(values, object);
+
+			for (int mode: MODES)
+			{
+				String message = "range "+Arrays.toString(range)+", mode "+mode;
+				int[] lookupTable = SaliencyNormalization.getLookupTable(mode, histograms, 5.0);
+
+				for (int iValue=1; iValue<lookupTable.length; iValue++) assertTrue(message, lookupTable[iValue] >= lookupTable[iValue-1]);
+
+				int[] normalizedValues = new int[values.length];
+				for (int i=0; i<values.length; i++) normalizedValues[i] = lookupTable[values[i]];
+
+				int[][] expected = getHistograms(normalizedValues, object);
+				int[][] actual   = SaliencyNormalization.apply(histograms, lookupTable);
+				assertArrayEquals(message, expected[GroundTruth.OBJECT],     actual[GroundTruth.OBJECT]);
+				assertArrayEquals(message, expected[GroundTruth.BACKGROUND], actual[GroundTruth.BACKGROUND]);
+
+				// thresholding original values with translated thresholds selects the same pixels
+				int[] thresholds = new int[SaliencyMap.NUM_GREYSCALES+1];
+				for (int iThreshold=0; iThreshold<thresholds.length; iThreshold++) thresholds[iThreshold] = iThreshold;
+				int[] originalThresholds = SaliencyNormalization.getOriginalThresholds(lookupTable, thresholds);
+				for (int iThreshold=0; iThreshold<thresholds.length; iThreshold++)
+				{
+					for (int iValue=0; iValue<SaliencyMap.NUM_GREYSCALES; iValue++)
+					{
+						assertEquals(message+", threshold "+iThreshold+", value "+iValue, lookupTable[iValue] >= iThreshold, iValue >= originalThresholds[iThreshold]);
+					}
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Checks the values the modes map the ends of the range to.
+	 */
+	@Test
+	public void testLookupTables()
+	{
+		int[][] histograms = new int[2][SaliencyMap.NUM_GREYSCALES];
+		histograms[GroundTruth.BACKGROUND][50] = 1;
+		for (int iValue=60; iValue<100; iValue++) histograms[GroundTruth.OBJECT][iValue] = 4;
+		histograms[GroundTruth.OBJECT][150] = 1;
+
+		// the extreme values
+		int[] minMax = SaliencyNormalization.getLookupTable(SaliencyNormalization.MINMAX, histograms, 0.0);
+		assertEquals(0,   minMax[50]);
+		assertEquals(255, minMax[150]);
+		assertEquals(Math.round((80-50)*255.0/100), minMax[80]);
+
+		// single values beyond 1% of 162 pixels are clipped
+		int[] percentile = SaliencyNormalization.getLookupTable(SaliencyNormalization.PERCENTILE, histograms, 1.0);
+		assertEquals(0,   percentile[50]);
+		assertEquals(0,   percentile[60]);
+		assertEquals(255, percentile[99]);
+		assertEquals(255, percentile[150]);
+
+		// cumulative frequency, from 0 for the lowest to 255 for the highest value
+		int[] equalized = SaliencyNormalization.getLookupTable(SaliencyNormalization.EQUALIZE, histograms, 0.0);
+		assertEquals(0,   equalized[50]);
+		assertEquals(Math.round(80.0/161*255), equalized[79]);
+		assertEquals(255, equalized[150]);
+
+		// nothing to stretch or no values
+		int[][] single = new int[2][SaliencyMap.NUM_GREYSCALES];
+		single[GroundTruth.OBJECT][77] = 10;
+		for (int mode: MODES) assertEquals(77, SaliencyNormalization.getLookupTable(mode, single, 1.0)[77]);
+		assertNull(SaliencyNormalization.getLookupTable(SaliencyNormalization.MINMAX, new int[2][SaliencyMap.NUM_GREYSCALES], 1.0));
+		assertNull(SaliencyNormalization.getLookupTable(SaliencyNormalization.NONE, histograms, 1.0));
+
+		assertSame(histograms, SaliencyNormalization.apply(histograms, null));
+		assertEquals(SaliencyNormalization.PERCENTILE, SaliencyNormalization.parseMode("Percentile"));
+		assertEquals(-1, SaliencyNormalization.parseMode("log"));
+	}
+
+
+	/**
+	 * Compares the mean curve of an evaluation with normalisation to the means of the normalised images.
+	 *
+	 * @throws Exception if evaluation fails
+	 */
+	@Test
+	public void testEvaluation() throws Exception
+	{
+		int nImages = 5;
+
+		File directoryGroundTruth  = folder.newFolder("gt");
+		File directorySaliencyMaps = folder.newFolder("sm");
+		File directoryResults      = folder.newFolder("result");
+		EvaluationFixture.writeImages(directoryGroundTruth, directorySaliencyMaps, nImages, 32);
+
+		List<double[][]> curves = new ArrayList<double[][]>();
+		for (int iImage=0; iImage<nImages; iImage++)
+		{
+			int[][] histograms = EvaluationFixture.getHistograms(directoryGroundTruth, directorySaliencyMaps, iImage);
+			curves.add(GroundTruth.evaluate(SaliencyNormalization.apply(histograms, SaliencyNormalization.getLookupTable(SaliencyNormalization.PERCENTILE, histograms, 5.0))));
+		}
+
+		EvaluationFixture.run("pathGT="+directoryGroundTruth, "pathSM="+directorySaliencyMaps, "pathResult="+directoryResults,
+			"normalize=percentile", "clip=5", "plot=none", "slowest=0");
+
+		EvaluationFixture.assertCurveEquals("percentile", EvaluationFixture.getMean(curves), EvaluationFixture.readMeanValues(new File(directoryResults, "result_mean.txt")));
+	}
+
+}
@@ -0,0 +1,87 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Compares the mean curves per object size bucket of an evaluation with the means of the images of each bucket.
+ *
+ * @version		2026.1018
+ *
+ */
+public class SizeBucketsTest
+{
+
+	/**
+	 * Folder of images and results, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Checks number of images and mean curve of each bucket.
+	 *
+	 * @throws Exception if evaluation fails
+	 */
+	@Test
+	public void testBuckets() throws Exception
+	{
+		int nImages = 12;
+		double[] bounds = {0.1, 0.3};
+
+		File directoryGroundTruth  = folder.newFolder("gt");
+		File directorySaliencyMaps = folder.newFolder("sm");
+		File directoryResults      = folder.newFolder("result");
+		EvaluationFixture.writeImages(directoryGroundTruth, directorySaliencyMaps, nImages, 14);
+
+		// images by bucket, determined from the images' histograms
+		Map<String, List<double[][]>> curvesByBucket = new TreeMap<String, List<double[][]>>();
+		for (int iImage=0; iImage<nImages; iImage++)
+		{
+			int[][] histograms = EvaluationFixture.getHistograms(directoryGroundTruth, directorySaliencyMaps, iImage);
+			double relativeSize = GroundTruth.getRelativeObjectSize(histograms);
+
+			double lower = 0.0, upper = 1.0;
+			for (double bound: bounds)
+			{
+				if (relativeSize < bound)
+				{
+					upper = bound;
+					break;
+				}
+				lower = bound;
+			}
+
+			String bucket = String.format(Locale.ENGLISH, "%.3f-%.3f", lower, upper);
+			if (!curvesByBucket.containsKey(bucket)) curvesByBucket.put(bucket, new ArrayList<double[][]>());
+			curvesByBucket.get(bucket).add(GroundTruth.evaluate(histograms));
+		}
+		assertEquals("all buckets are used", bounds.length+1, curvesByBucket.size());
+
+		EvaluationFixture.run("pathGT="+directoryGroundTruth, "pathSM="+directorySaliencyMaps, "pathResult="+directoryResults,
+			"sizeBuckets=0.1,0.3", "plot=none", "slowest=0");
+
+		List<String[]> rows = EvaluationFixture.readRows(new File(directoryResults, "result_sizes.txt"));
+		assertEquals(curvesByBucket.size(), rows.size());
+		for (String[] columns: rows)
+		{
+			List<double[][]> curves = curvesByBucket.get(columns[0]);
+			assertNotNull(columns[0], curves);
+			assertEquals(columns[0], curves.size(), Integer.parseInt(columns[1]));
+
+			double[][] expected = EvaluationFixture.getMean(curves);
+			EvaluationFixture.assertCurveEquals("bucket "+columns[0], expected, EvaluationFixture.readMeanValues(new File(directoryResults, "result_mean_size_"+columns[0]+".txt")));
+			assertEquals(GroundTruth.getMaxFMeasure(expected, Bootstrap.F_MEASURE_BETA), Double.parseDouble(columns[2]), EvaluationFixture.TOLERANCE);
+		}
+	}
+
+}
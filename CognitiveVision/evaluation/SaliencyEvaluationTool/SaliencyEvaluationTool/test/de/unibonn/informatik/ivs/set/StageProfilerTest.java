@@ -0,0 +1,122 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.image.BufferedImage;
+import java.util.*;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Checks that stage times are added to the image of the measuring thread and that the slowest images are kept.
+ *
+ * @version		2026.1018
+ *
+ */
+public class StageProfilerTest
+{
+
+	/**
+	 * Forgets the images kept by a test.
+	 */
+	@After
+	public void tearDown()
+	{
+		StageProfiler.setSlowestImages(0);
+	}
+
+
+	/**
+	 * Evaluates an image by the calling thread, spending some time in a stage.
+	 *
+	 * @param imageName name of the image
+	 * @param stage     stage constant
+	 * @param millis    time to spend in the stage
+	 *
+	 * @throws InterruptedException if sleeping is interrupted
+	 */
+	private static void evaluateImage(String imageName, int stage, long millis) throws InterruptedException
+	{
+		StageProfiler.beginImage(imageName);
+
+		StageProfiler.Stage measured = StageProfiler.begin(stage);
+		Thread.sleep(millis);
+		measured.end(null, 1, 1, "png byte grey");
+
+		StageProfiler.endImage();
+	}
+
+
+	/**
+	 * Checks the slowest images kept, their stages and formats, with images of another thread evaluated meanwhile.
+	 *
+	 * @throws InterruptedException if waiting is interrupted
+	 */
+	@Test
+	public void testSlowestImages() throws InterruptedException
+	{
+		StageProfiler.setSlowestImages(2);
+
+		// a stage outside of an image is not added to any image
+		StageProfiler.begin(StageProfiler.WRITE).end("none", 1, 1, null);
+
+		Thread other = new Thread()
+		{
+			public void run()
+			{
+				try
+				{
+					evaluateImage("other", StageProfiler.SCALE, 30);
+				}
+				catch (InterruptedException e)
+				{
+					// ends early
+				}
+			}
+		};
+		other.start();
+
+		evaluateImage("slow",   StageProfiler.DECODE,   200);
+		evaluateImage("fast",   StageProfiler.EVALUATE, 0);
+		evaluateImage("medium", StageProfiler.EVALUATE, 100);
+		other.join();
+
+		List<StageProfiler.Profile> profiles = StageProfiler.getSlowestImages();
+		assertEquals(2, profiles.size());
+		assertEquals("slow",   profiles.get(0).imageName);
+		assertEquals("medium", profiles.get(1).imageName);
+
+		StageProfiler.Profile slow = profiles.get(0);
+		assertTrue(slow.nanos[StageProfiler.DECODE] >= 200000000L);
+		assertTrue(slow.totalNanos >= slow.nanos[StageProfiler.DECODE]);
+		assertEquals(0, slow.nanos[StageProfiler.SCALE]);
+		assertEquals(0, slow.nanos[StageProfiler.WRITE]);
+		assertEquals("png byte grey", slow.formats);
+
+		// formats are recorded for decoding only
+		StageProfiler.Profile medium = profiles.get(1);
+		assertTrue(medium.nanos[StageProfiler.EVALUATE] >= 100000000L);
+		assertEquals("", medium.formats);
+
+		StageProfiler.setSlowestImages(0);
+		evaluateImage("not kept", StageProfiler.EVALUATE, 0);
+		assertTrue(StageProfiler.getSlowestImages().isEmpty());
+	}
+
+
+	/**
+	 * Checks formats described by file ending and image type.
+	 */
+	@Test
+	public void testFormat()
+	{
+		assertEquals("png byte grey", StageProfiler.getFormat("a.PNG", new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_GRAY)));
+		assertEquals("jpg 3 byte BGR", StageProfiler.getFormat("dir/b.jpg", new BufferedImage(1, 1, BufferedImage.TYPE_3BYTE_BGR)));
+		assertEquals("bmp", StageProfiler.getFormat("c.bmp", null));
+		assertEquals("?", StageProfiler.getFormat("noending", null));
+	}
+
+}
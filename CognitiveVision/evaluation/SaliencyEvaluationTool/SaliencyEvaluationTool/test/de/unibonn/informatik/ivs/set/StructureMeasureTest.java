@@ -0,0 +1,211 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.util.*;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Compares the S-measure and the E-measure (see {@link GroundTruth#getEnhancedAlignment(int[][])}) with direct
+ * per-pixel implementations of the authors' reference implementations.
+ *
+ * @version		2026.1018
+ *
+ */
+public class StructureMeasureTest
+{
+
+	/**
+	 * Small constant avoiding divisions by zero, as in the reference implementations.
+	 */
+	private static final double EPSILON = Math.ulp(1.0);
+
+
+	/**
+	 * Checks random maps against empty, full, sparse and round objects, including constant and binary maps.
+	 */
+	@Test
+	public void testReference()
+	{
+		Random random = new Random(3);
+
+		for (int iMap=0; iMap<200; iMap++)
+		{
+			int width  = 1+random.nextInt(30);
+			int height = 1+random.nextInt(25);
+			int type   = iMap%6;
+			int constant = random.nextInt(256);
+
+			boolean[] mask = new boolean[width*height];
+			int[] saliencyValues = new int[mask.length];
+			for (int i=0; i<mask.length; i++)
+			{
+				if      (type == 0) mask[i] = false;
+				else if (type == 1) mask[i] = true;
+				else if (type == 2) mask[i] = random.nextInt(9) == 0;
+				else                mask[i] = Math.hypot(i%width-width/3.0, i/width-height/2.0) < Math.min(width, height)/3.0;
+
+				if      (type == 4) saliencyValues[i] = constant;
+				else if (type == 5) saliencyValues[i] = mask[i] ? 255 : 0;
+				else                saliencyValues[i] = mask[i] ? 80+random.nextInt(176) : random.nextInt(150);
+			}
+
+			GroundTruth gt = new GroundTruth("test", width, height, mask);
+			int[][] histograms = gt.getHistograms(new SaliencyMap("test", width, height, saliencyValues));
+
+			assertEquals("S-measure of map "+iMap, getStructureReference(mask, saliencyValues, width, height), StructureMeasure.evaluate(gt, saliencyValues, null), 1e-9);
+			assertEquals("E-measure of map "+iMap, getEnhancedAlignmentReference(mask, saliencyValues), GroundTruth.getEnhancedAlignment(histograms), 1e-9);
+		}
+	}
+
+
+	/**
+	 * Determines the S-measure directly.
+	 *
+	 * @param mask           ground truth row by row
+	 * @param saliencyValues saliency values row by row
+	 * @param width          width of the images
+	 * @param height         height of the images
+	 *
+	 * @return               S-measure
+	 */
+	private static double getStructureReference(boolean[] mask, int[] saliencyValues, int width, int height)
+	{
+		int n = width*height;
+		double[] values = new double[n];
+		double relativeObjectSize = 0.0, mean = 0.0;
+		for (int i=0; i<n; i++)
+		{
+			values[i] = saliencyValues[i]/255.0;
+			relativeObjectSize += mask[i] ? 1.0/n : 0.0;
+			mean += values[i]/n;
+		}
+
+		int nObject = 0;
+		for (boolean value: mask) if (value) nObject++;
+		if (nObject == 0) return 1.0 - mean;
+		if (nObject == n) return mean;
+
+		double objectTerm = relativeObjectSize * getObjectScore(mask, saliencyValues, true) + (1.0-relativeObjectSize) * getObjectScore(mask, saliencyValues, false);
+
+		// quadrants around the centroid
+		double sumX = 0.0, sumY = 0.0;
+		for (int i=0; i<n; i++)
+		{
+			if (!mask[i]) continue;
+			sumX += i%width+1;
+			sumY += i/width+1;
+		}
+		int splitX = (int)Math.round(sumX/nObject), splitY = (int)Math.round(sumY/nObject);
+
+		int[][] quadrants = {{0, splitX, 0, splitY}, {splitX, width, 0, splitY}, {0, splitX, splitY, height}, {splitX, width, splitY, height}};
+		double regionTerm = 0.0;
+		for (int[] quadrant: quadrants)
+		{
+			int nQuadrant = (quadrant[1]-quadrant[0])*(quadrant[3]-quadrant[2]);
+			if (nQuadrant == 0) continue;
+
+			// means of exact sums, so that constant values have no deviation
+			long sumMap = 0, sumGroundTruth = 0;
+			for (int y=quadrant[2]; y<quadrant[3]; y++) for (int x=quadrant[0]; x<quadrant[1]; x++)
+			{
+				sumMap         += saliencyValues[y*width+x];
+				sumGroundTruth += mask[y*width+x] ? 1 : 0;
+			}
+			double meanMap = sumMap/(255.0*nQuadrant), meanGroundTruth = (double)sumGroundTruth/nQuadrant;
+
+			double varianceMap = 0.0, varianceGroundTruth = 0.0, covariance = 0.0;
+			for (int y=quadrant[2]; y<quadrant[3]; y++) for (int x=quadrant[0]; x<quadrant[1]; x++)
+			{
+				double dMap = values[y*width+x]-meanMap, dGroundTruth = (mask[y*width+x] ? 1.0 : 0.0)-meanGroundTruth;
+				varianceMap         += dMap*dMap / (nQuadrant-1+EPSILON);
+				varianceGroundTruth += dGroundTruth*dGroundTruth / (nQuadrant-1+EPSILON);
+				covariance          += dMap*dGroundTruth / (nQuadrant-1+EPSILON);
+			}
+
+			double alpha = 4.0 * meanMap * meanGroundTruth * covariance;
+			double beta  = (meanMap*meanMap + meanGroundTruth*meanGroundTruth) * (varianceMap + varianceGroundTruth);
+			double similarity = alpha != 0.0 ? alpha / (beta+EPSILON) : (beta == 0.0 ? 1.0 : 0.0);
+
+			regionTerm += (double)nQuadrant/n * similarity;
+		}
+
+		return Math.max(0.0, 0.5*objectTerm + 0.5*regionTerm);
+	}
+
+
+	/**
+	 * Determines the similarity of the saliency values of the object or of the (inverted) background to 1.0.
+	 *
+	 * @param mask           ground truth row by row
+	 * @param saliencyValues saliency values row by row
+	 * @param object         true for the object, false for the background
+	 *
+	 * @return               similarity
+	 */
+	private static double getObjectScore(boolean[] mask, int[] saliencyValues, boolean object)
+	{
+		int n = 0;
+		long sum = 0;
+		for (int i=0; i<mask.length; i++)
+		{
+			if (mask[i] != object) continue;
+			n++;
+			sum += object ? saliencyValues[i] : 255-saliencyValues[i];
+		}
+		if (n == 0) return 0.0;
+		double mean = sum/(255.0*n);
+
+		double variance = 0.0;
+		for (int i=0; i<mask.length; i++) if (mask[i] == object) variance += Math.pow((object ? saliencyValues[i] : 255-saliencyValues[i])/255.0 - mean, 2);
+		double standardDeviation = n > 1 ? Math.sqrt(variance/(n-1)) : 0.0;
+
+		return 2.0 * mean / (mean*mean + 1.0 + standardDeviation + EPSILON);
+	}
+
+
+	/**
+	 * Determines the E-measure directly, as the mean of the enhanced alignment over all 256 thresholds.
+	 *
+	 * @param mask           ground truth row by row
+	 * @param saliencyValues saliency values row by row
+	 *
+	 * @return               E-measure
+	 */
+	private static double getEnhancedAlignmentReference(boolean[] mask, int[] saliencyValues)
+	{
+		int n = mask.length;
+		int nObject = 0;
+		for (boolean value: mask) if (value) nObject++;
+
+		double sum = 0.0;
+		for (int threshold=0; threshold<256; threshold++)
+		{
+			int nForeground = 0;
+			for (int value: saliencyValues) if (value >= threshold) nForeground++;
+			double meanMap = (double)nForeground/n, meanGroundTruth = (double)nObject/n;
+
+			double alignment = 0.0;
+			for (int i=0; i<n; i++)
+			{
+				double map = saliencyValues[i] >= threshold ? 1.0 : 0.0;
+
+				if (nObject == 0)      alignment += 1.0-map;
+				else if (nObject == n) alignment += map;
+				else
+				{
+					double dMap = map-meanMap, dGroundTruth = (mask[i] ? 1.0 : 0.0)-meanGroundTruth;
+					double value = 2.0*dGroundTruth*dMap / (dGroundTruth*dGroundTruth + dMap*dMap + EPSILON);
+					alignment += (value+1.0)*(value+1.0)/4.0;
+				}
+			}
+			sum += alignment / (n-1+EPSILON);
+		}
+
+		return sum/256;
+	}
+
+}
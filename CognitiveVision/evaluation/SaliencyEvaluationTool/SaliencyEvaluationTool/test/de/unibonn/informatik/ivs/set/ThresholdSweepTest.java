@@ -0,0 +1,121 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Compares the mean curves of a sweep over ground truth thresholds with separate evaluations at each threshold, and
+ * checks that thresholds k/n of n rectangles are not affected by rounding.
+ *
+ * @version		2026.1018
+ *
+ */
+public class ThresholdSweepTest
+{
+
+	/**
+	 * Folder of images and results, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Checks thresholds, number of images and mean curve per threshold.
+	 *
+	 * @throws Exception if evaluation fails
+	 */
+	@Test
+	public void testSweep() throws Exception
+	{
+		int nImages = 4;
+
+		File directoryGroundTruth  = folder.newFolder("gt");
+		File directorySaliencyMaps = folder.newFolder("sm");
+		EvaluationFixture.writeImages(directoryGroundTruth, directorySaliencyMaps, nImages, 17);
+
+		// overlapping rectangles of 2 or 3 annotators per image
+		Random random = new Random(18);
+		StringBuilder descriptions = new StringBuilder();
+		for (int iImage=0; iImage<nImages; iImage++)
+		{
+			descriptions.append(EvaluationFixture.getImageName(iImage)+".jpg\n"+EvaluationFixture.WIDTH+" "+EvaluationFixture.HEIGHT+"\n");
+			for (int iRect=0; iRect<2+iImage%2; iRect++)
+			{
+				int left = 2+random.nextInt(6), top = 2+random.nextInt(4);
+				descriptions.append((iRect > 0 ? "; " : "")+left+" "+top+" "+(left+8+random.nextInt(8))+" "+(top+6+random.nextInt(6)));
+			}
+			descriptions.append("\n\n");
+		}
+
+		File fileGroundTruth = folder.newFile("gt.txt");
+		Writer writer = new FileWriter(fileGroundTruth);
+		try
+		{
+			writer.write(descriptions.toString());
+		}
+		finally
+		{
+			writer.close();
+		}
+
+		File directorySweep = folder.newFolder("sweep");
+		EvaluationFixture.run("fileGT="+fileGroundTruth, "pathSM="+directorySaliencyMaps, "pathResult="+directorySweep, "thresholdGT=sweep", "plot=none", "slowest=0");
+
+		// k/n of n = 2 and 3 rectangles
+		List<String[]> rows = EvaluationFixture.readRows(new File(directorySweep, "result_thresholds.txt"));
+		List<String> thresholds = new ArrayList<String>();
+		for (String[] columns: rows)
+		{
+			thresholds.add(columns[0]);
+			assertEquals(columns[0], Integer.toString(nImages), columns[1]);
+		}
+		assertEquals(Arrays.asList("0.0000", "0.3333", "0.5000", "0.6667"), thresholds);
+
+		double[] exactThresholds = {0.0, 1.0/3, 0.5, 2.0/3};
+		for (int iThreshold=0; iThreshold<rows.size(); iThreshold++)
+		{
+			String[] columns = rows.get(iThreshold);
+			File directoryResults = folder.newFolder("threshold_"+columns[0]);
+			EvaluationFixture.run("fileGT="+fileGroundTruth, "pathSM="+directorySaliencyMaps, "pathResult="+directoryResults, "thresholdGT="+exactThresholds[iThreshold], "plot=none", "slowest=0");
+
+			double[][] expected = EvaluationFixture.readMeanValues(new File(directoryResults, "result_mean.txt"));
+			EvaluationFixture.assertCurveEquals("threshold "+columns[0], expected, EvaluationFixture.readMeanValues(new File(directorySweep, "result_mean_thresholdGT_"+columns[0]+".txt")));
+			assertEquals(GroundTruth.getMaxFMeasure(expected, Bootstrap.F_MEASURE_BETA), Double.parseDouble(columns[2]), EvaluationFixture.TOLERANCE);
+		}
+
+		// the usual results are those of the default threshold
+		EvaluationFixture.assertCurveEquals("default threshold", EvaluationFixture.readMeanValues(new File(directorySweep, "result_mean_thresholdGT_0.5000.txt")), EvaluationFixture.readMeanValues(new File(directorySweep, "result_mean.txt")));
+	}
+
+
+	/**
+	 * Checks the object pixels of 3 rectangles at thresholds k/3 and close to them.
+	 */
+	@Test
+	public void testBinaryThreshold()
+	{
+		GroundTruth gt = new GroundTruth(new GroundTruthDescription("img.jpg\n4 1\n0 0 2 0; 0 0 1 0; 0 0 0 0"));
+
+		double[] thresholds = {0.0, 1.0/3, 0.3333, 0.5, 2.0/3, 0.6667, 1.0};
+		int[][] objects     = {{1, 1, 1, 0}, {1, 1, 0, 0}, {1, 1, 1, 0}, {1, 1, 0, 0}, {1, 0, 0, 0}, {1, 0, 0, 0}, {0, 0, 0, 0}};
+		for (int iThreshold=0; iThreshold<thresholds.length; iThreshold++)
+		{
+			gt.setBinaryThreshold(thresholds[iThreshold]);
+			for (int x=0; x<4; x++) assertEquals("threshold "+thresholds[iThreshold]+", x "+x, objects[iThreshold][x] == 1, (gt.getBinaryImage().getRGB(x, 0) & 0xFF) != 0);
+		}
+
+		assertEquals(2, GroundTruth.getMinVotes(1.0/3, 3));
+		assertEquals(1, GroundTruth.getMinVotes(0.3333, 3));
+		assertEquals(4, GroundTruth.getMinVotes(1.0, 3));
+	}
+
+}
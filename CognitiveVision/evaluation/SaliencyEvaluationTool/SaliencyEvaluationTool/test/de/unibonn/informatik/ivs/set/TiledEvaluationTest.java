@@ -0,0 +1,96 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.awt.image.*;
+import java.io.*;
+import java.util.*;
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Compares histograms determined band by band with the ones of the whole images.
+ *
+ * @version		2026.1018
+ *
+ */
+public class TiledEvaluationTest
+{
+
+	/**
+	 * Folder of images, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Checks greyscale and colour PNG files (decoded as a stream) and BMP files (decoded by an image reader) for several band heights.
+	 *
+	 * @throws IOException if writing or reading fails
+	 */
+	@Test
+	public void testBands() throws IOException
+	{
+		Random random = new Random(4);
+		int width = 37, height = 23;
+
+		int[] types = {BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_3BYTE_BGR};
+		for (int type: types)
+		{
+			for (String format: new String[] {"png", "bmp"})
+			{
+				BufferedImage groundTruthImage = new BufferedImage(width, height, type);
+				BufferedImage saliencyMapImage = new BufferedImage(width, height, type);
+				for (int y=0; y<height; y++)
+				{
+					for (int x=0; x<width; x++)
+					{
+						int object = Math.hypot(x-width/2.0, y-height/2.0) < 8 ? 0xFFFFFF : 0;
+						groundTruthImage.setRGB(x, y, object);
+						saliencyMapImage.setRGB(x, y, random.nextInt(0x1000000));
+					}
+				}
+
+				File groundTruthFile = folder.newFile("gt_"+type+"."+format);
+				File saliencyMapFile = folder.newFile("sm_"+type+"."+format);
+				assertTrue(ImageIO.write(groundTruthImage, format, groundTruthFile));
+				assertTrue(ImageIO.write(saliencyMapImage, format, saliencyMapFile));
+
+				int[][] expected = new GroundTruth(groundTruthFile).getHistograms(new SaliencyMap(saliencyMapFile, width, height));
+
+				for (int bandRows: new int[] {1, 5, height, 2*height})
+				{
+					int[][] histograms = TiledEvaluation.getHistograms(groundTruthFile, saliencyMapFile, bandRows);
+					for (int iHistogram=0; iHistogram<expected.length; iHistogram++)
+					{
+						assertArrayEquals(format+" of type "+type+" in bands of "+bandRows+" rows", expected[iHistogram], histograms[iHistogram]);
+					}
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Checks that maps of another size than their ground truth are rejected.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	@Test(expected = IOException.class)
+	public void testSizeMismatch() throws IOException
+	{
+		File groundTruthFile = folder.newFile("gt.png");
+		File saliencyMapFile = folder.newFile("sm.png");
+		ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_BYTE_GRAY), "png", groundTruthFile);
+		ImageIO.write(new BufferedImage(4, 5, BufferedImage.TYPE_BYTE_GRAY), "png", saliencyMapFile);
+
+		TiledEvaluation.getHistograms(groundTruthFile, saliencyMapFile, 2);
+	}
+
+}
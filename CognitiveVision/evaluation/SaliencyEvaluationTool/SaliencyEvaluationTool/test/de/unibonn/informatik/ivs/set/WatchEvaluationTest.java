@@ -0,0 +1,157 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+
+/**
+ * Watches a folder of saliency maps while maps are added and deleted, and compares the mean results with the means of
+ * the maps present.
+ *
+ * @version		2026.1018
+ *
+ */
+public class WatchEvaluationTest
+{
+
+	/**
+	 * Maximum time in milliseconds to wait for results to be updated.
+	 */
+	private static final long TIMEOUT = 20000;
+
+	/**
+	 * Folder of images and results, deleted after each test.
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+
+	/**
+	 * Waits until the mean results have been written for a number of images.
+	 *
+	 * @param file    result file
+	 * @param nImages number of images
+	 *
+	 * @throws Exception if the results are not written in time
+	 */
+	private static void awaitResults(File file, int nImages) throws Exception
+	{
+		long tEnd = System.currentTimeMillis()+TIMEOUT;
+
+		while (System.currentTimeMillis() < tEnd)
+		{
+			if (file.isFile() && FileUtil.readFile(file).contains("# "+nImages+" images evaluated")) return;
+			Thread.sleep(20);
+		}
+
+		fail("Results of "+nImages+" images not written in time");
+	}
+
+
+	/**
+	 * Determines the mean curve of images of a data set.
+	 *
+	 * @param directoryGroundTruth  folder of ground truths
+	 * @param directorySaliencyMaps folder of saliency maps
+	 * @param images                numbers of the images
+	 *
+	 * @return                      mean precision/recall per threshold
+	 */
+	private static double[][] getMean(File directoryGroundTruth, File directorySaliencyMaps, int... images)
+	{
+		List<double[][]> curves = new ArrayList<double[][]>();
+		for (int iImage: images) curves.add(GroundTruth.evaluate(EvaluationFixture.getHistograms(directoryGroundTruth, directorySaliencyMaps, iImage)));
+
+		return EvaluationFixture.getMean(curves);
+	}
+
+
+	/**
+	 * Checks the results after the initial evaluation, after adding a map and after deleting all maps.
+	 *
+	 * @throws Exception if evaluation fails
+	 */
+	@Test
+	public void testUpdates() throws Exception
+	{
+		File directoryGroundTruth  = folder.newFolder("gt");
+		File directorySaliencyMaps = folder.newFolder("sm");
+		File directoryMaps         = folder.newFolder("maps");
+		File directoryResults      = folder.newFolder("result");
+		EvaluationFixture.writeImages(directoryGroundTruth, directoryMaps, 4, 16);
+
+		// a ground truth whose name is contained in the names of other maps, which belong to the longer names
+		FileUtil.copyFile(new File(directoryGroundTruth, "img_00.png"), new File(directoryGroundTruth, "img_0.png"));
+
+		for (int iImage=0; iImage<3; iImage++) moveMap(directoryMaps, directorySaliencyMaps, iImage);
+
+		final WatchEvaluation watch = new WatchEvaluation(directoryGroundTruth, directorySaliencyMaps, directoryResults, 50, false, new EvaluationCache(1024*1024));
+		Thread thread = new Thread()
+		{
+			public void run()
+			{
+				try
+				{
+					watch.watch();
+				}
+				catch (InterruptedException e)
+				{
+					// watching ends
+				}
+				catch (IOException e)
+				{
+					e.printStackTrace();
+				}
+			}
+		};
+		thread.start();
+
+		try
+		{
+			File fileResult = new File(directoryResults, "result_mean.txt");
+
+			awaitResults(fileResult, 3);
+			EvaluationFixture.assertCurveEquals("initial maps", getMean(directoryGroundTruth, directoryMaps, 0, 1, 2), EvaluationFixture.readMeanValues(fileResult));
+
+			moveMap(directoryMaps, directorySaliencyMaps, 3);
+			awaitResults(fileResult, 4);
+			EvaluationFixture.assertCurveEquals("added map", getMean(directoryGroundTruth, directoryMaps, 0, 1, 2, 3), EvaluationFixture.readMeanValues(fileResult));
+
+			for (File file: directorySaliencyMaps.listFiles()) assertTrue(file.delete());
+			awaitResults(fileResult, 0);
+			assertTrue(EvaluationFixture.readRows(fileResult).isEmpty());
+		}
+		finally
+		{
+			thread.interrupt();
+			thread.join();
+		}
+	}
+
+
+	/**
+	 * Copies a saliency map into the watched folder, under a temporary name first so that it appears complete.
+	 *
+	 * @param directoryMaps         folder of all saliency maps
+	 * @param directorySaliencyMaps watched folder
+	 * @param iImage                number of the image
+	 *
+	 * @throws IOException if copying fails
+	 */
+	private static void moveMap(File directoryMaps, File directorySaliencyMaps, int iImage) throws IOException
+	{
+		String fileName = EvaluationFixture.getImageName(iImage)+"_sm.png";
+		File temporaryFile = new File(directorySaliencyMaps.getParentFile(), fileName+".tmp");
+
+		FileUtil.copyFile(new File(directoryMaps, fileName), temporaryFile);
+		assertTrue(temporaryFile.renameTo(new File(directorySaliencyMaps, fileName)));
+	}
+
+}
@@ -0,0 +1,127 @@
+
+package de.unibonn.informatik.ivs.set;
+
+
+import java.util.*;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Compares the weighted F-measure with a direct implementation of the authors' reference implementation:
+ * full 7x7 Gaussian smoothing and distances by brute force. Of several nearest object pixels, the one of the
+ * distance transform is taken, which is checked by {@link DistanceTransformTest}.
+ *
+ * @version		2026.1018
+ *
+ */
+public class WeightedFMeasureTest
+{
+
+	/**
+	 * Checks random maps against random masks.
+	 */
+	@Test
+	public void testReference()
+	{
+		Random random = new Random(2);
+
+		for (int iMap=0; iMap<150; iMap++)
+		{
+			int width  = 1+random.nextInt(40);
+			int height = 1+random.nextInt(30);
+			boolean[] mask = DistanceTransformTest.createMask(random, width, height, iMap%3);
+
+			int[] saliencyValues = new int[mask.length];
+			for (int i=0; i<mask.length; i++) saliencyValues[i] = mask[i] ? 100+random.nextInt(156) : random.nextInt(120);
+
+			GroundTruth gt = new GroundTruth("test", width, height, mask);
+			double expected = getReference(mask, saliencyValues, width, height, gt.getDistanceTransform().getNearest());
+
+			if (Double.isNaN(expected)) assertTrue(Double.isNaN(WeightedFMeasure.evaluate(gt, saliencyValues, null)));
+			else assertEquals("map "+iMap, expected, WeightedFMeasure.evaluate(gt, saliencyValues, null), 1e-12);
+		}
+	}
+
+
+	/**
+	 * Checks that a map equal to the ground truth is perfect.
+	 */
+	@Test
+	public void testPerfectMap()
+	{
+		boolean[] mask = DistanceTransformTest.createMask(new Random(3), 30, 20, 2);
+		int[] saliencyValues = new int[mask.length];
+		for (int i=0; i<mask.length; i++) saliencyValues[i] = mask[i] ? 255 : 0;
+
+		assertEquals(1.0, WeightedFMeasure.evaluate(new GroundTruth("test", 30, 20, mask), saliencyValues, null), 1e-12);
+	}
+
+
+	/**
+	 * Determines the weighted F-measure directly.
+	 *
+	 * @param mask           ground truth row by row
+	 * @param saliencyValues saliency values row by row
+	 * @param width          width of the images
+	 * @param height         height of the images
+	 * @param nearest        index of a nearest object pixel row by row
+	 *
+	 * @return               weighted F-measure, NaN without object
+	 */
+	private static double getReference(boolean[] mask, int[] saliencyValues, int width, int height, int[] nearest)
+	{
+		int n = width*height;
+		double epsilon = Math.ulp(1.0);
+
+		double[] errors = new double[n];
+		for (int i=0; i<n; i++) errors[i] = Math.abs(saliencyValues[i]/255.0 - (mask[i] ? 1.0 : 0.0));
+
+		// distance to the nearest object pixel
+		double[] distances = new double[n];
+		boolean anyObject = false;
+		for (int i=0; i<n; i++)
+		{
+			distances[i] = Double.MAX_VALUE;
+			for (int j=0; j<n; j++)
+			{
+				if (mask[j]) distances[i] = Math.min(distances[i], Math.hypot(i%width-j%width, i/width-j/width));
+			}
+			anyObject |= mask[i];
+		}
+		if (!anyObject) return Double.NaN;
+
+		double[][] kernel = new double[7][7];
+		double kernelSum = 0.0;
+		for (int dy=-3; dy<=3; dy++) for (int dx=-3; dx<=3; dx++) kernelSum += kernel[dy+3][dx+3] = Math.exp(-(dx*dx+dy*dy)/50.0);
+
+		double objectErrorSum = 0.0, backgroundErrorSum = 0.0;
+		int nObject = 0;
+		for (int i=0; i<n; i++)
+		{
+			if (mask[i])
+			{
+				double smoothed = 0.0;
+				for (int dy=-3; dy<=3; dy++)
+				{
+					for (int dx=-3; dx<=3; dx++)
+					{
+						int x = i%width+dx, y = i/width+dy;
+						if (x >= 0 && y >= 0 && x < width && y < height) smoothed += kernel[dy+3][dx+3]/kernelSum * errors[nearest[y*width+x]];
+					}
+				}
+				objectErrorSum += Math.min(errors[i], smoothed);
+				nObject++;
+			}
+			else backgroundErrorSum += errors[i] * (2.0 - Math.exp(Math.log(0.5)/5.0 * distances[i]));
+		}
+
+		double truePositives = nObject - objectErrorSum;
+		double recall        = 1.0 - objectErrorSum/nObject;
+		double precision     = truePositives / (epsilon + truePositives + backgroundErrorSum);
+
+		return 2.0 * recall * precision / (epsilon + recall + precision);
+	}
+
+}
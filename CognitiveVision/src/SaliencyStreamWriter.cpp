@@ -0,0 +1,60 @@
+/*
+ * SaliencyStreamWriter.cpp
+ *
+ *  Created on: 18-Oct-2026
+ */
+#include <opencv2/core/core.hpp>
+#include <opencv2/imgproc/imgproc.hpp>
+
+#include <stdexcept>
+
+#include "SaliencyStreamWriter.h"
+
+SaliencyStreamWriter::SaliencyStreamWriter(std::ostream & out) :
+		out_(out) {
+}
+
+bool SaliencyStreamWriter::write(const std::string & name, const cv::Mat & map) {
+	// the name length is a 16 bit field, a frame written in part would corrupt the stream
+	if (name.size() > 0xFFFF) {
+		throw std::invalid_argument("SaliencyStreamWriter: name longer than 65535 bytes");
+	}
+
+	cv::Mat grey = map;
+	if (grey.channels() == 3) {
+		cv::cvtColor(grey, grey, cv::COLOR_BGR2GRAY);
+	} else if (grey.channels() == 4) {
+		cv::cvtColor(grey, grey, cv::COLOR_BGRA2GRAY);
+	} else if (grey.channels() != 1) {
+		throw std::invalid_argument("SaliencyStreamWriter: maps must have 1, 3 (BGR) or 4 (BGRA) channels");
+	}
+
+	if (grey.depth() == CV_16U) {
+		grey.convertTo(grey, CV_8U, 1.0 / 257.0);
+	} else if (grey.depth() != CV_8U) {
+		// saturates values outside of [0.0; 1.0]
+		grey.convertTo(grey, CV_8U, 255.0);
+	}
+
+	writeNumber(name.size(), 2);
+	out_.write(name.data(), name.size());
+	writeNumber(grey.cols, 4);
+	writeNumber(grey.rows, 4);
+
+	for (int y = 0; y < grey.rows; ++y) {
+		out_.write(reinterpret_cast<const char *>(grey.ptr<uchar>(y)), grey.cols);
+	}
+
+	out_.flush();
+	return out_.good();
+}
+
+void SaliencyStreamWriter::writeNumber(unsigned long value, int bytes) {
+	for (int i = bytes - 1; i >= 0; --i) {
+		out_.put(static_cast<char>((value >> (8 * i)) & 0xFF));
+	}
+}
+
+SaliencyStreamWriter::~SaliencyStreamWriter() {
+
+}
@@ -0,0 +1,38 @@
+/*
+ * SaliencyStreamWriter.h
+ *
+ *  Created on: 18-Oct-2026
+ */
+
+#ifndef SRC_SALIENCYSTREAMWRITER_H_
+#define SRC_SALIENCYSTREAMWRITER_H_
+
+#include <opencv2/core/core.hpp>
+
+#include <iostream>
+#include <string>
+
+// Writes saliency maps as raw frames for the SaliencyEvaluationTool (pathSM=-),
+// so that maps are evaluated as they are computed, without PNG files in between:
+//   ./DisplayImage | java -jar SaliencyEvaluationTool.jar pathGT=<gt> pathSM=-
+// Frame: name length (2 bytes), name, width, height (4 bytes each), width*height
+// grey values (1 byte each), numbers big-endian. Nothing else may be written to
+// the stream, so text output of the program has to go to std::cerr.
+class SaliencyStreamWriter {
+public:
+	SaliencyStreamWriter(std::ostream & out = std::cout);
+	virtual ~SaliencyStreamWriter();
+
+	// Writes a greyscale map. 8 bit maps are written as they are, float maps are
+	// expected in [0.0; 1.0] and 16 bit maps in [0; 65535]; BGR and BGRA maps are
+	// converted to grey. Returns false if the stream failed, e.g. because the
+	// evaluation has stopped reading. Throws std::invalid_argument for other
+	// numbers of channels and names longer than 65535 bytes.
+	bool write(const std::string & name, const cv::Mat & map);
+private:
+	void writeNumber(unsigned long value, int bytes);
+
+	std::ostream & out_;
+};
+
+#endif /* SRC_SALIENCYSTREAMWRITER_H_ */